@@ -0,0 +1,165 @@
+package com.coffeeshop.benchmark;
+
+import com.coffeeshop.entity.Category;
+import com.coffeeshop.entity.Order;
+import com.coffeeshop.entity.OrderItem;
+import com.coffeeshop.entity.Product;
+import com.coffeeshop.entity.Reservation;
+import com.coffeeshop.entity.TableEntity;
+import com.coffeeshop.entity.User;
+import com.coffeeshop.enums.OrderItemStatus;
+import com.coffeeshop.enums.OrderStatus;
+import com.coffeeshop.enums.PaymentStatus;
+import com.coffeeshop.enums.ReservationStatus;
+import com.coffeeshop.enums.TableStatus;
+import com.coffeeshop.enums.UserRole;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Dữ liệu mẫu dựng trong bộ nhớ cho các benchmark. Seed cố định để các lần chạy so sánh được với nhau.
+ */
+final class BenchmarkData {
+
+    static final String[] PRODUCT_NAMES = {"Espresso", "Latte", "Cappuccino", "Americano", "Mocha",
+            "Green tea", "Matcha latte", "Cold brew", "Croissant", "Cheesecake"};
+    static final String[] LOCATIONS = {"Indoor", "Outdoor", "Terrace", "Upstairs"};
+
+    private BenchmarkData() {
+    }
+
+    // Repository/service giả chỉ trả dữ liệu, không ghi lại lời gọi (tránh tốn bộ nhớ khi benchmark chạy lâu)
+    static <T> T stub(Class<T> type) {
+        return Mockito.mock(type, Mockito.withSettings().stubOnly());
+    }
+
+    // Gán dependency cho các trường @Autowired private
+    static void inject(Object target, String field, Object value) {
+        ReflectionTestUtils.setField(target, field, value);
+    }
+
+    static User customer() {
+        User user = new User();
+        user.setId(1);
+        user.setUsername("bench");
+        user.setEmail("bench@example.com");
+        user.setFullName("Bench Customer");
+        user.setRole(UserRole.ROLE_CUSTOMER);
+        user.setIsActive(true);
+        return user;
+    }
+
+    static List<Category> categories(int count) {
+        List<Category> categories = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            Category category = new Category();
+            category.setId(i);
+            category.setName("Category " + i);
+            category.setIsActive(true);
+            category.setDisplayOrder(i);
+            categories.add(category);
+        }
+        return categories;
+    }
+
+    static List<Product> products(int count, List<Category> categories) {
+        Random random = new Random(42);
+        LocalDateTime now = LocalDateTime.now();
+        List<Product> products = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            Product product = new Product();
+            product.setId(i);
+            product.setName(PRODUCT_NAMES[i % PRODUCT_NAMES.length] + " " + i);
+            product.setDescription("Món thứ " + i);
+            product.setPrice(BigDecimal.valueOf(15_000 + random.nextInt(60) * 1_000L));
+            product.setCategory(categories.get(i % categories.size()));
+            product.setIsAvailable(random.nextInt(10) != 0);
+            product.setPreparationTime(5 + random.nextInt(10));
+            product.setDisplayOrder(i);
+            product.setCreatedAt(now);
+            product.setUpdatedAt(now);
+            products.add(product);
+        }
+        return products;
+    }
+
+    // count bàn chia đều vào các khu vực, sức chứa 2/4/6
+    static List<TableEntity> tables(int count) {
+        List<TableEntity> tables = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            TableEntity table = new TableEntity();
+            table.setId(i);
+            table.setTableNumber("T" + i);
+            table.setCapacity(2 + (i % 3) * 2);
+            table.setLocation(LOCATIONS[i % LOCATIONS.length]);
+            table.setStatus(TableStatus.AVAILABLE);
+            table.setIsActive(true);
+            tables.add(table);
+        }
+        return tables;
+    }
+
+    // Đặt bàn rải đều trong khoảng hours giờ kể từ start, khoảng 1/10 có ghép thêm một bàn
+    static List<Reservation> reservations(int count, List<TableEntity> tables, LocalDateTime start, int hours) {
+        Random random = new Random(7);
+        User customer = customer();
+        List<Reservation> reservations = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            Reservation reservation = new Reservation();
+            reservation.setId(i);
+            reservation.setCustomer(customer);
+            TableEntity table = tables.get(random.nextInt(tables.size()));
+            reservation.setTable(table);
+            HashSet<TableEntity> joined = new HashSet<>();
+            if (random.nextInt(10) == 0) {
+                joined.add(tables.get(random.nextInt(tables.size())));
+            }
+            reservation.setJoinedTables(joined);
+            reservation.setReservationDatetime(start.plusMinutes(random.nextInt(hours * 60)));
+            reservation.setPartySize(1 + random.nextInt(table.getCapacity()));
+            reservation.setStatus(ReservationStatus.CONFIRMED);
+            reservations.add(reservation);
+        }
+        return reservations;
+    }
+
+    static Order order(int id, User customer, TableEntity table) {
+        Order order = new Order();
+        order.setId(id);
+        order.setCustomer(customer);
+        order.setTable(table);
+        order.setOrderNumber("ORD-BENCH" + id);
+        order.setStatus(OrderStatus.PREPARING);
+        order.setPaymentStatus(PaymentStatus.PAID);
+        order.setSubtotal(BigDecimal.valueOf(100_000));
+        order.setTaxAmount(BigDecimal.valueOf(10_000));
+        order.setTotalAmount(BigDecimal.valueOf(110_000));
+        order.setCreatedAt(LocalDateTime.now());
+        order.setUpdatedAt(LocalDateTime.now());
+        return order;
+    }
+
+    static List<OrderItem> orderItems(Order order, List<Product> products, int count) {
+        List<OrderItem> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Product product = products.get((order.getId() + i) % products.size());
+            OrderItem item = new OrderItem();
+            item.setId(order.getId() * 100 + i);
+            item.setOrder(order);
+            item.setProduct(product);
+            item.setQuantity(1 + i % 3);
+            item.setUnitPrice(product.getPrice());
+            item.setTotalPrice(product.getPrice().multiply(BigDecimal.valueOf(item.getQuantity())));
+            item.setStatus(OrderItemStatus.ORDERED);
+            items.add(item);
+        }
+        return items;
+    }
+}
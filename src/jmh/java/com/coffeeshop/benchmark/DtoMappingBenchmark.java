@@ -0,0 +1,109 @@
+package com.coffeeshop.benchmark;
+
+import com.coffeeshop.dto.admin.response.AdminProductResponseDTO;
+import com.coffeeshop.dto.customer.response.CustomerOrderResponseDTO;
+import com.coffeeshop.dto.customer.response.CustomerProductResponseDTO;
+import com.coffeeshop.entity.Order;
+import com.coffeeshop.entity.OrderItem;
+import com.coffeeshop.entity.Product;
+import com.coffeeshop.entity.TableEntity;
+import com.coffeeshop.entity.User;
+import com.coffeeshop.repository.OrderItemRepository;
+import com.coffeeshop.repository.OrderRepository;
+import com.coffeeshop.repository.UserRepository;
+import com.coffeeshop.service.KitchenQueueService;
+import com.coffeeshop.service.OrderService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+/**
+ * Map entity sang DTO: danh sách đơn của khách (toCustomerOrderResponseDTO, mỗi đơn 5 món)
+ * và danh sách sản phẩm (AdminProductResponseDTO / CustomerProductResponseDTO.fromEntity).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DtoMappingBenchmark {
+
+    @Param({"10", "100"})
+    int orderCount;
+
+    @Param({"100", "1000"})
+    int productCount;
+
+    private OrderService orderService;
+    private List<Product> products;
+
+    @Setup
+    public void setup() {
+        User customer = BenchmarkData.customer();
+        products = BenchmarkData.products(productCount, BenchmarkData.categories(8));
+        List<TableEntity> tables = BenchmarkData.tables(20);
+
+        List<Order> orders = new ArrayList<>(orderCount);
+        Map<Integer, List<OrderItem>> itemsByOrder = new HashMap<>();
+        for (int i = 1; i <= orderCount; i++) {
+            Order order = BenchmarkData.order(i, customer, tables.get(i % tables.size()));
+            orders.add(order);
+            itemsByOrder.put(order.getId(), BenchmarkData.orderItems(order, products, 5));
+        }
+
+        UserRepository userRepository = BenchmarkData.stub(UserRepository.class);
+        when(userRepository.findByUsername(anyString())).thenReturn(Optional.of(customer));
+        OrderRepository orderRepository = BenchmarkData.stub(OrderRepository.class);
+        when(orderRepository.findByCustomerOrderByCreatedAtDesc(any(User.class))).thenReturn(orders);
+        OrderItemRepository orderItemRepository = BenchmarkData.stub(OrderItemRepository.class);
+        when(orderItemRepository.findByOrder_Id(anyInt()))
+                .thenAnswer(invocation -> itemsByOrder.get(invocation.<Integer>getArgument(0)));
+
+        orderService = new OrderService();
+        BenchmarkData.inject(orderService, "userRepository", userRepository);
+        BenchmarkData.inject(orderService, "orderRepository", orderRepository);
+        BenchmarkData.inject(orderService, "orderItemRepository", orderItemRepository);
+        BenchmarkData.inject(orderService, "kitchenQueueService", BenchmarkData.stub(KitchenQueueService.class));
+    }
+
+    @Benchmark
+    public List<CustomerOrderResponseDTO> customerOrders() {
+        return orderService.getCustomerOrdersByUsername("bench");
+    }
+
+    @Benchmark
+    public void adminProducts(Blackhole blackhole) {
+        for (Product product : products) {
+            blackhole.consume(AdminProductResponseDTO.fromEntity(product));
+        }
+    }
+
+    @Benchmark
+    public void customerProducts(Blackhole blackhole) {
+        for (Product product : products) {
+            blackhole.consume(CustomerProductResponseDTO.fromEntity(product));
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.coffeeshop.benchmark;
+
+import com.coffeeshop.security.JwtUtils;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Xác thực JWT như JwtAuthenticationFilter làm với mỗi request: kiểm tra chữ ký rồi đọc username.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtBenchmark {
+
+    private JwtUtils jwtUtils;
+    private String token;
+    private String tamperedToken;
+
+    @Setup
+    public void setup() {
+        jwtUtils = new JwtUtils();
+        BenchmarkData.inject(jwtUtils, "jwtSecret", "benchmark-secret-key-at-least-256-bits-long!!");
+        BenchmarkData.inject(jwtUtils, "jwtExpirationMs", 3_600_000L);
+        BenchmarkData.inject(jwtUtils, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.invokeMethod(jwtUtils, "initMetrics");
+        token = jwtUtils.generateJwtToken("bench");
+        tamperedToken = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+    }
+
+    @Benchmark
+    public String generate() {
+        return jwtUtils.generateJwtToken("bench");
+    }
+
+    @Benchmark
+    public boolean validate() {
+        return jwtUtils.validateJwtToken(token);
+    }
+
+    // Luồng đầy đủ của filter với token hợp lệ
+    @Benchmark
+    public String validateAndReadUsername() {
+        return jwtUtils.validateJwtToken(token) ? jwtUtils.getUsernameFromJwtToken(token) : null;
+    }
+
+    @Benchmark
+    public boolean rejectBadSignature() {
+        return jwtUtils.validateJwtToken(tamperedToken);
+    }
+}
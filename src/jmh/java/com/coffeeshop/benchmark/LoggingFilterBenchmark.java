@@ -0,0 +1,146 @@
+package com.coffeeshop.benchmark;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.OutputStreamAppender;
+import com.coffeeshop.config.RequestCorrelationFilter;
+import com.coffeeshop.security.JwtAuthenticationFilter;
+import com.coffeeshop.security.JwtUtils;
+import com.coffeeshop.service.CustomUserDetailsService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Thông lượng của chuỗi filter mỗi request phải qua (RequestCorrelationFilter -> JwtAuthenticationFilter
+ * -> handler) khi log bật: appender ghi đồng bộ so với AsyncAppender, ở mức INFO (không ghi dòng nào)
+ * và DEBUG (vài dòng mỗi request, có MDC). Appender ghi vào OutputStream rỗng để chỉ đo phần định
+ * dạng và tranh chấp khóa, không đo tốc độ terminal.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class LoggingFilterBenchmark {
+
+    private static final Logger handlerLogger = LoggerFactory.getLogger("com.coffeeshop.controller.Benchmark");
+
+    @Param({"sync", "async"})
+    private String appender;
+
+    @Param({"INFO", "DEBUG"})
+    private String level;
+
+    private RequestCorrelationFilter correlationFilter;
+    private JwtAuthenticationFilter jwtFilter;
+    private FilterChain handler;
+    private String authorization;
+    private Appender<ILoggingEvent> root;
+
+    @Setup
+    public void setup() {
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        context.reset();
+
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern("{\"@timestamp\":\"%d{yyyy-MM-dd'T'HH:mm:ss.SSSXXX}\",\"level\":\"%level\",\"thread\":\"%thread\","
+                + "\"logger\":\"%logger\",\"message\":\"%message\",\"requestId\":\"%X{requestId}\",\"user\":\"%X{user}\"}%n");
+        encoder.start();
+
+        OutputStreamAppender<ILoggingEvent> output = new OutputStreamAppender<>();
+        output.setContext(context);
+        output.setName("NULL");
+        output.setEncoder(encoder);
+        output.setOutputStream(OutputStream.nullOutputStream());
+        output.start();
+
+        if ("async".equals(appender)) {
+            AsyncAppender async = new AsyncAppender();
+            async.setContext(context);
+            async.setName("ASYNC");
+            async.setQueueSize(8192);
+            async.setNeverBlock(true);
+            async.setIncludeCallerData(false);
+            async.addAppender(output);
+            async.start();
+            root = async;
+        } else {
+            root = output;
+        }
+        ch.qos.logback.classic.Logger rootLogger = context.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME);
+        rootLogger.setLevel(Level.INFO);
+        rootLogger.addAppender(root);
+        context.getLogger("com.coffeeshop").setLevel(Level.toLevel(level));
+
+        JwtUtils jwtUtils = new JwtUtils();
+        BenchmarkData.inject(jwtUtils, "jwtSecret", "benchmark-secret-key-at-least-256-bits-long!!");
+        BenchmarkData.inject(jwtUtils, "jwtExpirationMs", 3_600_000L);
+        BenchmarkData.inject(jwtUtils, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.invokeMethod(jwtUtils, "initMetrics");
+        authorization = "Bearer " + jwtUtils.generateJwtToken("bench");
+
+        UserDetails user = User.withUsername("bench").password("x").authorities("ROLE_CUSTOMER").build();
+        CustomUserDetailsService userDetailsService = new CustomUserDetailsService() {
+            @Override
+            public UserDetails loadUserByUsername(String username) {
+                return user;
+            }
+        };
+
+        correlationFilter = new RequestCorrelationFilter();
+        jwtFilter = new JwtAuthenticationFilter();
+        BenchmarkData.inject(jwtFilter, "jwtUtils", jwtUtils);
+        BenchmarkData.inject(jwtFilter, "userDetailsService", userDetailsService);
+        handler = (request, response) -> handlerLogger.debug("Handled {}", ((MockHttpServletRequest) request).getRequestURI());
+    }
+
+    @TearDown
+    public void tearDown() {
+        root.stop();
+    }
+
+    @Benchmark
+    public int filterChain() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/orders/my");
+        request.addHeader("Authorization", authorization);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        try {
+            correlationFilter.doFilter(request, response,
+                    (req, res) -> jwtFilter.doFilter(req, res, handler));
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+        return response.getStatus();
+    }
+}
@@ -0,0 +1,132 @@
+package com.coffeeshop.benchmark;
+
+import com.coffeeshop.dto.customer.request.CustomerOrderRequestDTO;
+import com.coffeeshop.dto.customer.response.CustomerOrderResponseDTO;
+import com.coffeeshop.dto.shared.OrderItemDTO;
+import com.coffeeshop.entity.Order;
+import com.coffeeshop.entity.OrderItem;
+import com.coffeeshop.entity.Product;
+import com.coffeeshop.entity.TableEntity;
+import com.coffeeshop.entity.User;
+import com.coffeeshop.repository.OrderItemRepository;
+import com.coffeeshop.repository.OrderRepository;
+import com.coffeeshop.repository.ProductRepository;
+import com.coffeeshop.repository.TableRepository;
+import com.coffeeshop.repository.UserRepository;
+import com.coffeeshop.service.BoardService;
+import com.coffeeshop.service.DomainEventPublisher;
+import com.coffeeshop.service.KitchenQueueService;
+import com.coffeeshop.service.NotificationService;
+import com.coffeeshop.service.OrderNumberGenerator;
+import com.coffeeshop.service.OrderService;
+import com.coffeeshop.service.SettingService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+/**
+ * OrderService.createOrderWithItems: tra giá từng món, tính tạm tính, thuế và tổng tiền.
+ * Repository là stub trong bộ nhớ, nên số đo gồm phần tính toán và dựng entity, không gồm DB.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderCreationBenchmark {
+
+    @Param({"1", "10", "50"})
+    int itemCount;
+
+    private OrderService orderService;
+    private CustomerOrderRequestDTO request;
+    private User customer;
+
+    @Setup
+    public void setup() {
+        customer = BenchmarkData.customer();
+        List<Product> products = BenchmarkData.products(100, BenchmarkData.categories(5));
+        Map<Integer, Product> productsById = products.stream().collect(Collectors.toMap(Product::getId, Function.identity()));
+        TableEntity table = BenchmarkData.tables(1).get(0);
+
+        List<OrderItemDTO> items = new ArrayList<>(itemCount);
+        for (int i = 0; i < itemCount; i++) {
+            items.add(new OrderItemDTO(products.get(i % products.size()).getId(), 1 + i % 3));
+        }
+        request = new CustomerOrderRequestDTO();
+        request.setTableId(table.getId());
+        request.setItems(items);
+
+        ProductRepository productRepository = BenchmarkData.stub(ProductRepository.class);
+        when(productRepository.findById(anyInt()))
+                .thenAnswer(invocation -> Optional.ofNullable(productsById.get(invocation.<Integer>getArgument(0))));
+        TableRepository tableRepository = BenchmarkData.stub(TableRepository.class);
+        when(tableRepository.findById(anyInt())).thenReturn(Optional.of(table));
+        UserRepository userRepository = BenchmarkData.stub(UserRepository.class);
+        when(userRepository.findByUsername(anyString())).thenReturn(Optional.of(customer));
+        SettingService settingService = BenchmarkData.stub(SettingService.class);
+        when(settingService.getTaxRate()).thenReturn(new BigDecimal("0.10"));
+
+        AtomicInteger ids = new AtomicInteger();
+        OrderRepository orderRepository = BenchmarkData.stub(OrderRepository.class);
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> {
+            Order order = invocation.getArgument(0);
+            order.setId(ids.incrementAndGet());
+            return order;
+        });
+        // Món của đơn vừa lưu, để phần map DTO đọc lại như khi đọc từ DB
+        List<OrderItem> savedItems = BenchmarkData.orderItems(BenchmarkData.order(1, customer, table), products, itemCount);
+        OrderItemRepository orderItemRepository = BenchmarkData.stub(OrderItemRepository.class);
+        when(orderItemRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(orderItemRepository.findByOrder_Id(anyInt())).thenReturn(savedItems);
+
+        orderService = new OrderService();
+        BenchmarkData.inject(orderService, "productRepository", productRepository);
+        BenchmarkData.inject(orderService, "tableRepository", tableRepository);
+        BenchmarkData.inject(orderService, "userRepository", userRepository);
+        BenchmarkData.inject(orderService, "settingService", settingService);
+        BenchmarkData.inject(orderService, "orderRepository", orderRepository);
+        BenchmarkData.inject(orderService, "orderItemRepository", orderItemRepository);
+        BenchmarkData.inject(orderService, "orderNumberGenerator", new OrderNumberGenerator(1));
+        BenchmarkData.inject(orderService, "notificationService", BenchmarkData.stub(NotificationService.class));
+        BenchmarkData.inject(orderService, "kitchenQueueService", BenchmarkData.stub(KitchenQueueService.class));
+        BenchmarkData.inject(orderService, "boardService", BenchmarkData.stub(BoardService.class));
+        BenchmarkData.inject(orderService, "domainEventPublisher", BenchmarkData.stub(DomainEventPublisher.class));
+    }
+
+    @Benchmark
+    public Order createOrderWithItems() {
+        return orderService.createOrderWithItems(request, customer);
+    }
+
+    // Như endpoint POST /api/orders: tạo đơn rồi map sang CustomerOrderResponseDTO
+    @Benchmark
+    public CustomerOrderResponseDTO createOrderWithItemsAndMap() {
+        return orderService.createOrderWithItems(request, customer.getUsername());
+    }
+}
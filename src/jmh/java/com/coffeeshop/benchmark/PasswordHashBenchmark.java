@@ -0,0 +1,87 @@
+package com.coffeeshop.benchmark;
+
+import com.coffeeshop.security.PasswordHashingExecutor;
+import com.coffeeshop.security.TunableBCryptPasswordEncoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Chi phí BCrypt theo app.bcryptStrength: số lần đăng nhập (matches) mỗi giây trên một luồng, trên mọi core,
+ * và khi một loạt đăng nhập cùng lúc đi qua PasswordHashingExecutor như /api/auth/login.
+ * Kết quả đơn luồng xấp xỉ số đăng nhập/giây/core cho mỗi mức cost.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class PasswordHashBenchmark {
+
+    private static final String PASSWORD = "secret123";
+
+    @Param({"10", "12"})
+    int strength;
+
+    // Số đăng nhập đồng thời gửi vào PasswordHashingExecutor trong một lượt
+    @Param({"64"})
+    int batchSize;
+
+    private TunableBCryptPasswordEncoder encoder;
+    private PasswordHashingExecutor hashingExecutor;
+    private String hash;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        encoder = new TunableBCryptPasswordEncoder(strength);
+        hashingExecutor = new PasswordHashingExecutor(0, batchSize);
+        hash = encoder.encode(PASSWORD);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        hashingExecutor.shutdown();
+    }
+
+    @Benchmark
+    public String encode() {
+        return encoder.encode(PASSWORD);
+    }
+
+    @Benchmark
+    public boolean matches() {
+        return encoder.matches(PASSWORD, hash);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public boolean matchesAllCores() {
+        return encoder.matches(PASSWORD, hash);
+    }
+
+    // Một lượt = batchSize đăng nhập; nhân throughput với batchSize để ra số đăng nhập/giây
+    @Benchmark
+    public boolean matchesBatchOnExecutor() {
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[batchSize];
+        for (int i = 0; i < batchSize; i++) {
+            futures[i] = hashingExecutor.submit(() -> encoder.matches(PASSWORD, hash));
+        }
+        CompletableFuture.allOf(futures).join();
+        return futures[batchSize - 1].join() == Boolean.TRUE;
+    }
+}
@@ -0,0 +1,158 @@
+package com.coffeeshop.benchmark;
+
+import com.coffeeshop.CoffeeShopApplication;
+import com.coffeeshop.dto.customer.request.CustomerOrderRequestDTO;
+import com.coffeeshop.dto.customer.response.CustomerOrderResponseDTO;
+import com.coffeeshop.dto.shared.OrderItemDTO;
+import com.coffeeshop.scheduler.AutoScheduler;
+import com.coffeeshop.service.OrderService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tạo đơn và các job chuyển trạng thái hàng loạt của AutoScheduler chạy trên ứng dụng thật (H2 trong bộ nhớ,
+ * dữ liệu mẫu của load-seed.sql), so sánh cấu hình mặc định với profile prod (tắt in SQL, batch JDBC, cache
+ * statement). Chạy từ thư mục gốc của project:
+ *   mvn -Pjmh verify -DskipTests -Djmh.args="PersistenceProfileBenchmark"
+ *
+ * Trên H2 các thuộc tính riêng của MySQL Connector/J trong profile prod (rewriteBatchedStatements, cachePrepStmts...)
+ * bị bỏ qua, nên chênh lệch đo được chỉ gồm phần in SQL và batch của Hibernate; trên MySQL chênh lệch sẽ lớn hơn.
+ * Sự kiện outbox sinh ra được relay phát ở nền trong lúc đo, như khi chạy thật.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class PersistenceProfileBenchmark {
+
+    // Số đơn mỗi lượt chạy job hàng loạt
+    private static final int BULK_ORDERS = 200;
+
+    @Param({"default", "prod"})
+    String profile;
+
+    private ConfigurableApplicationContext context;
+    private OrderService orderService;
+    private AutoScheduler autoScheduler;
+    private JdbcTemplate jdbcTemplate;
+    private List<Integer> productIds;
+    private List<Integer> tableIds;
+    private List<Integer> bulkOrderIds;
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        // Truyền như tham số dòng lệnh để được ưu tiên hơn application.properties và application-prod.properties
+        Map<String, String> properties = new LinkedHashMap<>();
+        properties.put("spring.datasource.url", "jdbc:h2:mem:coffeeshop_bench;MODE=MySQL;DB_CLOSE_DELAY=-1");
+        properties.put("spring.datasource.driver-class-name", "org.h2.Driver");
+        properties.put("spring.datasource.username", "sa");
+        properties.put("spring.datasource.password", "");
+        properties.put("spring.jpa.properties.hibernate.dialect", "org.hibernate.dialect.H2Dialect");
+        properties.put("spring.jpa.hibernate.ddl-auto", "create");
+        properties.put("spring.sql.init.mode", "always");
+        properties.put("spring.sql.init.data-locations", "file:src/load/resources/load-seed.sql");
+        properties.put("spring.jpa.defer-datasource-initialization", "true");
+        properties.put("spring.devtools.restart.enabled", "false");
+        properties.put("server.port", "0");
+        // Job chạy cả ngày để gọi trực tiếp được; lượt chạy nền mỗi 60 giây chỉ gặp đơn đã được chuyển
+        properties.put("scheduler.opening-time", "00:00");
+        properties.put("scheduler.closing-time", "23:59");
+        properties.put("logging.level.root", "WARN");
+
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(CoffeeShopApplication.class);
+        if (!"default".equals(profile)) {
+            builder.profiles(profile);
+        }
+        context = builder.run(properties.entrySet().stream()
+                .map(property -> "--" + property.getKey() + "=" + property.getValue())
+                .toArray(String[]::new));
+        orderService = context.getBean(OrderService.class);
+        autoScheduler = context.getBean(AutoScheduler.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        productIds = jdbcTemplate.queryForList("SELECT id FROM products", Integer.class);
+        tableIds = jdbcTemplate.queryForList("SELECT id FROM tables", Integer.class);
+
+        bulkOrderIds = new ArrayList<>(BULK_ORDERS);
+        for (int i = 0; i < BULK_ORDERS; i++) {
+            bulkOrderIds.add(createOrder().getId());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+
+    // Đưa các đơn của lô về trạng thái đầu của job, quá hạn từ hôm qua
+    @Setup(Level.Invocation)
+    public void resetBulkOrders(BenchmarkParams params) {
+        String status;
+        if (params.getBenchmark().endsWith(".bulkPaidToPreparing")) {
+            status = "PAID";
+        } else if (params.getBenchmark().endsWith(".servedToCompleted")) {
+            status = "SERVED";
+        } else {
+            return;
+        }
+        LocalDateTime yesterday = LocalDateTime.now().minusDays(1);
+        List<Object[]> args = new ArrayList<>(bulkOrderIds.size());
+        for (Integer id : bulkOrderIds) {
+            args.add(new Object[] {status, yesterday, id});
+        }
+        jdbcTemplate.batchUpdate("UPDATE orders SET status = ?, updated_at = ? WHERE id = ?", args);
+    }
+
+    @Benchmark
+    public CustomerOrderResponseDTO createOrderWithItems() {
+        return createOrder();
+    }
+
+    // Một câu UPDATE cho cả lô rồi phát sự kiện cho từng đơn
+    @Benchmark
+    public void bulkPaidToPreparing() {
+        autoScheduler.autoPaidToPreparing();
+    }
+
+    // Nạp các đơn SERVED quá hạn rồi chuyển từng đơn có điều kiện trong một transaction
+    @Benchmark
+    public void servedToCompleted() {
+        autoScheduler.autoServedToCompleted();
+    }
+
+    private CustomerOrderResponseDTO createOrder() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<OrderItemDTO> items = new ArrayList<>(3);
+        for (int i = 0; i < 3; i++) {
+            items.add(new OrderItemDTO(productIds.get(random.nextInt(productIds.size())), 1 + random.nextInt(2)));
+        }
+        CustomerOrderRequestDTO request = new CustomerOrderRequestDTO();
+        request.setTableId(tableIds.get(random.nextInt(tableIds.size())));
+        request.setItems(items);
+        return orderService.createOrderWithItems(request, "admin");
+    }
+}
@@ -0,0 +1,66 @@
+package com.coffeeshop.benchmark;
+
+import com.coffeeshop.dto.customer.response.CustomerProductResponseDTO;
+import com.coffeeshop.entity.Product;
+import com.coffeeshop.repository.ProductRepository;
+import com.coffeeshop.service.impl.ProductServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.when;
+
+/**
+ * ProductServiceImpl.getFilteredCustomerProducts: lọc theo trạng thái, danh mục, từ khóa, sắp xếp theo giá
+ * rồi map DTO, trên danh sách sản phẩm trả về từ repository.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductFilterBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    int productCount;
+
+    private ProductServiceImpl productService;
+
+    @Setup
+    public void setup() {
+        List<Product> products = BenchmarkData.products(productCount, BenchmarkData.categories(8));
+        ProductRepository productRepository = BenchmarkData.stub(ProductRepository.class);
+        when(productRepository.findAll()).thenReturn(products);
+
+        productService = new ProductServiceImpl();
+        BenchmarkData.inject(productService, "productRepository", productRepository);
+    }
+
+    // Trang thực đơn mặc định: không lọc, không sắp xếp
+    @Benchmark
+    public List<CustomerProductResponseDTO> unfiltered() {
+        return productService.getFilteredCustomerProducts(null, null, "");
+    }
+
+    @Benchmark
+    public List<CustomerProductResponseDTO> categorySortedByPrice() {
+        return productService.getFilteredCustomerProducts(3, null, "price,asc");
+    }
+
+    @Benchmark
+    public List<CustomerProductResponseDTO> searchSortedByPriceDesc() {
+        return productService.getFilteredCustomerProducts(null, "latte", "price,desc");
+    }
+}
@@ -0,0 +1,100 @@
+package com.coffeeshop.benchmark;
+
+import com.coffeeshop.entity.Reservation;
+import com.coffeeshop.entity.TableEntity;
+import com.coffeeshop.repository.ReservationRepository;
+import com.coffeeshop.repository.TableRepository;
+import com.coffeeshop.scheduler.SchedulerConfig;
+import com.coffeeshop.service.TableAssignment;
+import com.coffeeshop.service.TableAssignmentService;
+import com.coffeeshop.service.TableOccupancyService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.when;
+
+/**
+ * Kiểm tra trùng lịch đặt bàn (TableAssignmentService.isAvailable, dùng khi tạo/sửa đặt bàn) và xếp bàn
+ * có ghép bàn (suggest). Repository trả đúng các đặt bàn nằm trong cửa sổ thời gian như truy vấn thật.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReservationConflictBenchmark {
+
+    // Tổng số đặt bàn đang mở trong 12 giờ tới
+    @Param({"50", "500", "5000"})
+    int reservationCount;
+
+    @Param({"40"})
+    int tableCount;
+
+    private TableAssignmentService tableAssignmentService;
+    private List<TableEntity> requestedTables;
+    private LocalDateTime requestedAt;
+
+    @Setup
+    public void setup() {
+        SchedulerConfig schedulerConfig = new SchedulerConfig();
+        schedulerConfig.reservationDurationMinutes = 90;
+        schedulerConfig.reservationBufferAfterMinutes = 30;
+        long span = schedulerConfig.reservationDurationMinutes + schedulerConfig.reservationBufferAfterMinutes;
+
+        LocalDateTime start = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.DAYS).plusHours(8);
+        requestedAt = start.plusHours(6);
+        List<TableEntity> tables = BenchmarkData.tables(tableCount);
+        requestedTables = List.of(tables.get(0));
+        List<Reservation> window = BenchmarkData.reservations(reservationCount, tables, start, 12).stream()
+                .filter(r -> !r.getReservationDatetime().isBefore(requestedAt.minusMinutes(span))
+                        && !r.getReservationDatetime().isAfter(requestedAt.plusMinutes(span)))
+                .toList();
+
+        TableRepository tableRepository = BenchmarkData.stub(TableRepository.class);
+        when(tableRepository.findAll()).thenReturn(tables);
+        ReservationRepository reservationRepository = BenchmarkData.stub(ReservationRepository.class);
+        when(reservationRepository.findWithTablesByStatusInAndDatetimeBetween(anyCollection(), any(), any()))
+                .thenReturn(window);
+
+        tableAssignmentService = new TableAssignmentService();
+        BenchmarkData.inject(tableAssignmentService, "tableRepository", tableRepository);
+        BenchmarkData.inject(tableAssignmentService, "reservationRepository", reservationRepository);
+        BenchmarkData.inject(tableAssignmentService, "tableOccupancyService", BenchmarkData.stub(TableOccupancyService.class));
+        BenchmarkData.inject(tableAssignmentService, "schedulerConfig", schedulerConfig);
+        BenchmarkData.inject(tableAssignmentService, "maxJoined", 3);
+    }
+
+    @Benchmark
+    public boolean isAvailable() {
+        return tableAssignmentService.isAvailable(requestedTables, requestedAt, null);
+    }
+
+    @Benchmark
+    public TableAssignment suggestSmallParty() {
+        return tableAssignmentService.suggest(requestedAt, 2);
+    }
+
+    // Nhóm lớn hơn mọi bàn: phải thử ghép bàn liền kề
+    @Benchmark
+    public TableAssignment suggestJoinedTables() {
+        return tableAssignmentService.suggest(requestedAt, 14);
+    }
+}
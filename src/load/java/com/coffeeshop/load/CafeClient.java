@@ -0,0 +1,123 @@
+package com.coffeeshop.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.MissingNode;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+
+/**
+ * HTTP client của bộ tạo tải. Mỗi request được đo và ghi vào thống kê theo nhãn endpoint cố định
+ * (vd. "POST /api/orders"), không theo URL thật, để số nhãn không phụ thuộc dữ liệu.
+ */
+final class CafeClient {
+
+    record Response(int status, JsonNode body) {
+        boolean ok() {
+            return status >= 200 && status < 300;
+        }
+    }
+
+    private final String baseUrl;
+    private final Duration timeout;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient httpClient;
+    private final Map<String, EndpointStats> stats = new ConcurrentHashMap<>();
+    private volatile boolean recording;
+
+    CafeClient(String baseUrl, Duration timeout) {
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.timeout = timeout;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(timeout)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+    }
+
+    // Request trong lúc chuẩn bị dữ liệu không được tính vào kết quả
+    void setRecording(boolean recording) {
+        this.recording = recording;
+    }
+
+    Map<String, EndpointStats> stats() {
+        return new TreeMap<>(stats);
+    }
+
+    Response get(String label, String path, String token) {
+        return send(label, request(path, token).GET().build());
+    }
+
+    Response post(String label, String path, Object body, String token) {
+        return post(label, path, body, token, null);
+    }
+
+    Response post(String label, String path, Object body, String token, String idempotencyKey) {
+        HttpRequest.Builder builder = request(path, token)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(toJson(body)));
+        if (idempotencyKey != null) {
+            builder.header("Idempotency-Key", idempotencyKey);
+        }
+        return send(label, builder.build());
+    }
+
+    private HttpRequest.Builder request(String path, String token) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(timeout);
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder;
+    }
+
+    private Response send(String label, HttpRequest request) {
+        long start = System.nanoTime();
+        int status = 0;
+        JsonNode body = MissingNode.getInstance();
+        try {
+            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            status = response.statusCode();
+            body = parse(response.body());
+        } catch (IOException e) {
+            // status = 0: lỗi kết nối hoặc timeout
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (recording) {
+            stats.computeIfAbsent(label, key -> new EndpointStats()).record((System.nanoTime() - start) / 1000, status);
+        }
+        return new Response(status, body);
+    }
+
+    private JsonNode parse(String body) {
+        if (body == null || body.isEmpty()) {
+            return MissingNode.getInstance();
+        }
+        try {
+            return objectMapper.readTree(body);
+        } catch (IOException e) {
+            return MissingNode.getInstance();
+        }
+    }
+
+    private String toJson(Object body) {
+        try {
+            return objectMapper.writeValueAsString(body);
+        } catch (IOException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    ObjectMapper objectMapper() {
+        return objectMapper;
+    }
+}
@@ -0,0 +1,185 @@
+package com.coffeeshop.load;
+
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Đo sức chứa request đồng thời của ứng dụng trong một ngân sách bộ nhớ cố định, để so sánh platform thread
+ * với virtual thread. Chạy hai lần trên cùng -Xmx, một lần mỗi chế độ, rồi so sánh hai báo cáo:
+ * <pre>
+ * mvn spring-boot:run -Dspring-boot.run.useTestClasspath=true -Dspring-boot.run.jvmArguments=-Xmx256m \
+ *     -Dspring-boot.run.arguments=--spring.config.additional-location=file:src/load/resources/load-h2.properties
+ * mvn -Pload verify -DskipTests -Dload.mainClass=com.coffeeshop.load.CapacityBenchmark \
+ *     -Dload.reportFile=target/capacity-platform.json
+ * </pre>
+ * (lần hai thêm -Dspring-boot.run.profiles=vthreads và ghi ra capacity-virtual.json).
+ *
+ * Mỗi mức trong load.levels giữ đúng chừng đó client gọi liên tục load.path trong load.stepSeconds giây.
+ * Trong lúc đó bộ nhớ của ứng dụng được đọc mỗi giây từ /actuator/prometheus (load.managementUrl, mặc định
+ * load.baseUrl; gửi kèm token admin): heap đã dùng, non-heap đã dùng và số luồng sống. Stack của virtual
+ * thread nằm trong heap còn stack của platform thread nằm ngoài heap, nên cần xem cả heap lẫn số luồng.
+ *
+ * Một mức đạt khi tỉ lệ lỗi (5xx, timeout) không quá load.maxErrorRate, p99 không quá load.maxP99Ms và heap
+ * đỉnh không quá load.maxHeapRatio của heap tối đa. Sức chứa là mức đạt cao nhất; dừng ở mức đầu tiên không đạt.
+ *
+ * Tham số (system property): load.baseUrl, load.managementUrl, load.path, load.levels, load.stepSeconds,
+ * load.warmupSeconds, load.maxErrorRate, load.maxP99Ms, load.maxHeapRatio, load.requestTimeoutSeconds,
+ * load.adminUser, load.adminPassword, load.reportFile.
+ */
+public final class CapacityBenchmark {
+
+    private record MemorySample(double heapUsed, double heapMax, double nonHeapUsed, double liveThreads) {}
+
+    private CapacityBenchmark() {}
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = System.getProperty("load.baseUrl", "http://localhost:8080");
+        String managementUrl = System.getProperty("load.managementUrl", baseUrl);
+        String path = System.getProperty("load.path", "/api/orders/my-orders");
+        int[] levels = Arrays.stream(System.getProperty("load.levels", "50,100,200,400,800,1600,3200").split(","))
+                .map(String::trim).mapToInt(Integer::parseInt).toArray();
+        int stepSeconds = Integer.getInteger("load.stepSeconds", 30);
+        double maxErrorRate = Double.parseDouble(System.getProperty("load.maxErrorRate", "0.01"));
+        double maxP99Ms = Double.parseDouble(System.getProperty("load.maxP99Ms", "1000"));
+        double maxHeapRatio = Double.parseDouble(System.getProperty("load.maxHeapRatio", "0.9"));
+        Path reportFile = Path.of(System.getProperty("load.reportFile", "target/capacity-report.json"));
+
+        CafeClient client = new CafeClient(baseUrl,
+                Duration.ofSeconds(Integer.getInteger("load.requestTimeoutSeconds", 10)));
+        CafeClient.Response login = client.post("POST /api/auth/login", "/api/auth/login",
+                Map.of("username", System.getProperty("load.adminUser", "admin"),
+                        "password", System.getProperty("load.adminPassword", "secret123")), null);
+        if (!login.ok()) {
+            throw new IllegalStateException("Không đăng nhập được tài khoản admin tại " + baseUrl);
+        }
+        String token = login.body().path("accessToken").asText();
+        HttpClient metricsClient = HttpClient.newHttpClient();
+        MemorySample idle = readMemory(metricsClient, managementUrl, token);
+        System.out.printf("Heap tối đa %.0f MB, lúc rảnh dùng %.1f MB heap, %.0f luồng%n",
+                mb(idle.heapMax()), mb(idle.heapUsed()), idle.liveThreads());
+
+        // Làm nóng JIT và pool ở mức đầu tiên, không tính vào kết quả
+        runClients(client, "GET " + path, path, token, levels[0], Integer.getInteger("load.warmupSeconds", 10), () -> {});
+
+        List<Map<String, Object>> levelReports = new ArrayList<>();
+        int capacity = 0;
+        client.setRecording(true);
+        for (int level : levels) {
+            String label = "GET " + path + " x" + level;
+            List<MemorySample> samples = new ArrayList<>();
+            runClients(client, label, path, token, level, stepSeconds,
+                    () -> samples.add(readMemory(metricsClient, managementUrl, token)));
+
+            EndpointStats stats = client.stats().get(label);
+            Map<String, Object> report = new LinkedHashMap<>();
+            report.put("concurrency", level);
+            report.putAll(stats.summary(stepSeconds));
+            double errorRate = stats.count() > 0 ? (double) stats.errors() / stats.count() : 1;
+            double peakHeap = samples.stream().mapToDouble(MemorySample::heapUsed).max().orElse(0);
+            report.put("errorRate", EndpointStats.round(errorRate));
+            report.put("peakHeapMb", EndpointStats.round(mb(peakHeap)));
+            report.put("peakNonHeapMb", EndpointStats.round(mb(
+                    samples.stream().mapToDouble(MemorySample::nonHeapUsed).max().orElse(0))));
+            report.put("peakLiveThreads", samples.stream().mapToDouble(MemorySample::liveThreads).max().orElse(0));
+            boolean passed = errorRate <= maxErrorRate && (double) report.get("p99Ms") <= maxP99Ms
+                    && peakHeap <= maxHeapRatio * idle.heapMax();
+            report.put("passed", passed);
+            levelReports.add(report);
+            System.out.printf("%5d client: %8.1f req/s, p99 %7.1f ms, lỗi %5.2f%%, heap đỉnh %6.1f MB, %4.0f luồng%s%n",
+                    level, (double) report.get("throughputPerSecond"), (double) report.get("p99Ms"), errorRate * 100,
+                    mb(peakHeap), (double) report.get("peakLiveThreads"), passed ? "" : "  -> không đạt");
+            if (!passed) {
+                break;
+            }
+            capacity = level;
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("path", path);
+        result.put("heapMaxMb", EndpointStats.round(mb(idle.heapMax())));
+        result.put("idleHeapMb", EndpointStats.round(mb(idle.heapUsed())));
+        result.put("idleLiveThreads", idle.liveThreads());
+        result.put("capacity", capacity);
+        result.put("levels", levelReports);
+        Files.createDirectories(reportFile.toAbsolutePath().getParent());
+        client.objectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(reportFile.toFile(), result);
+        System.out.printf("Sức chứa: %d client đồng thời, báo cáo tại %s%n", capacity, reportFile);
+    }
+
+    private interface Sampler {
+        void sample() throws IOException, InterruptedException;
+    }
+
+    // clients luồng gọi liên tục path trong seconds giây; sampler chạy mỗi giây ở luồng gọi
+    private static void runClients(CafeClient client, String label, String path, String token, int clients,
+                                   int seconds, Sampler sampler) throws IOException, InterruptedException {
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        List<Thread> threads = new ArrayList<>(clients);
+        for (int i = 0; i < clients; i++) {
+            threads.add(Thread.ofVirtual().start(() -> {
+                while (System.nanoTime() < deadline) {
+                    client.get(label, path, token);
+                }
+            }));
+        }
+        while (System.nanoTime() < deadline) {
+            Thread.sleep(1000);
+            sampler.sample();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+    }
+
+    // Cộng các vùng nhớ theo area từ định dạng text của Prometheus; vùng không giới hạn (max = -1) bị bỏ qua
+    private static MemorySample readMemory(HttpClient httpClient, String managementUrl, String token)
+            throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(managementUrl + "/actuator/prometheus"))
+                .header("Authorization", "Bearer " + token)
+                .timeout(Duration.ofSeconds(5))
+                .GET().build();
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Không đọc được /actuator/prometheus, status " + response.statusCode());
+        }
+        double heapUsed = 0;
+        double heapMax = 0;
+        double nonHeapUsed = 0;
+        double liveThreads = 0;
+        for (String line : response.body().split("\n")) {
+            if (line.startsWith("jvm_memory_used_bytes{")) {
+                if (line.contains("area=\"heap\"")) {
+                    heapUsed += value(line);
+                } else {
+                    nonHeapUsed += value(line);
+                }
+            } else if (line.startsWith("jvm_memory_max_bytes{") && line.contains("area=\"heap\"")) {
+                heapMax += Math.max(0, value(line));
+            } else if (line.startsWith("jvm_threads_live_threads")) {
+                liveThreads = value(line);
+            }
+        }
+        return new MemorySample(heapUsed, heapMax, nonHeapUsed, liveThreads);
+    }
+
+    private static double value(String line) {
+        return Double.parseDouble(line.substring(line.lastIndexOf(' ') + 1));
+    }
+
+    private static double mb(double bytes) {
+        return bytes / (1024 * 1024);
+    }
+}
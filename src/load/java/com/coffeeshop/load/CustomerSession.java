@@ -0,0 +1,152 @@
+package com.coffeeshop.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Phiên của một khách: đăng nhập (hoặc dùng token có sẵn), xem thực đơn, đặt bàn, gọi món, thanh toán,
+ * hỏi thông báo và làm mới token, xen giữa là thời gian nghĩ. Mỗi bước xảy ra theo xác suất của profile.
+ */
+final class CustomerSession implements Runnable {
+
+    record Account(String username, String password, String accessToken, String refreshToken) {}
+
+    // Dữ liệu dùng chung cho mọi phiên, nạp một lần trước khi chạy tải
+    record World(List<Account> accounts, List<Integer> productIds, List<Integer> categoryIds, List<Integer> tableIds,
+                 List<LocalDateTime> reservationSlots) {}
+
+    private static final String[] SEARCH_TERMS = {"latte", "tea", "espresso", "cake", "mocha"};
+    private static final String[] SORTS = {"", "price,asc", "price,desc"};
+    private static final String[] PAYMENT_METHODS = {"CARD", "QR_CODE"};
+
+    private final CafeClient client;
+    private final LoadProfile profile;
+    private final World world;
+
+    CustomerSession(CafeClient client, LoadProfile profile, World world) {
+        this.client = client;
+        this.profile = profile;
+        this.world = world;
+    }
+
+    @Override
+    public void run() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Account account = world.accounts().get(random.nextInt(world.accounts().size()));
+        String token = account.accessToken();
+        String refreshToken = null;
+
+        if (chance(profile.login)) {
+            CafeClient.Response login = client.post("POST /api/auth/login", "/api/auth/login",
+                    Map.of("username", account.username(), "password", account.password()), null);
+            if (!login.ok()) {
+                return;
+            }
+            token = login.body().path("accessToken").asText();
+            refreshToken = login.body().path("refreshToken").asText(null);
+            think();
+        }
+
+        if (chance(profile.browse)) {
+            client.get("GET /api/categories/menu", "/api/categories/menu", token);
+            think();
+            StringBuilder query = new StringBuilder("/api/products/available?sort=")
+                    .append(SORTS[random.nextInt(SORTS.length)]);
+            if (random.nextBoolean() && !world.categoryIds().isEmpty()) {
+                query.append("&categoryId=").append(world.categoryIds().get(random.nextInt(world.categoryIds().size())));
+            } else if (random.nextInt(4) == 0) {
+                query.append("&search=").append(SEARCH_TERMS[random.nextInt(SEARCH_TERMS.length)]);
+            }
+            client.get("GET /api/products/available", query.toString(), token);
+            think();
+        }
+
+        if (chance(profile.reserve)) {
+            reserve(token, random);
+            think();
+        }
+
+        if (chance(profile.order) && !world.tableIds().isEmpty() && !world.productIds().isEmpty()) {
+            JsonNode order = placeOrder(token, random);
+            think();
+            if (order != null && chance(profile.pay)) {
+                double total = 0;
+                for (JsonNode item : order.path("items")) {
+                    total += item.path("totalPrice").asDouble();
+                }
+                Map<String, Object> payment = new HashMap<>();
+                payment.put("orderId", order.path("id").asInt());
+                payment.put("amount", total);
+                payment.put("paymentMethod", PAYMENT_METHODS[random.nextInt(PAYMENT_METHODS.length)]);
+                client.post("POST /api/payments", "/api/payments", payment, token, UUID.randomUUID().toString());
+                think();
+            }
+        }
+
+        for (int i = 0; i < profile.pollCount; i++) {
+            client.get("GET /api/notifications/my", "/api/notifications/my?page=0&size=10", token);
+            think();
+        }
+
+        if (refreshToken != null && chance(profile.refresh)) {
+            client.post("POST /api/auth/refresh", "/api/auth/refresh", Map.of("refreshToken", refreshToken), null);
+        }
+    }
+
+    // Giờ đến lấy từ một tập nhỏ khung giờ nên các khách thường tranh cùng bàn: từ chối do trùng lịch là chủ ý
+    private void reserve(String token, ThreadLocalRandom random) {
+        LocalDateTime slot = world.reservationSlots().get(random.nextInt(world.reservationSlots().size()));
+        int partySize = 1 + random.nextInt(6);
+        Map<String, Object> request = new LinkedHashMap<>();
+        if (random.nextBoolean()) {
+            client.get("GET /api/reservations/suggest-table",
+                    "/api/reservations/suggest-table?reservationDatetime=" + slot + "&partySize=" + partySize, token);
+            think();
+            request.put("tableId", null);
+        } else {
+            request.put("tableId", world.tableIds().get(random.nextInt(world.tableIds().size())));
+        }
+        request.put("reservationDatetime", slot.toString());
+        request.put("partySize", partySize);
+        client.post("POST /api/reservations", "/api/reservations", request, token);
+    }
+
+    private JsonNode placeOrder(String token, ThreadLocalRandom random) {
+        int itemCount = 1 + random.nextInt(4);
+        List<Map<String, Object>> items = new ArrayList<>(itemCount);
+        for (int i = 0; i < itemCount; i++) {
+            items.add(Map.of("productId", world.productIds().get(random.nextInt(world.productIds().size())),
+                    "quantity", 1 + random.nextInt(2)));
+        }
+        Map<String, Object> request = Map.of(
+                "tableId", world.tableIds().get(random.nextInt(world.tableIds().size())),
+                "items", items);
+        CafeClient.Response response = client.post("POST /api/orders", "/api/orders", request, token,
+                UUID.randomUUID().toString());
+        return response.ok() && response.body().path("id").isInt() ? response.body() : null;
+    }
+
+    private boolean chance(double probability) {
+        return probability >= 1 || (probability > 0 && ThreadLocalRandom.current().nextDouble() < probability);
+    }
+
+    private void think() {
+        if (profile.thinkMs <= 0) {
+            return;
+        }
+        long pause = (long) (-Math.log(1 - ThreadLocalRandom.current().nextDouble()) * profile.thinkMs);
+        try {
+            Thread.sleep(Math.min(pause, profile.thinkMs * 10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
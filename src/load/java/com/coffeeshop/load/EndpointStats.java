@@ -0,0 +1,72 @@
+package com.coffeeshop.load;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Độ trễ và kết quả của một endpoint. Lưu toàn bộ mẫu (micro giây) để tính percentile chính xác;
+ * một lần chạy tải vài trăm nghìn request chỉ tốn vài MB.
+ */
+final class EndpointStats {
+
+    private long[] latencies = new long[1024];
+    private int size;
+    private long success;
+    private long clientErrors;
+    private long serverErrors;
+    private long failures;       // Lỗi kết nối / timeout, không có HTTP status
+
+    synchronized void record(long latencyMicros, int status) {
+        if (size == latencies.length) {
+            latencies = Arrays.copyOf(latencies, size * 2);
+        }
+        latencies[size++] = latencyMicros;
+        if (status >= 200 && status < 400) {
+            success++;
+        } else if (status >= 400 && status < 500) {
+            clientErrors++;
+        } else if (status >= 500) {
+            serverErrors++;
+        } else {
+            failures++;
+        }
+    }
+
+    synchronized long count() {
+        return size;
+    }
+
+    synchronized long errors() {
+        return serverErrors + failures;
+    }
+
+    synchronized Map<String, Object> summary(double durationSeconds) {
+        long[] sorted = Arrays.copyOf(latencies, size);
+        Arrays.sort(sorted);
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("count", size);
+        summary.put("throughputPerSecond", round(durationSeconds > 0 ? size / durationSeconds : 0));
+        summary.put("success", success);
+        summary.put("clientErrors", clientErrors);
+        summary.put("serverErrors", serverErrors);
+        summary.put("failures", failures);
+        summary.put("p50Ms", percentileMs(sorted, 0.50));
+        summary.put("p90Ms", percentileMs(sorted, 0.90));
+        summary.put("p99Ms", percentileMs(sorted, 0.99));
+        summary.put("maxMs", sorted.length > 0 ? round(sorted[sorted.length - 1] / 1000.0) : 0);
+        return summary;
+    }
+
+    private static double percentileMs(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return round(sorted[Math.max(0, index)] / 1000.0);
+    }
+
+    static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+}
@@ -0,0 +1,82 @@
+package com.coffeeshop.load;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Một kịch bản tải đọc từ load-profiles.properties (hoặc file chỉ định bằng -Dload.profilesFile).
+ *
+ * phases là danh sách giai đoạn cách nhau bởi dấu phẩy: "<giây>@<số khách mới mỗi giây>" (mô hình mở:
+ * khách đến theo nhịp bất kể hệ thống phản hồi nhanh hay chậm) hoặc "burst:<số khách>" (tất cả khởi động
+ * cùng lúc). Các tỷ lệ còn lại là xác suất một khách thực hiện từng bước trong phiên.
+ */
+final class LoadProfile {
+
+    record Phase(String name, int durationSeconds, double arrivalsPerSecond, int burst) {
+        boolean isBurst() {
+            return burst > 0;
+        }
+    }
+
+    final String name;
+    final List<Phase> phases;
+    final double login;          // Đăng nhập mới; còn lại dùng token có sẵn của nhóm khách mẫu
+    final double browse;
+    final double reserve;
+    final double order;
+    final double pay;            // Trên các đơn vừa đặt
+    final double refresh;
+    final int pollCount;         // Số lần hỏi thông báo trong phiên
+    final long thinkMs;          // Thời gian nghĩ trung bình giữa các bước (phân phối mũ)
+
+    private LoadProfile(String name, Properties properties) {
+        this.name = name;
+        String phaseSpec = properties.getProperty(name + ".phases");
+        if (phaseSpec == null) {
+            throw new IllegalArgumentException("Không có profile tải '" + name + "' (thiếu " + name + ".phases)");
+        }
+        this.phases = parsePhases(phaseSpec);
+        this.login = doubleValue(properties, name, "login", 0.3);
+        this.browse = doubleValue(properties, name, "browse", 0.9);
+        this.reserve = doubleValue(properties, name, "reserve", 0.2);
+        this.order = doubleValue(properties, name, "order", 0.6);
+        this.pay = doubleValue(properties, name, "pay", 0.8);
+        this.refresh = doubleValue(properties, name, "refresh", 0.1);
+        this.pollCount = (int) doubleValue(properties, name, "pollCount", 3);
+        this.thinkMs = (long) doubleValue(properties, name, "thinkMs", 2000);
+    }
+
+    static LoadProfile load(String name, Properties properties) {
+        return new LoadProfile(name, properties);
+    }
+
+    int totalDurationSeconds() {
+        return phases.stream().mapToInt(Phase::durationSeconds).sum();
+    }
+
+    private static List<Phase> parsePhases(String spec) {
+        List<Phase> phases = new ArrayList<>();
+        String[] parts = spec.split(",");
+        for (int i = 0; i < parts.length; i++) {
+            String part = parts[i].trim();
+            String phaseName = "phase" + (i + 1);
+            if (part.startsWith("burst:")) {
+                phases.add(new Phase(phaseName, 0, 0, Integer.parseInt(part.substring(6).trim())));
+            } else {
+                String[] durationAndRate = part.split("@");
+                if (durationAndRate.length != 2) {
+                    throw new IllegalArgumentException("Giai đoạn không hợp lệ: " + part);
+                }
+                phases.add(new Phase(phaseName, Integer.parseInt(durationAndRate[0].trim()),
+                        Double.parseDouble(durationAndRate[1].trim()), 0));
+            }
+        }
+        return phases;
+    }
+
+    private static double doubleValue(Properties properties, String profile, String key, double defaultValue) {
+        String value = properties.getProperty(profile + "." + key);
+        return value != null ? Double.parseDouble(value.trim()) : defaultValue;
+    }
+}
@@ -0,0 +1,283 @@
+package com.coffeeshop.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bộ tạo tải đầu-cuối: giả lập khách giờ cao điểm đăng nhập, xem thực đơn, đặt bàn, gọi món, thanh toán
+ * và hỏi thông báo qua HTTP, đồng thời theo dõi xem các job tự động có theo kịp hay không.
+ *
+ * Chạy với profile Maven "load" trong lúc ứng dụng đang chạy, ví dụ trên H2 với dữ liệu mẫu:
+ * <pre>
+ * mvn spring-boot:run -Dspring-boot.run.useTestClasspath=true \
+ *     -Dspring-boot.run.arguments=--spring.config.additional-location=file:src/load/resources/load-h2.properties
+ * mvn -Pload verify -DskipTests -Dload.profile=lunch-rush
+ * </pre>
+ * Thêm -Dspring-boot.run.profiles=vthreads khi khởi động để so sánh sức chứa khi dùng virtual thread.
+ *
+ * Tham số (system property): load.baseUrl, load.profile, load.profilesFile, load.users, load.adminUser,
+ * load.adminPassword, load.maxSessions, load.requestTimeoutSeconds, load.reportFile, load.serverCores,
+ * load.schedulerPollSeconds, load.schedulerLagToleranceSeconds.
+ */
+public final class LoadTest {
+
+    private static final String USER_PASSWORD = "loadtest123";
+    private static final int[] RESERVATION_HOURS = {12, 13, 18, 19, 20};
+
+    private LoadTest() {}
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = System.getProperty("load.baseUrl", "http://localhost:8080");
+        LoadProfile profile = LoadProfile.load(System.getProperty("load.profile", "smoke"), loadProfiles());
+        int userCount = Integer.getInteger("load.users", 200);
+        int maxSessions = Integer.getInteger("load.maxSessions", 20000);
+        int serverCores = Integer.getInteger("load.serverCores", Runtime.getRuntime().availableProcessors());
+        Path reportFile = Path.of(System.getProperty("load.reportFile", "target/load-report.json"));
+
+        CafeClient client = new CafeClient(baseUrl,
+                Duration.ofSeconds(Integer.getInteger("load.requestTimeoutSeconds", 30)));
+
+        // Chuẩn bị dữ liệu, không tính vào kết quả
+        String adminToken = login(client, System.getProperty("load.adminUser", "admin"),
+                System.getProperty("load.adminPassword", "secret123"));
+        if (adminToken == null) {
+            throw new IllegalStateException("Không đăng nhập được tài khoản admin tại " + baseUrl);
+        }
+        CustomerSession.World world = prepareWorld(client, adminToken, userCount);
+        System.out.printf("Profile %s: %d khách mẫu, %d món, %d bàn%n", profile.name,
+                world.accounts().size(), world.productIds().size(), world.tableIds().size());
+
+        SchedulerMonitor monitor = new SchedulerMonitor(client, adminToken,
+                Long.getLong("load.schedulerPollSeconds", 10), Long.getLong("load.schedulerLagToleranceSeconds", 120));
+        Thread monitorThread = Thread.ofVirtual().name("scheduler-monitor").start(monitor);
+
+        client.setRecording(true);
+        Semaphore sessions = new Semaphore(maxSessions);
+        AtomicLong dropped = new AtomicLong();
+        List<Map<String, Object>> phaseReports = new ArrayList<>();
+        long start = System.nanoTime();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (LoadProfile.Phase phase : profile.phases) {
+                long phaseStart = System.nanoTime();
+                long droppedBefore = dropped.get();
+                long started = phase.isBurst()
+                        ? runBurst(phase, executor, sessions, dropped, client, profile, world)
+                        : runArrivals(phase, executor, sessions, dropped, client, profile, world);
+                Map<String, Object> phaseReport = new LinkedHashMap<>();
+                phaseReport.put("phase", phase.name());
+                phaseReport.put("arrivalsPerSecond", phase.arrivalsPerSecond());
+                phaseReport.put("burst", phase.burst());
+                phaseReport.put("sessionsStarted", started);
+                phaseReport.put("sessionsDropped", dropped.get() - droppedBefore);
+                phaseReport.put("seconds", EndpointStats.round((System.nanoTime() - phaseStart) / 1e9));
+                phaseReports.add(phaseReport);
+                System.out.printf("%s xong: %d phiên, %d bị bỏ%n", phase.name(), started, dropped.get() - droppedBefore);
+            }
+            executor.shutdown();
+            executor.awaitTermination(profile.thinkMs * 40L + 120_000, TimeUnit.MILLISECONDS);
+        }
+        double durationSeconds = (System.nanoTime() - start) / 1e9;
+        client.setRecording(false);
+
+        monitor.stop();
+        monitorThread.interrupt();
+        monitor.poll();
+
+        Map<String, Object> report = report(client, profile, durationSeconds, serverCores, dropped.get(),
+                phaseReports, monitor.report());
+        print(report);
+        Files.createDirectories(reportFile.toAbsolutePath().getParent());
+        client.objectMapper().writer(SerializationFeature.INDENT_OUTPUT).writeValue(reportFile.toFile(), report);
+        System.out.println("Báo cáo: " + reportFile.toAbsolutePath());
+    }
+
+    // Mô hình mở: khách đến đúng nhịp, phiên không khởi động được vì đã chạm load.maxSessions bị tính là bỏ
+    private static long runArrivals(LoadProfile.Phase phase, ExecutorService executor, Semaphore sessions,
+                                    AtomicLong dropped, CafeClient client, LoadProfile profile,
+                                    CustomerSession.World world) throws InterruptedException {
+        long total = (long) (phase.durationSeconds() * phase.arrivalsPerSecond());
+        if (total == 0) {
+            Thread.sleep(phase.durationSeconds() * 1000L);
+            return 0;
+        }
+        long intervalNanos = (long) (1e9 / phase.arrivalsPerSecond());
+        long phaseStart = System.nanoTime();
+        for (long i = 0; i < total; i++) {
+            long wait = phaseStart + i * intervalNanos - System.nanoTime();
+            if (wait > 0) {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            }
+            startSession(executor, sessions, dropped, client, profile, world);
+        }
+        return total;
+    }
+
+    private static long runBurst(LoadProfile.Phase phase, ExecutorService executor, Semaphore sessions,
+                                 AtomicLong dropped, CafeClient client, LoadProfile profile,
+                                 CustomerSession.World world) {
+        for (int i = 0; i < phase.burst(); i++) {
+            startSession(executor, sessions, dropped, client, profile, world);
+        }
+        return phase.burst();
+    }
+
+    private static void startSession(ExecutorService executor, Semaphore sessions, AtomicLong dropped,
+                                     CafeClient client, LoadProfile profile, CustomerSession.World world) {
+        if (!sessions.tryAcquire()) {
+            dropped.incrementAndGet();
+            return;
+        }
+        executor.execute(() -> {
+            try {
+                new CustomerSession(client, profile, world).run();
+            } finally {
+                sessions.release();
+            }
+        });
+    }
+
+    private static CustomerSession.World prepareWorld(CafeClient client, String adminToken, int userCount)
+            throws InterruptedException {
+        List<CustomerSession.Account> accounts = new ArrayList<>(userCount);
+        try (ExecutorService executor = Executors.newFixedThreadPool(16)) {
+            List<Future<CustomerSession.Account>> futures = new ArrayList<>();
+            for (int i = 0; i < userCount; i++) {
+                String username = "load" + i;
+                futures.add(executor.submit(() -> {
+                    client.post("POST /api/auth/register", "/api/auth/register", Map.of(
+                            "username", username, "password", USER_PASSWORD,
+                            "email", username + "@load.test", "fullName", "Load " + username), null);
+                    CafeClient.Response login = client.post("POST /api/auth/login", "/api/auth/login",
+                            Map.of("username", username, "password", USER_PASSWORD), null);
+                    return login.ok() ? new CustomerSession.Account(username, USER_PASSWORD,
+                            login.body().path("accessToken").asText(), login.body().path("refreshToken").asText())
+                            : null;
+                }));
+            }
+            for (var future : futures) {
+                try {
+                    CustomerSession.Account account = future.get();
+                    if (account != null) {
+                        accounts.add(account);
+                    }
+                } catch (ExecutionException e) {
+                    // Bỏ qua tài khoản không tạo được
+                }
+            }
+        }
+        if (accounts.isEmpty()) {
+            throw new IllegalStateException("Không tạo được tài khoản khách nào");
+        }
+
+        List<Integer> tableIds = new ArrayList<>();
+        for (JsonNode table : client.get("GET /api/tables", "/api/tables", adminToken).body()) {
+            if (table.path("isActive").asBoolean(true)) {
+                tableIds.add(table.path("id").asInt());
+            }
+        }
+        List<Integer> productIds = ids(client.get("GET /api/products/available", "/api/products/available", adminToken));
+        List<Integer> categoryIds = ids(client.get("GET /api/categories/active", "/api/categories/active", adminToken));
+
+        // Một tập nhỏ khung giờ ngày mai để các đặt bàn tranh nhau cùng bàn
+        LocalDate tomorrow = LocalDate.now().plusDays(1);
+        List<LocalDateTime> slots = new ArrayList<>();
+        for (int hour : RESERVATION_HOURS) {
+            slots.add(LocalDateTime.of(tomorrow, LocalTime.of(hour, 0)));
+        }
+        return new CustomerSession.World(List.copyOf(accounts), productIds, categoryIds, tableIds, slots);
+    }
+
+    private static List<Integer> ids(CafeClient.Response response) {
+        List<Integer> ids = new ArrayList<>();
+        for (JsonNode node : response.body()) {
+            ids.add(node.path("id").asInt());
+        }
+        return ids;
+    }
+
+    private static String login(CafeClient client, String username, String password) {
+        CafeClient.Response response = client.post("POST /api/auth/login", "/api/auth/login",
+                Map.of("username", username, "password", password), null);
+        return response.ok() ? response.body().path("accessToken").asText() : null;
+    }
+
+    private static Map<String, Object> report(CafeClient client, LoadProfile profile, double durationSeconds,
+                                              int serverCores, long dropped, List<Map<String, Object>> phases,
+                                              Map<String, Object> scheduler) {
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        client.stats().forEach((label, stats) -> endpoints.put(label, stats.summary(durationSeconds)));
+        EndpointStats logins = client.stats().get("POST /api/auth/login");
+        long successfulLogins = logins != null ? logins.count() - logins.errors() : 0;
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("profile", profile.name);
+        report.put("durationSeconds", EndpointStats.round(durationSeconds));
+        report.put("serverCores", serverCores);
+        report.put("loginsPerSecondPerCore", EndpointStats.round(successfulLogins / durationSeconds / serverCores));
+        report.put("sessionsDropped", dropped);
+        report.put("phases", phases);
+        report.put("endpoints", endpoints);
+        report.put("scheduler", scheduler);
+        return report;
+    }
+
+    private static void print(Map<String, Object> report) {
+        System.out.printf("%nProfile %s trong %.1f s, %s đăng nhập/giây/lõi, %s phiên bị bỏ%n",
+                report.get("profile"), report.get("durationSeconds"), report.get("loginsPerSecondPerCore"),
+                report.get("sessionsDropped"));
+        System.out.printf("%-40s %8s %9s %9s %9s %9s %6s %6s %6s%n", "endpoint", "count", "req/s", "p50 ms",
+                "p99 ms", "max ms", "4xx", "5xx", "io");
+        @SuppressWarnings("unchecked")
+        Map<String, Map<String, Object>> endpoints = (Map<String, Map<String, Object>>) report.get("endpoints");
+        endpoints.forEach((label, summary) -> System.out.printf("%-40s %8s %9s %9s %9s %9s %6s %6s %6s%n", label,
+                summary.get("count"), summary.get("throughputPerSecond"), summary.get("p50Ms"), summary.get("p99Ms"),
+                summary.get("maxMs"), summary.get("clientErrors"), summary.get("serverErrors"),
+                summary.get("failures")));
+        @SuppressWarnings("unchecked")
+        Map<String, Object> scheduler = (Map<String, Object>) report.get("scheduler");
+        System.out.println("Scheduler theo kịp: " + scheduler.get("keepsUp") + " " + scheduler.get("jobs"));
+        if (Boolean.TRUE.equals(scheduler.get("outsideOpeningHours"))) {
+            System.out.println("Cảnh báo: ứng dụng đang ngoài giờ mở cửa, các job của AutoScheduler không chạy");
+        }
+    }
+
+    private static Properties loadProfiles() throws IOException {
+        Properties properties = new Properties();
+        String file = System.getProperty("load.profilesFile");
+        if (file != null) {
+            try (InputStream in = Files.newInputStream(Path.of(file))) {
+                properties.load(in);
+            }
+        } else {
+            try (InputStream in = LoadTest.class.getResourceAsStream("/load-profiles.properties")) {
+                if (in == null) {
+                    throw new IllegalStateException("Không tìm thấy load-profiles.properties trên classpath");
+                }
+                properties.load(in);
+            }
+        }
+        return properties;
+    }
+}
@@ -0,0 +1,221 @@
+package com.coffeeshop.load;
+
+import com.coffeeshop.service.OrderNumberGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Kiểm tra OrderNumberGenerator dưới tải song song, hai phần:
+ * <pre>
+ * mvn -Pload verify -DskipTests -Dload.mainClass=com.coffeeshop.load.OrderNumberCheck
+ * </pre>
+ * 1. Trong tiến trình: load.nodes bộ sinh (giả lập các instance, mỗi bộ một nodeId) được load.threads luồng gọi
+ *    cùng lúc, tổng load.orders id cho mỗi bộ sinh.
+ * 2. Qua HTTP (khi có load.baseUrl, ứng dụng chạy với load-h2.properties như LoadTest): load.orders đơn được tạo
+ *    song song bằng POST /api/orders từ load.threads luồng.
+ *
+ * Mỗi phần khẳng định:
+ * - mọi id / mã đơn / mã QR khác nhau;
+ * - thứ tự theo chuỗi của mã trùng với thứ tự của id;
+ * - trong một bộ sinh, lần gọi kết thúc trước khi lần gọi khác bắt đầu (kể cả ở luồng khác) nhận id nhỏ hơn.
+ *
+ * Tham số (system property): load.orders, load.threads, load.nodes, load.baseUrl, load.adminUser, load.adminPassword.
+ */
+public final class OrderNumberCheck {
+
+    // Một lần gọi: khoảng [start, end] theo đồng hồ logic chung của mọi luồng
+    private record Call(long start, long end, long id, String code) {}
+
+    private OrderNumberCheck() {}
+
+    public static void main(String[] args) throws Exception {
+        int orders = Integer.getInteger("load.orders", 10_000);
+        int threads = Integer.getInteger("load.threads", 64);
+        int nodes = Integer.getInteger("load.nodes", 4);
+        String baseUrl = System.getProperty("load.baseUrl");
+
+        checkGenerators(orders, threads, nodes);
+        if (baseUrl != null && !baseUrl.isBlank()) {
+            checkOrderEndpoint(baseUrl, orders, threads);
+        } else {
+            System.out.println("Bỏ qua phần HTTP (chưa đặt load.baseUrl)");
+        }
+    }
+
+    private static void checkGenerators(int orders, int threads, int nodes) throws InterruptedException {
+        List<OrderNumberGenerator> generators = new ArrayList<>(nodes);
+        for (int node = 0; node < nodes; node++) {
+            generators.add(new OrderNumberGenerator(node));
+        }
+        AtomicLong clock = new AtomicLong();
+        List<List<Call>> byNode = new ArrayList<>(nodes);
+        for (int node = 0; node < nodes; node++) {
+            byNode.add(new ArrayList<>(orders));
+        }
+        // Mỗi luồng gọi xen kẽ các bộ sinh; phần của luồng t là các lần gọi i có i mod threads = t
+        runConcurrently(threads, thread -> {
+            List<List<Call>> local = new ArrayList<>(nodes);
+            for (int node = 0; node < nodes; node++) {
+                local.add(new ArrayList<>());
+            }
+            for (int i = thread; i < orders * nodes; i += threads) {
+                int node = i % nodes;
+                OrderNumberGenerator generator = generators.get(node);
+                long start = clock.incrementAndGet();
+                long id = generator.nextId();
+                long end = clock.incrementAndGet();
+                local.get(node).add(new Call(start, end, id, generator.orderNumber(id)));
+            }
+            synchronized (byNode) {
+                for (int node = 0; node < nodes; node++) {
+                    byNode.get(node).addAll(local.get(node));
+                }
+            }
+        });
+
+        Set<Long> ids = new HashSet<>();
+        Set<String> codes = new HashSet<>();
+        for (int node = 0; node < nodes; node++) {
+            List<Call> calls = byNode.get(node);
+            check(calls.size() == orders, "bộ sinh " + node + " cấp đủ " + orders + " id");
+            for (Call call : calls) {
+                check(ids.add(call.id()), "id " + call.id() + " không trùng giữa các luồng và các bộ sinh");
+                check(codes.add(call.code()), "mã đơn " + call.code() + " không trùng");
+                OrderNumberGenerator generator = generators.get(node);
+                check(codes.add(generator.qrCode(call.id())), "mã QR của id " + call.id() + " không trùng");
+            }
+            checkOrdering("bộ sinh " + node, calls);
+        }
+        System.out.printf("Bộ sinh: %d id từ %d luồng trên %d node, không trùng và đúng thứ tự%n",
+                ids.size(), threads, nodes);
+    }
+
+    private static void checkOrderEndpoint(String baseUrl, int orders, int threads) throws InterruptedException {
+        CafeClient client = new CafeClient(baseUrl, Duration.ofSeconds(30));
+        CafeClient.Response login = client.post("POST /api/auth/login", "/api/auth/login",
+                Map.of("username", System.getProperty("load.adminUser", "admin"),
+                        "password", System.getProperty("load.adminPassword", "secret123")), null);
+        check(login.ok(), "đăng nhập admin, status " + login.status());
+        String token = login.body().path("accessToken").asText();
+        List<Integer> productIds = ids(client.get("GET /api/products/available", "/api/products/available", token));
+        List<Integer> tableIds = ids(client.get("GET /api/tables", "/api/tables", token));
+        check(!productIds.isEmpty() && !tableIds.isEmpty(), "có món và bàn để tạo đơn");
+
+        AtomicLong clock = new AtomicLong();
+        List<Call> calls = new ArrayList<>(orders);
+        List<String> failures = new ArrayList<>();
+        runConcurrently(threads, thread -> {
+            List<Call> local = new ArrayList<>();
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = thread; i < orders; i += threads) {
+                Map<String, Object> request = Map.of(
+                        "tableId", tableIds.get(random.nextInt(tableIds.size())),
+                        "items", List.of(Map.of("productId", productIds.get(random.nextInt(productIds.size())),
+                                "quantity", 1)));
+                long start = clock.incrementAndGet();
+                CafeClient.Response response = client.post("POST /api/orders", "/api/orders", request, token);
+                long end = clock.incrementAndGet();
+                if (!response.ok()) {
+                    synchronized (failures) {
+                        failures.add(response.status() + " " + response.body().path("message").asText());
+                    }
+                    continue;
+                }
+                String orderNumber = response.body().path("orderNumber").asText();
+                long id = Long.parseLong(orderNumber.substring(OrderNumberGenerator.ORDER_NUMBER_PREFIX.length()), 36);
+                local.add(new Call(start, end, id, orderNumber));
+            }
+            synchronized (calls) {
+                calls.addAll(local);
+            }
+        });
+
+        check(failures.isEmpty(), failures.size() + " đơn tạo lỗi, vd. " + failures.stream().limit(3).toList());
+        Set<String> orderNumbers = new HashSet<>();
+        for (Call call : calls) {
+            check(orderNumbers.add(call.code()), "mã đơn " + call.code() + " không trùng");
+        }
+        // Chỉ đúng khi cả tải đi vào một instance (một nodeId)
+        checkOrdering("POST /api/orders", calls);
+        System.out.printf("POST /api/orders: %d đơn từ %d luồng, mã đơn không trùng và đúng thứ tự%n",
+                calls.size(), threads);
+    }
+
+    /**
+     * Sắp theo id rồi kiểm tra không có cặp A, B nào mà id(A) &gt; id(B) trong khi A kết thúc trước khi B bắt đầu:
+     * với mỗi lần gọi, mọi lần gọi có id lớn hơn phải kết thúc sau khi nó bắt đầu.
+     */
+    private static void checkOrdering(String label, List<Call> calls) {
+        List<Call> sorted = new ArrayList<>(calls);
+        sorted.sort(Comparator.comparingLong(Call::id));
+        for (int i = 1; i < sorted.size(); i++) {
+            check(sorted.get(i - 1).code().compareTo(sorted.get(i).code()) < 0,
+                    label + ": thứ tự chuỗi của mã trùng thứ tự id (" + sorted.get(i - 1).code() + ", "
+                            + sorted.get(i).code() + ")");
+        }
+        long minEndOfLarger = Long.MAX_VALUE;
+        for (int i = sorted.size() - 1; i >= 0; i--) {
+            Call call = sorted.get(i);
+            check(minEndOfLarger > call.start(), label + ": id " + call.id()
+                    + " được cấp sau một id lớn hơn đã trả về trước khi lần gọi này bắt đầu");
+            minEndOfLarger = Math.min(minEndOfLarger, call.end());
+        }
+    }
+
+    private interface ThreadTask {
+        void run(int thread);
+    }
+
+    // Các luồng chờ cùng xuất phát để tăng tranh chấp
+    private static void runConcurrently(int threads, ThreadTask task) throws InterruptedException {
+        CountDownLatch ready = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>(threads);
+        List<Throwable> errors = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            workers.add(Thread.ofPlatform().name("order-number-check-" + t).start(() -> {
+                try {
+                    ready.await();
+                    task.run(thread);
+                } catch (Throwable e) {
+                    synchronized (errors) {
+                        errors.add(e);
+                    }
+                }
+            }));
+        }
+        ready.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        if (!errors.isEmpty()) {
+            throw new IllegalStateException("Luồng kiểm tra lỗi", errors.get(0));
+        }
+    }
+
+    private static List<Integer> ids(CafeClient.Response response) {
+        List<Integer> ids = new ArrayList<>();
+        for (JsonNode node : response.body()) {
+            if (node.path("id").isInt()) {
+                ids.add(node.path("id").asInt());
+            }
+        }
+        return ids;
+    }
+
+    private static void check(boolean condition, String description) {
+        if (!condition) {
+            throw new IllegalStateException("Sai: " + description);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.coffeeshop.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Kiểm tra định tuyến primary/replica trên hai database H2 khi ứng dụng đang chạy với load-replica-h2.properties:
+ * <pre>
+ * mvn spring-boot:run -Dspring-boot.run.useTestClasspath=true \
+ *     -Dspring-boot.run.arguments=--spring.config.additional-location=file:src/load/resources/load-h2.properties,file:src/load/resources/load-replica-h2.properties
+ * mvn -Pload verify -DskipTests -Dload.mainClass=com.coffeeshop.load.ReplicaRoutingCheck
+ * </pre>
+ * Chép primary sang replica (giả lập replica đã theo kịp), rồi sửa tài khoản admin chỉ trên replica: đổi họ tên
+ * và hạ quyền xuống khách. Sau đó kiểm tra qua HTTP:
+ * - đọc @ReadReplica (danh sách user) thấy họ tên của replica, trong khi JwtAuthenticationFilter vẫn thấy quyền
+ *   admin (đọc primary);
+ * - request đọc user trong filter rồi ghi một danh mục: danh mục chỉ nằm trên primary;
+ * - ngay sau lần ghi, danh sách user của admin đọc primary (read-your-writes), hết sticky-window-ms thì lại đọc replica.
+ * Dùng bảng users vì user không nằm trong cache cấp 2, nên kết quả phản ánh đúng database đã đọc.
+ *
+ * Tham số (system property): load.baseUrl, load.primaryUrl, load.replicaUrl, load.adminUser, load.adminPassword,
+ * load.stickyWindowMs.
+ */
+public final class ReplicaRoutingCheck {
+
+    private static final String REPLICA_FULL_NAME = "Chỉ có trên replica";
+
+    private ReplicaRoutingCheck() {}
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = System.getProperty("load.baseUrl", "http://localhost:8080");
+        String primaryUrl = System.getProperty("load.primaryUrl",
+                "jdbc:h2:file:./target/replica-check/primary;MODE=MySQL;AUTO_SERVER=TRUE");
+        String replicaUrl = System.getProperty("load.replicaUrl",
+                "jdbc:h2:file:./target/replica-check/replica;MODE=MySQL;AUTO_SERVER=TRUE");
+        String adminUser = System.getProperty("load.adminUser", "admin");
+        long stickyWindowMs = Long.getLong("load.stickyWindowMs", 2000);
+
+        copyPrimaryToReplica(primaryUrl, replicaUrl, adminUser);
+
+        CafeClient client = new CafeClient(baseUrl, Duration.ofSeconds(30));
+        CafeClient.Response login = client.post("POST /api/auth/login", "/api/auth/login",
+                Map.of("username", adminUser, "password", System.getProperty("load.adminPassword", "secret123")), null);
+        check(login.ok(), "đăng nhập admin (đọc user từ primary), status " + login.status());
+        String token = login.body().path("accessToken").asText();
+
+        check(REPLICA_FULL_NAME.equals(adminFullName(client, token, adminUser)),
+                "GET /api/users (@ReadReplica) đọc từ replica, quyền admin đọc từ primary");
+
+        String created = "Routing check " + System.currentTimeMillis();
+        CafeClient.Response create = client.post("POST /api/categories", "/api/categories",
+                Map.of("name", created, "isActive", true), token);
+        check(create.ok(), "POST /api/categories: JwtAuthenticationFilter đọc quyền admin từ primary, status "
+                + create.status());
+        check(countCategories(primaryUrl, created) == 1, "danh mục mới được ghi vào primary");
+        check(countCategories(replicaUrl, created) == 0, "danh mục mới không được ghi vào replica");
+
+        check(!REPLICA_FULL_NAME.equals(adminFullName(client, token, adminUser)),
+                "ngay sau khi ghi, danh sách user của admin đọc từ primary");
+        Thread.sleep(stickyWindowMs + 200);
+        check(REPLICA_FULL_NAME.equals(adminFullName(client, token, adminUser)),
+                "hết sticky-window-ms, danh sách user lại đọc từ replica");
+
+        System.out.println("Định tuyến primary/replica đúng");
+    }
+
+    // Replica là bản chụp của primary, sau đó lệch đi ở tài khoản admin
+    private static void copyPrimaryToReplica(String primaryUrl, String replicaUrl, String adminUser) throws Exception {
+        Path snapshot = Path.of("target/replica-check/snapshot.sql").toAbsolutePath();
+        Files.createDirectories(snapshot.getParent());
+        try (Connection primary = DriverManager.getConnection(primaryUrl, "sa", "");
+             Statement statement = primary.createStatement()) {
+            statement.execute("SCRIPT TO '" + snapshot + "'");
+        }
+        try (Connection replica = DriverManager.getConnection(replicaUrl, "sa", "");
+             Statement statement = replica.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+            statement.execute("RUNSCRIPT FROM '" + snapshot + "'");
+            try (PreparedStatement diverge = replica.prepareStatement(
+                    "UPDATE users SET full_name = ?, role = 'ROLE_CUSTOMER' WHERE username = ?")) {
+                diverge.setString(1, REPLICA_FULL_NAME);
+                diverge.setString(2, adminUser);
+                diverge.executeUpdate();
+            }
+        }
+    }
+
+    private static String adminFullName(CafeClient client, String token, String adminUser) {
+        CafeClient.Response response = client.get("GET /api/users", "/api/users", token);
+        check(response.ok(), "GET /api/users, status " + response.status());
+        for (JsonNode user : response.body()) {
+            if (adminUser.equals(user.path("username").asText())) {
+                return user.path("fullName").asText();
+            }
+        }
+        return null;
+    }
+
+    private static int countCategories(String url, String name) throws SQLException {
+        try (Connection connection = DriverManager.getConnection(url, "sa", "");
+             PreparedStatement statement = connection.prepareStatement("SELECT COUNT(*) FROM categories WHERE name = ?")) {
+            statement.setString(1, name);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                resultSet.next();
+                return resultSet.getInt(1);
+            }
+        }
+    }
+
+    private static void check(boolean condition, String description) {
+        if (!condition) {
+            throw new IllegalStateException("Sai: " + description);
+        }
+        System.out.println("OK: " + description);
+    }
+}
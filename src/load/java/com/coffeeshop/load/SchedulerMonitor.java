@@ -0,0 +1,95 @@
+package com.coffeeshop.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Hỏi GET /api/admin/scheduler/backlog định kỳ trong lúc chạy tải để biết các job tự động có theo kịp
+ * lượng đơn hay không: job theo kịp khi bản ghi quá hạn lâu nhất chưa bao giờ chờ quá ngưỡng cho phép.
+ */
+final class SchedulerMonitor implements Runnable {
+
+    private record JobPeak(long maxOverdueCount, long maxOldestOverdueSeconds) {
+        JobPeak merge(long overdueCount, long oldestOverdueSeconds) {
+            return new JobPeak(Math.max(maxOverdueCount, overdueCount),
+                    Math.max(maxOldestOverdueSeconds, oldestOverdueSeconds));
+        }
+    }
+
+    private final CafeClient client;
+    private final String adminToken;
+    private final long pollMillis;
+    private final long lagToleranceSeconds;
+    private final Map<String, JobPeak> peaks = new TreeMap<>();
+    private volatile boolean running = true;
+    private int samples;
+    private boolean outsideOpeningHours;
+
+    SchedulerMonitor(CafeClient client, String adminToken, long pollSeconds, long lagToleranceSeconds) {
+        this.client = client;
+        this.adminToken = adminToken;
+        this.pollMillis = pollSeconds * 1000;
+        this.lagToleranceSeconds = lagToleranceSeconds;
+    }
+
+    @Override
+    public void run() {
+        while (running) {
+            poll();
+            try {
+                Thread.sleep(pollMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    void stop() {
+        running = false;
+    }
+
+    // Lấy thêm một mẫu cuối sau khi tải dừng
+    void poll() {
+        CafeClient.Response response = client.get("GET /api/admin/scheduler/backlog", "/api/admin/scheduler/backlog",
+                adminToken);
+        if (!response.ok()) {
+            return;
+        }
+        synchronized (this) {
+            samples++;
+            if (!response.body().path("withinOpeningHours").asBoolean(true)) {
+                outsideOpeningHours = true;
+            }
+            for (JsonNode job : response.body().path("jobs")) {
+                peaks.merge(job.path("job").asText(),
+                        new JobPeak(job.path("overdueCount").asLong(), job.path("oldestOverdueSeconds").asLong()),
+                        (a, b) -> a.merge(b.maxOverdueCount(), b.maxOldestOverdueSeconds()));
+            }
+        }
+    }
+
+    synchronized Map<String, Object> report() {
+        Map<String, Object> jobs = new LinkedHashMap<>();
+        boolean keepsUp = samples > 0;
+        for (Map.Entry<String, JobPeak> entry : peaks.entrySet()) {
+            JobPeak peak = entry.getValue();
+            boolean jobKeepsUp = peak.maxOldestOverdueSeconds() <= lagToleranceSeconds;
+            keepsUp &= jobKeepsUp;
+            jobs.put(entry.getKey(), Map.of(
+                    "maxOverdueCount", peak.maxOverdueCount(),
+                    "maxOldestOverdueSeconds", peak.maxOldestOverdueSeconds(),
+                    "keepsUp", jobKeepsUp));
+        }
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("samples", samples);
+        report.put("lagToleranceSeconds", lagToleranceSeconds);
+        report.put("outsideOpeningHours", outsideOpeningHours);
+        report.put("keepsUp", keepsUp);
+        report.put("jobs", jobs);
+        return report;
+    }
+}
@@ -0,0 +1,56 @@
+-- Dữ liệu mẫu cho load-h2.properties: chi nhánh mặc định, tài khoản admin (mật khẩu secret123), 3 danh mục, 20 món, 30 bàn
+INSERT INTO branches (code, name, is_active, created_at, updated_at) VALUES ('MAIN', 'Chi nhánh chính', TRUE, NOW(), NOW());
+INSERT INTO users (username, email, password, full_name, role, is_active, created_at, updated_at) VALUES ('admin', 'admin@load.test', '$2a$10$955HVgccmOtSedkrCvAAz.m0nr5io/4rgjErZj5cjWfSq6GABJTOC', 'Admin', 'ROLE_ADMIN', TRUE, NOW(), NOW());
+INSERT INTO categories (branch_id, name, is_active, display_order, created_at, updated_at) VALUES (1, 'Coffee', TRUE, 1, NOW(), NOW());
+INSERT INTO categories (branch_id, name, is_active, display_order, created_at, updated_at) VALUES (1, 'Tea', TRUE, 2, NOW(), NOW());
+INSERT INTO categories (branch_id, name, is_active, display_order, created_at, updated_at) VALUES (1, 'Cake', TRUE, 3, NOW(), NOW());
+INSERT INTO products (branch_id, category_id, name, price, is_available, preparation_time, display_order, created_at, updated_at) VALUES (1, 1, 'Espresso', 30000, TRUE, 6, 1, NOW(), NOW());
+INSERT INTO products (branch_id, category_id, name, price, is_available, preparation_time, display_order, created_at, updated_at) VALUES (1, 1, 'Americano', 35000, TRUE, 7, 2, NOW(), NOW());
+INSERT INTO products (branch_id, category_id, name, price, is_available, preparation_time, display_order, created_at, updated_at) VALUES (1, 1, 'Latte', 45000, TRUE, 8, 3, NOW(), NOW());
+INSERT INTO products (branch_id, category_id, name, price, is_available, preparation_time, display_order, created_at, updated_at) VALUES (1, 1, 'Cappuccino', 45000, TRUE, 9, 4, NOW(), NOW());
+INSERT INTO products (branch_id, category_id, name, price, is_available, preparation_time, display_order, created_at, updated_at) VALUES (1, 1, 'Mocha', 50000, TRUE, 5, 5, NOW(), NOW());
+INSERT INTO products (branch_id, category_id, name, price, is_available, preparation_time, display_order, created_at, updated_at) VALUES (1, 1, 'Cold brew', 48000, TRUE, 6, 6, NOW(), NOW());
+INSERT INTO products (branch_id, category_id, name, price, is_available, preparation_time, display_order, created_at, updated_at) VALUES (1, 1, 'Caramel macchiato', 55000, TRUE, 7, 7, NOW(), NOW());
+INSERT INTO products (branch_id, category_id, name, price, is_available, preparation_time, display_order, created_at, updated_at) VALUES (1, 1, 'Flat white', 45000, TRUE, 8, 8, NOW(), NOW());
+INSERT INTO products (branch_id, category_id, name, price, is_available, preparation_time, display_order, created_at, updated_at) VALUES (1, 2, 'Green tea', 25000, TRUE, 6, 1, NOW(), NOW());
+INSERT INTO products (branch_id, category_id, name, price, is_available, preparation_time, display_order, created_at, updated_at) VALUES (1, 2, 'Peach tea', 35000, TRUE, 7, 2, NOW(), NOW());
+INSERT INTO products (branch_id, category_id, name, price, is_available, preparation_time, display_order, created_at, updated_at) VALUES (1, 2, 'Milk tea', 40000, TRUE, 8, 3, NOW(), NOW());
+INSERT INTO products (branch_id, category_id, name, price, is_available, preparation_time, display_order, created_at, updated_at) VALUES (1, 2, 'Matcha latte', 50000, TRUE, 9, 4, NOW(), NOW());
+INSERT INTO products (branch_id, category_id, name, price, is_available, preparation_time, display_order, created_at, updated_at) VALUES (1, 2, 'Jasmine tea', 30000, TRUE, 5, 5, NOW(), NOW());
+INSERT INTO products (branch_id, category_id, name, price, is_available, preparation_time, display_order, created_at, updated_at) VALUES (1, 2, 'Lemon tea', 30000, TRUE, 6, 6, NOW(), NOW());
+INSERT INTO products (branch_id, category_id, name, price, is_available, preparation_time, display_order, created_at, updated_at) VALUES (1, 3, 'Cheesecake', 45000, TRUE, 6, 1, NOW(), NOW());
+INSERT INTO products (branch_id, category_id, name, price, is_available, preparation_time, display_order, created_at, updated_at) VALUES (1, 3, 'Tiramisu', 50000, TRUE, 7, 2, NOW(), NOW());
+INSERT INTO products (branch_id, category_id, name, price, is_available, preparation_time, display_order, created_at, updated_at) VALUES (1, 3, 'Croissant', 30000, TRUE, 8, 3, NOW(), NOW());
+INSERT INTO products (branch_id, category_id, name, price, is_available, preparation_time, display_order, created_at, updated_at) VALUES (1, 3, 'Brownie', 35000, TRUE, 9, 4, NOW(), NOW());
+INSERT INTO products (branch_id, category_id, name, price, is_available, preparation_time, display_order, created_at, updated_at) VALUES (1, 3, 'Muffin', 30000, TRUE, 5, 5, NOW(), NOW());
+INSERT INTO products (branch_id, category_id, name, price, is_available, preparation_time, display_order, created_at, updated_at) VALUES (1, 3, 'Mousse cake', 45000, TRUE, 6, 6, NOW(), NOW());
+INSERT INTO tables (branch_id, table_number, capacity, location, status, is_active, created_at, updated_at) VALUES (1, 'T1', 2, 'Indoor', 'AVAILABLE', TRUE, NOW(), NOW());
+INSERT INTO tables (branch_id, table_number, capacity, location, status, is_active, created_at, updated_at) VALUES (1, 'T2', 4, 'Indoor', 'AVAILABLE', TRUE, NOW(), NOW());
+INSERT INTO tables (branch_id, table_number, capacity, location, status, is_active, created_at, updated_at) VALUES (1, 'T3', 4, 'Indoor', 'AVAILABLE', TRUE, NOW(), NOW());
+INSERT INTO tables (branch_id, table_number, capacity, location, status, is_active, created_at, updated_at) VALUES (1, 'T4', 6, 'Indoor', 'AVAILABLE', TRUE, NOW(), NOW());
+INSERT INTO tables (branch_id, table_number, capacity, location, status, is_active, created_at, updated_at) VALUES (1, 'T5', 2, 'Indoor', 'AVAILABLE', TRUE, NOW(), NOW());
+INSERT INTO tables (branch_id, table_number, capacity, location, status, is_active, created_at, updated_at) VALUES (1, 'T6', 2, 'Indoor', 'AVAILABLE', TRUE, NOW(), NOW());
+INSERT INTO tables (branch_id, table_number, capacity, location, status, is_active, created_at, updated_at) VALUES (1, 'T7', 4, 'Indoor', 'AVAILABLE', TRUE, NOW(), NOW());
+INSERT INTO tables (branch_id, table_number, capacity, location, status, is_active, created_at, updated_at) VALUES (1, 'T8', 4, 'Indoor', 'AVAILABLE', TRUE, NOW(), NOW());
+INSERT INTO tables (branch_id, table_number, capacity, location, status, is_active, created_at, updated_at) VALUES (1, 'T9', 6, 'Indoor', 'AVAILABLE', TRUE, NOW(), NOW());
+INSERT INTO tables (branch_id, table_number, capacity, location, status, is_active, created_at, updated_at) VALUES (1, 'T10', 2, 'Indoor', 'AVAILABLE', TRUE, NOW(), NOW());
+INSERT INTO tables (branch_id, table_number, capacity, location, status, is_active, created_at, updated_at) VALUES (1, 'T11', 2, 'Indoor', 'AVAILABLE', TRUE, NOW(), NOW());
+INSERT INTO tables (branch_id, table_number, capacity, location, status, is_active, created_at, updated_at) VALUES (1, 'T12', 4, 'Indoor', 'AVAILABLE', TRUE, NOW(), NOW());
+INSERT INTO tables (branch_id, table_number, capacity, location, status, is_active, created_at, updated_at) VALUES (1, 'T13', 4, 'Indoor', 'AVAILABLE', TRUE, NOW(), NOW());
+INSERT INTO tables (branch_id, table_number, capacity, location, status, is_active, created_at, updated_at) VALUES (1, 'T14', 6, 'Indoor', 'AVAILABLE', TRUE, NOW(), NOW());
+INSERT INTO tables (branch_id, table_number, capacity, location, status, is_active, created_at, updated_at) VALUES (1, 'T15', 2, 'Indoor', 'AVAILABLE', TRUE, NOW(), NOW());
+INSERT INTO tables (branch_id, table_number, capacity, location, status, is_active, created_at, updated_at) VALUES (1, 'T16', 2, 'Outdoor', 'AVAILABLE', TRUE, NOW(), NOW());
+INSERT INTO tables (branch_id, table_number, capacity, location, status, is_active, created_at, updated_at) VALUES (1, 'T17', 4, 'Outdoor', 'AVAILABLE', TRUE, NOW(), NOW());
+INSERT INTO tables (branch_id, table_number, capacity, location, status, is_active, created_at, updated_at) VALUES (1, 'T18', 4, 'Outdoor', 'AVAILABLE', TRUE, NOW(), NOW());
+INSERT INTO tables (branch_id, table_number, capacity, location, status, is_active, created_at, updated_at) VALUES (1, 'T19', 6, 'Outdoor', 'AVAILABLE', TRUE, NOW(), NOW());
+INSERT INTO tables (branch_id, table_number, capacity, location, status, is_active, created_at, updated_at) VALUES (1, 'T20', 2, 'Outdoor', 'AVAILABLE', TRUE, NOW(), NOW());
+INSERT INTO tables (branch_id, table_number, capacity, location, status, is_active, created_at, updated_at) VALUES (1, 'T21', 2, 'Outdoor', 'AVAILABLE', TRUE, NOW(), NOW());
+INSERT INTO tables (branch_id, table_number, capacity, location, status, is_active, created_at, updated_at) VALUES (1, 'T22', 4, 'Outdoor', 'AVAILABLE', TRUE, NOW(), NOW());
+INSERT INTO tables (branch_id, table_number, capacity, location, status, is_active, created_at, updated_at) VALUES (1, 'T23', 4, 'Outdoor', 'AVAILABLE', TRUE, NOW(), NOW());
+INSERT INTO tables (branch_id, table_number, capacity, location, status, is_active, created_at, updated_at) VALUES (1, 'T24', 6, 'Outdoor', 'AVAILABLE', TRUE, NOW(), NOW());
+INSERT INTO tables (branch_id, table_number, capacity, location, status, is_active, created_at, updated_at) VALUES (1, 'T25', 2, 'Outdoor', 'AVAILABLE', TRUE, NOW(), NOW());
+INSERT INTO tables (branch_id, table_number, capacity, location, status, is_active, created_at, updated_at) VALUES (1, 'T26', 2, 'Rooftop', 'AVAILABLE', TRUE, NOW(), NOW());
+INSERT INTO tables (branch_id, table_number, capacity, location, status, is_active, created_at, updated_at) VALUES (1, 'T27', 4, 'Rooftop', 'AVAILABLE', TRUE, NOW(), NOW());
+INSERT INTO tables (branch_id, table_number, capacity, location, status, is_active, created_at, updated_at) VALUES (1, 'T28', 4, 'Rooftop', 'AVAILABLE', TRUE, NOW(), NOW());
+INSERT INTO tables (branch_id, table_number, capacity, location, status, is_active, created_at, updated_at) VALUES (1, 'T29', 6, 'Rooftop', 'AVAILABLE', TRUE, NOW(), NOW());
+INSERT INTO tables (branch_id, table_number, capacity, location, status, is_active, created_at, updated_at) VALUES (1, 'T30', 2, 'Rooftop', 'AVAILABLE', TRUE, NOW(), NOW());
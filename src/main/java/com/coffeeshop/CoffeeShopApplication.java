@@ -1,17 +1,22 @@
 package com.coffeeshop;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Profile;
 import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 import com.coffeeshop.repository.UserRepository;
 
 @SpringBootApplication
 @EnableAsync
+@EnableScheduling
 public class CoffeeShopApplication {
+	private static final Logger logger = LoggerFactory.getLogger(CoffeeShopApplication.class);
 
 	public static void main(String[] args) {
 		SpringApplication.run(CoffeeShopApplication.class, args);
@@ -20,11 +25,7 @@ public class CoffeeShopApplication {
 	@Bean
 	@Profile("!test")
 	CommandLineRunner testDatabase(UserRepository userRepository) {
-		return args -> {
-			System.out.println("📦 Danh sách người dùng từ MySQL:");
-			userRepository.findAll().forEach(user -> {
-				System.out.println("👤 " + user.getUsername() + " - Vai trò: " + user.getRole());
-			});
-		};
+		// Chỉ kiểm tra kết nối DB, không nạp toàn bộ bảng users lúc khởi động
+		return args -> logger.info("Kết nối DB thành công: {} người dùng", userRepository.count());
 	}
 }
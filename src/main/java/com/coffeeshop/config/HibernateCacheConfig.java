@@ -0,0 +1,130 @@
+package com.coffeeshop.config;
+
+import com.coffeeshop.service.ClusterService;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.configuration.FactoryBuilder;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Region của Hibernate second-level cache, lưu trong Caffeine qua JCache.
+ *
+ * - product, category, setting: dữ liệu gần như chỉ đọc, admin sửa qua JPA nên Hibernate tự cập nhật
+ *   cache; TTL chỉ để giới hạn độ cũ khi một instance khác ghi.
+ * - default-query-results-region: kết quả findBy..., findAll có hint cacheable; Hibernate bỏ qua kết quả
+ *   cũ hơn lần ghi gần nhất vào bảng liên quan (default-update-timestamps-region, không được hết hạn).
+ *
+ * Cache và việc invalidate chỉ nằm trong từng JVM: khi ClusterService thấy nhiều hơn một instance, entry của
+ * các region trên hết hạn sau entityCacheClusterTtlSeconds thay vì entityCacheTtlSeconds, để giá, trạng thái
+ * còn bán hay thiết lập sửa ở instance khác (và dòng import bằng BulkDataService) hiện ra sau chừng đó.
+ *
+ * Số hit/miss/put theo region có ở metric hibernate.second.level.cache.* và /api/admin/query-findings.
+ */
+@Configuration
+public class HibernateCacheConfig {
+    public static final String PRODUCT_REGION = "product";
+    public static final String CATEGORY_REGION = "category";
+    public static final String SETTING_REGION = "setting";
+
+    private static final String QUERY_RESULTS_REGION = "default-query-results-region";
+    private static final String UPDATE_TIMESTAMPS_REGION = "default-update-timestamps-region";
+
+    @Value("${app.entityCacheMaxSize:10000}")
+    private long entityCacheMaxSize;
+
+    @Value("${app.entityCacheTtlSeconds:600}")
+    private long entityCacheTtlSeconds;
+
+    @Value("${app.entityCacheClusterTtlSeconds:5}")
+    private long entityCacheClusterTtlSeconds;
+
+    @Value("${app.queryCacheMaxSize:1000}")
+    private long queryCacheMaxSize;
+
+    // ClusterService cần EntityManagerFactory, vốn cần CacheManager này, nên chỉ lấy khi cache được dùng
+    @Bean(destroyMethod = "close")
+    CacheManager hibernateCacheManager(ObjectProvider<ClusterService> clusterService) {
+        ClusterAwareExpiry expiry = new ClusterAwareExpiry(clusterService, entityCacheTtlSeconds,
+                entityCacheClusterTtlSeconds);
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName()).getCacheManager();
+        for (String region : new String[] {PRODUCT_REGION, CATEGORY_REGION, SETTING_REGION}) {
+            cacheManager.createCache(region, region(entityCacheMaxSize, expiry));
+        }
+        cacheManager.createCache(QUERY_RESULTS_REGION, region(queryCacheMaxSize, expiry));
+        cacheManager.createCache(UPDATE_TIMESTAMPS_REGION, region(entityCacheMaxSize, null));
+        return cacheManager;
+    }
+
+    @Bean
+    HibernatePropertiesCustomizer hibernateCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+
+    // expiry = null: không hết hạn
+    private static CaffeineConfiguration<Object, Object> region(long maxSize, Expiry<Object, Object> expiry) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        // Hibernate đã lưu bản "dehydrated" của entity, không cần serialize thêm khi đọc/ghi cache
+        configuration.setStoreByValue(false);
+        configuration.setMaximumSize(OptionalLong.of(maxSize));
+        if (expiry != null) {
+            configuration.setExpiryFactory(Optional.of(new FactoryBuilder.SingletonFactory<>(expiry)));
+        }
+        return configuration;
+    }
+
+    /**
+     * Hết hạn ttl sau khi ghi, rút xuống clusterTtl khi có nhiều hơn một instance. Entry ghi lúc chỉ có một
+     * instance được rút ngắn ở lần đọc đầu tiên sau khi instance khác tham gia. ttlSeconds = 0: không hết hạn.
+     */
+    private static final class ClusterAwareExpiry implements Expiry<Object, Object> {
+        private final ObjectProvider<ClusterService> clusterServiceProvider;
+        private final long ttlNanos;
+        private final long clusterTtlNanos;
+        private volatile ClusterService clusterService;
+
+        ClusterAwareExpiry(ObjectProvider<ClusterService> clusterServiceProvider, long ttlSeconds, long clusterTtlSeconds) {
+            this.clusterServiceProvider = clusterServiceProvider;
+            this.ttlNanos = ttlSeconds > 0 ? TimeUnit.SECONDS.toNanos(ttlSeconds) : Long.MAX_VALUE;
+            this.clusterTtlNanos = Math.min(ttlNanos, TimeUnit.SECONDS.toNanos(clusterTtlSeconds));
+        }
+
+        @Override
+        public long expireAfterCreate(Object key, Object value, long currentTime) {
+            return clustered() ? clusterTtlNanos : ttlNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(Object key, Object value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(Object key, Object value, long currentTime, long currentDuration) {
+            return clustered() ? Math.min(currentDuration, clusterTtlNanos) : currentDuration;
+        }
+
+        private boolean clustered() {
+            ClusterService service = clusterService;
+            if (service == null) {
+                service = clusterServiceProvider.getIfAvailable();
+                if (service == null) {
+                    return false;
+                }
+                clusterService = service;
+            }
+            return service.getLiveNodeCount() > 1;
+        }
+    }
+}
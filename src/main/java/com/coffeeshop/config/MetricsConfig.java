@@ -0,0 +1,57 @@
+package com.coffeeshop.config;
+
+import com.coffeeshop.controller.admin.BoardWebSocketHandler;
+import com.coffeeshop.enums.OutboxStatus;
+import com.coffeeshop.repository.OutboxEventRepository;
+import com.coffeeshop.service.ClusterService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.EnumSet;
+
+/**
+ * Các gauge được đọc lúc Prometheus scrape. Timer và counter của từng nghiệp vụ được đăng ký
+ * ngay trong service tương ứng; thời gian mỗi lượt chạy của job @Scheduled do Spring ghi sẵn
+ * (tasks.scheduled.execution), pool Hikari do Spring Boot ghi sẵn (hikaricp.*).
+ *
+ * Tag chỉ lấy từ enum hoặc hằng số trong code để số time series không tăng theo dữ liệu.
+ */
+@Configuration
+public class MetricsConfig {
+
+    // Hàng đợi của thông báo và các xử lý sau commit: sự kiện outbox chưa phát (PENDING) hoặc đã bỏ cuộc (FAILED)
+    @Bean
+    MeterBinder outboxMetrics(OutboxEventRepository outboxEventRepository) {
+        return registry -> {
+            for (OutboxStatus status : EnumSet.of(OutboxStatus.PENDING, OutboxStatus.FAILED)) {
+                Gauge.builder("coffeeshop.outbox.events", outboxEventRepository, repository -> repository.countByStatus(status))
+                        .description("Số sự kiện outbox theo trạng thái")
+                        .tag("status", status.name())
+                        .register(registry);
+            }
+        };
+    }
+
+    @Bean
+    MeterBinder boardMetrics(BoardWebSocketHandler boardWebSocketHandler) {
+        return registry -> Gauge.builder("coffeeshop.board.connections", boardWebSocketHandler,
+                        BoardWebSocketHandler::getConnectionCount)
+                .description("Số kết nối WebSocket /ws/board đang mở")
+                .register(registry);
+    }
+
+    // Số instance còn sống mà instance này thấy (0 khi chưa/không gia hạn được lease) và instance có là leader
+    @Bean
+    MeterBinder clusterMetrics(ClusterService clusterService) {
+        return registry -> {
+            Gauge.builder("coffeeshop.cluster.nodes", clusterService, ClusterService::getLiveNodeCount)
+                    .description("Số instance đang chạy job nền")
+                    .register(registry);
+            Gauge.builder("coffeeshop.cluster.leader", clusterService, service -> service.isLeader() ? 1 : 0)
+                    .description("1 nếu instance đang giữ lease leader")
+                    .register(registry);
+        };
+    }
+}
@@ -0,0 +1,20 @@
+package com.coffeeshop.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Cho phép phương thức (hoặc mọi phương thức của lớp) đọc từ replica khi bật profile "replica".
+ *
+ * Chỉ có tác dụng với transaction @Transactional(readOnly = true) mở bên trong phương thức; mọi truy cập
+ * khác, kể cả repository gọi trực tiếp, đều đi primary. Chỉ đánh dấu những chỗ đọc chấp nhận được độ trễ
+ * replication (báo cáo, danh sách quản trị, thực đơn), không đánh dấu chỗ đọc để quyết định một lần ghi.
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ReadReplica {
+}
@@ -0,0 +1,28 @@
+package com.coffeeshop.config;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bật cờ cho phép đọc replica trong lúc chạy phương thức @ReadReplica. Chạy trước @Transactional để cờ
+ * đã có khi transaction lấy connection; không có cấu hình replica thì cờ không được ai đọc.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class ReadReplicaAspect {
+
+    @Around("@annotation(com.coffeeshop.config.ReadReplica) || @within(com.coffeeshop.config.ReadReplica)")
+    public Object allowReplica(ProceedingJoinPoint joinPoint) throws Throwable {
+        boolean previous = ReplicaRoutingDataSource.setReplicaAllowed(true);
+        try {
+            return joinPoint.proceed();
+        } finally {
+            ReplicaRoutingDataSource.setReplicaAllowed(previous);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.coffeeshop.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * Tách đọc/ghi khi có cấu hình app.datasource.replica.jdbc-url (xem profile "replica").
+ * Không có cấu hình này thì Spring Boot tự tạo một DataSource duy nhất như trước.
+ *
+ * primary: cấu hình từ spring.datasource.* và spring.datasource.hikari.*
+ * replica: cấu hình Hikari từ app.datasource.replica.*
+ *
+ * Chỉ phương thức @ReadReplica đọc từ replica (xem ReplicaRoutingDataSource). Bắt buộc
+ * spring.jpa.open-in-view=false, nếu không ứng dụng dừng ngay khi khởi động.
+ * Ở chế độ virtual thread, mỗi pool được bọc bằng ConnectionBulkheadDataSource riêng (xem VirtualThreadConfig).
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.datasource.replica", name = "jdbc-url")
+public class ReplicaDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    @ConfigurationProperties("app.datasource.replica")
+    HikariDataSource replicaDataSource() {
+        return DataSourceBuilder.create().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    @Primary
+    DataSource dataSource(@Qualifier("primaryDataSource") HikariDataSource primaryDataSource,
+                          @Qualifier("replicaDataSource") HikariDataSource replicaDataSource,
+                          @Value("${app.datasource.replica.sticky-window-ms:5000}") long stickyWindowMs,
+                          @Value("${app.datasource.replica.retry-ms:30000}") long replicaRetryMs,
+                          @Value("${spring.jpa.open-in-view:true}") boolean openInView,
+                          Environment environment) {
+        if (openInView) {
+            throw new IllegalArgumentException(
+                    "Tách đọc/ghi cần spring.jpa.open-in-view=false: session của request giữ connection replica cho cả các lần ghi sau đó");
+        }
+        DataSource primary = primaryDataSource;
+        DataSource replica = replicaDataSource;
+        if (Threading.VIRTUAL.isActive(environment)) {
+            primary = VirtualThreadConfig.bulkhead(primaryDataSource, environment);
+            replica = VirtualThreadConfig.bulkhead(replicaDataSource, environment);
+        }
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary, replica, stickyWindowMs, replicaRetryMs);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+}
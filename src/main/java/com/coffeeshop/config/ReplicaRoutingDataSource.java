@@ -0,0 +1,116 @@
+package com.coffeeshop.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Định tuyến connection giữa primary và replica.
+ *
+ * - Chỉ transaction @Transactional(readOnly = true) mở bên trong phương thức @ReadReplica đi tới replica;
+ *   mọi thứ khác (transaction ghi, repository gọi trực tiếp, đọc để quyết định ghi) đi primary.
+ * - Sau khi một user mở transaction ghi, các transaction đọc của chính user đó
+ *   vẫn đi primary trong stickyWindowMs để đọc được dữ liệu vừa ghi
+ *   (replica có độ trễ replication).
+ * - Nếu replica không lấy được connection, quay về primary và tạm bỏ qua replica
+ *   trong replicaRetryMs.
+ *
+ * Phải được bọc bởi LazyConnectionDataSourceProxy để connection chỉ được lấy
+ * sau khi transaction đã đặt cờ readOnly, và chạy với spring.jpa.open-in-view=false: khi bật,
+ * session của request giữ connection đầu tiên cho tới hết request, kể cả cho các lần ghi sau đó.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    public enum Route { PRIMARY, REPLICA }
+
+    private static final int MAX_TRACKED_WRITERS = 10_000;
+
+    private static final ThreadLocal<Boolean> REPLICA_ALLOWED = ThreadLocal.withInitial(() -> false);
+
+    private final DataSource primary;
+    private final DataSource replica;
+    private final long stickyWindowMs;
+    private final long replicaRetryMs;
+    private final Map<String, Long> lastWriteByUser = new ConcurrentHashMap<>();
+    private volatile long replicaDownUntil = 0L;
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, long stickyWindowMs, long replicaRetryMs) {
+        this.primary = primary;
+        this.replica = replica;
+        this.stickyWindowMs = stickyWindowMs;
+        this.replicaRetryMs = replicaRetryMs;
+        setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        long now = System.currentTimeMillis();
+        String username = currentUsername();
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (username != null && TransactionSynchronizationManager.isActualTransactionActive()) {
+                if (lastWriteByUser.size() >= MAX_TRACKED_WRITERS) {
+                    lastWriteByUser.values().removeIf(lastWrite -> now - lastWrite >= stickyWindowMs);
+                }
+                lastWriteByUser.put(username, now);
+            }
+            return Route.PRIMARY;
+        }
+        if (!REPLICA_ALLOWED.get() || now < replicaDownUntil) {
+            return Route.PRIMARY;
+        }
+        if (username != null) {
+            Long lastWrite = lastWriteByUser.get(username);
+            if (lastWrite != null) {
+                if (now - lastWrite < stickyWindowMs) {
+                    return Route.PRIMARY;
+                }
+                lastWriteByUser.remove(username, lastWrite);
+            }
+        }
+        return Route.REPLICA;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (determineCurrentLookupKey() != Route.REPLICA) {
+            return primary.getConnection();
+        }
+        try {
+            return replica.getConnection();
+        } catch (SQLException e) {
+            replicaDownUntil = System.currentTimeMillis() + replicaRetryMs;
+            logger.warn("Replica unavailable, falling back to primary for {} ms: {}", replicaRetryMs, e.getMessage());
+            return primary.getConnection();
+        }
+    }
+
+    /**
+     * Đặt cờ cho phép đọc replica của luồng hiện tại (xem ReadReplicaAspect), trả về giá trị cũ để khôi phục.
+     */
+    static boolean setReplicaAllowed(boolean allowed) {
+        boolean previous = REPLICA_ALLOWED.get();
+        if (allowed) {
+            REPLICA_ALLOWED.set(true);
+        } else {
+            REPLICA_ALLOWED.remove();
+        }
+        return previous;
+    }
+
+    private String currentUsername() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.isAuthenticated() ? authentication.getName() : null;
+    }
+}
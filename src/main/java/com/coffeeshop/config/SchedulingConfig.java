@@ -1,5 +1,8 @@
 package com.coffeeshop.config;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -15,7 +18,21 @@ public class SchedulingConfig {
      * @return một instance của ScheduledExecutorService.
      */
     @Bean
+    @ConditionalOnThreading(Threading.PLATFORM)
     ScheduledExecutorService taskScheduler() {
         return Executors.newSingleThreadScheduledExecutor();
     }
-} 
\ No newline at end of file
+
+    /**
+     * Chế độ virtual thread (spring.threads.virtual.enabled=true): các tác vụ hẹn giờ
+     * (@Scheduled, timer của OrderSchedulingService) chạy trên virtual thread nên
+     * thời gian chờ JDBC không giữ luồng hệ điều hành. Dùng nhiều worker vì một
+     * tác vụ bị block không còn làm trễ các tác vụ khác.
+     * @return ScheduledExecutorService dùng virtual thread.
+     */
+    @Bean(name = "taskScheduler")
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    ScheduledExecutorService virtualTaskScheduler(@Value("${app.virtualScheduler.poolSize:4}") int poolSize) {
+        return Executors.newScheduledThreadPool(poolSize, Thread.ofVirtual().name("scheduler-vt-", 0).factory());
+    }
+}
@@ -1,17 +1,22 @@
 package com.coffeeshop.config;
 
 import com.coffeeshop.security.JwtAuthenticationFilter;
+import com.coffeeshop.security.TunableBCryptPasswordEncoder;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+
+import java.util.Map;
 
 @Configuration
 @EnableWebSecurity
@@ -21,6 +26,10 @@ public class SecurityConfig {
     @Autowired
     private JwtAuthenticationFilter jwtAuthenticationFilter;
 
+    // Cổng riêng của actuator (chỉ mở trong mạng nội bộ); không cấu hình thì actuator chạy chung cổng ứng dụng
+    @Value("${management.server.port:-1}")
+    private int managementPort;
+
     @Bean
     SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
         http
@@ -34,6 +43,12 @@ public class SecurityConfig {
                     "/api/auth/refresh",
                     "/api/auth/logout"  // Thêm endpoint này!
                 ).permitAll()
+                // Health check và Prometheus scrape không mang JWT; scrape chỉ được mở trên cổng actuator riêng,
+                // trên cổng ứng dụng cần quyền ADMIN như các endpoint actuator khác
+                .requestMatchers("/actuator/health").permitAll()
+                .requestMatchers(prometheusOnManagementPort()).permitAll()
+                .requestMatchers("/actuator/**").hasRole("ADMIN")
+                .requestMatchers("/ws/**").hasRole("ADMIN")
                 .anyRequest().authenticated()
             )
             .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
@@ -41,8 +56,21 @@ public class SecurityConfig {
         return http.build();
     }
 
+    private RequestMatcher prometheusOnManagementPort() {
+        return request -> managementPort > 0 && request.getLocalPort() == managementPort
+                && "/actuator/prometheus".equals(request.getRequestURI());
+    }
+
+    /**
+     * Hash mới có dạng {bcrypt}$2a$<cost>$...; hash cũ không có prefix vẫn được kiểm tra bằng BCrypt.
+     * upgradeEncoding() trả về true khi hash thiếu prefix hoặc cost khác app.bcryptStrength,
+     * AuthServiceImpl.login dùng nó để mã hóa lại mật khẩu sau khi đăng nhập thành công.
+     */
     @Bean
-    PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    PasswordEncoder passwordEncoder(@Value("${app.bcryptStrength:10}") int bcryptStrength) {
+        TunableBCryptPasswordEncoder bcrypt = new TunableBCryptPasswordEncoder(bcryptStrength);
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder("bcrypt", Map.of("bcrypt", bcrypt));
+        encoder.setDefaultPasswordEncoderForMatches(bcrypt);
+        return encoder;
     }
 } 
\ No newline at end of file
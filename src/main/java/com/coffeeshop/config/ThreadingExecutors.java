@@ -0,0 +1,28 @@
+package com.coffeeshop.config;
+
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Executor nội bộ của các thành phần chạy nền (outbox relay, job theo chi nhánh, board websocket),
+ * theo cùng chế độ luồng với Tomcat và @Async (spring.threads.virtual.enabled):
+ * - virtual: một virtual thread cho mỗi tác vụ;
+ * - platform: pool platform thread tự co giãn, luồng rảnh quá 60 giây bị thu hồi. Số tác vụ đồng thời
+ *   đã bị giới hạn ở nơi gọi (số aggregate mỗi lượt, số chi nhánh, số kết nối).
+ *
+ * Không khai báo dưới dạng bean Executor để không thay thế executor mặc định của @Async.
+ */
+public final class ThreadingExecutors {
+
+    private ThreadingExecutors() {}
+
+    public static ExecutorService newPerTaskExecutor(Environment environment, String namePrefix) {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(namePrefix, 0).factory());
+        }
+        return Executors.newCachedThreadPool(Thread.ofPlatform().name(namePrefix, 0).daemon(true).factory());
+    }
+}
@@ -0,0 +1,48 @@
+package com.coffeeshop.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+
+/**
+ * Cấu hình bổ sung cho chế độ virtual thread (profile "vthreads").
+ * Tomcat và executor của @Async được Spring Boot tự chuyển sang virtual thread;
+ * scheduler được cấu hình trong SchedulingConfig, executor nội bộ trong ThreadingExecutors.
+ *
+ * Ở đây khai báo pool Hikari (bean "poolDataSource", cấu hình từ spring.datasource.*) và DataSource chính
+ * là ConnectionBulkheadDataSource bọc pool đó, để virtual thread không dồn ứ vào Hikari. Khi tách đọc/ghi
+ * (profile "replica"), ReplicaDataSourceConfig tự bọc cả hai pool nên cấu hình này không được dùng.
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+@ConditionalOnExpression("'${app.datasource.replica.jdbc-url:}'.isEmpty()")
+public class VirtualThreadConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    HikariDataSource poolDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    @Primary
+    ConnectionBulkheadDataSource dataSource(@Qualifier("poolDataSource") HikariDataSource poolDataSource,
+                                            Environment environment) {
+        return bulkhead(poolDataSource, environment);
+    }
+
+    // Tối đa (maximum-pool-size + max-waiters) luồng được giữ/chờ connection của pool
+    static ConnectionBulkheadDataSource bulkhead(HikariDataSource pool, Environment environment) {
+        int maxWaiters = environment.getProperty("app.datasource.bulkhead.max-waiters", Integer.class, 200);
+        long acquireTimeoutMs = environment.getProperty("app.datasource.bulkhead.acquire-timeout-ms", Long.class, 2000L);
+        return new ConnectionBulkheadDataSource(pool, pool.getMaximumPoolSize() + maxWaiters, acquireTimeoutMs);
+    }
+}
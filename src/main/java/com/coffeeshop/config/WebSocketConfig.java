@@ -0,0 +1,50 @@
+package com.coffeeshop.config;
+
+import com.coffeeshop.controller.admin.BoardWebSocketHandler;
+import com.coffeeshop.tenant.BranchContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+
+import java.util.Map;
+
+/**
+ * Endpoint WebSocket. Handshake được xác thực bởi JwtAuthenticationFilter
+ * (token trong tham số access_token vì trình duyệt không gửi được header Authorization).
+ * Chi nhánh (tham số branchId, xem BranchFilter) được lưu vào session lúc handshake.
+ */
+@Configuration
+@EnableWebSocket
+public class WebSocketConfig implements WebSocketConfigurer {
+
+    @Autowired
+    private BoardWebSocketHandler boardWebSocketHandler;
+
+    @Value("${app.boardAllowedOrigins:*}")
+    private String[] allowedOrigins;
+
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        registry.addHandler(boardWebSocketHandler, "/ws/board").setAllowedOriginPatterns(allowedOrigins)
+                .addInterceptors(new HandshakeInterceptor() {
+                    @Override
+                    public boolean beforeHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                                                   WebSocketHandler wsHandler, Map<String, Object> attributes) {
+                        attributes.put(BoardWebSocketHandler.BRANCH_ATTRIBUTE, BranchContext.current());
+                        return true;
+                    }
+
+                    @Override
+                    public void afterHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                                               WebSocketHandler wsHandler, Exception exception) {
+                    }
+                });
+    }
+}
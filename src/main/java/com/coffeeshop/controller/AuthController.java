@@ -5,22 +5,26 @@ import com.coffeeshop.dto.auth.AuthResponseDTO;
 import com.coffeeshop.dto.auth.RefreshTokenRequestDTO;
 import com.coffeeshop.dto.auth.RefreshTokenResponseDTO;
 import com.coffeeshop.dto.auth.RegisterRequestDTO;
+import com.coffeeshop.security.PasswordHashingExecutor;
 import com.coffeeshop.service.AuthService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import jakarta.validation.Valid;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/auth")
 public class AuthController {
     @Autowired
     private AuthService authService;
+    @Autowired
+    private PasswordHashingExecutor passwordHashingExecutor;
 
     @PostMapping("/login")
-    public ResponseEntity<AuthResponseDTO> login(@Valid @RequestBody AuthRequestDTO request) {
-        AuthResponseDTO response = authService.login(request);
-        return ResponseEntity.ok(response);
+    public CompletableFuture<ResponseEntity<AuthResponseDTO>> login(@Valid @RequestBody AuthRequestDTO request) {
+        // BCrypt chạy trên pool giới hạn, luồng servlet được trả lại trong lúc chờ
+        return passwordHashingExecutor.submit(() -> ResponseEntity.ok(authService.login(request)));
     }
 
     @PostMapping("/refresh")
@@ -36,8 +40,7 @@ public class AuthController {
     }
 
     @PostMapping("/register")
-    public ResponseEntity<String> register(@Valid @RequestBody RegisterRequestDTO request) {
-        String message = authService.register(request);
-        return ResponseEntity.ok(message);
+    public CompletableFuture<ResponseEntity<String>> register(@Valid @RequestBody RegisterRequestDTO request) {
+        return passwordHashingExecutor.submit(() -> ResponseEntity.ok(authService.register(request)));
     }
 } 
\ No newline at end of file
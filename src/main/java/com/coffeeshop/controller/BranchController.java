@@ -0,0 +1,43 @@
+package com.coffeeshop.controller;
+
+import com.coffeeshop.dto.admin.request.AdminBranchRequestDTO;
+import com.coffeeshop.dto.admin.response.AdminBranchResponseDTO;
+import com.coffeeshop.service.BranchService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Chi nhánh. Client chọn chi nhánh cho mỗi request bằng header X-Branch-Id (mặc định chi nhánh 1).
+ */
+@RestController
+@RequestMapping("/api/branches")
+public class BranchController {
+    @Autowired
+    private BranchService branchService;
+
+    @GetMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public List<AdminBranchResponseDTO> getAllBranches() {
+        return branchService.getAllBranches();
+    }
+
+    @GetMapping("/public-list")
+    public List<AdminBranchResponseDTO> getActiveBranches() {
+        return branchService.getActiveBranches();
+    }
+
+    @PostMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public AdminBranchResponseDTO createBranch(@RequestBody AdminBranchRequestDTO request) {
+        return branchService.createBranch(request);
+    }
+
+    @PutMapping("/{id}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public AdminBranchResponseDTO updateBranch(@PathVariable Integer id, @RequestBody AdminBranchRequestDTO request) {
+        return branchService.updateBranch(id, request);
+    }
+}
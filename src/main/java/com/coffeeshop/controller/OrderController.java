@@ -2,7 +2,11 @@ package com.coffeeshop.controller;
 
 import com.coffeeshop.dto.customer.response.CustomerOrderResponseDTO;
 import com.coffeeshop.dto.customer.request.CustomerOrderRequestDTO;
+import com.coffeeshop.service.IdempotencyService;
 import com.coffeeshop.service.OrderService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
@@ -10,6 +14,8 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 import jakarta.validation.Valid;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/orders")
@@ -18,11 +24,35 @@ public class OrderController {
     @Autowired
     private OrderService orderService;
 
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Timer orderCreatedTimer;
+    private Timer orderFailedTimer;
+
+    @PostConstruct
+    void initMetrics() {
+        orderCreatedTimer = orderCreationTimer("created");
+        orderFailedTimer = orderCreationTimer("failed");
+    }
+
     @PostMapping
     @PreAuthorize("isAuthenticated()")
     public CustomerOrderResponseDTO createOrderWithItems(@Valid @RequestBody CustomerOrderRequestDTO orderRequestDTO,
-                                                       @AuthenticationPrincipal UserDetails userDetails) {
-        return orderService.createOrderWithItems(orderRequestDTO, userDetails.getUsername());
+                                                       @AuthenticationPrincipal UserDetails userDetails,
+                                                       @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        return idempotencyService.execute("orders", userDetails.getUsername(), idempotencyKey, orderRequestDTO, CustomerOrderResponseDTO.class,
+                () -> timeOrderCreation(() -> orderService.createOrderWithItems(orderRequestDTO, userDetails.getUsername())));
+    }
+
+    // Hủy đơn chưa phục vụ, kể cả đơn đã thanh toán hoặc đang làm; hoàn tiền làm tại quầy/cổng thanh toán
+    @PostMapping("/{id}/cancel")
+    @PreAuthorize("hasRole('ADMIN')")
+    public CustomerOrderResponseDTO cancelOrder(@PathVariable Integer id) {
+        return orderService.cancelOrderByAdmin(id);
     }
 
     @GetMapping("/my-orders")
@@ -30,4 +60,25 @@ public class OrderController {
     public List<CustomerOrderResponseDTO> getMyOrders(@AuthenticationPrincipal UserDetails userDetails) {
         return orderService.getCustomerOrdersByUsername(userDetails.getUsername());
     }
-}
\ No newline at end of file
+
+    // Đo cả commit của giao dịch tạo đơn; request lặp lại được IdempotencyService trả lại kết quả cũ không được tính.
+    // Khi có Idempotency-Key, giao dịch do IdempotencyService mở (commit cùng kết quả lưu) nên commit nằm ngoài timer
+    private CustomerOrderResponseDTO timeOrderCreation(Supplier<CustomerOrderResponseDTO> createOrder) {
+        long start = System.nanoTime();
+        try {
+            CustomerOrderResponseDTO response = createOrder.get();
+            orderCreatedTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return response;
+        } catch (RuntimeException e) {
+            orderFailedTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+    }
+
+    private Timer orderCreationTimer(String outcome) {
+        return Timer.builder("coffeeshop.orders.create")
+                .description("Thời gian tạo đơn của khách")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
@@ -4,6 +4,7 @@ import com.coffeeshop.dto.admin.response.AdminPaymentResponseDTO;
 import com.coffeeshop.dto.customer.response.CustomerPaymentResponseDTO;
 import com.coffeeshop.dto.customer.request.CustomerPaymentRequestDTO;
 import com.coffeeshop.dto.admin.request.AdminPaymentStatusUpdateDTO;
+import com.coffeeshop.service.IdempotencyService;
 import com.coffeeshop.service.PaymentService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -23,14 +24,20 @@ public class PaymentController {
     @Autowired
     private PaymentService paymentService;
 
+    @Autowired
+    private IdempotencyService idempotencyService;
+
     /**
      * API để tạo một thanh toán mới cho một đơn hàng.
+     * Client nên gửi header Idempotency-Key để việc gửi lại (timeout, mất mạng) không tạo thanh toán trùng.
      */
     @PostMapping
     @PreAuthorize("isAuthenticated()")
     public CustomerPaymentResponseDTO createPayment(@Valid @RequestBody CustomerPaymentRequestDTO request,
-                                                   @AuthenticationPrincipal UserDetails userDetails) {
-        return paymentService.createPaymentForCustomer(request, userDetails.getUsername());
+                                                   @AuthenticationPrincipal UserDetails userDetails,
+                                                   @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        return idempotencyService.execute("payments", userDetails.getUsername(), idempotencyKey, request, CustomerPaymentResponseDTO.class,
+                () -> paymentService.createPaymentForCustomer(request, userDetails.getUsername()));
     }
 
     /**
@@ -3,17 +3,21 @@ package com.coffeeshop.controller;
 import com.coffeeshop.dto.admin.response.AdminReservationResponseDTO;
 import com.coffeeshop.dto.customer.response.CustomerReservationResponseDTO;
 import com.coffeeshop.dto.customer.response.ReservationDetailDTO;
+import com.coffeeshop.dto.customer.response.TableAssignmentResponseDTO;
 import com.coffeeshop.dto.customer.response.TableReservationStatusDTO;
 import com.coffeeshop.dto.customer.request.ReservationRequestDTO;
 import com.coffeeshop.entity.TableEntity;
 import com.coffeeshop.enums.ReservationStatus;
 import com.coffeeshop.service.ReservationService;
+import com.coffeeshop.service.TableAssignmentService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 import jakarta.validation.Valid;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -22,11 +26,26 @@ public class ReservationController {
     @Autowired
     private ReservationService reservationService;
 
+    @Autowired
+    private TableAssignmentService tableAssignmentService;
+
     @GetMapping("/available-tables")
     public List<TableEntity> getAvailableTables() {
         return reservationService.getAvailableTables();
     }
 
+    // Gợi ý bàn (hoặc bàn ghép) cho giờ đến và số khách; đặt bàn không kèm tableId sẽ dùng đúng gợi ý này
+    @GetMapping("/suggest-table")
+    @PreAuthorize("isAuthenticated()")
+    public TableAssignmentResponseDTO suggestTable(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime reservationDatetime,
+            @RequestParam Integer partySize) {
+        if (partySize < 1 || partySize > 20) {
+            throw new IllegalArgumentException("Số lượng người phải từ 1 đến 20");
+        }
+        return tableAssignmentService.toResponseDTO(tableAssignmentService.suggest(reservationDatetime, partySize));
+    }
+
     @GetMapping("/booked-tables")
     @PreAuthorize("hasRole('ADMIN')")
     public List<TableReservationStatusDTO> getBookedTables() {
@@ -0,0 +1,64 @@
+package com.coffeeshop.controller;
+
+import com.coffeeshop.dto.customer.request.WaitlistRequestDTO;
+import com.coffeeshop.dto.customer.response.WaitlistEntryResponseDTO;
+import com.coffeeshop.service.WaitlistService;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/waitlist")
+public class WaitlistController {
+    @Autowired
+    private WaitlistService waitlistService;
+
+    // Thời gian chờ dự kiến nếu một nhóm partySize người vào hàng chờ lúc này
+    @GetMapping("/estimate")
+    @PreAuthorize("isAuthenticated()")
+    public WaitlistEntryResponseDTO estimate(@RequestParam Integer partySize) {
+        if (partySize < 1 || partySize > 20) {
+            throw new IllegalArgumentException("Số lượng người phải từ 1 đến 20");
+        }
+        return waitlistService.estimate(partySize);
+    }
+
+    @PostMapping
+    @PreAuthorize("isAuthenticated()")
+    public WaitlistEntryResponseDTO join(
+            @Valid @RequestBody WaitlistRequestDTO request,
+            @AuthenticationPrincipal UserDetails userDetails) {
+        return waitlistService.join(request, userDetails.getUsername());
+    }
+
+    @GetMapping("/me")
+    @PreAuthorize("isAuthenticated()")
+    public WaitlistEntryResponseDTO getMyEntry(@AuthenticationPrincipal UserDetails userDetails) {
+        return waitlistService.getMyEntry(userDetails.getUsername());
+    }
+
+    @PutMapping("/{id}/cancel")
+    @PreAuthorize("isAuthenticated()")
+    public WaitlistEntryResponseDTO cancel(
+            @PathVariable Integer id,
+            @AuthenticationPrincipal UserDetails userDetails) {
+        return waitlistService.cancel(id, userDetails.getUsername());
+    }
+
+    @GetMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public List<WaitlistEntryResponseDTO> getQueue() {
+        return waitlistService.getQueue();
+    }
+
+    @PutMapping("/{id}/seat")
+    @PreAuthorize("hasRole('ADMIN')")
+    public WaitlistEntryResponseDTO seat(@PathVariable Integer id) {
+        return waitlistService.seat(id);
+    }
+}
@@ -0,0 +1,43 @@
+package com.coffeeshop.controller.admin;
+
+import com.coffeeshop.dto.admin.response.BoardMessageDTO;
+import com.coffeeshop.service.BoardService;
+import com.coffeeshop.tenant.BranchContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Bảng điều phối qua HTTP, dùng khi client không giữ được WebSocket (/ws/board).
+ */
+@RestController
+@RequestMapping("/api/admin/board")
+@PreAuthorize("hasRole('ADMIN')")
+public class BoardController {
+    @Autowired
+    private BoardService boardService;
+
+    @Value("${app.boardMaxBatch:200}")
+    private int maxBatch;
+
+    @GetMapping("/snapshot")
+    public BoardMessageDTO getSnapshot() {
+        return boardService.snapshot(BranchContext.current());
+    }
+
+    // Delta kể từ con trỏ since (cursor của tin nhắn trước); trả về snapshot nếu since thuộc epoch khác
+    // hoặc đã ra khỏi bộ đệm
+    @GetMapping("/events")
+    public BoardMessageDTO getEvents(@RequestParam String since) {
+        int branchId = BranchContext.current();
+        long seq = boardService.seqOf(since);
+        if (seq < 0) {
+            return boardService.snapshot(branchId);
+        }
+        return boardService.eventsSince(branchId, seq, maxBatch).orElseGet(() -> boardService.snapshot(branchId));
+    }
+}
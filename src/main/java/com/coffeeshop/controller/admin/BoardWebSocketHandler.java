@@ -0,0 +1,187 @@
+package com.coffeeshop.controller.admin;
+
+import com.coffeeshop.config.ThreadingExecutors;
+import com.coffeeshop.dto.admin.response.BoardMessageDTO;
+import com.coffeeshop.service.BoardService;
+import com.coffeeshop.tenant.BranchContext;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.tomcat.websocket.Constants;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.adapter.NativeWebSocketSession;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * WebSocket /ws/board: đẩy thay đổi của đơn, món và bàn tới màn hình bếp/sảnh.
+ *
+ * Mỗi kết nối theo dõi bảng của chi nhánh chọn lúc handshake (WebSocketConfig lưu vào thuộc tính
+ * BRANCH_ATTRIBUTE của session). Kết nối mới nhận SNAPSHOT, sau đó là các DELTA. Kết nối lại với ?since=&lt;cursor&gt;
+ * (epoch:seq của tin nhắn cuối đã nhận) thì nhận tiếp các delta còn trong bộ đệm của BoardService; con trỏ
+ * của epoch khác (instance khác hoặc trước khi khởi động lại) hay đã ra khỏi bộ đệm thì nhận snapshot mới.
+ *
+ * Mỗi kết nối chỉ giữ một con trỏ seq, không có hàng đợi riêng; một luồng (theo ThreadingExecutors) gửi lần lượt
+ * cho kết nối đó. Client chậm tự tụt lại phía sau, khi tụt quá bộ đệm thì được gửi snapshot
+ * (gộp các thay đổi) thay vì dồn delta; gửi bị chặn quá boardSendTimeoutMs thì kết nối bị đóng.
+ */
+@Component
+public class BoardWebSocketHandler extends TextWebSocketHandler {
+    private static final Logger logger = LoggerFactory.getLogger(BoardWebSocketHandler.class);
+
+    @Autowired
+    private BoardService boardService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Environment environment;
+
+    @Value("${app.boardSendTimeoutMs:5000}")
+    private long sendTimeoutMs;
+
+    @Value("${app.boardMaxBatch:200}")
+    private int maxBatch;
+
+    @Value("${app.boardMaxConnections:200}")
+    private int maxConnections;
+
+    public static final String BRANCH_ATTRIBUTE = "branchId";
+
+    private final Map<String, Connection> connections = new ConcurrentHashMap<>();
+
+    private ExecutorService sender;
+
+    private static final class Connection {
+        final WebSocketSession session;
+        final int branchId;
+        final AtomicBoolean sending = new AtomicBoolean();
+        volatile long cursor;   // seq cuối cùng đã gửi, -1 = chưa gửi snapshot
+
+        Connection(WebSocketSession session, int branchId, long cursor) {
+            this.session = session;
+            this.branchId = branchId;
+            this.cursor = cursor;
+        }
+    }
+
+    @PostConstruct
+    void register() {
+        sender = ThreadingExecutors.newPerTaskExecutor(environment, "board-ws-");
+        boardService.addListener(() -> connections.values().forEach(this::signal));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        sender.shutdownNow();
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+        if (connections.size() >= maxConnections) {
+            session.close(CloseStatus.SERVICE_OVERLOAD);
+            return;
+        }
+        if (session instanceof NativeWebSocketSession nativeSession) {
+            jakarta.websocket.Session wsSession = nativeSession.getNativeSession(jakarta.websocket.Session.class);
+            if (wsSession != null) {
+                wsSession.getUserProperties().put(Constants.BLOCKING_SEND_TIMEOUT_PROPERTY, sendTimeoutMs);
+            }
+        }
+        Object branchId = session.getAttributes().get(BRANCH_ATTRIBUTE);
+        Connection connection = new Connection(session,
+                branchId instanceof Integer id ? id : BranchContext.DEFAULT_BRANCH_ID, parseSince(session));
+        connections.put(session.getId(), connection);
+        signal(connection);
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        connections.remove(session.getId());
+    }
+
+    @Override
+    public void handleTransportError(WebSocketSession session, Throwable exception) {
+        logger.debug("Board websocket {} lỗi: {}", session.getId(), exception.getMessage());
+        close(session, CloseStatus.SERVER_ERROR);
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage message) {
+        // Kênh một chiều, bỏ qua tin nhắn từ client
+    }
+
+    public int getConnectionCount() {
+        return connections.size();
+    }
+
+    private void signal(Connection connection) {
+        if (connection.sending.compareAndSet(false, true)) {
+            sender.execute(() -> drain(connection));
+        }
+    }
+
+    private void drain(Connection connection) {
+        try {
+            BoardMessageDTO message;
+            while (connection.session.isOpen() && (message = nextMessage(connection)) != null) {
+                connection.session.sendMessage(new TextMessage(objectMapper.writeValueAsString(message)));
+                connection.cursor = message.getSeq();
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.debug("Không gửi được tới board websocket {}: {}", connection.session.getId(), e.getMessage());
+            close(connection.session, CloseStatus.SESSION_NOT_RELIABLE);
+            return;
+        } finally {
+            connection.sending.set(false);
+        }
+        // Thay đổi đến trong lúc đang kết thúc vòng gửi
+        if (connection.session.isOpen() && boardService.getLastSeq(connection.branchId) > connection.cursor) {
+            signal(connection);
+        }
+    }
+
+    private BoardMessageDTO nextMessage(Connection connection) {
+        if (connection.cursor >= 0) {
+            BoardMessageDTO delta = boardService.eventsSince(connection.branchId, connection.cursor, maxBatch).orElse(null);
+            if (delta != null) {
+                return delta.getEvents().isEmpty() ? null : delta;
+            }
+            logger.debug("Board websocket {} tụt quá bộ đệm tại seq {}, gửi snapshot",
+                    connection.session.getId(), connection.cursor);
+        }
+        return boardService.snapshot(connection.branchId);
+    }
+
+    private long parseSince(WebSocketSession session) {
+        if (session.getUri() == null) {
+            return -1;
+        }
+        String since = UriComponentsBuilder.fromUri(session.getUri()).build().getQueryParams().getFirst("since");
+        return boardService.seqOf(since);
+    }
+
+    private void close(WebSocketSession session, CloseStatus status) {
+        connections.remove(session.getId());
+        try {
+            session.close(status);
+        } catch (IOException e) {
+            logger.debug("Đóng board websocket {} lỗi: {}", session.getId(), e.getMessage());
+        }
+    }
+}
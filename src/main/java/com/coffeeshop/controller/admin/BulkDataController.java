@@ -0,0 +1,53 @@
+package com.coffeeshop.controller.admin;
+
+import com.coffeeshop.dto.admin.response.BulkImportResponseDTO;
+import com.coffeeshop.service.BulkDataService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+
+/**
+ * Nhập/xuất hàng loạt: {entity} là products, categories, tables hoặc users.
+ * Import nhận body CSV (Content-Type text/csv) hoặc JSON lines (application/x-ndjson).
+ */
+@RestController
+@RequestMapping("/api/admin/bulk")
+@PreAuthorize("hasRole('ADMIN')")
+public class BulkDataController {
+    @Autowired
+    private BulkDataService bulkDataService;
+
+    // Body được đọc trực tiếp từ stream, không nạp cả file vào bộ nhớ
+    @PostMapping(value = "/{entity}/import", consumes = {"text/csv", "application/x-ndjson"})
+    public BulkImportResponseDTO importData(@PathVariable String entity, HttpServletRequest request) throws IOException {
+        MediaType contentType = MediaType.parseMediaType(request.getContentType());
+        BulkDataService.Format format = BulkDataService.Format.fromName(contentType.getType() + "/" + contentType.getSubtype());
+        return bulkDataService.importData(entity, format, request.getInputStream());
+    }
+
+    @GetMapping("/{entity}/export")
+    public void exportData(@PathVariable String entity,
+                           @RequestParam(defaultValue = "csv") String format,
+                           HttpServletResponse response) throws IOException {
+        BulkDataService.Format dataFormat = BulkDataService.Format.fromName(format);
+        // Kiểm tra trước khi đặt header tải file để lỗi vẫn trả về JSON như các API khác
+        if (!BulkDataService.ENTITIES.contains(entity)) {
+            throw new IllegalArgumentException("Không hỗ trợ export: " + entity);
+        }
+        response.setContentType(dataFormat.getMediaType() + ";charset=UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"" + entity + "." + dataFormat.getExtension() + "\"");
+        bulkDataService.exportData(entity, dataFormat, response.getOutputStream());
+    }
+}
@@ -0,0 +1,81 @@
+package com.coffeeshop.controller.admin;
+
+import com.coffeeshop.dto.admin.response.KitchenStationResponseDTO;
+import com.coffeeshop.dto.admin.response.KitchenTicketResponseDTO;
+import com.coffeeshop.service.KitchenQueueService;
+import com.coffeeshop.service.KitchenStation;
+import com.coffeeshop.service.KitchenTicket;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Màn hình bếp: xem hàng đợi từng trạm, nhận món và báo món đã xong.
+ */
+@RestController
+@RequestMapping("/api/admin/kitchen")
+@PreAuthorize("hasRole('ADMIN')")
+public class KitchenController {
+    @Autowired
+    private KitchenQueueService kitchenQueueService;
+
+    @GetMapping("/stations")
+    public List<KitchenStationResponseDTO> getStations() {
+        return kitchenQueueService.getStations().stream()
+                .map(station -> toStationDTO(station, false))
+                .toList();
+    }
+
+    @GetMapping("/stations/{station}")
+    public KitchenStationResponseDTO getStation(@PathVariable String station) {
+        return toStationDTO(kitchenQueueService.getStation(station), true);
+    }
+
+    // Nhận món ưu tiên nhất của trạm; 204 nếu trạm không còn món chờ
+    @PostMapping("/stations/{station}/claim")
+    public ResponseEntity<KitchenTicketResponseDTO> claimNext(@PathVariable String station,
+                                                              @AuthenticationPrincipal UserDetails userDetails) {
+        return kitchenQueueService.claimNext(station, userDetails.getUsername())
+                .map(ticket -> ResponseEntity.ok(toTicketDTO(ticket)))
+                .orElseGet(() -> ResponseEntity.noContent().build());
+    }
+
+    @PostMapping("/items/{orderItemId}/claim")
+    public KitchenTicketResponseDTO claim(@PathVariable Integer orderItemId,
+                                          @AuthenticationPrincipal UserDetails userDetails) {
+        return toTicketDTO(kitchenQueueService.claim(orderItemId, userDetails.getUsername()));
+    }
+
+    @PostMapping("/items/{orderItemId}/complete")
+    public KitchenTicketResponseDTO complete(@PathVariable Integer orderItemId) {
+        KitchenTicket ticket = kitchenQueueService.complete(orderItemId);
+        return KitchenTicketResponseDTO.fromTicket(ticket, LocalDateTime.now());
+    }
+
+    private KitchenTicketResponseDTO toTicketDTO(KitchenTicket ticket) {
+        return KitchenTicketResponseDTO.fromTicket(ticket, kitchenQueueService.estimateReadyAt(ticket));
+    }
+
+    private KitchenStationResponseDTO toStationDTO(KitchenStation station, boolean withTickets) {
+        KitchenStationResponseDTO dto = new KitchenStationResponseDTO();
+        dto.setName(station.getName());
+        dto.setWorkers(station.getWorkers());
+        dto.setQueueDepth(station.getQueueDepth());
+        dto.setInProgress(station.getInProgressCount());
+        dto.setBacklogMinutes(kitchenQueueService.getBacklogMinutes(station));
+        if (withTickets) {
+            dto.setTickets(kitchenQueueService.getTickets(station).stream().map(this::toTicketDTO).toList());
+        }
+        return dto;
+    }
+}
@@ -0,0 +1,31 @@
+package com.coffeeshop.controller.admin;
+
+import com.coffeeshop.dto.admin.response.QueryReportResponseDTO;
+import com.coffeeshop.tracing.QueryReportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/admin/query-findings")
+@PreAuthorize("hasRole('ADMIN')")
+public class QueryFindingController {
+    @Autowired
+    private QueryReportService queryReportService;
+
+    // Các endpoint có N+1 hoặc câu lệnh chậm, kèm số liệu Hibernate Statistics
+    @GetMapping
+    public QueryReportResponseDTO getReport() {
+        return queryReportService.getReport();
+    }
+
+    @DeleteMapping
+    public ResponseEntity<Void> reset() {
+        queryReportService.reset();
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,23 @@
+package com.coffeeshop.controller.admin;
+
+import com.coffeeshop.dto.admin.response.SchedulerBacklogResponseDTO;
+import com.coffeeshop.scheduler.SchedulerBacklogService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/admin/scheduler")
+@PreAuthorize("hasRole('ADMIN')")
+public class SchedulerController {
+    @Autowired
+    private SchedulerBacklogService schedulerBacklogService;
+
+    // Tồn đọng của các job tự chuyển trạng thái, dùng để xem scheduler có theo kịp tải không
+    @GetMapping("/backlog")
+    public SchedulerBacklogResponseDTO getBacklog() {
+        return schedulerBacklogService.getBacklog();
+    }
+}
@@ -0,0 +1,33 @@
+package com.coffeeshop.controller.admin;
+
+import com.coffeeshop.dto.admin.request.TableAssignmentBatchRequestDTO;
+import com.coffeeshop.dto.customer.response.TableAssignmentResponseDTO;
+import com.coffeeshop.service.TableAssignmentService;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * Xếp bàn hàng loạt (ví dụ toàn bộ yêu cầu đặt bàn của một buổi tối) để lên sơ đồ trước.
+ * Chỉ tính toán, không tạo đặt bàn.
+ */
+@RestController
+@RequestMapping("/api/admin/table-assignments")
+@PreAuthorize("hasRole('ADMIN')")
+public class TableAssignmentController {
+    @Autowired
+    private TableAssignmentService tableAssignmentService;
+
+    @PostMapping("/batch")
+    public List<TableAssignmentResponseDTO> assignBatch(@Valid @RequestBody TableAssignmentBatchRequestDTO request) {
+        return tableAssignmentService.assignBatch(request.getRequests()).stream()
+                .map(tableAssignmentService::toResponseDTO)
+                .toList();
+    }
+}
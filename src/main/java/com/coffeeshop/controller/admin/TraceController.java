@@ -0,0 +1,36 @@
+package com.coffeeshop.controller.admin;
+
+import com.coffeeshop.dto.admin.response.TraceResponseDTO;
+import com.coffeeshop.exception.BusinessLogicException;
+import com.coffeeshop.tracing.TraceSink;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/admin/traces")
+@PreAuthorize("hasRole('ADMIN')")
+public class TraceController {
+    @Autowired
+    private TraceSink traceSink;
+
+    // Các request gần nhất kèm span controller/service/repository và số câu lệnh SQL;
+    // minQueries lọc ra các request nhiều câu lệnh (nghi N+1)
+    @GetMapping
+    public List<TraceResponseDTO> getRecentTraces(@RequestParam(defaultValue = "20") int limit,
+                                                  @RequestParam(defaultValue = "0") long minQueries) {
+        return traceSink.getRecent(Math.max(1, Math.min(limit, 200)), minQueries);
+    }
+
+    @GetMapping("/{traceId}")
+    public TraceResponseDTO getTrace(@PathVariable String traceId) {
+        return traceSink.getTrace(traceId)
+                .orElseThrow(() -> new BusinessLogicException("Không tìm thấy trace", "TRACE_NOT_FOUND", traceId));
+    }
+}
@@ -11,6 +11,7 @@ public class AdminUserRequestDTO {
     private String profileImage;
     private UserRole role;
     private Boolean isActive;
+    private Integer branchId;     // Chi nhánh của nhân viên; 0 để bỏ gán (làm ở mọi chi nhánh)
 
     public AdminUserRequestDTO() {}
 
@@ -30,4 +31,6 @@ public class AdminUserRequestDTO {
     public void setRole(UserRole role) { this.role = role; }
     public Boolean getIsActive() { return isActive; }
     public void setIsActive(Boolean isActive) { this.isActive = isActive; }
+    public Integer getBranchId() { return branchId; }
+    public void setBranchId(Integer branchId) { this.branchId = branchId; }
 } 
\ No newline at end of file
@@ -0,0 +1,19 @@
+package com.coffeeshop.dto.admin.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public class TableAssignmentBatchRequestDTO {
+    @NotEmpty(message = "Danh sách yêu cầu không được để trống")
+    @Size(max = 1000, message = "Tối đa 1000 yêu cầu mỗi lần xếp")
+    private List<@Valid TableAssignmentRequestDTO> requests;
+
+    // Constructor mặc định
+    public TableAssignmentBatchRequestDTO() {}
+
+    public List<TableAssignmentRequestDTO> getRequests() { return requests; }
+    public void setRequests(List<TableAssignmentRequestDTO> requests) { this.requests = requests; }
+}
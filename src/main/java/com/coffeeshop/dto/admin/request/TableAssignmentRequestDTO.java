@@ -0,0 +1,31 @@
+package com.coffeeshop.dto.admin.request;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.time.LocalDateTime;
+
+public class TableAssignmentRequestDTO {
+    @Size(max = 100, message = "Mã tham chiếu không được vượt quá 100 ký tự")
+    private String reference;                 // Mã do client đặt để ghép kết quả với yêu cầu
+
+    @NotNull(message = "Thời gian đặt bàn không được để trống")
+    private LocalDateTime reservationDatetime;
+
+    @NotNull(message = "Số lượng người không được để trống")
+    @Min(value = 1, message = "Số lượng người phải ít nhất là 1")
+    @Max(value = 20, message = "Số lượng người không được vượt quá 20")
+    private Integer partySize;
+
+    // Constructor mặc định
+    public TableAssignmentRequestDTO() {}
+
+    public String getReference() { return reference; }
+    public void setReference(String reference) { this.reference = reference; }
+    public LocalDateTime getReservationDatetime() { return reservationDatetime; }
+    public void setReservationDatetime(LocalDateTime reservationDatetime) { this.reservationDatetime = reservationDatetime; }
+    public Integer getPartySize() { return partySize; }
+    public void setPartySize(Integer partySize) { this.partySize = partySize; }
+}
@@ -1,11 +1,13 @@
 package com.coffeeshop.dto.admin.response;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 public class AdminReservationResponseDTO {
     private Integer id;
     private CustomerInfo customer;
     private TableInfo table;
+    private List<TableInfo> joinedTables;   // Bàn ghép thêm, rỗng nếu chỉ dùng một bàn
     private LocalDateTime reservationDatetime;
     private Integer partySize;
     private String status;
@@ -22,6 +24,8 @@ public class AdminReservationResponseDTO {
     public void setCustomer(CustomerInfo customer) { this.customer = customer; }
     public TableInfo getTable() { return table; }
     public void setTable(TableInfo table) { this.table = table; }
+    public List<TableInfo> getJoinedTables() { return joinedTables; }
+    public void setJoinedTables(List<TableInfo> joinedTables) { this.joinedTables = joinedTables; }
     public LocalDateTime getReservationDatetime() { return reservationDatetime; }
     public void setReservationDatetime(LocalDateTime reservationDatetime) { this.reservationDatetime = reservationDatetime; }
     public Integer getPartySize() { return partySize; }
@@ -12,6 +12,7 @@ public class AdminUserResponseDTO {
     private String profileImage;
     private UserRole role;
     private Boolean isActive;
+    private Integer branchId;
     private java.time.LocalDateTime createdAt;
     private java.time.LocalDateTime updatedAt;
 
@@ -25,6 +26,7 @@ public class AdminUserResponseDTO {
         dto.profileImage = u.getProfileImage();
         dto.role = u.getRole();
         dto.isActive = u.getIsActive();
+        dto.branchId = u.getBranchId();
         dto.createdAt = u.getCreatedAt();
         dto.updatedAt = u.getUpdatedAt();
         return dto;
@@ -37,6 +39,7 @@ public class AdminUserResponseDTO {
     public String getProfileImage() { return profileImage; }
     public UserRole getRole() { return role; }
     public Boolean getIsActive() { return isActive; }
+    public Integer getBranchId() { return branchId; }
     public java.time.LocalDateTime getCreatedAt() { return createdAt; }
     public java.time.LocalDateTime getUpdatedAt() { return updatedAt; }
 } 
\ No newline at end of file
@@ -0,0 +1,69 @@
+package com.coffeeshop.dto.admin.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.time.LocalDateTime;
+
+/**
+ * Một thay đổi trên bảng điều phối (delta). Chỉ mang các trường của đối tượng bị thay đổi,
+ * trường null không được gửi đi.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BoardEventDTO {
+    public static final String ORDER = "ORDER";
+    public static final String ITEM = "ITEM";
+    public static final String TABLE = "TABLE";
+
+    public static final String UPSERT = "UPSERT";
+    public static final String REMOVE = "REMOVE";
+
+    private long seq;
+    private String type;      // ORDER / ITEM / TABLE
+    private String op;        // UPSERT / REMOVE
+    private Integer id;
+    private String status;
+    private String paymentStatus;
+    private Integer orderId;
+    private String orderNumber;
+    private String tableNumber;
+    private String productName;
+    private Integer quantity;
+    private LocalDateTime updatedAt;
+
+    public BoardEventDTO() {}
+
+    public BoardEventDTO(String type, String op, Integer id) {
+        this.type = type;
+        this.op = op;
+        this.id = id;
+    }
+
+    public long getSeq() { return seq; }
+    public void setSeq(long seq) { this.seq = seq; }
+    public String getType() { return type; }
+    public void setType(String type) { this.type = type; }
+    public String getOp() { return op; }
+    public void setOp(String op) { this.op = op; }
+    public Integer getId() { return id; }
+    public void setId(Integer id) { this.id = id; }
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+    public String getPaymentStatus() { return paymentStatus; }
+    public void setPaymentStatus(String paymentStatus) { this.paymentStatus = paymentStatus; }
+    public Integer getOrderId() { return orderId; }
+    public void setOrderId(Integer orderId) { this.orderId = orderId; }
+    public String getOrderNumber() { return orderNumber; }
+    public void setOrderNumber(String orderNumber) { this.orderNumber = orderNumber; }
+    public String getTableNumber() { return tableNumber; }
+    public void setTableNumber(String tableNumber) { this.tableNumber = tableNumber; }
+    public String getProductName() { return productName; }
+    public void setProductName(String productName) { this.productName = productName; }
+    public Integer getQuantity() { return quantity; }
+    public void setQuantity(Integer quantity) { this.quantity = quantity; }
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+
+    // Khóa duy nhất của đối tượng trên bảng, vd. "ORDER:12"
+    public String key() {
+        return type + ":" + id;
+    }
+}
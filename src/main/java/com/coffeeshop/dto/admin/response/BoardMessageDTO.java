@@ -0,0 +1,42 @@
+package com.coffeeshop.dto.admin.response;
+
+import java.util.List;
+
+/**
+ * Tin nhắn gửi tới màn hình điều phối.
+ * SNAPSHOT: toàn bộ trạng thái hiện tại (client thay thế dữ liệu đang có).
+ * DELTA: các thay đổi kể từ lần gửi trước, theo thứ tự seq.
+ * seq là số thứ tự của thay đổi cuối cùng đã bao gồm. seq chỉ có nghĩa trong một epoch (một lần chạy của một
+ * instance), nên client gửi lại cursor ("&lt;epoch&gt;:&lt;seq&gt;") qua tham số since khi kết nối lại.
+ */
+public class BoardMessageDTO {
+    public static final String SNAPSHOT = "SNAPSHOT";
+    public static final String DELTA = "DELTA";
+
+    private String type;
+    private String epoch;
+    private long seq;
+    private List<BoardEventDTO> events;
+
+    public BoardMessageDTO() {}
+
+    public BoardMessageDTO(String type, String epoch, long seq, List<BoardEventDTO> events) {
+        this.type = type;
+        this.epoch = epoch;
+        this.seq = seq;
+        this.events = events;
+    }
+
+    public String getType() { return type; }
+    public void setType(String type) { this.type = type; }
+    public String getEpoch() { return epoch; }
+    public void setEpoch(String epoch) { this.epoch = epoch; }
+    public long getSeq() { return seq; }
+    public void setSeq(long seq) { this.seq = seq; }
+    public List<BoardEventDTO> getEvents() { return events; }
+    public void setEvents(List<BoardEventDTO> events) { this.events = events; }
+
+    public String getCursor() {
+        return epoch + ":" + seq;
+    }
+}
@@ -0,0 +1,52 @@
+package com.coffeeshop.dto.admin.response;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class BulkImportResponseDTO {
+    private String entity;            // products, categories, tables, users
+    private Integer totalRows;        // Số dòng dữ liệu đã đọc (không tính header CSV, dòng trống)
+    private Integer imported;
+    private Integer failed;
+    private Boolean errorsTruncated;  // Có thêm lỗi nhưng không liệt kê hết (app.importMaxErrors)
+    private List<RowError> errors = new ArrayList<>();
+
+    // Constructor mặc định
+    public BulkImportResponseDTO() {}
+
+    public String getEntity() { return entity; }
+    public void setEntity(String entity) { this.entity = entity; }
+    public Integer getTotalRows() { return totalRows; }
+    public void setTotalRows(Integer totalRows) { this.totalRows = totalRows; }
+    public Integer getImported() { return imported; }
+    public void setImported(Integer imported) { this.imported = imported; }
+    public Integer getFailed() { return failed; }
+    public void setFailed(Integer failed) { this.failed = failed; }
+    public Boolean getErrorsTruncated() { return errorsTruncated; }
+    public void setErrorsTruncated(Boolean errorsTruncated) { this.errorsTruncated = errorsTruncated; }
+    public List<RowError> getErrors() { return errors; }
+    public void setErrors(List<RowError> errors) { this.errors = errors; }
+
+    // Inner class
+    public static class RowError {
+        private Integer row;          // Thứ tự bản ghi trong file, bắt đầu từ 1
+        private String key;           // Tên/số bàn/username của dòng lỗi nếu đọc được
+        private String message;
+
+        // Constructor mặc định
+        public RowError() {}
+
+        public RowError(Integer row, String key, String message) {
+            this.row = row;
+            this.key = key;
+            this.message = message;
+        }
+
+        public Integer getRow() { return row; }
+        public void setRow(Integer row) { this.row = row; }
+        public String getKey() { return key; }
+        public void setKey(String key) { this.key = key; }
+        public String getMessage() { return message; }
+        public void setMessage(String message) { this.message = message; }
+    }
+}
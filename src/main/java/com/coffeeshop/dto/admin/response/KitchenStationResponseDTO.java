@@ -0,0 +1,25 @@
+package com.coffeeshop.dto.admin.response;
+
+import java.util.List;
+
+public class KitchenStationResponseDTO {
+    private String name;
+    private Integer workers;
+    private Integer queueDepth;
+    private Integer inProgress;
+    private Long backlogMinutes;     // Số phút cần để làm hết món đang chờ với số nhân viên hiện có
+    private List<KitchenTicketResponseDTO> tickets;
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+    public Integer getWorkers() { return workers; }
+    public void setWorkers(Integer workers) { this.workers = workers; }
+    public Integer getQueueDepth() { return queueDepth; }
+    public void setQueueDepth(Integer queueDepth) { this.queueDepth = queueDepth; }
+    public Integer getInProgress() { return inProgress; }
+    public void setInProgress(Integer inProgress) { this.inProgress = inProgress; }
+    public Long getBacklogMinutes() { return backlogMinutes; }
+    public void setBacklogMinutes(Long backlogMinutes) { this.backlogMinutes = backlogMinutes; }
+    public List<KitchenTicketResponseDTO> getTickets() { return tickets; }
+    public void setTickets(List<KitchenTicketResponseDTO> tickets) { this.tickets = tickets; }
+}
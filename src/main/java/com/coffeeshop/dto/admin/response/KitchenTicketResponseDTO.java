@@ -0,0 +1,66 @@
+package com.coffeeshop.dto.admin.response;
+
+import com.coffeeshop.service.KitchenTicket;
+import java.time.LocalDateTime;
+
+public class KitchenTicketResponseDTO {
+    private Integer orderItemId;
+    private Integer orderId;
+    private String orderNumber;
+    private String tableNumber;
+    private String productName;
+    private Integer quantity;
+    private String station;
+    private Integer prepMinutes;
+    private LocalDateTime dueAt;       // Giờ hẹn với đơn đặt trước, null với đơn tại chỗ
+    private LocalDateTime startBy;     // Thời điểm nên bắt đầu làm
+    private String claimedBy;
+    private LocalDateTime claimedAt;
+    private LocalDateTime estimatedReadyAt;
+
+    public Integer getOrderItemId() { return orderItemId; }
+    public void setOrderItemId(Integer orderItemId) { this.orderItemId = orderItemId; }
+    public Integer getOrderId() { return orderId; }
+    public void setOrderId(Integer orderId) { this.orderId = orderId; }
+    public String getOrderNumber() { return orderNumber; }
+    public void setOrderNumber(String orderNumber) { this.orderNumber = orderNumber; }
+    public String getTableNumber() { return tableNumber; }
+    public void setTableNumber(String tableNumber) { this.tableNumber = tableNumber; }
+    public String getProductName() { return productName; }
+    public void setProductName(String productName) { this.productName = productName; }
+    public Integer getQuantity() { return quantity; }
+    public void setQuantity(Integer quantity) { this.quantity = quantity; }
+    public String getStation() { return station; }
+    public void setStation(String station) { this.station = station; }
+    public Integer getPrepMinutes() { return prepMinutes; }
+    public void setPrepMinutes(Integer prepMinutes) { this.prepMinutes = prepMinutes; }
+    public LocalDateTime getDueAt() { return dueAt; }
+    public void setDueAt(LocalDateTime dueAt) { this.dueAt = dueAt; }
+    public LocalDateTime getStartBy() { return startBy; }
+    public void setStartBy(LocalDateTime startBy) { this.startBy = startBy; }
+    public String getClaimedBy() { return claimedBy; }
+    public void setClaimedBy(String claimedBy) { this.claimedBy = claimedBy; }
+    public LocalDateTime getClaimedAt() { return claimedAt; }
+    public void setClaimedAt(LocalDateTime claimedAt) { this.claimedAt = claimedAt; }
+    public LocalDateTime getEstimatedReadyAt() { return estimatedReadyAt; }
+    public void setEstimatedReadyAt(LocalDateTime estimatedReadyAt) { this.estimatedReadyAt = estimatedReadyAt; }
+
+    // Factory method
+    public static KitchenTicketResponseDTO fromTicket(KitchenTicket ticket, LocalDateTime estimatedReadyAt) {
+        KitchenTicketResponseDTO dto = new KitchenTicketResponseDTO();
+        dto.setOrderItemId(ticket.getOrderItemId());
+        dto.setOrderId(ticket.getOrderId());
+        dto.setOrderNumber(ticket.getOrderNumber());
+        dto.setTableNumber(ticket.getTableNumber());
+        dto.setProductName(ticket.getProductName());
+        dto.setQuantity(ticket.getQuantity());
+        dto.setStation(ticket.getStation());
+        dto.setPrepMinutes(ticket.getPrepMinutes());
+        dto.setDueAt(ticket.getDueAt());
+        dto.setStartBy(ticket.getStartBy());
+        dto.setClaimedBy(ticket.getClaimedBy());
+        dto.setClaimedAt(ticket.getClaimedAt());
+        dto.setEstimatedReadyAt(estimatedReadyAt);
+        return dto;
+    }
+}
@@ -0,0 +1,34 @@
+package com.coffeeshop.dto.admin.response;
+
+import java.time.LocalDateTime;
+
+public class QueryFindingResponseDTO {
+    private String type;              // N_PLUS_ONE hoặc SLOW_QUERY
+    private String endpoint;          // "GET /api/payments/by-customer/{customerId}", hoặc "background" ngoài request
+    private String sql;
+    private Long occurrences;         // Số request (hoặc số lần chạy chậm) đã gặp
+    private Integer maxRepeats;       // N_PLUS_ONE: số lần lặp nhiều nhất trong một request
+    private Double maxDurationMs;     // SLOW_QUERY: lần chạy chậm nhất
+    private LocalDateTime lastSeenAt;
+    private String lastTraceId;       // Xem chi tiết tại /api/admin/traces/{traceId}
+
+    // Constructor mặc định
+    public QueryFindingResponseDTO() {}
+
+    public String getType() { return type; }
+    public void setType(String type) { this.type = type; }
+    public String getEndpoint() { return endpoint; }
+    public void setEndpoint(String endpoint) { this.endpoint = endpoint; }
+    public String getSql() { return sql; }
+    public void setSql(String sql) { this.sql = sql; }
+    public Long getOccurrences() { return occurrences; }
+    public void setOccurrences(Long occurrences) { this.occurrences = occurrences; }
+    public Integer getMaxRepeats() { return maxRepeats; }
+    public void setMaxRepeats(Integer maxRepeats) { this.maxRepeats = maxRepeats; }
+    public Double getMaxDurationMs() { return maxDurationMs; }
+    public void setMaxDurationMs(Double maxDurationMs) { this.maxDurationMs = maxDurationMs; }
+    public LocalDateTime getLastSeenAt() { return lastSeenAt; }
+    public void setLastSeenAt(LocalDateTime lastSeenAt) { this.lastSeenAt = lastSeenAt; }
+    public String getLastTraceId() { return lastTraceId; }
+    public void setLastTraceId(String lastTraceId) { this.lastTraceId = lastTraceId; }
+}
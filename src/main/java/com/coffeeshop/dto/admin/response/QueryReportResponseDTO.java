@@ -0,0 +1,76 @@
+package com.coffeeshop.dto.admin.response;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+public class QueryReportResponseDTO {
+    // Số liệu Hibernate Statistics, cộng dồn từ statisticsSince
+    private Boolean statisticsEnabled;
+    private LocalDateTime statisticsSince;
+    private Long queryExecutionCount;         // Truy vấn HQL/JPQL/native, không gồm load theo id
+    private Long queryExecutionMaxTimeMs;
+    private String slowestQuery;
+    private Long prepareStatementCount;       // Mọi câu lệnh JDBC đã prepare
+    private Long entityFetchCount;            // Lần nạp entity lazy (proxy) từ DB
+    private Long collectionFetchCount;        // Lần nạp collection lazy từ DB
+    private Map<String, Long> slowQueries;    // Câu lệnh chậm theo Hibernate -> thời gian chậm nhất (ms)
+    private Long queryCacheHitCount;
+    private Long queryCacheMissCount;
+    private List<CacheRegionInfo> cacheRegions;   // Second-level cache theo region
+
+    private List<QueryFindingResponseDTO> findings;
+
+    // Constructor mặc định
+    public QueryReportResponseDTO() {}
+
+    public Boolean getStatisticsEnabled() { return statisticsEnabled; }
+    public void setStatisticsEnabled(Boolean statisticsEnabled) { this.statisticsEnabled = statisticsEnabled; }
+    public LocalDateTime getStatisticsSince() { return statisticsSince; }
+    public void setStatisticsSince(LocalDateTime statisticsSince) { this.statisticsSince = statisticsSince; }
+    public Long getQueryExecutionCount() { return queryExecutionCount; }
+    public void setQueryExecutionCount(Long queryExecutionCount) { this.queryExecutionCount = queryExecutionCount; }
+    public Long getQueryExecutionMaxTimeMs() { return queryExecutionMaxTimeMs; }
+    public void setQueryExecutionMaxTimeMs(Long queryExecutionMaxTimeMs) { this.queryExecutionMaxTimeMs = queryExecutionMaxTimeMs; }
+    public String getSlowestQuery() { return slowestQuery; }
+    public void setSlowestQuery(String slowestQuery) { this.slowestQuery = slowestQuery; }
+    public Long getPrepareStatementCount() { return prepareStatementCount; }
+    public void setPrepareStatementCount(Long prepareStatementCount) { this.prepareStatementCount = prepareStatementCount; }
+    public Long getEntityFetchCount() { return entityFetchCount; }
+    public void setEntityFetchCount(Long entityFetchCount) { this.entityFetchCount = entityFetchCount; }
+    public Long getCollectionFetchCount() { return collectionFetchCount; }
+    public void setCollectionFetchCount(Long collectionFetchCount) { this.collectionFetchCount = collectionFetchCount; }
+    public Map<String, Long> getSlowQueries() { return slowQueries; }
+    public void setSlowQueries(Map<String, Long> slowQueries) { this.slowQueries = slowQueries; }
+    public Long getQueryCacheHitCount() { return queryCacheHitCount; }
+    public void setQueryCacheHitCount(Long queryCacheHitCount) { this.queryCacheHitCount = queryCacheHitCount; }
+    public Long getQueryCacheMissCount() { return queryCacheMissCount; }
+    public void setQueryCacheMissCount(Long queryCacheMissCount) { this.queryCacheMissCount = queryCacheMissCount; }
+    public List<CacheRegionInfo> getCacheRegions() { return cacheRegions; }
+    public void setCacheRegions(List<CacheRegionInfo> cacheRegions) { this.cacheRegions = cacheRegions; }
+    public List<QueryFindingResponseDTO> getFindings() { return findings; }
+    public void setFindings(List<QueryFindingResponseDTO> findings) { this.findings = findings; }
+
+    // Inner class
+    public static class CacheRegionInfo {
+        private String region;
+        private Long hitCount;         // Đọc từ cache, không chạm DB
+        private Long missCount;
+        private Long putCount;
+        private Long elementCount;     // Số mục đang giữ trong bộ nhớ
+
+        // Constructor mặc định
+        public CacheRegionInfo() {}
+
+        public String getRegion() { return region; }
+        public void setRegion(String region) { this.region = region; }
+        public Long getHitCount() { return hitCount; }
+        public void setHitCount(Long hitCount) { this.hitCount = hitCount; }
+        public Long getMissCount() { return missCount; }
+        public void setMissCount(Long missCount) { this.missCount = missCount; }
+        public Long getPutCount() { return putCount; }
+        public void setPutCount(Long putCount) { this.putCount = putCount; }
+        public Long getElementCount() { return elementCount; }
+        public void setElementCount(Long elementCount) { this.elementCount = elementCount; }
+    }
+}
@@ -0,0 +1,47 @@
+package com.coffeeshop.dto.admin.response;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class SchedulerBacklogResponseDTO {
+    private LocalDateTime checkedAt;
+    private Boolean withinOpeningHours;  // Ngoài giờ mở cửa các job của AutoScheduler không chạy
+    private List<JobBacklog> jobs;
+
+    // Constructor mặc định
+    public SchedulerBacklogResponseDTO() {}
+
+    public LocalDateTime getCheckedAt() { return checkedAt; }
+    public void setCheckedAt(LocalDateTime checkedAt) { this.checkedAt = checkedAt; }
+    public Boolean getWithinOpeningHours() { return withinOpeningHours; }
+    public void setWithinOpeningHours(Boolean withinOpeningHours) { this.withinOpeningHours = withinOpeningHours; }
+    public List<JobBacklog> getJobs() { return jobs; }
+    public void setJobs(List<JobBacklog> jobs) { this.jobs = jobs; }
+
+    // Inner class
+    public static class JobBacklog {
+        private String job;
+        private String description;
+        private Long overdueCount;           // Số bản ghi đã quá hạn xử lý mà job chưa xử lý
+        private Long oldestOverdueSeconds;   // Bản ghi quá hạn lâu nhất đã chờ bao lâu; null nếu không có
+
+        // Constructor mặc định
+        public JobBacklog() {}
+
+        public JobBacklog(String job, String description, Long overdueCount, Long oldestOverdueSeconds) {
+            this.job = job;
+            this.description = description;
+            this.overdueCount = overdueCount;
+            this.oldestOverdueSeconds = oldestOverdueSeconds;
+        }
+
+        public String getJob() { return job; }
+        public void setJob(String job) { this.job = job; }
+        public String getDescription() { return description; }
+        public void setDescription(String description) { this.description = description; }
+        public Long getOverdueCount() { return overdueCount; }
+        public void setOverdueCount(Long overdueCount) { this.overdueCount = overdueCount; }
+        public Long getOldestOverdueSeconds() { return oldestOverdueSeconds; }
+        public void setOldestOverdueSeconds(Long oldestOverdueSeconds) { this.oldestOverdueSeconds = oldestOverdueSeconds; }
+    }
+}
@@ -0,0 +1,67 @@
+package com.coffeeshop.dto.admin.response;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class TraceResponseDTO {
+    private String traceId;
+    private String name;              // Tên span gốc, ví dụ "http get /api/admin/payments"
+    private LocalDateTime startedAt;
+    private Double durationMs;
+    private Long queryCount;          // Số câu lệnh SQL của cả request
+    private Double queryTimeMs;
+    private List<SpanInfo> spans;     // Theo thứ tự bắt đầu, span gốc đứng đầu
+
+    // Constructor mặc định
+    public TraceResponseDTO() {}
+
+    public String getTraceId() { return traceId; }
+    public void setTraceId(String traceId) { this.traceId = traceId; }
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+    public LocalDateTime getStartedAt() { return startedAt; }
+    public void setStartedAt(LocalDateTime startedAt) { this.startedAt = startedAt; }
+    public Double getDurationMs() { return durationMs; }
+    public void setDurationMs(Double durationMs) { this.durationMs = durationMs; }
+    public Long getQueryCount() { return queryCount; }
+    public void setQueryCount(Long queryCount) { this.queryCount = queryCount; }
+    public Double getQueryTimeMs() { return queryTimeMs; }
+    public void setQueryTimeMs(Double queryTimeMs) { this.queryTimeMs = queryTimeMs; }
+    public List<SpanInfo> getSpans() { return spans; }
+    public void setSpans(List<SpanInfo> spans) { this.spans = spans; }
+
+    // Inner class
+    public static class SpanInfo {
+        private String spanId;
+        private String parentSpanId;  // null với span gốc
+        private String name;          // Ví dụ "PaymentService.getAllPayments"
+        private String layer;         // controller, service, repository; null với span HTTP/job
+        private Double offsetMs;      // Bắt đầu sau span gốc bao lâu
+        private Double durationMs;
+        private Long queryCount;
+        private Double queryTimeMs;
+        private Boolean error;
+
+        // Constructor mặc định
+        public SpanInfo() {}
+
+        public String getSpanId() { return spanId; }
+        public void setSpanId(String spanId) { this.spanId = spanId; }
+        public String getParentSpanId() { return parentSpanId; }
+        public void setParentSpanId(String parentSpanId) { this.parentSpanId = parentSpanId; }
+        public String getName() { return name; }
+        public void setName(String name) { this.name = name; }
+        public String getLayer() { return layer; }
+        public void setLayer(String layer) { this.layer = layer; }
+        public Double getOffsetMs() { return offsetMs; }
+        public void setOffsetMs(Double offsetMs) { this.offsetMs = offsetMs; }
+        public Double getDurationMs() { return durationMs; }
+        public void setDurationMs(Double durationMs) { this.durationMs = durationMs; }
+        public Long getQueryCount() { return queryCount; }
+        public void setQueryCount(Long queryCount) { this.queryCount = queryCount; }
+        public Double getQueryTimeMs() { return queryTimeMs; }
+        public void setQueryTimeMs(Double queryTimeMs) { this.queryTimeMs = queryTimeMs; }
+        public Boolean getError() { return error; }
+        public void setError(Boolean error) { this.error = error; }
+    }
+}
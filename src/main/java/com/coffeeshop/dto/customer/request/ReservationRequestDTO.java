@@ -8,8 +8,7 @@ import jakarta.validation.constraints.Future;
 import jakarta.validation.constraints.Size;
 
 public class ReservationRequestDTO {
-    @NotNull(message = "ID bàn không được để trống")
-    private Integer tableId;
+    private Integer tableId;     // null = hệ thống tự xếp bàn (có thể ghép bàn cho nhóm đông)
     
     @NotNull(message = "Thời gian đặt bàn không được để trống")
     @Future(message = "Thời gian đặt bàn phải trong tương lai")
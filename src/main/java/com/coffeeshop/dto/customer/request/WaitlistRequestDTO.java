@@ -0,0 +1,24 @@
+package com.coffeeshop.dto.customer.request;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+public class WaitlistRequestDTO {
+    @NotNull(message = "Số lượng người không được để trống")
+    @Min(value = 1, message = "Số lượng người phải ít nhất là 1")
+    @Max(value = 20, message = "Số lượng người không được vượt quá 20")
+    private Integer partySize;
+
+    @Size(max = 500, message = "Ghi chú không được vượt quá 500 ký tự")
+    private String notes;
+
+    // Constructor mặc định
+    public WaitlistRequestDTO() {}
+
+    public Integer getPartySize() { return partySize; }
+    public void setPartySize(Integer partySize) { this.partySize = partySize; }
+    public String getNotes() { return notes; }
+    public void setNotes(String notes) { this.notes = notes; }
+}
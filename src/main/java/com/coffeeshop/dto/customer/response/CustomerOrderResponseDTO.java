@@ -14,6 +14,7 @@ public class CustomerOrderResponseDTO {
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
     private List<OrderItemInfo> items;
+    private LocalDateTime estimatedReadyAt;
     // ... các trường khác nếu cần
     // getter/setter
     public Integer getId() { return id; }
@@ -36,6 +37,8 @@ public class CustomerOrderResponseDTO {
     public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
     public List<OrderItemInfo> getItems() { return items; }
     public void setItems(List<OrderItemInfo> items) { this.items = items; }
+    public LocalDateTime getEstimatedReadyAt() { return estimatedReadyAt; }
+    public void setEstimatedReadyAt(LocalDateTime estimatedReadyAt) { this.estimatedReadyAt = estimatedReadyAt; }
     // Inner class getter/setter
     public static class TableInfo {
         private Integer id;
@@ -54,6 +57,7 @@ public class CustomerOrderResponseDTO {
         private Integer quantity;
         private Double unitPrice;
         private Double totalPrice;
+        private LocalDateTime estimatedReadyAt;
         public Integer getId() { return id; }
         public void setId(Integer id) { this.id = id; }
         public String getProductName() { return productName; }
@@ -64,5 +68,7 @@ public class CustomerOrderResponseDTO {
         public void setUnitPrice(Double unitPrice) { this.unitPrice = unitPrice; }
         public Double getTotalPrice() { return totalPrice; }
         public void setTotalPrice(Double totalPrice) { this.totalPrice = totalPrice; }
+        public LocalDateTime getEstimatedReadyAt() { return estimatedReadyAt; }
+        public void setEstimatedReadyAt(LocalDateTime estimatedReadyAt) { this.estimatedReadyAt = estimatedReadyAt; }
     }
 } 
\ No newline at end of file
@@ -1,10 +1,12 @@
 package com.coffeeshop.dto.customer.response;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 public class CustomerReservationResponseDTO {
     private Integer id;
     private TableInfo table;
+    private List<TableInfo> joinedTables;   // Bàn ghép thêm, rỗng nếu chỉ dùng một bàn
     private LocalDateTime reservationDatetime;
     private Integer partySize;
     private String status;
@@ -19,6 +21,8 @@ public class CustomerReservationResponseDTO {
     public void setId(Integer id) { this.id = id; }
     public TableInfo getTable() { return table; }
     public void setTable(TableInfo table) { this.table = table; }
+    public List<TableInfo> getJoinedTables() { return joinedTables; }
+    public void setJoinedTables(List<TableInfo> joinedTables) { this.joinedTables = joinedTables; }
     public LocalDateTime getReservationDatetime() { return reservationDatetime; }
     public void setReservationDatetime(LocalDateTime reservationDatetime) { this.reservationDatetime = reservationDatetime; }
     public Integer getPartySize() { return partySize; }
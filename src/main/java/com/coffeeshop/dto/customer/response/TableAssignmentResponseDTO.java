@@ -0,0 +1,52 @@
+package com.coffeeshop.dto.customer.response;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class TableAssignmentResponseDTO {
+    private String reference;
+    private LocalDateTime reservationDatetime;
+    private Integer partySize;
+    private Boolean assigned;        // false nếu không còn bàn phù hợp
+    private String location;
+    private Integer totalCapacity;
+    private Integer unusedSeats;
+    private List<TableInfo> tables;  // Nhiều bàn = ghép bàn liền kề
+
+    // Constructor mặc định
+    public TableAssignmentResponseDTO() {}
+
+    public String getReference() { return reference; }
+    public void setReference(String reference) { this.reference = reference; }
+    public LocalDateTime getReservationDatetime() { return reservationDatetime; }
+    public void setReservationDatetime(LocalDateTime reservationDatetime) { this.reservationDatetime = reservationDatetime; }
+    public Integer getPartySize() { return partySize; }
+    public void setPartySize(Integer partySize) { this.partySize = partySize; }
+    public Boolean getAssigned() { return assigned; }
+    public void setAssigned(Boolean assigned) { this.assigned = assigned; }
+    public String getLocation() { return location; }
+    public void setLocation(String location) { this.location = location; }
+    public Integer getTotalCapacity() { return totalCapacity; }
+    public void setTotalCapacity(Integer totalCapacity) { this.totalCapacity = totalCapacity; }
+    public Integer getUnusedSeats() { return unusedSeats; }
+    public void setUnusedSeats(Integer unusedSeats) { this.unusedSeats = unusedSeats; }
+    public List<TableInfo> getTables() { return tables; }
+    public void setTables(List<TableInfo> tables) { this.tables = tables; }
+
+    // Inner class
+    public static class TableInfo {
+        private Integer id;
+        private String tableNumber;
+        private Integer capacity;
+
+        // Constructor mặc định
+        public TableInfo() {}
+
+        public Integer getId() { return id; }
+        public void setId(Integer id) { this.id = id; }
+        public String getTableNumber() { return tableNumber; }
+        public void setTableNumber(String tableNumber) { this.tableNumber = tableNumber; }
+        public Integer getCapacity() { return capacity; }
+        public void setCapacity(Integer capacity) { this.capacity = capacity; }
+    }
+}
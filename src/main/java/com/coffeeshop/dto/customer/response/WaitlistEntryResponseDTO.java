@@ -0,0 +1,45 @@
+package com.coffeeshop.dto.customer.response;
+
+import com.coffeeshop.enums.WaitlistStatus;
+
+import java.time.LocalDateTime;
+
+public class WaitlistEntryResponseDTO {
+    private Integer id;                     // null với kết quả ước lượng chưa vào hàng chờ
+    private String customerUsername;
+    private Integer partySize;
+    private WaitlistStatus status;
+    private Integer position;               // Vị trí trong hàng chờ, tính từ 1
+    private LocalDateTime estimatedSeatAt;  // null nếu không có bàn đủ chỗ
+    private Long estimatedWaitMinutes;
+    private String offeredTableNumber;      // Bàn đang được giữ khi status = NOTIFIED
+    private String notes;
+    private LocalDateTime notifiedAt;
+    private LocalDateTime createdAt;
+
+    // Constructor mặc định
+    public WaitlistEntryResponseDTO() {}
+
+    public Integer getId() { return id; }
+    public void setId(Integer id) { this.id = id; }
+    public String getCustomerUsername() { return customerUsername; }
+    public void setCustomerUsername(String customerUsername) { this.customerUsername = customerUsername; }
+    public Integer getPartySize() { return partySize; }
+    public void setPartySize(Integer partySize) { this.partySize = partySize; }
+    public WaitlistStatus getStatus() { return status; }
+    public void setStatus(WaitlistStatus status) { this.status = status; }
+    public Integer getPosition() { return position; }
+    public void setPosition(Integer position) { this.position = position; }
+    public LocalDateTime getEstimatedSeatAt() { return estimatedSeatAt; }
+    public void setEstimatedSeatAt(LocalDateTime estimatedSeatAt) { this.estimatedSeatAt = estimatedSeatAt; }
+    public Long getEstimatedWaitMinutes() { return estimatedWaitMinutes; }
+    public void setEstimatedWaitMinutes(Long estimatedWaitMinutes) { this.estimatedWaitMinutes = estimatedWaitMinutes; }
+    public String getOfferedTableNumber() { return offeredTableNumber; }
+    public void setOfferedTableNumber(String offeredTableNumber) { this.offeredTableNumber = offeredTableNumber; }
+    public String getNotes() { return notes; }
+    public void setNotes(String notes) { this.notes = notes; }
+    public LocalDateTime getNotifiedAt() { return notifiedAt; }
+    public void setNotifiedAt(LocalDateTime notifiedAt) { this.notifiedAt = notifiedAt; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+}
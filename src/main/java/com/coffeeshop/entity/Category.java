@@ -2,20 +2,37 @@ package com.coffeeshop.entity;
 
 import java.time.LocalDateTime;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.TenantId;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import com.coffeeshop.config.HibernateCacheConfig;
+
 @Entity
-@Table(name = "categories")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = HibernateCacheConfig.CATEGORY_REGION)
+@Table(name = "categories", indexes = {
+		@Index(name = "idx_categories_branch_order", columnList = "branch_id, display_order")
+})
 public class Category {
 	@Id
 	@GeneratedValue(strategy = GenerationType.IDENTITY)
 	private Integer id;
 
+	// Chi nhánh; Hibernate tự gán khi thêm mới và lọc mọi truy vấn theo BranchContext
+	@TenantId
+	@Column(name = "branch_id", nullable = false, updatable = false)
+	private Integer branchId;
+
 	@Column(nullable = false, length = 100)
 	private String name;
 
@@ -101,4 +118,7 @@ public class Category {
 		this.updatedAt = updatedAt;
 	}
 
-}
\ No newline at end of file
+	public Integer getBranchId() {
+		return branchId;
+	}
+}
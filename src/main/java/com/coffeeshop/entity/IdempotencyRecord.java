@@ -0,0 +1,122 @@
+package com.coffeeshop.entity;
+
+import com.coffeeshop.enums.IdempotencyStatus;
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Một Idempotency-Key đã nhận, dùng chung cho mọi instance. Ràng buộc duy nhất trên
+ * (scope, username, branch_id, idempotency_key) bảo đảm chỉ một request giữ được key.
+ */
+@Entity
+@Table(name = "idempotency_keys", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_idempotency_key", columnNames = {"scope", "username", "branch_id", "idempotency_key"})
+}, indexes = {
+    @Index(name = "idx_idempotency_expires", columnList = "expires_at")
+})
+public class IdempotencyRecord {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(length = 30, nullable = false)
+    private String scope;
+
+    @Column(length = 50, nullable = false)
+    private String username;
+
+    // Không dùng @TenantId: việc dọn key hết hạn chạy một lượt cho mọi chi nhánh
+    @Column(name = "branch_id", nullable = false)
+    private Integer branchId;
+
+    @Column(name = "idempotency_key", length = 100, nullable = false)
+    private String idempotencyKey;
+
+    // SHA-256 của nội dung request
+    @Column(length = 64, nullable = false)
+    private String fingerprint;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20, nullable = false)
+    private IdempotencyStatus status = IdempotencyStatus.IN_PROGRESS;
+
+    // Đổi mỗi lần có request nhận xử lý key; chỉ request giữ đúng token mới ghi được kết quả
+    @Column(name = "claim_token", length = 36, nullable = false)
+    private String claimToken;
+
+    @Column(name = "claimed_at", nullable = false)
+    private LocalDateTime claimedAt;
+
+    @Column(name = "response_body", columnDefinition = "TEXT")
+    private String responseBody;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    public Long getId() {
+        return id;
+    }
+    public void setId(Long id) {
+        this.id = id;
+    }
+    public String getScope() {
+        return scope;
+    }
+    public void setScope(String scope) {
+        this.scope = scope;
+    }
+    public String getUsername() {
+        return username;
+    }
+    public void setUsername(String username) {
+        this.username = username;
+    }
+    public Integer getBranchId() {
+        return branchId;
+    }
+    public void setBranchId(Integer branchId) {
+        this.branchId = branchId;
+    }
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+    public void setIdempotencyKey(String idempotencyKey) {
+        this.idempotencyKey = idempotencyKey;
+    }
+    public String getFingerprint() {
+        return fingerprint;
+    }
+    public void setFingerprint(String fingerprint) {
+        this.fingerprint = fingerprint;
+    }
+    public IdempotencyStatus getStatus() {
+        return status;
+    }
+    public void setStatus(IdempotencyStatus status) {
+        this.status = status;
+    }
+    public String getClaimToken() {
+        return claimToken;
+    }
+    public void setClaimToken(String claimToken) {
+        this.claimToken = claimToken;
+    }
+    public LocalDateTime getClaimedAt() {
+        return claimedAt;
+    }
+    public void setClaimedAt(LocalDateTime claimedAt) {
+        this.claimedAt = claimedAt;
+    }
+    public String getResponseBody() {
+        return responseBody;
+    }
+    public void setResponseBody(String responseBody) {
+        this.responseBody = responseBody;
+    }
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+    public void setExpiresAt(LocalDateTime expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+}
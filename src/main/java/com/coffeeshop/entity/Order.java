@@ -14,18 +14,30 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+
+import org.hibernate.annotations.TenantId;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+		@Index(name = "idx_orders_branch_status_created", columnList = "branch_id, status, created_at"),
+		@Index(name = "idx_orders_branch_status_updated", columnList = "branch_id, status, updated_at")
+})
 public class Order {
 	@Id
 	@GeneratedValue(strategy = GenerationType.IDENTITY)
 	private Integer id;
 
+	// Chi nhánh; Hibernate tự gán khi thêm mới và lọc mọi truy vấn theo BranchContext
+	@TenantId
+	@Column(name = "branch_id", nullable = false, updatable = false)
+	private Integer branchId;
+
 	@ManyToOne(fetch = FetchType.LAZY)
 	@JoinColumn(name = "customer_id", nullable = false)
 	private User customer;
@@ -77,6 +89,11 @@ public class Order {
 	@Column(nullable = false)
 	private LocalDateTime updatedAt;
 
+	// Tăng mỗi lần cập nhật; mọi thay đổi trạng thái đều kiểm tra version (xem OrderStateMachine)
+	@Version
+	@Column(nullable = false)
+	private long version;
+
 	public Integer getId() {
 		return id;
 	}
@@ -181,4 +198,16 @@ public class Order {
 	public void setUpdatedAt(LocalDateTime updatedAt) {
 		this.updatedAt = updatedAt;
 	}
-}
\ No newline at end of file
+
+	public long getVersion() {
+		return version;
+	}
+
+	public void setVersion(long version) {
+		this.version = version;
+	}
+
+	public Integer getBranchId() {
+		return branchId;
+	}
+}
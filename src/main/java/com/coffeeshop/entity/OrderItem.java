@@ -16,6 +16,8 @@ import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
 
+import org.hibernate.annotations.TenantId;
+
 @Entity
 @Table(name = "order_items")
 public class OrderItem {
@@ -23,6 +25,11 @@ public class OrderItem {
 	@GeneratedValue(strategy = GenerationType.IDENTITY)
 	private Integer id;
 
+	// Chi nhánh; Hibernate tự gán khi thêm mới và lọc mọi truy vấn theo BranchContext
+	@TenantId
+	@Column(name = "branch_id", nullable = false, updatable = false)
+	private Integer branchId;
+
 	@ManyToOne(fetch = FetchType.LAZY)
 	@JoinColumn(name = "order_id", nullable = false)
 	private Order order;
@@ -121,4 +128,8 @@ public class OrderItem {
 	public void setUpdatedAt(LocalDateTime updatedAt) {
 		this.updatedAt = updatedAt;
 	}
-}
\ No newline at end of file
+
+	public Integer getBranchId() {
+		return branchId;
+	}
+}
@@ -0,0 +1,52 @@
+package com.coffeeshop.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Listener đã xử lý xong một sự kiện outbox. Ghi cùng transaction với thay đổi của listener, nên khi relay
+ * phát lại sự kiện (vì listener khác lỗi) listener đã xử lý sẽ bỏ qua thay vì làm lại.
+ */
+@Entity
+@Table(name = "outbox_deliveries",
+        uniqueConstraints = @UniqueConstraint(name = "uk_outbox_delivery", columnNames = {"event_id", "listener"}),
+        indexes = @Index(name = "idx_outbox_delivery_delivered", columnList = "delivered_at"))
+public class OutboxDelivery {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "event_id", nullable = false)
+    private Long eventId;
+
+    @Column(length = 100, nullable = false)
+    private String listener;
+
+    @Column(name = "delivered_at", nullable = false)
+    private LocalDateTime deliveredAt;
+
+    public Long getId() {
+        return id;
+    }
+    public void setId(Long id) {
+        this.id = id;
+    }
+    public Long getEventId() {
+        return eventId;
+    }
+    public void setEventId(Long eventId) {
+        this.eventId = eventId;
+    }
+    public String getListener() {
+        return listener;
+    }
+    public void setListener(String listener) {
+        this.listener = listener;
+    }
+    public LocalDateTime getDeliveredAt() {
+        return deliveredAt;
+    }
+    public void setDeliveredAt(LocalDateTime deliveredAt) {
+        this.deliveredAt = deliveredAt;
+    }
+}
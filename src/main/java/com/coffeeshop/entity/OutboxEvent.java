@@ -0,0 +1,131 @@
+package com.coffeeshop.entity;
+
+import com.coffeeshop.enums.OutboxStatus;
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "outbox_events", indexes = {
+    @Index(name = "idx_outbox_status_next", columnList = "status, next_attempt_at"),
+    @Index(name = "idx_outbox_aggregate", columnList = "aggregate_type, aggregate_id, status, id"),
+    @Index(name = "idx_outbox_processed", columnList = "processed_at")
+})
+public class OutboxEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "aggregate_type", length = 30, nullable = false)
+    private String aggregateType;
+
+    @Column(name = "aggregate_id", nullable = false)
+    private Integer aggregateId;
+
+    // Chi nhánh của giao dịch tạo sự kiện; listener chạy với chi nhánh này. Bảng outbox dùng chung nên
+    // không dùng @TenantId: relay đọc sự kiện của mọi chi nhánh trong một lượt
+    @Column(name = "branch_id", nullable = false)
+    private Integer branchId;
+
+    @Column(name = "event_type", length = 60, nullable = false)
+    private String eventType;
+
+    @Column(columnDefinition = "TEXT", nullable = false)
+    private String payload;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20, nullable = false)
+    private OutboxStatus status = OutboxStatus.PENDING;
+
+    @Column(nullable = false)
+    private int attempts = 0;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(length = 500)
+    private String lastError;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "processed_at")
+    private LocalDateTime processedAt;
+
+    public Long getId() {
+        return id;
+    }
+    public void setId(Long id) {
+        this.id = id;
+    }
+    public String getAggregateType() {
+        return aggregateType;
+    }
+    public void setAggregateType(String aggregateType) {
+        this.aggregateType = aggregateType;
+    }
+    public Integer getAggregateId() {
+        return aggregateId;
+    }
+    public void setAggregateId(Integer aggregateId) {
+        this.aggregateId = aggregateId;
+    }
+    public Integer getBranchId() {
+        return branchId;
+    }
+    public void setBranchId(Integer branchId) {
+        this.branchId = branchId;
+    }
+    public String getEventType() {
+        return eventType;
+    }
+    public void setEventType(String eventType) {
+        this.eventType = eventType;
+    }
+    public String getPayload() {
+        return payload;
+    }
+    public void setPayload(String payload) {
+        this.payload = payload;
+    }
+    public OutboxStatus getStatus() {
+        return status;
+    }
+    public void setStatus(OutboxStatus status) {
+        this.status = status;
+    }
+    public int getAttempts() {
+        return attempts;
+    }
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+    public LocalDateTime getNextAttemptAt() {
+        return nextAttemptAt;
+    }
+    public void setNextAttemptAt(LocalDateTime nextAttemptAt) {
+        this.nextAttemptAt = nextAttemptAt;
+    }
+    public String getLastError() {
+        return lastError;
+    }
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+    public LocalDateTime getProcessedAt() {
+        return processedAt;
+    }
+    public void setProcessedAt(LocalDateTime processedAt) {
+        this.processedAt = processedAt;
+    }
+
+    // Khóa dùng để giữ thứ tự phát theo aggregate
+    public String aggregateKey() {
+        return aggregateType + ":" + aggregateId;
+    }
+}
@@ -17,6 +17,8 @@ import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
 
+import org.hibernate.annotations.TenantId;
+
 @Entity
 @Table(name = "payments")
 public class Payment {
@@ -24,6 +26,11 @@ public class Payment {
 	@GeneratedValue(strategy = GenerationType.IDENTITY)
 	private Integer id;
 
+	// Chi nhánh; Hibernate tự gán khi thêm mới và lọc mọi truy vấn theo BranchContext
+	@TenantId
+	@Column(name = "branch_id", nullable = false, updatable = false)
+	private Integer branchId;
+
 	@ManyToOne(fetch = FetchType.LAZY)
 	@JoinColumn(name = "order_id", nullable = false)
 	private Order order;
@@ -105,4 +112,8 @@ public class Payment {
 	public void setCreatedAt(LocalDateTime createdAt) {
 		this.createdAt = createdAt;
 	}
-}
\ No newline at end of file
+
+	public Integer getBranchId() {
+		return branchId;
+	}
+}
@@ -2,23 +2,40 @@ package com.coffeeshop.entity;
 
 import java.time.LocalDateTime;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.TenantId;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import com.coffeeshop.config.HibernateCacheConfig;
+
 @Entity
-@Table(name = "products")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = HibernateCacheConfig.PRODUCT_REGION)
+@Table(name = "products", indexes = {
+		@Index(name = "idx_products_branch_category", columnList = "branch_id, category_id")
+})
 public class Product {
 	@Id
 	@GeneratedValue(strategy = GenerationType.IDENTITY)
 	private Integer id;
 
+	// Chi nhánh; Hibernate tự gán khi thêm mới và lọc mọi truy vấn theo BranchContext
+	@TenantId
+	@Column(name = "branch_id", nullable = false, updatable = false)
+	private Integer branchId;
+
 	@ManyToOne(fetch = FetchType.LAZY)
 	@JoinColumn(name = "category_id", nullable = false)
 	private Category category;
@@ -133,4 +150,7 @@ public class Product {
 		this.updatedAt = updatedAt;
 	}
 
-}
\ No newline at end of file
+	public Integer getBranchId() {
+		return branchId;
+	}
+}
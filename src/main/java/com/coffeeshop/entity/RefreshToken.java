@@ -4,16 +4,25 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "refresh_tokens")
+@Table(name = "refresh_tokens", indexes = {
+    @Index(name = "idx_refresh_tokens_user", columnList = "user_id"),
+    @Index(name = "idx_refresh_tokens_expiry", columnList = "expiry_date")
+})
 public class RefreshToken {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @Column(nullable = false, unique = true, length = 255)
+    // SHA-256 (hex) của refresh token, không lưu token gốc.
+    // Giữ tên cột "token" để ddl-auto=update không phải thêm cột NOT NULL mới.
+    @Column(name = "token", nullable = false, unique = true, length = 64)
+    private String tokenHash;
+
+    // Token gốc chỉ có trong bộ nhớ ngay sau khi tạo để trả về cho client
+    @Transient
     private String token;
 
-    @Column(nullable = false)
+    @Column(name = "expiry_date", nullable = false)
     private LocalDateTime expiryDate;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -29,6 +38,12 @@ public class RefreshToken {
     public void setId(Long id) {
         this.id = id;
     }
+    public String getTokenHash() {
+        return tokenHash;
+    }
+    public void setTokenHash(String tokenHash) {
+        this.tokenHash = tokenHash;
+    }
     public String getToken() {
         return token;
     }
@@ -53,4 +68,4 @@ public class RefreshToken {
     public void setIsRevoked(Boolean isRevoked) {
         this.isRevoked = isRevoked;
     }
-} 
\ No newline at end of file
+}
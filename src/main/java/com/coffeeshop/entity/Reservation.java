@@ -1,6 +1,8 @@
 package com.coffeeshop.entity;
 
 import java.time.LocalDateTime;
+import java.util.LinkedHashSet;
+import java.util.Set;
 
 import com.coffeeshop.enums.ReservationStatus;
 
@@ -12,17 +14,30 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
+import jakarta.persistence.JoinTable;
+import jakarta.persistence.ManyToMany;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
 
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.TenantId;
+
 @Entity
-@Table(name = "reservations")
+@Table(name = "reservations", indexes = {
+		@Index(name = "idx_reservations_branch_status_datetime", columnList = "branch_id, status, reservation_datetime")
+})
 public class Reservation {
 	@Id
 	@GeneratedValue(strategy = GenerationType.IDENTITY)
 	private Integer id;
 
+	// Chi nhánh; Hibernate tự gán khi thêm mới và lọc mọi truy vấn theo BranchContext
+	@TenantId
+	@Column(name = "branch_id", nullable = false, updatable = false)
+	private Integer branchId;
+
 	@ManyToOne(fetch = FetchType.LAZY)
 	@JoinColumn(name = "customer_id", nullable = false)
 	private User customer;
@@ -31,6 +46,14 @@ public class Reservation {
 	@JoinColumn(name = "table_id", nullable = false)
 	private TableEntity table;
 
+	// Các bàn ghép thêm (cùng khu vực) khi nhóm khách lớn hơn sức chứa của một bàn
+	@ManyToMany(fetch = FetchType.LAZY)
+	@BatchSize(size = 100)
+	@JoinTable(name = "reservation_joined_tables",
+			joinColumns = @JoinColumn(name = "reservation_id"),
+			inverseJoinColumns = @JoinColumn(name = "table_id"))
+	private Set<TableEntity> joinedTables = new LinkedHashSet<>();
+
 	@Column(nullable = false)
 	private LocalDateTime reservationDatetime;
 
@@ -74,6 +97,14 @@ public class Reservation {
 		this.table = table;
 	}
 
+	public Set<TableEntity> getJoinedTables() {
+		return joinedTables;
+	}
+
+	public void setJoinedTables(Set<TableEntity> joinedTables) {
+		this.joinedTables = joinedTables;
+	}
+
 	public LocalDateTime getReservationDatetime() {
 		return reservationDatetime;
 	}
@@ -121,4 +152,8 @@ public class Reservation {
 	public void setUpdatedAt(LocalDateTime updatedAt) {
 		this.updatedAt = updatedAt;
 	}
-}
\ No newline at end of file
+
+	public Integer getBranchId() {
+		return branchId;
+	}
+}
@@ -0,0 +1,73 @@
+package com.coffeeshop.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * Lease của các instance chạy job nền. Mỗi instance giữ một dòng "node:&lt;nodeId&gt;" (heartbeat, cho biết
+ * instance còn sống) và tranh dòng "leader" (job chỉ chạy trên một instance). Lease hết hạn sau expiresAt
+ * nếu không được gia hạn; dùng chung cho mọi chi nhánh.
+ */
+@Entity
+@Table(name = "scheduler_leases")
+public class SchedulerLease {
+	@Id
+	@Column(name = "lease_name", length = 100)
+	private String leaseName;
+
+	@Column(nullable = false, length = 100)
+	private String owner;
+
+	@Column(nullable = false)
+	private LocalDateTime acquiredAt;
+
+	@Column(nullable = false)
+	private LocalDateTime renewedAt;
+
+	@Column(nullable = false)
+	private LocalDateTime expiresAt;
+
+	public String getLeaseName() {
+		return leaseName;
+	}
+
+	public void setLeaseName(String leaseName) {
+		this.leaseName = leaseName;
+	}
+
+	public String getOwner() {
+		return owner;
+	}
+
+	public void setOwner(String owner) {
+		this.owner = owner;
+	}
+
+	public LocalDateTime getAcquiredAt() {
+		return acquiredAt;
+	}
+
+	public void setAcquiredAt(LocalDateTime acquiredAt) {
+		this.acquiredAt = acquiredAt;
+	}
+
+	public LocalDateTime getRenewedAt() {
+		return renewedAt;
+	}
+
+	public void setRenewedAt(LocalDateTime renewedAt) {
+		this.renewedAt = renewedAt;
+	}
+
+	public LocalDateTime getExpiresAt() {
+		return expiresAt;
+	}
+
+	public void setExpiresAt(LocalDateTime expiresAt) {
+		this.expiresAt = expiresAt;
+	}
+}
@@ -2,16 +2,39 @@ package com.coffeeshop.entity;
 
 import java.time.LocalDateTime;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.TenantId;
+
+import com.coffeeshop.config.HibernateCacheConfig;
 
 @Entity
-@Table(name = "settings")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = HibernateCacheConfig.SETTING_REGION)
+@Table(name = "settings", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_settings_branch_key", columnNames = {"branch_id", "setting_key"})
+})
 public class Setting {
 
+    // Khóa thay thế: cùng một setting_key có thể có ở nhiều chi nhánh
     @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    // Chi nhánh; Hibernate tự gán khi thêm mới và lọc mọi truy vấn theo BranchContext
+    @TenantId
+    @Column(name = "branch_id", nullable = false, updatable = false)
+    private Integer branchId;
+
     @Column(name = "setting_key", nullable = false, length = 50)
     private String settingKey;
 
@@ -28,6 +51,15 @@ public class Setting {
     private LocalDateTime updatedAt;
 
     // Getters and Setters
+    public Integer getId() {
+        return id;
+    }
+    public void setId(Integer id) {
+        this.id = id;
+    }
+    public Integer getBranchId() {
+        return branchId;
+    }
     public String getSettingKey() {
         return settingKey;
     }
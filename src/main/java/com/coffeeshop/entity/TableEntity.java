@@ -12,15 +12,27 @@ import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 
+import org.hibernate.annotations.TenantId;
+
+// Không đưa vào second-level cache: trạng thái bàn đổi liên tục và được ghi từ mọi instance (scheduler, đặt bàn,
+// gọi món), cache riêng trong từng JVM sẽ trả trạng thái cũ
 @Entity
-@Table(name = "tables")
+@Table(name = "tables", uniqueConstraints = {
+		@UniqueConstraint(name = "uk_tables_branch_number", columnNames = {"branch_id", "table_number"})
+})
 public class TableEntity {
 	@Id
 	@GeneratedValue(strategy = GenerationType.IDENTITY)
 	private Integer id;
 
-	@Column(length = 10, nullable = false, unique = true)
+	// Chi nhánh; Hibernate tự gán khi thêm mới và lọc mọi truy vấn theo BranchContext
+	@TenantId
+	@Column(name = "branch_id", nullable = false, updatable = false)
+	private Integer branchId;
+
+	@Column(length = 10, nullable = false)
 	private String tableNumber;
 
 	@Column(nullable = false)
@@ -105,4 +117,8 @@ public class TableEntity {
 	public void setUpdatedAt(LocalDateTime updatedAt) {
 		this.updatedAt = updatedAt;
 	}
-}
\ No newline at end of file
+
+	public Integer getBranchId() {
+		return branchId;
+	}
+}
@@ -45,6 +45,10 @@ public class User {
 	@Column(nullable = false)
 	private Boolean isActive = true;
 
+	// Nhân viên chỉ làm việc ở một chi nhánh; null = mọi chi nhánh (khách hàng, quản lý chung)
+	@Column(name = "branch_id")
+	private Integer branchId;
+
 	@Column(nullable = false)
 	private LocalDateTime createdAt;
 
@@ -123,6 +127,14 @@ public class User {
 		this.isActive = isActive;
 	}
 
+	public Integer getBranchId() {
+		return branchId;
+	}
+
+	public void setBranchId(Integer branchId) {
+		this.branchId = branchId;
+	}
+
 	public LocalDateTime getCreatedAt() {
 		return createdAt;
 	}
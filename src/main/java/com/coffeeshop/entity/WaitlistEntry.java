@@ -0,0 +1,153 @@
+package com.coffeeshop.entity;
+
+import java.time.LocalDateTime;
+
+import com.coffeeshop.enums.WaitlistStatus;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+
+import org.hibernate.annotations.TenantId;
+
+@Entity
+@Table(name = "waitlist_entries", indexes = {
+		@Index(name = "idx_waitlist_branch_status_created", columnList = "branch_id, status, created_at"),
+		@Index(name = "idx_waitlist_branch_customer_status", columnList = "branch_id, customer_id, status")
+})
+public class WaitlistEntry {
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	private Integer id;
+
+	// Chi nhánh; Hibernate tự gán khi thêm mới và lọc mọi truy vấn theo BranchContext
+	@TenantId
+	@Column(name = "branch_id", nullable = false, updatable = false)
+	private Integer branchId;
+
+	@ManyToOne(fetch = FetchType.LAZY)
+	@JoinColumn(name = "customer_id", nullable = false)
+	private User customer;
+
+	@Column(nullable = false)
+	private Integer partySize;
+
+	@Enumerated(EnumType.STRING)
+	@Column(nullable = false, length = 20)
+	private WaitlistStatus status = WaitlistStatus.WAITING;
+
+	// Bàn được giữ cho khách khi status = NOTIFIED
+	@ManyToOne(fetch = FetchType.LAZY)
+	@JoinColumn(name = "offered_table_id")
+	private TableEntity offeredTable;
+
+	@Column(length = 500)
+	private String notes;
+
+	@Column(nullable = false)
+	private LocalDateTime createdAt;
+
+	@Column
+	private LocalDateTime notifiedAt;
+
+	@Column(nullable = false)
+	private LocalDateTime updatedAt;
+
+	@Version
+	@Column(nullable = false)
+	private long version;
+
+	public Integer getId() {
+		return id;
+	}
+
+	public void setId(Integer id) {
+		this.id = id;
+	}
+
+	public User getCustomer() {
+		return customer;
+	}
+
+	public void setCustomer(User customer) {
+		this.customer = customer;
+	}
+
+	public Integer getPartySize() {
+		return partySize;
+	}
+
+	public void setPartySize(Integer partySize) {
+		this.partySize = partySize;
+	}
+
+	public WaitlistStatus getStatus() {
+		return status;
+	}
+
+	public void setStatus(WaitlistStatus status) {
+		this.status = status;
+	}
+
+	public TableEntity getOfferedTable() {
+		return offeredTable;
+	}
+
+	public void setOfferedTable(TableEntity offeredTable) {
+		this.offeredTable = offeredTable;
+	}
+
+	public String getNotes() {
+		return notes;
+	}
+
+	public void setNotes(String notes) {
+		this.notes = notes;
+	}
+
+	public LocalDateTime getCreatedAt() {
+		return createdAt;
+	}
+
+	public void setCreatedAt(LocalDateTime createdAt) {
+		this.createdAt = createdAt;
+	}
+
+	public LocalDateTime getNotifiedAt() {
+		return notifiedAt;
+	}
+
+	public void setNotifiedAt(LocalDateTime notifiedAt) {
+		this.notifiedAt = notifiedAt;
+	}
+
+	public LocalDateTime getUpdatedAt() {
+		return updatedAt;
+	}
+
+	public void setUpdatedAt(LocalDateTime updatedAt) {
+		this.updatedAt = updatedAt;
+	}
+
+	public long getVersion() {
+		return version;
+	}
+
+	public void setVersion(long version) {
+		this.version = version;
+	}
+
+	public Integer getBranchId() {
+		return branchId;
+	}
+}
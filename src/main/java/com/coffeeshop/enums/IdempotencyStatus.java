@@ -0,0 +1,6 @@
+package com.coffeeshop.enums;
+
+public enum IdempotencyStatus {
+    IN_PROGRESS,   // Đang được một request xử lý
+    COMPLETED      // Đã xong, response được lưu để trả lại cho request gửi lại
+}
@@ -15,4 +15,29 @@ public enum OrderStatus {
         if (this == PENDING) return PAID;
         return this;
     }
-}
\ No newline at end of file
+
+    /**
+     * Các bước chuyển trạng thái hợp lệ:
+     * PENDING -> PAID | PREPARING | CANCELLED, PAID -> PREPARING, PREPARING -> SERVED, SERVED -> COMPLETED.
+     * CANCELLED và COMPLETED là trạng thái cuối.
+     * Đơn đã thanh toán chỉ bị hủy qua đường của admin (canBeCancelledByAdmin), không bởi job tự động.
+     */
+    public boolean canTransitionTo(OrderStatus target) {
+        return switch (this) {
+            case PENDING -> target == PAID || target == PREPARING || target == CANCELLED;
+            case PAID -> target == PREPARING;
+            case PREPARING -> target == SERVED;
+            case SERVED -> target == COMPLETED;
+            case CANCELLED, COMPLETED -> false;
+        };
+    }
+
+    /**
+     * Admin được hủy đơn chưa phục vụ: PENDING | PAID | PREPARING -> CANCELLED.
+     * Hệ thống không tự hoàn tiền: đơn bị hủy giữ paymentStatus PAID để đối soát, tiền được hoàn tại quầy
+     * hoặc trên cổng thanh toán.
+     */
+    public boolean canBeCancelledByAdmin() {
+        return this == PENDING || this == PAID || this == PREPARING;
+    }
+}
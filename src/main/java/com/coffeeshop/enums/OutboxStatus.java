@@ -0,0 +1,7 @@
+package com.coffeeshop.enums;
+
+public enum OutboxStatus {
+    PENDING,     // Chờ phát
+    PROCESSED,   // Đã phát thành công
+    FAILED       // Hết số lần thử, cần xử lý tay
+}
@@ -0,0 +1,9 @@
+package com.coffeeshop.enums;
+
+public enum WaitlistStatus {
+    WAITING,     // Đang chờ bàn
+    NOTIFIED,    // Đã báo có bàn, chờ khách tới nhận
+    SEATED,
+    CANCELLED,
+    EXPIRED      // Không tới nhận bàn trong thời gian giữ bàn
+}
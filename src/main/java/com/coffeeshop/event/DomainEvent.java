@@ -0,0 +1,12 @@
+package com.coffeeshop.event;
+
+/**
+ * Sự kiện nghiệp vụ được ghi vào outbox cùng transaction với thay đổi dữ liệu,
+ * sau đó OutboxRelay phát tới các @EventListener trong ứng dụng.
+ * Các sự kiện cùng aggregate (aggregateType + aggregateId) được phát đúng thứ tự ghi.
+ */
+public interface DomainEvent {
+    String aggregateType();
+
+    Integer aggregateId();
+}
@@ -0,0 +1,14 @@
+package com.coffeeshop.event;
+
+public record OrderCreatedEvent(Integer orderId, Integer customerId, Integer tableId, Integer reservationId)
+        implements DomainEvent {
+    @Override
+    public String aggregateType() {
+        return "ORDER";
+    }
+
+    @Override
+    public Integer aggregateId() {
+        return orderId;
+    }
+}
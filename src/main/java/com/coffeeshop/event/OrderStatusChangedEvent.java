@@ -0,0 +1,17 @@
+package com.coffeeshop.event;
+
+import com.coffeeshop.enums.OrderStatus;
+import com.coffeeshop.enums.PaymentStatus;
+
+public record OrderStatusChangedEvent(Integer orderId, Integer tableId, OrderStatus from, OrderStatus to,
+                                      PaymentStatus paymentStatus) implements DomainEvent {
+    @Override
+    public String aggregateType() {
+        return "ORDER";
+    }
+
+    @Override
+    public Integer aggregateId() {
+        return orderId;
+    }
+}
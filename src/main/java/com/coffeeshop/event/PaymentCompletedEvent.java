@@ -0,0 +1,18 @@
+package com.coffeeshop.event;
+
+import com.coffeeshop.enums.PaymentMethod;
+import java.math.BigDecimal;
+
+// Thuộc aggregate của đơn hàng để được xử lý đúng thứ tự với các thay đổi trạng thái đơn
+public record PaymentCompletedEvent(Integer paymentId, Integer orderId, PaymentMethod method, BigDecimal amount)
+        implements DomainEvent {
+    @Override
+    public String aggregateType() {
+        return "ORDER";
+    }
+
+    @Override
+    public Integer aggregateId() {
+        return orderId;
+    }
+}
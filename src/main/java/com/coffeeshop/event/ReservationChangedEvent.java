@@ -0,0 +1,20 @@
+package com.coffeeshop.event;
+
+import com.coffeeshop.enums.ReservationStatus;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// from = null khi đặt bàn vừa được tạo; joinedTableIds = các bàn ghép thêm ngoài tableId
+public record ReservationChangedEvent(Integer reservationId, Integer tableId, ReservationStatus from,
+                                      ReservationStatus to, LocalDateTime reservationDatetime,
+                                      List<Integer> joinedTableIds) implements DomainEvent {
+    @Override
+    public String aggregateType() {
+        return "RESERVATION";
+    }
+
+    @Override
+    public Integer aggregateId() {
+        return reservationId;
+    }
+}
@@ -0,0 +1,16 @@
+package com.coffeeshop.event;
+
+import com.coffeeshop.enums.WaitlistStatus;
+
+// from = null khi lượt chờ vừa được tạo
+public record WaitlistChangedEvent(Integer entryId, WaitlistStatus from, WaitlistStatus to) implements DomainEvent {
+    @Override
+    public String aggregateType() {
+        return "WAITLIST";
+    }
+
+    @Override
+    public Integer aggregateId() {
+        return entryId;
+    }
+}
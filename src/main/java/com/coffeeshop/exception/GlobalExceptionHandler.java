@@ -6,12 +6,16 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -64,6 +68,24 @@ public class GlobalExceptionHandler {
 		return ResponseEntity.status(HttpStatus.CONFLICT).body(errorResponse);
 	}
 
+	@ExceptionHandler(IdempotencyKeyConflictException.class)
+	public ResponseEntity<ErrorResponseDTO> handleIdempotencyKeyConflictException(IdempotencyKeyConflictException ex,
+			WebRequest request) {
+
+		logger.warn("Idempotency key conflict: {}", ex.getMessage());
+
+		Map<String, Object> details = new HashMap<>();
+		details.put("errorCode", ex.getErrorCode());
+		if (ex.getRejectedValue() != null) {
+			details.put("rejectedValue", ex.getRejectedValue());
+		}
+
+		ErrorResponseDTO errorResponse = new ErrorResponseDTO(ex.getMessage(), "Conflict", extractPath(request),
+				LocalDateTime.now().format(TIMESTAMP_FORMATTER), 409, details);
+
+		return ResponseEntity.status(HttpStatus.CONFLICT).body(errorResponse);
+	}
+
 	@ExceptionHandler(InvalidCredentialsException.class)
 	public ResponseEntity<ErrorResponseDTO> handleInvalidCredentialsException(InvalidCredentialsException ex,
 			WebRequest request) {
@@ -228,6 +250,30 @@ public class GlobalExceptionHandler {
 		return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
 	}
 
+	@ExceptionHandler(OptimisticLockingFailureException.class)
+	public ResponseEntity<ErrorResponseDTO> handleOptimisticLockingFailureException(OptimisticLockingFailureException ex,
+			WebRequest request) {
+
+		logger.warn("Concurrent modification: {}", ex.getMessage());
+
+		ErrorResponseDTO errorResponse = new ErrorResponseDTO("Dữ liệu vừa được cập nhật bởi thao tác khác. Vui lòng thử lại.",
+				"Conflict", extractPath(request), LocalDateTime.now().format(TIMESTAMP_FORMATTER), 409);
+
+		return ResponseEntity.status(HttpStatus.CONFLICT).body(errorResponse);
+	}
+
+	@ExceptionHandler({ RejectedExecutionException.class, CannotCreateTransactionException.class,
+			DataAccessResourceFailureException.class })
+	public ResponseEntity<ErrorResponseDTO> handleSaturationException(Exception ex, WebRequest request) {
+
+		logger.warn("Request rejected, server saturated: {} ({})", extractPath(request), ex.getMessage());
+
+		ErrorResponseDTO errorResponse = new ErrorResponseDTO("Hệ thống đang bận. Vui lòng thử lại sau.",
+				"Service Unavailable", extractPath(request), LocalDateTime.now().format(TIMESTAMP_FORMATTER), 503);
+
+		return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(errorResponse);
+	}
+
 	@ExceptionHandler(Exception.class)
 	public ResponseEntity<ErrorResponseDTO> handleGlobalException(Exception ex, WebRequest request) {
 
@@ -0,0 +1,19 @@
+package com.coffeeshop.exception;
+
+/**
+ * Exception thrown when an Idempotency-Key is reused for a different request
+ * or while the original request is still being processed.
+ */
+public class IdempotencyKeyConflictException extends BusinessLogicException {
+
+    private static final long serialVersionUID = 1L;
+    private static final String ERROR_CODE = "IDEMPOTENCY_KEY_CONFLICT";
+
+    public IdempotencyKeyConflictException(String message) {
+        super(message, ERROR_CODE);
+    }
+
+    public IdempotencyKeyConflictException(String message, Object rejectedValue) {
+        super(message, ERROR_CODE, rejectedValue);
+    }
+}
@@ -0,0 +1,19 @@
+package com.coffeeshop.repository;
+
+import com.coffeeshop.entity.Branch;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface BranchRepository extends JpaRepository<Branch, Integer> {
+    Optional<Branch> findByCode(String code);
+
+    List<Branch> findByIsActiveTrueOrderById();
+
+    @Query("SELECT b.id FROM Branch b WHERE b.isActive = true ORDER BY b.id")
+    List<Integer> findActiveIds();
+}
@@ -0,0 +1,47 @@
+package com.coffeeshop.repository;
+
+import com.coffeeshop.entity.IdempotencyRecord;
+import com.coffeeshop.enums.IdempotencyStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, Long> {
+
+    Optional<IdempotencyRecord> findByScopeAndUsernameAndBranchIdAndIdempotencyKey(String scope, String username,
+                                                                                  Integer branchId, String idempotencyKey);
+
+    // Ghi kết quả; 0 dòng nghĩa là request khác đã nhận lại key (lần xử lý này quá lâu) hoặc key đã bị xóa
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.status = :completed, r.responseBody = :body, r.expiresAt = :expiresAt "
+            + "WHERE r.id = :id AND r.claimToken = :token AND r.status = :inProgress")
+    int complete(@Param("id") Long id, @Param("token") String token, @Param("body") String body,
+                 @Param("expiresAt") LocalDateTime expiresAt, @Param("completed") IdempotencyStatus completed,
+                 @Param("inProgress") IdempotencyStatus inProgress);
+
+    // Nhận lại key mà request đang xử lý đã bỏ dở (instance chết, treo quá lâu)
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.claimToken = :token, r.claimedAt = :now "
+            + "WHERE r.id = :id AND r.status = :inProgress AND r.claimedAt < :staleBefore")
+    int takeOver(@Param("id") Long id, @Param("token") String token, @Param("now") LocalDateTime now,
+                 @Param("staleBefore") LocalDateTime staleBefore, @Param("inProgress") IdempotencyStatus inProgress);
+
+    // Lần xử lý lỗi: bỏ key để client thử lại được với cùng key
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.id = :id AND r.claimToken = :token")
+    int release(@Param("id") Long id, @Param("token") String token);
+
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.id = :id AND r.expiresAt < :now")
+    int deleteIfExpired(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -1,12 +1,44 @@
 package com.coffeeshop.repository;
 
 import com.coffeeshop.entity.OrderItem;
+import com.coffeeshop.enums.OrderItemStatus;
+import com.coffeeshop.enums.OrderStatus;
+import com.coffeeshop.enums.PaymentStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface OrderItemRepository extends JpaRepository<OrderItem, Integer> {
-    List<OrderItem> findByOrder_Id(Integer orderId);
-}
\ No newline at end of file
+    // Lọc trực tiếp trên cột order_id: truy vấn dẫn xuất findByOrder_Id nối LEFT JOIN sang orders (do điều kiện
+    // chi nhánh), H2 không dùng được index order_id và quét cả bảng order_items ở mỗi lần tạo đơn
+    @Query("SELECT oi FROM OrderItem oi WHERE oi.order.id = :orderId")
+    List<OrderItem> findByOrder_Id(@Param("orderId") Integer orderId);
+
+    // Món của một đơn kèm sản phẩm, danh mục, bàn và reservation để đưa vào hàng đợi bếp trong một truy vấn
+    @Query("SELECT oi FROM OrderItem oi JOIN FETCH oi.product p JOIN FETCH p.category JOIN FETCH oi.order o "
+            + "JOIN FETCH o.table LEFT JOIN FETCH o.reservation WHERE o.id = :orderId AND oi.status IN :statuses")
+    List<OrderItem> findKitchenItemsByOrderId(@Param("orderId") Integer orderId,
+                                              @Param("statuses") Collection<OrderItemStatus> statuses);
+
+    @Query("SELECT oi FROM OrderItem oi JOIN FETCH oi.product p JOIN FETCH p.category JOIN FETCH oi.order o "
+            + "JOIN FETCH o.table LEFT JOIN FETCH o.reservation "
+            + "WHERE o.paymentStatus = :paymentStatus AND o.status IN :orderStatuses AND oi.status IN :statuses")
+    List<OrderItem> findKitchenItemsByOrderStatus(@Param("paymentStatus") PaymentStatus paymentStatus,
+                                                  @Param("orderStatuses") Collection<OrderStatus> orderStatuses,
+                                                  @Param("statuses") Collection<OrderItemStatus> statuses);
+
+    @Modifying
+    @Query("UPDATE OrderItem oi SET oi.status = :target, oi.updatedAt = :now WHERE oi.id = :id AND oi.status = :expected")
+    int updateStatusIfCurrent(@Param("id") Integer id, @Param("expected") OrderItemStatus expected,
+                              @Param("target") OrderItemStatus target, @Param("now") LocalDateTime now);
+
+    @Query("SELECT oi FROM OrderItem oi JOIN FETCH oi.product JOIN FETCH oi.order o WHERE o.status IN :orderStatuses")
+    List<OrderItem> findBoardItemsByOrderStatus(@Param("orderStatuses") Collection<OrderStatus> orderStatuses);
+}
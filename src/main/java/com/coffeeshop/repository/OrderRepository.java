@@ -1,11 +1,18 @@
 package com.coffeeshop.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.coffeeshop.entity.Order;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import jakarta.persistence.LockModeType;
 import com.coffeeshop.enums.OrderStatus;
 import com.coffeeshop.entity.TableEntity;
 import com.coffeeshop.enums.PaymentStatus;
@@ -21,4 +28,98 @@ public interface OrderRepository extends JpaRepository<Order, Integer> {
     List<Order> findByCustomerOrderByCreatedAtDesc(com.coffeeshop.entity.User customer);
     Order findByReservation_Id(Integer reservationId);
     List<Order> findByPaymentStatus(PaymentStatus paymentStatus);
-}
\ No newline at end of file
+    List<Order> findByStatusAndCreatedAtBefore(OrderStatus status, LocalDateTime cutoff);
+    List<Order> findByStatusAndUpdatedAtBefore(OrderStatus status, LocalDateTime cutoff);
+    List<Order> findByStatusAndPaymentStatusAndUpdatedAtBefore(OrderStatus status, PaymentStatus paymentStatus, LocalDateTime cutoff);
+
+    // Khóa dòng order trong transaction hiện tại để các thanh toán song song cho cùng đơn chạy tuần tự
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM Order o WHERE o.id = :id")
+    Optional<Order> findByIdForUpdate(@Param("id") Integer id);
+
+    // Cập nhật có điều kiện: chỉ thành công nếu đơn vẫn đúng trạng thái và version đã đọc
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Order o SET o.status = :target, o.paymentStatus = :paymentStatus, o.updatedAt = :now, "
+            + "o.version = o.version + 1 WHERE o.id = :id AND o.status = :expected AND o.version = :version")
+    int updateStatusIfCurrent(@Param("id") Integer id, @Param("expected") OrderStatus expected,
+                              @Param("version") long version, @Param("target") OrderStatus target,
+                              @Param("paymentStatus") PaymentStatus paymentStatus, @Param("now") LocalDateTime now);
+
+    // Id các đơn cần chuyển hàng loạt, khóa dòng tới hết transaction để câu UPDATE theo id sau đó chuyển
+    // đúng các đơn này. Chỉ lấy các đơn có id mod shardCount = shardIndex (phần việc của instance, xem ClusterService)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o.id FROM Order o WHERE o.status = :expected AND o.paymentStatus <> :excludedPaymentStatus "
+            + "AND o.createdAt < :cutoff AND mod(o.id, :shardCount) = :shardIndex ORDER BY o.id")
+    List<Integer> lockIdsCreatedBefore(@Param("expected") OrderStatus expected,
+                                       @Param("excludedPaymentStatus") PaymentStatus excludedPaymentStatus,
+                                       @Param("cutoff") LocalDateTime cutoff,
+                                       @Param("shardCount") int shardCount, @Param("shardIndex") int shardIndex);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o.id FROM Order o WHERE o.status = :expected AND o.updatedAt < :cutoff "
+            + "AND mod(o.id, :shardCount) = :shardIndex ORDER BY o.id")
+    List<Integer> lockIdsUpdatedBefore(@Param("expected") OrderStatus expected, @Param("cutoff") LocalDateTime cutoff,
+                                       @Param("shardCount") int shardCount, @Param("shardIndex") int shardIndex);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o.id FROM Order o WHERE o.status = :expected AND o.paymentStatus = :paymentStatus "
+            + "AND o.updatedAt < :cutoff AND mod(o.id, :shardCount) = :shardIndex ORDER BY o.id")
+    List<Integer> lockIdsWithPaymentUpdatedBefore(@Param("expected") OrderStatus expected,
+                                                  @Param("paymentStatus") PaymentStatus paymentStatus,
+                                                  @Param("cutoff") LocalDateTime cutoff,
+                                                  @Param("shardCount") int shardCount, @Param("shardIndex") int shardIndex);
+
+    // Chuyển hàng loạt các đơn đã khóa trong một câu lệnh; điều kiện trạng thái được kiểm tra lại khi UPDATE từng dòng
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Order o SET o.status = :target, o.updatedAt = :now, o.version = o.version + 1 "
+            + "WHERE o.id IN :ids AND o.status = :expected")
+    int transitionAllByIds(@Param("ids") Collection<Integer> ids, @Param("expected") OrderStatus expected,
+                           @Param("target") OrderStatus target, @Param("now") LocalDateTime now);
+
+    @Query("SELECT o FROM Order o JOIN FETCH o.table WHERE o.id IN :ids")
+    List<Order> findWithTableByIdIn(@Param("ids") Collection<Integer> ids);
+
+    @Query("SELECT o FROM Order o WHERE o.status = :status AND o.paymentStatus <> :paymentStatus AND o.createdAt < :cutoff "
+            + "AND mod(o.id, :shardCount) = :shardIndex")
+    List<Order> findByStatusAndPaymentStatusNotCreatedBeforeInShard(@Param("status") OrderStatus status,
+                                                                    @Param("paymentStatus") PaymentStatus paymentStatus,
+                                                                    @Param("cutoff") LocalDateTime cutoff,
+                                                                    @Param("shardCount") int shardCount,
+                                                                    @Param("shardIndex") int shardIndex);
+
+    @Query("SELECT o FROM Order o WHERE o.status = :status AND o.updatedAt < :cutoff AND mod(o.id, :shardCount) = :shardIndex")
+    List<Order> findByStatusUpdatedBeforeInShard(@Param("status") OrderStatus status, @Param("cutoff") LocalDateTime cutoff,
+                                                 @Param("shardCount") int shardCount, @Param("shardIndex") int shardIndex);
+
+    // Đơn đặt trước theo trạng thái: id, giờ hẹn và thời gian chế biến lâu nhất trong các món
+    @Query("SELECT o.id, r.reservationDatetime, MAX(p.preparationTime) FROM OrderItem i JOIN i.order o "
+            + "JOIN o.reservation r JOIN i.product p WHERE o.status = :status AND o.paymentStatus = :paymentStatus "
+            + "AND mod(o.id, :shardCount) = :shardIndex GROUP BY o.id, r.reservationDatetime")
+    List<Object[]> findPreOrderStartsInShard(@Param("status") OrderStatus status,
+                                             @Param("paymentStatus") PaymentStatus paymentStatus,
+                                             @Param("shardCount") int shardCount, @Param("shardIndex") int shardIndex);
+
+    // Đơn đang hoạt động cho bảng điều phối
+    @Query("SELECT o FROM Order o JOIN FETCH o.table WHERE o.status IN :statuses")
+    List<Order> findBoardOrdersByStatusIn(@Param("statuses") Collection<OrderStatus> statuses);
+
+    // Bàn, giờ tạo và giờ cập nhật cuối của các đơn ở trạng thái cho trước kể từ mốc since (thời gian ngồi bàn)
+    @Query("SELECT o.table.id, o.createdAt, o.updatedAt FROM Order o WHERE o.status = :status AND o.updatedAt >= :since "
+            + "ORDER BY o.updatedAt")
+    List<Object[]> findTableDwellSince(@Param("status") OrderStatus status, @Param("since") LocalDateTime since);
+
+    // Số đơn và updatedAt cũ nhất trong các đơn ở trạng thái cho trước chưa được chuyển tiếp trước mốc cutoff
+    @Query("SELECT COUNT(o), MIN(o.updatedAt) FROM Order o WHERE o.status = :status "
+            + "AND (:paymentStatus IS NULL OR o.paymentStatus = :paymentStatus) AND o.updatedAt < :cutoff")
+    List<Object[]> countUpdatedBefore(@Param("status") OrderStatus status, @Param("paymentStatus") PaymentStatus paymentStatus,
+                                      @Param("cutoff") LocalDateTime cutoff);
+
+    @Query("SELECT COUNT(o), MIN(o.createdAt) FROM Order o WHERE o.status = :status "
+            + "AND o.paymentStatus <> :paymentStatus AND o.createdAt < :cutoff")
+    List<Object[]> countCreatedBeforeWithPaymentStatusNot(@Param("status") OrderStatus status,
+                                                          @Param("paymentStatus") PaymentStatus paymentStatus,
+                                                          @Param("cutoff") LocalDateTime cutoff);
+
+    // Khách của đặt bàn đã đến chưa: có đơn không ở trạng thái cho trước (CANCELLED)
+    boolean existsByReservation_IdAndStatusNot(Integer reservationId, OrderStatus status);
+}
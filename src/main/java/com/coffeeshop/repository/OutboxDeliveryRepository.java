@@ -0,0 +1,20 @@
+package com.coffeeshop.repository;
+
+import com.coffeeshop.entity.OutboxDelivery;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface OutboxDeliveryRepository extends JpaRepository<OutboxDelivery, Long> {
+
+    boolean existsByEventIdAndListener(Long eventId, String listener);
+
+    @Modifying
+    @Query("DELETE FROM OutboxDelivery d WHERE d.deliveredAt < :cutoff")
+    int deleteDeliveredBefore(@Param("cutoff") LocalDateTime cutoff);
+}
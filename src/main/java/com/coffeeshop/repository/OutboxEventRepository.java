@@ -0,0 +1,39 @@
+package com.coffeeshop.repository;
+
+import com.coffeeshop.entity.OutboxEvent;
+import com.coffeeshop.enums.OutboxStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    // Sự kiện đến hạn, bỏ qua aggregate còn sự kiện cũ hơn đang chờ thử lại (giữ thứ tự theo aggregate)
+    @Query("SELECT e FROM OutboxEvent e WHERE e.status = :pending AND e.nextAttemptAt <= :now "
+            + "AND NOT EXISTS (SELECT 1 FROM OutboxEvent p WHERE p.aggregateType = e.aggregateType "
+            + "AND p.aggregateId = e.aggregateId AND p.status = :pending AND p.id < e.id AND p.nextAttemptAt > :now) "
+            + "ORDER BY e.id")
+    List<OutboxEvent> findDue(@Param("pending") OutboxStatus pending, @Param("now") LocalDateTime now, Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.status = :processed, e.processedAt = :now WHERE e.id IN :ids")
+    int markProcessed(@Param("ids") Collection<Long> ids, @Param("processed") OutboxStatus processed,
+                      @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("DELETE FROM OutboxEvent e WHERE e.status = :processed AND e.processedAt < :cutoff")
+    int deleteProcessedBefore(@Param("processed") OutboxStatus processed, @Param("cutoff") LocalDateTime cutoff);
+
+    long countByStatus(OutboxStatus status);
+
+    @Query("SELECT MIN(e.createdAt) FROM OutboxEvent e WHERE e.status = :status")
+    LocalDateTime findOldestCreatedAt(@Param("status") OutboxStatus status);
+}
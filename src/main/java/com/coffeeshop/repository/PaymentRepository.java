@@ -1,11 +1,15 @@
 package com.coffeeshop.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import com.coffeeshop.entity.Payment;
 import java.util.List;
 
 public interface PaymentRepository extends JpaRepository<Payment, Integer> {
-    List<Payment> findByOrder_Id(Integer orderId);
+    // Lọc trực tiếp trên cột order_id, không LEFT JOIN sang orders (xem OrderItemRepository.findByOrder_Id)
+    @Query("SELECT p FROM Payment p WHERE p.order.id = :orderId")
+    List<Payment> findByOrder_Id(@Param("orderId") Integer orderId);
     List<Payment> findByProcessedBy_Id(Integer userId);
 }
\ No newline at end of file
@@ -1,10 +1,31 @@
 package com.coffeeshop.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 import com.coffeeshop.entity.Product;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface ProductRepository extends JpaRepository<Product, Integer> {
+    // Kết quả nằm trong query cache, tự bỏ khi bảng products có ghi mới
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Product> findByName(String name);
-}
\ No newline at end of file
+
+    @Override
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<Product> findAll();
+
+    // Nạp kèm category trong cùng câu SELECT để map DTO không cần thêm truy vấn
+    @Query("SELECT p FROM Product p LEFT JOIN FETCH p.category WHERE p.id IN :ids")
+    List<Product> findAllWithCategoryByIdIn(@Param("ids") Collection<Integer> ids);
+
+    // Khóa trùng tên cho import hàng loạt, không nạp cả entity
+    @Query("SELECT p.name FROM Product p")
+    List<String> findAllNames();
+}
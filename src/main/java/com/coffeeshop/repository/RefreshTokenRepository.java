@@ -2,14 +2,23 @@ package com.coffeeshop.repository;
 
 import com.coffeeshop.entity.RefreshToken;
 import com.coffeeshop.entity.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
-    Optional<RefreshToken> findByToken(String token);
-    Optional<RefreshToken> findByUser(User user);
+    @Query("SELECT t FROM RefreshToken t JOIN FETCH t.user WHERE t.tokenHash = :tokenHash")
+    Optional<RefreshToken> findByTokenHash(@Param("tokenHash") String tokenHash);
+    List<RefreshToken> findByUserOrderByExpiryDateAsc(User user);
     void deleteByUser(User user);
-    boolean existsByToken(String token);
-} 
\ No newline at end of file
+
+    @Query("SELECT t.id FROM RefreshToken t WHERE t.expiryDate < :now OR t.isRevoked = true")
+    List<Long> findExpiredOrRevokedIds(@Param("now") LocalDateTime now, Pageable pageable);
+}
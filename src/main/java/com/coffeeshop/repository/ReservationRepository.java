@@ -1,12 +1,34 @@
 package com.coffeeshop.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import com.coffeeshop.entity.Reservation;
+import com.coffeeshop.enums.ReservationStatus;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface ReservationRepository extends JpaRepository<Reservation, Integer> {
     List<Reservation> findByCustomer_Id(Integer customerId);
     List<Reservation> findByStatus(com.coffeeshop.enums.ReservationStatus status);
-}
\ No newline at end of file
+
+    // Kèm các bàn ghép để biết mọi bàn mà đặt bàn chiếm
+    @Query("SELECT DISTINCT r FROM Reservation r LEFT JOIN FETCH r.joinedTables WHERE r.status IN :statuses")
+    List<Reservation> findWithTablesByStatusIn(@Param("statuses") Collection<ReservationStatus> statuses);
+
+    // Như trên, chỉ các đặt bàn có id mod shardCount = shardIndex (phần việc của instance, xem ClusterService)
+    @Query("SELECT DISTINCT r FROM Reservation r LEFT JOIN FETCH r.joinedTables WHERE r.status IN :statuses "
+            + "AND mod(r.id, :shardCount) = :shardIndex")
+    List<Reservation> findWithTablesByStatusInShard(@Param("statuses") Collection<ReservationStatus> statuses,
+                                                    @Param("shardCount") int shardCount,
+                                                    @Param("shardIndex") int shardIndex);
+
+    @Query("SELECT DISTINCT r FROM Reservation r LEFT JOIN FETCH r.joinedTables WHERE r.status IN :statuses "
+            + "AND r.reservationDatetime > :from AND r.reservationDatetime < :to")
+    List<Reservation> findWithTablesByStatusInAndDatetimeBetween(@Param("statuses") Collection<ReservationStatus> statuses,
+                                                                 @Param("from") LocalDateTime from,
+                                                                 @Param("to") LocalDateTime to);
+}
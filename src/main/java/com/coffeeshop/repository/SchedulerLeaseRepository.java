@@ -0,0 +1,35 @@
+package com.coffeeshop.repository;
+
+import com.coffeeshop.entity.SchedulerLease;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface SchedulerLeaseRepository extends JpaRepository<SchedulerLease, String> {
+
+    // Gia hạn lease đang giữ hoặc chiếm lease đã hết hạn; 0 dòng nghĩa là instance khác đang giữ (hoặc chưa có dòng).
+    // acquiredAt đứng trước owner vì MySQL gán các cột lần lượt từ trái sang phải
+    @Modifying
+    @Query("UPDATE SchedulerLease l SET l.acquiredAt = CASE WHEN l.owner = :owner THEN l.acquiredAt ELSE :now END, "
+            + "l.owner = :owner, l.renewedAt = :now, l.expiresAt = :expiresAt "
+            + "WHERE l.leaseName = :name AND (l.owner = :owner OR l.expiresAt < :now)")
+    int tryAcquire(@Param("name") String name, @Param("owner") String owner, @Param("now") LocalDateTime now,
+                   @Param("expiresAt") LocalDateTime expiresAt);
+
+    @Query("SELECT l.owner FROM SchedulerLease l WHERE l.leaseName LIKE :prefix AND l.expiresAt > :now ORDER BY l.owner")
+    List<String> findLiveOwners(@Param("prefix") String prefix, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("DELETE FROM SchedulerLease l WHERE l.leaseName LIKE :prefix AND l.expiresAt < :cutoff")
+    int deleteExpiredBefore(@Param("prefix") String prefix, @Param("cutoff") LocalDateTime cutoff);
+
+    @Modifying
+    @Query("DELETE FROM SchedulerLease l WHERE l.leaseName = :name AND l.owner = :owner")
+    int release(@Param("name") String name, @Param("owner") String owner);
+}
@@ -1,12 +1,21 @@
 package com.coffeeshop.repository;
 
 import com.coffeeshop.entity.Setting;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface SettingRepository extends JpaRepository<Setting, String> { // ID is String
+public interface SettingRepository extends JpaRepository<Setting, Integer> { // Khóa duy nhất theo chi nhánh là (branch_id, setting_key)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Setting> findBySettingKey(String settingKey);
-}
\ No newline at end of file
+
+    @Override
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<Setting> findAll();
+}
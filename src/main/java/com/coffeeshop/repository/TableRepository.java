@@ -1,8 +1,12 @@
 package com.coffeeshop.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 import com.coffeeshop.entity.TableEntity;
+import java.util.List;
 
 public interface TableRepository extends JpaRepository<TableEntity, Integer> {
-}
\ No newline at end of file
+    @Query("SELECT t.tableNumber FROM TableEntity t")
+    List<String> findAllTableNumbers();
+}
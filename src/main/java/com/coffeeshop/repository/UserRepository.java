@@ -1,9 +1,11 @@
 package com.coffeeshop.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 import com.coffeeshop.entity.User;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Integer> {
@@ -13,4 +15,11 @@ public interface UserRepository extends JpaRepository<User, Integer> {
 
 	boolean existsByUsername(String username);
 	boolean existsByEmail(String email);
+
+	// Khóa trùng cho import hàng loạt, không nạp cả entity
+	@Query("SELECT u.username FROM User u")
+	List<String> findAllUsernames();
+
+	@Query("SELECT u.email FROM User u")
+	List<String> findAllEmails();
 }
\ No newline at end of file
@@ -0,0 +1,22 @@
+package com.coffeeshop.repository;
+
+import com.coffeeshop.entity.WaitlistEntry;
+import com.coffeeshop.enums.WaitlistStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface WaitlistEntryRepository extends JpaRepository<WaitlistEntry, Integer> {
+
+    // Hàng chờ theo thứ tự đến, kèm khách và bàn đang giữ
+    @Query("SELECT w FROM WaitlistEntry w JOIN FETCH w.customer LEFT JOIN FETCH w.offeredTable "
+            + "WHERE w.status IN :statuses ORDER BY w.createdAt, w.id")
+    List<WaitlistEntry> findQueue(@Param("statuses") Collection<WaitlistStatus> statuses);
+
+    Optional<WaitlistEntry> findFirstByCustomer_IdAndStatusInOrderByCreatedAtDesc(Integer customerId,
+                                                                                  Collection<WaitlistStatus> statuses);
+}
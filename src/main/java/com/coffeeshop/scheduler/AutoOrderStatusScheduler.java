@@ -1,61 +1,79 @@
 package com.coffeeshop.scheduler;
 
-import com.coffeeshop.entity.Order;
 import com.coffeeshop.enums.OrderStatus;
 import com.coffeeshop.enums.PaymentStatus;
-import com.coffeeshop.repository.OrderRepository;
+import com.coffeeshop.service.ClusterService;
+import com.coffeeshop.service.OrderSchedulingService;
+import com.coffeeshop.service.OrderStateMachine;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDateTime;
-import java.util.List;
+import java.util.function.ToIntFunction;
 
 @Component
 public class AutoOrderStatusScheduler {
-    @Autowired private OrderRepository orderRepository;
+    @Autowired private OrderStateMachine orderStateMachine;
     @Autowired private SchedulerConfig schedulerConfig;
+    @Autowired private SchedulerMetrics schedulerMetrics;
+    @Autowired private BranchTaskRunner branchTaskRunner;
+    @Autowired private ClusterService clusterService;
+    @Autowired private OrderSchedulingService orderSchedulingService;
 
-    // 1. PENDING -> CANCELLED nếu quá X phút
+    // 1. PENDING (chưa thanh toán) -> CANCELLED nếu quá X phút.
+    // Mỗi job là một câu UPDATE có điều kiện trạng thái, nên không ghi đè thay đổi của luồng khác
+    // (vd. đơn vừa được thanh toán sẽ không bị hủy). Các chi nhánh chạy song song, mỗi chi nhánh một câu UPDATE;
+    // khi chạy nhiều instance, mỗi instance chỉ UPDATE phần việc (shard) của mình.
     @Scheduled(fixedDelay = 60000)
     public void autoCancelPendingOrders() {
-        LocalDateTime now = LocalDateTime.now();
-        List<Order> pendingOrders = orderRepository.findByStatus(OrderStatus.PENDING);
-        for (Order order : pendingOrders) {
-            if (order.getCreatedAt().plusMinutes(schedulerConfig.orderPendingToCancelledMinutes).isBefore(now)) {
-                order.setStatus(OrderStatus.CANCELLED);
-                order.setUpdatedAt(now);
-                orderRepository.save(order);
-            }
-        }
+        runPerBranch("autoCancelPendingOrders", shard -> {
+            LocalDateTime now = LocalDateTime.now();
+            return orderStateMachine.cancelUnpaidPendingCreatedBefore(
+                    now.minusMinutes(schedulerConfig.orderPendingToCancelledMinutes), now, shard);
+        });
     }
 
     // 2. PENDING + paymentStatus = paid -> PREPARING nếu updatedAt quá Y phút
     @Scheduled(fixedDelay = 60000)
     public void autoPendingPaidToPreparing() {
-        LocalDateTime now = LocalDateTime.now();
-        List<Order> pendingOrders = orderRepository.findByStatus(OrderStatus.PENDING);
-        for (Order order : pendingOrders) {
-            if (order.getPaymentStatus() == PaymentStatus.PAID &&
-                order.getUpdatedAt().plusMinutes(schedulerConfig.orderPreparingToReadyMinutes).isBefore(now)) {
-                order.setStatus(OrderStatus.PREPARING);
-                order.setUpdatedAt(now);
-                orderRepository.save(order);
-            }
-        }
+        runPerBranch("autoPendingPaidToPreparing", shard -> {
+            LocalDateTime now = LocalDateTime.now();
+            return orderStateMachine.transitionAllUpdatedBefore(OrderStatus.PENDING, OrderStatus.PREPARING,
+                    PaymentStatus.PAID, now.minusMinutes(schedulerConfig.orderPreparingToReadyMinutes), now, shard);
+        });
     }
 
     // 3. SERVED -> COMPLETED nếu updatedAt quá Z phút
     @Scheduled(fixedDelay = 60000)
     public void autoServedToCompleted() {
-        LocalDateTime now = LocalDateTime.now();
-        List<Order> servedOrders = orderRepository.findByStatus(OrderStatus.SERVED);
-        for (Order order : servedOrders) {
-            if (order.getUpdatedAt().plusMinutes(schedulerConfig.orderServedToCompletedMinutes).isBefore(now)) {
-                order.setStatus(OrderStatus.COMPLETED);
-                order.setUpdatedAt(now);
-                orderRepository.save(order);
-            }
+        runPerBranch("autoServedToCompleted", shard -> {
+            LocalDateTime now = LocalDateTime.now();
+            return orderStateMachine.transitionAllUpdatedBefore(OrderStatus.SERVED, OrderStatus.COMPLETED, null,
+                    now.minusMinutes(schedulerConfig.orderServedToCompletedMinutes), now, shard);
+        });
+    }
+
+    // 4. Đơn đặt trước đã tới giờ chế biến mà timer (trong bộ nhớ của instance đã nhận thanh toán) chưa chuyển,
+    // vd. instance đó đã dừng. Mỗi đơn chuyển trong transaction riêng nên không chạy trong transaction chung
+    @Scheduled(fixedDelay = 60000)
+    public void autoStartDuePreOrders() {
+        ClusterService.Shard shard = clusterService.currentShard();
+        if (shard == null) {
+            return;
+        }
+        int rows = branchTaskRunner.countPerBranch("AutoOrderStatusScheduler.autoStartDuePreOrders",
+                () -> orderSchedulingService.startDuePreOrders(shard));
+        schedulerMetrics.rowsTransitioned("AutoOrderStatusScheduler", "autoStartDuePreOrders", rows);
+    }
+
+    // Instance chưa được xác nhận còn sống (ClusterService) thì bỏ qua lượt
+    private void runPerBranch(String job, ToIntFunction<ClusterService.Shard> task) {
+        ClusterService.Shard shard = clusterService.currentShard();
+        if (shard == null) {
+            return;
         }
+        int rows = branchTaskRunner.inTransactionPerBranch("AutoOrderStatusScheduler." + job, () -> task.applyAsInt(shard));
+        schedulerMetrics.rowsTransitioned("AutoOrderStatusScheduler", job, rows);
     }
-} 
\ No newline at end of file
+}
@@ -3,12 +3,23 @@ package com.coffeeshop.scheduler;
 import com.coffeeshop.entity.*;
 import com.coffeeshop.enums.*;
 import com.coffeeshop.repository.*;
+import com.coffeeshop.event.OrderStatusChangedEvent;
+import com.coffeeshop.event.ReservationChangedEvent;
+import com.coffeeshop.service.BoardService;
+import com.coffeeshop.service.ClusterService;
+import com.coffeeshop.service.DomainEventPublisher;
+import com.coffeeshop.service.OrderStateMachine;
+import com.coffeeshop.service.TableOccupancyService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.*;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.ToIntFunction;
 
 @Component
 public class AutoScheduler {
@@ -16,94 +27,115 @@ public class AutoScheduler {
     @Autowired private OrderRepository orderRepository;
     @Autowired private ReservationRepository reservationRepository;
     @Autowired private SchedulerConfig schedulerConfig;
+    @Autowired private OrderStateMachine orderStateMachine;
+    @Autowired private BoardService boardService;
+    @Autowired private DomainEventPublisher domainEventPublisher;
+    @Autowired private TableOccupancyService tableOccupancyService;
+    @Autowired private SchedulerMetrics schedulerMetrics;
+    @Autowired private BranchTaskRunner branchTaskRunner;
+    @Autowired private ClusterService clusterService;
 
     private boolean isWithinOpeningHours() {
-        LocalTime now = LocalTime.now();
-        LocalTime opening = LocalTime.parse(schedulerConfig.openingTime);
-        LocalTime closing = LocalTime.parse(schedulerConfig.closingTime);
-        return !now.isBefore(opening) && !now.isAfter(closing);
+        return schedulerConfig.isWithinOpeningHours();
     }
 
     // 1. PENDING -> CANCELLED nếu quá 15 phút
     @Scheduled(fixedDelay = 60000)
     public void autoCancelPendingOrders() {
         if (!isWithinOpeningHours()) return;
+        runPerBranch("autoCancelPendingOrders", this::cancelPendingOrders);
+    }
+
+    private int cancelPendingOrders(ClusterService.Shard shard) {
         LocalDateTime now = LocalDateTime.now();
-        List<Order> pendingOrders = orderRepository.findByStatus(OrderStatus.PENDING);
+        // Chỉ hủy đơn chưa thanh toán; tryTransition bỏ qua đơn vừa bị luồng khác thay đổi
+        List<Order> pendingOrders = orderRepository.findByStatusAndPaymentStatusNotCreatedBeforeInShard(OrderStatus.PENDING,
+                PaymentStatus.PAID, now.minusMinutes(schedulerConfig.orderPendingToCancelledMinutes),
+                shard.count(), shard.index());
+        int cancelled = 0;
         for (Order order : pendingOrders) {
-            if (order.getCreatedAt().plusMinutes(schedulerConfig.orderPendingToCancelledMinutes).isBefore(now)) {
-                order.setStatus(OrderStatus.CANCELLED);
-                order.setUpdatedAt(now);
-                orderRepository.save(order);
-                setTableAvailableIfNoActiveOrder(order.getTable());
+            if (orderStateMachine.tryTransition(order, OrderStatus.CANCELLED, now)) {
+                cancelled++;
             }
         }
+        return cancelled;
     }
 
     // 2. PAID -> PREPARING sau Y phút
     @Scheduled(fixedDelay = 60000)
     public void autoPaidToPreparing() {
         if (!isWithinOpeningHours()) return;
-        LocalDateTime now = LocalDateTime.now();
-        List<Order> paidOrders = orderRepository.findByStatus(OrderStatus.PAID);
-        for (Order order : paidOrders) {
-            if (order.getUpdatedAt().plusMinutes(schedulerConfig.orderPreparingToReadyMinutes).isBefore(now)) {
-                order.setStatus(OrderStatus.PREPARING);
-                order.setUpdatedAt(now);
-                orderRepository.save(order);
-            }
-        }
+        runPerBranch("autoPaidToPreparing", shard -> {
+            LocalDateTime now = LocalDateTime.now();
+            return orderStateMachine.transitionAllUpdatedBefore(OrderStatus.PAID, OrderStatus.PREPARING, null,
+                    now.minusMinutes(schedulerConfig.orderPreparingToReadyMinutes), now, shard);
+        });
     }
 
     // 3. PREPARING -> SERVED sau 10 phút
     @Scheduled(fixedDelay = 60000)
     public void autoPreparingToServed() {
         if (!isWithinOpeningHours()) return;
-        LocalDateTime now = LocalDateTime.now();
-        List<Order> preparingOrders = orderRepository.findByStatus(OrderStatus.PREPARING);
-        for (Order order : preparingOrders) {
-            if (order.getUpdatedAt().plusMinutes(schedulerConfig.orderPreparingToReadyMinutes).isBefore(now)) {
-                order.setStatus(OrderStatus.SERVED);
-                order.setUpdatedAt(now);
-                orderRepository.save(order);
-            }
-        }
+        runPerBranch("autoPreparingToServed", shard -> {
+            LocalDateTime now = LocalDateTime.now();
+            return orderStateMachine.transitionAllUpdatedBefore(OrderStatus.PREPARING, OrderStatus.SERVED, null,
+                    now.minusMinutes(schedulerConfig.orderPreparingToReadyMinutes), now, shard);
+        });
     }
 
     // 4. SERVED -> COMPLETED sau 45 phút
     @Scheduled(fixedDelay = 60000)
     public void autoServedToCompleted() {
         if (!isWithinOpeningHours()) return;
+        runPerBranch("autoServedToCompleted", this::completeServedOrders);
+    }
+
+    private int completeServedOrders(ClusterService.Shard shard) {
         LocalDateTime now = LocalDateTime.now();
-        List<Order> servedOrders = orderRepository.findByStatus(OrderStatus.SERVED);
+        List<Order> servedOrders = orderRepository.findByStatusUpdatedBeforeInShard(OrderStatus.SERVED,
+                now.minusMinutes(schedulerConfig.orderServedToCompletedMinutes), shard.count(), shard.index());
+        int completed = 0;
         for (Order order : servedOrders) {
-            if (order.getUpdatedAt().plusMinutes(schedulerConfig.orderServedToCompletedMinutes).isBefore(now)) {
-                order.setStatus(OrderStatus.COMPLETED);
-                order.setUpdatedAt(now);
-                orderRepository.save(order);
-                // Nếu có reservation liên quan, chuyển reservation sang COMPLETED
-                if (order.getReservation() != null) {
-                    Reservation reservation = order.getReservation();
-                    if (reservation.getStatus() != ReservationStatus.COMPLETED) {
-                        reservation.setStatus(ReservationStatus.COMPLETED);
-                        reservation.setUpdatedAt(now);
-                        reservationRepository.save(reservation);
-                    }
+            if (!orderStateMachine.tryTransition(order, OrderStatus.COMPLETED, now)) {
+                continue;
+            }
+            completed++;
+            // Nếu có reservation liên quan, chuyển reservation sang COMPLETED
+            if (order.getReservation() != null) {
+                Reservation reservation = order.getReservation();
+                if (reservation.getStatus() != ReservationStatus.COMPLETED) {
+                    ReservationStatus from = reservation.getStatus();
+                    reservation.setStatus(ReservationStatus.COMPLETED);
+                    reservation.setUpdatedAt(now);
+                    reservationRepository.save(reservation);
+                    publishReservationChanged(reservation, from);
                 }
-                setTableAvailableIfNoActiveOrder(order.getTable());
             }
         }
+        return completed;
+    }
+
+    // 5. COMPLETED/CANCELLED -> bàn AVAILABLE (kể cả khi đơn được chuyển trạng thái ngoài scheduler)
+    @EventListener
+    @Transactional
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        if (event.tableId() == null
+                || (event.to() != OrderStatus.COMPLETED && event.to() != OrderStatus.CANCELLED)) {
+            return;
+        }
+        tableRepository.findById(event.tableId()).ifPresent(this::setTableAvailableIfNoActiveOrder);
+        // Trả cả các bàn được ghép cho đặt bàn của đơn
+        orderRepository.findById(event.orderId())
+                .map(Order::getReservation)
+                .ifPresent(reservation -> reservation.getJoinedTables().forEach(this::setTableAvailableIfNoActiveOrder));
     }
 
-    // 5. COMPLETED/CANCELLED -> bàn AVAILABLE
     private void setTableAvailableIfNoActiveOrder(TableEntity table) {
-        List<Order> activeOrders = orderRepository.findByTable(table);
-        boolean hasActive = activeOrders.stream().anyMatch(o ->
-                o.getStatus() != OrderStatus.COMPLETED && o.getStatus() != OrderStatus.CANCELLED);
-        if (!hasActive && table.getStatus() != TableStatus.AVAILABLE) {
+        if (!tableOccupancyService.hasActiveOrder(table.getId()) && table.getStatus() != TableStatus.AVAILABLE) {
             table.setStatus(TableStatus.AVAILABLE);
             table.setUpdatedAt(LocalDateTime.now());
             tableRepository.save(table);
+            boardService.publishTable(table);
         }
     }
 
@@ -111,45 +143,89 @@ public class AutoScheduler {
     @Scheduled(fixedDelay = 60000)
     public void autoReserveTableForUpcomingReservation() {
         if (!isWithinOpeningHours()) return;
+        runPerBranch("autoReserveTableForUpcomingReservation", this::reserveTablesForUpcomingReservations);
+    }
+
+    private int reserveTablesForUpcomingReservations(ClusterService.Shard shard) {
         LocalDateTime now = LocalDateTime.now();
-        List<Reservation> reservations = reservationRepository.findByStatus(ReservationStatus.CONFIRMED);
+        List<Reservation> reservations = reservationRepository.findWithTablesByStatusInShard(
+                List.of(ReservationStatus.CONFIRMED), shard.count(), shard.index());
+        int reserved = 0;
         for (Reservation reservation : reservations) {
-            TableEntity table = reservation.getTable();
             LocalDateTime blockTime = reservation.getReservationDatetime().minusMinutes(schedulerConfig.reservationAutoReserveBeforeMinutes);
-            if (now.isAfter(blockTime) && now.isBefore(reservation.getReservationDatetime())
-                    && table.getStatus() == TableStatus.AVAILABLE) {
-                table.setStatus(TableStatus.RESERVED);
-                table.setUpdatedAt(now);
-                tableRepository.save(table);
+            if (now.isAfter(blockTime) && now.isBefore(reservation.getReservationDatetime())) {
+                for (TableEntity table : tablesOf(reservation)) {
+                    if (table.getStatus() == TableStatus.AVAILABLE) {
+                        table.setStatus(TableStatus.RESERVED);
+                        table.setUpdatedAt(now);
+                        tableRepository.save(table);
+                        boardService.publishTable(table);
+                        reserved++;
+                    }
+                }
             }
         }
+        return reserved;
     }
 
     // 7. Sau giờ đặt + 15 phút chưa đến -> hủy reservation, bàn available
     @Scheduled(fixedDelay = 60000)
     public void autoCancelNoShowReservation() {
         if (!isWithinOpeningHours()) return;
+        runPerBranch("autoCancelNoShowReservation", this::cancelNoShowReservations);
+    }
+
+    private int cancelNoShowReservations(ClusterService.Shard shard) {
         LocalDateTime now = LocalDateTime.now();
-        List<Reservation> reservations = reservationRepository.findByStatus(ReservationStatus.CONFIRMED);
+        List<Reservation> reservations = reservationRepository.findWithTablesByStatusInShard(
+                List.of(ReservationStatus.CONFIRMED), shard.count(), shard.index());
+        int cancelled = 0;
         for (Reservation reservation : reservations) {
             LocalDateTime graceEnd = reservation.getReservationDatetime().plusMinutes(schedulerConfig.reservationGracePeriodMinutes);
-            TableEntity table = reservation.getTable();
             if (now.isAfter(graceEnd)) {
-                boolean hasActiveOrder = orderRepository.findByTable(table).stream()
-                        .anyMatch(o -> o.getReservation() != null
-                                && o.getReservation().getId().equals(reservation.getId())
-                                && o.getStatus() != OrderStatus.CANCELLED);
-                if (!hasActiveOrder) {
+                // Hỏi DB thay vì TableOccupancyService: sự kiện tạo đơn có thể chưa được relay tới (hoặc chỉ tới leader)
+                if (!orderRepository.existsByReservation_IdAndStatusNot(reservation.getId(), OrderStatus.CANCELLED)) {
                     reservation.setStatus(ReservationStatus.CANCELLED);
                     reservation.setUpdatedAt(now);
                     reservationRepository.save(reservation);
-                    if (table.getStatus() == TableStatus.RESERVED) {
-                        table.setStatus(TableStatus.AVAILABLE);
-                        table.setUpdatedAt(now);
-                        tableRepository.save(table);
+                    publishReservationChanged(reservation, ReservationStatus.CONFIRMED);
+                    cancelled++;
+                    for (TableEntity table : tablesOf(reservation)) {
+                        if (table.getStatus() == TableStatus.RESERVED) {
+                            table.setStatus(TableStatus.AVAILABLE);
+                            table.setUpdatedAt(now);
+                            tableRepository.save(table);
+                            boardService.publishTable(table);
+                        }
                     }
                 }
             }
         }
+        return cancelled;
+    }
+
+    // Mỗi chi nhánh chạy song song trong transaction riêng, chỉ với phần việc (shard) của instance này;
+    // đếm tổng số bản ghi đã chuyển. Instance chưa được xác nhận còn sống thì bỏ qua lượt
+    private void runPerBranch(String job, ToIntFunction<ClusterService.Shard> task) {
+        ClusterService.Shard shard = clusterService.currentShard();
+        if (shard == null) {
+            return;
+        }
+        int rows = branchTaskRunner.inTransactionPerBranch("AutoScheduler." + job, () -> task.applyAsInt(shard));
+        schedulerMetrics.rowsTransitioned("AutoScheduler", job, rows);
+    }
+
+    private void publishReservationChanged(Reservation reservation, ReservationStatus from) {
+        domainEventPublisher.publish(new ReservationChangedEvent(reservation.getId(), reservation.getTable().getId(),
+                from, reservation.getStatus(), reservation.getReservationDatetime(),
+                reservation.getJoinedTables().stream().map(TableEntity::getId).toList()));
+    }
+
+    // Bàn chính và các bàn ghép của đặt bàn
+    private static List<TableEntity> tablesOf(Reservation reservation) {
+        List<TableEntity> tables = new ArrayList<>(reservation.getJoinedTables().size() + 1);
+        tables.add(reservation.getTable());
+        tables.addAll(reservation.getJoinedTables());
+        return tables;
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,137 @@
+package com.coffeeshop.scheduler;
+
+import com.coffeeshop.config.ThreadingExecutors;
+import com.coffeeshop.service.BranchService;
+import com.coffeeshop.tenant.BranchContext;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Chạy một lượt job cho từng chi nhánh đang hoạt động: các chi nhánh chạy song song (luồng theo ThreadingExecutors),
+ * mỗi chi nhánh với BranchContext riêng nên truy vấn chỉ chạm dữ liệu (và index) của chi nhánh đó.
+ * Lượt chạy kết thúc khi mọi chi nhánh xong; lỗi ở một chi nhánh được ghi log và không làm dừng các chi nhánh khác.
+ */
+@Component
+public class BranchTaskRunner {
+    private static final Logger logger = LoggerFactory.getLogger(BranchTaskRunner.class);
+
+    @Autowired
+    private BranchService branchService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private Environment environment;
+
+    private TransactionTemplate transactionTemplate;
+    private TransactionTemplate readOnlyTemplate;
+
+    private ExecutorService executor;
+
+    @PostConstruct
+    void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        readOnlyTemplate = new TransactionTemplate(transactionManager);
+        readOnlyTemplate.setReadOnly(true);
+        executor = ThreadingExecutors.newPerTaskExecutor(environment, "branch-task-");
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Chạy task trong một transaction riêng cho mỗi chi nhánh.
+     * @return tổng kết quả (số bản ghi đã xử lý) của các chi nhánh chạy thành công.
+     */
+    public int inTransactionPerBranch(String job, IntSupplier task) {
+        return countPerBranch(job, () -> {
+            Integer rows = transactionTemplate.execute(status -> task.getAsInt());
+            return rows != null ? rows : 0;
+        });
+    }
+
+    /**
+     * Chạy task cho mỗi chi nhánh; task tự quản lý transaction.
+     */
+    public void runPerBranch(String job, Runnable task) {
+        countPerBranch(job, () -> {
+            task.run();
+            return 0;
+        });
+    }
+
+    /**
+     * Đọc dữ liệu của mọi chi nhánh (chi nhánh gốc, dùng để dựng trạng thái trong bộ nhớ) trong một transaction
+     * chỉ đọc. Chạy trên luồng riêng vì luồng gọi có thể đang giữ EntityManager của request (open-in-view)
+     * đã gắn với một chi nhánh.
+     */
+    public <T> T readAllBranches(Supplier<T> task) {
+        Future<T> result = executor.submit(() -> BranchContext.callAs(BranchContext.ALL,
+                () -> readOnlyTemplate.execute(status -> task.get())));
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Bị ngắt khi đọc dữ liệu các chi nhánh", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Chạy task cho mỗi chi nhánh; task tự quản lý transaction.
+     * @return tổng kết quả của các chi nhánh chạy thành công.
+     */
+    public int countPerBranch(String job, IntSupplier task) {
+        List<Integer> branchIds = branchService.getActiveBranchIds();
+        if (branchIds.size() == 1) {
+            return runBranch(job, branchIds.get(0), task);
+        }
+        List<Callable<Integer>> tasks = new ArrayList<>(branchIds.size());
+        for (Integer branchId : branchIds) {
+            tasks.add(() -> runBranch(job, branchId, task));
+        }
+        int total = 0;
+        try {
+            for (Future<Integer> result : executor.invokeAll(tasks)) {
+                total += result.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            logger.error("Job {} lỗi", job, e.getCause());
+        }
+        return total;
+    }
+
+    private int runBranch(String job, Integer branchId, IntSupplier task) {
+        try {
+            return BranchContext.callAs(branchId, task::getAsInt);
+        } catch (RuntimeException e) {
+            logger.error("Job {} lỗi ở chi nhánh {}", job, branchId, e);
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.coffeeshop.scheduler;
+
+import com.coffeeshop.dto.admin.response.SchedulerBacklogResponseDTO;
+import com.coffeeshop.dto.admin.response.SchedulerBacklogResponseDTO.JobBacklog;
+import com.coffeeshop.enums.OrderStatus;
+import com.coffeeshop.enums.OutboxStatus;
+import com.coffeeshop.enums.PaymentStatus;
+import com.coffeeshop.repository.OrderRepository;
+import com.coffeeshop.repository.OutboxEventRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tồn đọng của các job tự chuyển trạng thái: bao nhiêu bản ghi đã tới hạn chuyển mà chưa được xử lý,
+ * và bản ghi tới hạn sớm nhất đã chờ bao lâu. Job theo kịp tải khi thời gian chờ này không vượt quá
+ * chu kỳ chạy (60 giây) cộng thời gian một lượt chạy; tăng dần nghĩa là job đang bị bỏ lại.
+ */
+@Service
+public class SchedulerBacklogService {
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private SchedulerConfig schedulerConfig;
+
+    @Transactional(readOnly = true)
+    public SchedulerBacklogResponseDTO getBacklog() {
+        LocalDateTime now = LocalDateTime.now();
+        List<JobBacklog> jobs = new ArrayList<>();
+
+        LocalDateTime cancelCutoff = now.minusMinutes(schedulerConfig.orderPendingToCancelledMinutes);
+        jobs.add(backlog("autoCancelPendingOrders", "PENDING chưa thanh toán -> CANCELLED", cancelCutoff,
+                orderRepository.countCreatedBeforeWithPaymentStatusNot(OrderStatus.PENDING, PaymentStatus.PAID, cancelCutoff)));
+
+        LocalDateTime preparingCutoff = now.minusMinutes(schedulerConfig.orderPreparingToReadyMinutes);
+        jobs.add(backlog("autoPendingPaidToPreparing", "PENDING đã thanh toán -> PREPARING", preparingCutoff,
+                orderRepository.countUpdatedBefore(OrderStatus.PENDING, PaymentStatus.PAID, preparingCutoff)));
+        jobs.add(backlog("autoPaidToPreparing", "PAID -> PREPARING", preparingCutoff,
+                orderRepository.countUpdatedBefore(OrderStatus.PAID, null, preparingCutoff)));
+        jobs.add(backlog("autoPreparingToServed", "PREPARING -> SERVED", preparingCutoff,
+                orderRepository.countUpdatedBefore(OrderStatus.PREPARING, null, preparingCutoff)));
+
+        LocalDateTime completedCutoff = now.minusMinutes(schedulerConfig.orderServedToCompletedMinutes);
+        jobs.add(backlog("autoServedToCompleted", "SERVED -> COMPLETED", completedCutoff,
+                orderRepository.countUpdatedBefore(OrderStatus.SERVED, null, completedCutoff)));
+
+        // Sự kiện outbox tới hạn ngay khi được ghi
+        LocalDateTime oldestEvent = outboxEventRepository.findOldestCreatedAt(OutboxStatus.PENDING);
+        jobs.add(new JobBacklog("outboxRelay", "Sự kiện miền chờ phát",
+                outboxEventRepository.countByStatus(OutboxStatus.PENDING), secondsBetween(oldestEvent, now)));
+
+        SchedulerBacklogResponseDTO dto = new SchedulerBacklogResponseDTO();
+        dto.setCheckedAt(now);
+        dto.setWithinOpeningHours(schedulerConfig.isWithinOpeningHours());
+        dto.setJobs(jobs);
+        return dto;
+    }
+
+    // row = [COUNT, MIN(mốc thời gian)]; tới hạn khi mốc thời gian < cutoff
+    private static JobBacklog backlog(String job, String description, LocalDateTime cutoff, List<Object[]> rows) {
+        Object[] row = rows.isEmpty() ? new Object[] {0L, null} : rows.get(0);
+        long count = row[0] != null ? ((Number) row[0]).longValue() : 0;
+        return new JobBacklog(job, description, count, secondsBetween((LocalDateTime) row[1], cutoff));
+    }
+
+    private static Long secondsBetween(LocalDateTime from, LocalDateTime to) {
+        return from != null ? Math.max(0, Duration.between(from, to).toSeconds()) : null;
+    }
+}
@@ -3,6 +3,8 @@ package com.coffeeshop.scheduler;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.time.LocalTime;
+
 @Component
 public class SchedulerConfig {
     @Value("${scheduler.table.available.delay-minutes}")
@@ -52,4 +54,10 @@ public class SchedulerConfig {
 
     @Value("${scheduler.closing-time}")
     public String closingTime;
-} 
\ No newline at end of file
+
+    // Các job trong AutoScheduler chỉ chạy trong giờ mở cửa
+    public boolean isWithinOpeningHours() {
+        LocalTime now = LocalTime.now();
+        return !now.isBefore(LocalTime.parse(openingTime)) && !now.isAfter(LocalTime.parse(closingTime));
+    }
+}
@@ -0,0 +1,35 @@
+package com.coffeeshop.scheduler;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Số bản ghi mỗi job tự động đã chuyển trạng thái. Thời gian mỗi lượt chạy của job được Spring ghi
+ * sẵn vào tasks.scheduled.execution (tag code.namespace/code.function là lớp và method của job).
+ */
+@Component
+public class SchedulerMetrics {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Khóa là "scheduler.job", số phần tử bằng số job nên không cần giới hạn
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+    public void rowsTransitioned(String scheduler, String job, int rows) {
+        if (rows <= 0) {
+            return;
+        }
+        counters.computeIfAbsent(scheduler + "." + job, key -> Counter.builder("coffeeshop.scheduler.rows")
+                        .description("Số bản ghi được job tự động chuyển trạng thái")
+                        .tag("scheduler", scheduler)
+                        .tag("job", job)
+                        .register(meterRegistry))
+                .increment(rows);
+    }
+}
@@ -0,0 +1,29 @@
+package com.coffeeshop.security;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.Collection;
+
+/**
+ * UserDetails kèm chi nhánh được gán cho nhân viên (null = mọi chi nhánh).
+ */
+public class BranchUserDetails extends User {
+
+    private final Integer branchId;
+
+    public BranchUserDetails(String username, String password, boolean enabled, boolean accountNonLocked,
+                             Collection<? extends GrantedAuthority> authorities, Integer branchId) {
+        super(username, password, enabled, true, true, accountNonLocked, authorities);
+        this.branchId = branchId;
+    }
+
+    public Integer getBranchId() {
+        return branchId;
+    }
+
+    // Nhân viên của chi nhánh khác không được thao tác trên chi nhánh này
+    public boolean canAccessBranch(int branch) {
+        return branchId == null || branchId == branch;
+    }
+}
@@ -4,6 +4,9 @@ import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -14,12 +17,16 @@ import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
+import com.coffeeshop.config.RequestCorrelationFilter;
 import com.coffeeshop.service.CustomUserDetailsService;
+import com.coffeeshop.tenant.BranchContext;
 
 import java.io.IOException;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
+    // Tên khác "logger" để không che field logger (commons-logging) của GenericFilterBean
+    private static final Logger log = LoggerFactory.getLogger(JwtAuthenticationFilter.class);
 
     @Autowired
     private JwtUtils jwtUtils;
@@ -40,24 +47,31 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         
         try {
             String jwt = parseJwt(request);
-            System.err.println("🔍 JWT Filter - Path: " + path + ", JWT: " + (jwt != null ? jwt.substring(0, Math.min(20, jwt.length())) + "..." : "null"));
-            
+
             if (jwt != null && jwtUtils.validateJwtToken(jwt)) {
                 String username = jwtUtils.getUsernameFromJwtToken(jwt);
-                System.err.println("✅ JWT Valid - Username: " + username);
                 UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-                
+                if (userDetails instanceof BranchUserDetails branchUser
+                        && !branchUser.canAccessBranch(BranchContext.current())) {
+                    // Không xác thực: request bị từ chối như khi không có token
+                    log.debug("{} không thuộc chi nhánh {} on {}", username, BranchContext.current(), path);
+                    filterChain.doFilter(request, response);
+                    return;
+                }
+
                 UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
                         userDetails, null, userDetails.getAuthorities());
                 authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
                 SecurityContextHolder.getContext().setAuthentication(authentication);
-            } else {
-                System.err.println("❌ JWT Invalid or null");
+                // Xóa cùng requestId trong RequestCorrelationFilter khi request kết thúc
+                MDC.put(RequestCorrelationFilter.MDC_USER, username);
+                log.debug("JWT valid for {} on {}", username, path);
+            } else if (jwt != null) {
+                log.debug("JWT invalid on {}", path);
             }
         } catch (Exception e) {
-            logger.error("Cannot set user authentication: {}", e);
-            System.err.println("❌ JWT Exception: " + e.getMessage());
+            log.error("Cannot set user authentication", e);
         }
 
         filterChain.doFilter(request, response);
@@ -70,6 +84,12 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             return headerAuth.substring(7);
         }
 
+        // Handshake WebSocket từ trình duyệt không gửi được header, nhận token qua query string
+        if (request.getRequestURI().startsWith("/ws/")) {
+            String token = request.getParameter("access_token");
+            return StringUtils.hasText(token) ? token : null;
+        }
+
         return null;
     }
 } 
\ No newline at end of file
@@ -1,6 +1,11 @@
 package com.coffeeshop.security;
 
 import io.jsonwebtoken.*;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
@@ -14,9 +19,11 @@ import javax.crypto.spec.SecretKeySpec;
 import java.nio.charset.StandardCharsets;
 import java.security.Key;
 import java.util.Date;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class JwtUtils {
+    private static final Logger logger = LoggerFactory.getLogger(JwtUtils.class);
 
     @Value("${app.jwtSecret}")
     private String jwtSecret;
@@ -27,6 +34,21 @@ public class JwtUtils {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Thời gian kiểm tra chữ ký, theo kết quả
+    private Timer validTimer;
+    private Timer expiredTimer;
+    private Timer invalidTimer;
+
+    @PostConstruct
+    void initMetrics() {
+        validTimer = verifyTimer("valid");
+        expiredTimer = verifyTimer("expired");
+        invalidTimer = verifyTimer("invalid");
+    }
+
     // Tạo token từ username
     public String generateJwtToken(String username) {
         Date now = new Date();
@@ -52,22 +74,28 @@ public class JwtUtils {
 
     // Kiểm tra token hợp lệ
     public boolean validateJwtToken(String token) {
+        long start = System.nanoTime();
+        Timer timer = invalidTimer;
         try {
             Jwts.parserBuilder()
                 .setSigningKey(jwtSecret.getBytes())
                 .build()
                 .parseClaimsJws(token);
+            timer = validTimer;
             return true;
         } catch (io.jsonwebtoken.security.SignatureException e) {
-            System.err.println("❌ Invalid JWT signature: " + e.getMessage());
+            logger.debug("Invalid JWT signature: {}", e.getMessage());
         } catch (MalformedJwtException e) {
-            System.err.println("❌ Invalid JWT token: " + e.getMessage());
+            logger.debug("Invalid JWT token: {}", e.getMessage());
         } catch (ExpiredJwtException e) {
-            System.err.println("❌ JWT token is expired: " + e.getMessage());
+            timer = expiredTimer;
+            logger.debug("JWT token is expired: {}", e.getMessage());
         } catch (UnsupportedJwtException e) {
-            System.err.println("❌ JWT token is unsupported: " + e.getMessage());
+            logger.debug("JWT token is unsupported: {}", e.getMessage());
         } catch (IllegalArgumentException e) {
-            System.err.println("❌ JWT claims string is empty: " + e.getMessage());
+            logger.debug("JWT claims string is empty: {}", e.getMessage());
+        } finally {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
         return false;
     }
@@ -83,4 +111,11 @@ public class JwtUtils {
         }
         throw new RuntimeException("Không thể lấy thông tin người dùng từ authentication");
     }
-} 
\ No newline at end of file
+
+    private Timer verifyTimer(String outcome) {
+        return Timer.builder("coffeeshop.jwt.verify")
+                .description("Thời gian kiểm tra access token")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,45 @@
+package com.coffeeshop.security;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+/**
+ * BCrypt encoder với cost cấu hình được.
+ * Khác với BCryptPasswordEncoder mặc định (chỉ nâng cost), encoder này báo cần
+ * mã hóa lại khi cost của hash khác cost hiện tại, nên hạ cost cũng có hiệu lực
+ * ở lần đăng nhập thành công tiếp theo.
+ */
+public class TunableBCryptPasswordEncoder extends BCryptPasswordEncoder {
+
+    private final int strength;
+
+    public TunableBCryptPasswordEncoder(int strength) {
+        super(strength);
+        this.strength = strength;
+    }
+
+    public int getStrength() {
+        return strength;
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        int cost = extractCost(encodedPassword);
+        return cost > 0 && cost != strength;
+    }
+
+    // Hash BCrypt có dạng $2a$10$..., cost là 2 chữ số sau prefix
+    static int extractCost(String encodedPassword) {
+        if (encodedPassword == null || encodedPassword.length() < 7 || encodedPassword.charAt(0) != '$') {
+            return -1;
+        }
+        int costStart = encodedPassword.indexOf('$', 1) + 1;
+        if (costStart <= 0 || costStart + 2 > encodedPassword.length()) {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(encodedPassword, costStart, costStart + 2, 10);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,366 @@
+package com.coffeeshop.service;
+
+import com.coffeeshop.dto.admin.response.BoardEventDTO;
+import com.coffeeshop.dto.admin.response.BoardMessageDTO;
+import com.coffeeshop.entity.Order;
+import com.coffeeshop.entity.OrderItem;
+import com.coffeeshop.entity.TableEntity;
+import com.coffeeshop.enums.OrderItemStatus;
+import com.coffeeshop.enums.OrderStatus;
+import com.coffeeshop.repository.OrderItemRepository;
+import com.coffeeshop.repository.OrderRepository;
+import com.coffeeshop.repository.TableRepository;
+import com.coffeeshop.scheduler.BranchTaskRunner;
+import com.coffeeshop.tenant.BranchContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Trạng thái của bảng điều phối (bếp + sảnh): đơn đang hoạt động, món và bàn.
+ *
+ * Mỗi thay đổi được gửi đi sau khi transaction commit, nhận một số thứ tự seq tăng dần và
+ * được giữ trong bộ đệm vòng boardReplaySize phần tử để client kết nối lại có thể nhận tiếp
+ * từ seq đã biết. Client bị tụt quá bộ đệm (hoặc mới kết nối) nhận snapshot thay cho các delta.
+ * seq bắt đầu lại từ 0 mỗi lần khởi động và khác nhau giữa các instance, nên con trỏ gửi cho client kèm
+ * epoch của lần chạy này; con trỏ thuộc epoch khác luôn nhận snapshot.
+ *
+ * Mỗi chi nhánh có một bảng riêng (seq, bộ đệm, snapshot); thay đổi được ghi vào bảng của chi nhánh
+ * trong BranchContext tại thời điểm phát.
+ *
+ * Thay đổi chỉ được phát ở instance đã thực hiện nó (request, hoặc listener sự kiện trên leader), nên khi
+ * chạy nhiều instance, mỗi instance đối chiếu bảng với DB mỗi clusterFollowerRefreshMs và phát phần chênh
+ * lệch như các delta thông thường.
+ */
+@Service
+public class BoardService {
+    private static final Logger logger = LoggerFactory.getLogger(BoardService.class);
+
+    // Đơn ở các trạng thái này rời khỏi bảng (cùng với món của nó)
+    private static final Set<OrderStatus> CLOSED_STATUSES = EnumSet.of(OrderStatus.COMPLETED, OrderStatus.CANCELLED);
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private TableRepository tableRepository;
+
+    @Autowired
+    private BranchTaskRunner branchTaskRunner;
+
+    @Autowired
+    private ClusterService clusterService;
+
+    @Value("${app.boardReplaySize:2000}")
+    private int replaySize;
+
+    // Bảng của một chi nhánh; các trường được bảo vệ bởi chính đối tượng Board
+    private static final class Board {
+        final BoardEventDTO[] recent;
+        long lastSeq = 0;
+        final Map<String, BoardEventDTO> current = new HashMap<>();
+        Set<String> changedDuringSync;   // khác null trong lúc đối chiếu với DB: khóa vừa được phát ở instance này
+
+        Board(int replaySize) {
+            recent = new BoardEventDTO[Math.max(16, replaySize)];
+        }
+    }
+
+    private final Map<Integer, Board> boards = new ConcurrentHashMap<>();
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36)
+            + Integer.toHexString(ThreadLocalRandom.current().nextInt(0x10000));
+
+    private final List<Runnable> listeners = new CopyOnWriteArrayList<>();
+
+    // Nạp trạng thái ban đầu; không ghi đè các thay đổi đã đến trước đó
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadFromDatabase() {
+        Map<Integer, List<BoardEventDTO>> eventsByBranch = readDatabase();
+        int total = 0;
+        for (Map.Entry<Integer, List<BoardEventDTO>> entry : eventsByBranch.entrySet()) {
+            Board board = board(entry.getKey());
+            synchronized (board) {
+                entry.getValue().forEach(event -> board.current.putIfAbsent(event.key(), event));
+            }
+            total += entry.getValue().size();
+        }
+        logger.info("Bảng điều phối: nạp {} đối tượng của {} chi nhánh", total, eventsByBranch.size());
+    }
+
+    /**
+     * Đối chiếu bảng của mọi chi nhánh với DB khi có nhiều hơn một instance: đối tượng khác DB được phát lại
+     * (UPSERT), đối tượng không còn trong DB được gỡ (REMOVE). Khóa vừa được phát ở instance này trong lúc
+     * đọc DB được giữ nguyên tới lượt sau vì DB đọc được có thể cũ hơn thay đổi đó.
+     */
+    @Scheduled(fixedDelayString = "${app.clusterFollowerRefreshMs:5000}")
+    public void syncWithDatabase() {
+        if (clusterService.getLiveNodeCount() <= 1) {
+            return;
+        }
+        for (Board board : boards.values()) {
+            synchronized (board) {
+                board.changedDuringSync = new HashSet<>();
+            }
+        }
+        Map<Integer, List<BoardEventDTO>> eventsByBranch;
+        try {
+            eventsByBranch = readDatabase();
+        } catch (RuntimeException e) {
+            boards.values().forEach(board -> {
+                synchronized (board) {
+                    board.changedDuringSync = null;
+                }
+            });
+            throw e;
+        }
+        Set<Integer> branchIds = new HashSet<>(boards.keySet());
+        branchIds.addAll(eventsByBranch.keySet());
+        int changed = 0;
+        for (Integer branchId : branchIds) {
+            Board board = board(branchId);
+            synchronized (board) {
+                Set<String> skipped = board.changedDuringSync != null ? board.changedDuringSync : Set.of();
+                board.changedDuringSync = null;
+                Map<String, BoardEventDTO> fresh = new LinkedHashMap<>();
+                eventsByBranch.getOrDefault(branchId, List.of()).forEach(event -> fresh.put(event.key(), event));
+                List<BoardEventDTO> events = new ArrayList<>();
+                for (BoardEventDTO event : fresh.values()) {
+                    if (!skipped.contains(event.key()) && !sameState(board.current.get(event.key()), event)) {
+                        events.add(event);
+                    }
+                }
+                for (BoardEventDTO event : board.current.values()) {
+                    if (!fresh.containsKey(event.key()) && !skipped.contains(event.key())) {
+                        events.add(new BoardEventDTO(event.getType(), BoardEventDTO.REMOVE, event.getId()));
+                    }
+                }
+                appendLocked(board, events);
+                changed += events.size();
+            }
+        }
+        if (changed > 0) {
+            logger.debug("Bảng điều phối: {} thay đổi từ DB", changed);
+            listeners.forEach(Runnable::run);
+        }
+    }
+
+    public void publishOrder(Order order) {
+        publish(List.of(orderEvent(order)));
+    }
+
+    public void publishOrderWithItems(Order order, Collection<OrderItem> items) {
+        List<BoardEventDTO> events = new ArrayList<>(items.size() + 1);
+        events.add(orderEvent(order));
+        items.forEach(item -> events.add(itemEvent(item)));
+        publish(events);
+    }
+
+    public void publishItemStatus(KitchenTicket ticket, OrderItemStatus status) {
+        BoardEventDTO event = new BoardEventDTO(BoardEventDTO.ITEM, BoardEventDTO.UPSERT, ticket.getOrderItemId());
+        event.setOrderId(ticket.getOrderId());
+        event.setProductName(ticket.getProductName());
+        event.setQuantity(ticket.getQuantity());
+        event.setStatus(status.name());
+        publish(List.of(event));
+    }
+
+    public void publishTable(TableEntity table) {
+        publish(List.of(tableEvent(table)));
+    }
+
+    public void publishTableRemoved(Integer tableId) {
+        publish(List.of(new BoardEventDTO(BoardEventDTO.TABLE, BoardEventDTO.REMOVE, tableId)));
+    }
+
+    public long getLastSeq(int branchId) {
+        Board board = board(branchId);
+        synchronized (board) {
+            return board.lastSeq;
+        }
+    }
+
+    /**
+     * seq trong con trỏ "&lt;epoch&gt;:&lt;seq&gt;" client gửi lại; -1 nếu con trỏ sai định dạng hoặc thuộc epoch
+     * khác (instance khác, hoặc trước khi khởi động lại), khi đó client cần snapshot.
+     */
+    public long seqOf(String cursor) {
+        if (cursor == null) {
+            return -1;
+        }
+        int separator = cursor.lastIndexOf(':');
+        if (separator < 0 || !epoch.equals(cursor.substring(0, separator))) {
+            return -1;
+        }
+        try {
+            long seq = Long.parseLong(cursor.substring(separator + 1));
+            return seq >= 0 ? seq : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    public BoardMessageDTO snapshot(int branchId) {
+        Board board = board(branchId);
+        synchronized (board) {
+            return new BoardMessageDTO(BoardMessageDTO.SNAPSHOT, epoch, board.lastSeq, new ArrayList<>(board.current.values()));
+        }
+    }
+
+    /**
+     * Các thay đổi sau seq since (tối đa maxEvents).
+     * @return empty nếu since không còn trong bộ đệm (client phải lấy snapshot).
+     */
+    public Optional<BoardMessageDTO> eventsSince(int branchId, long since, int maxEvents) {
+        Board board = board(branchId);
+        synchronized (board) {
+            if (since > board.lastSeq || since < board.lastSeq - board.recent.length) {
+                return Optional.empty();
+            }
+            long until = Math.min(board.lastSeq, since + maxEvents);
+            List<BoardEventDTO> events = new ArrayList<>((int) (until - since));
+            for (long seq = since + 1; seq <= until; seq++) {
+                events.add(board.recent[(int) (seq % board.recent.length)]);
+            }
+            return Optional.of(new BoardMessageDTO(BoardMessageDTO.DELTA, epoch, until, events));
+        }
+    }
+
+    public void addListener(Runnable listener) {
+        listeners.add(listener);
+    }
+
+    // Chỉ phát khi transaction commit, để màn hình không hiện thay đổi bị rollback
+    private void publish(List<BoardEventDTO> events) {
+        Board board = board(BranchContext.current());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    append(board, events);
+                }
+            });
+        } else {
+            append(board, events);
+        }
+    }
+
+    private Board board(int branchId) {
+        return boards.computeIfAbsent(branchId, id -> new Board(replaySize));
+    }
+
+    private void append(Board board, List<BoardEventDTO> events) {
+        synchronized (board) {
+            appendLocked(board, events);
+            if (board.changedDuringSync != null) {
+                events.forEach(event -> board.changedDuringSync.add(event.key()));
+            }
+        }
+        listeners.forEach(Runnable::run);
+    }
+
+    // Gọi trong synchronized (board)
+    private static void appendLocked(Board board, List<BoardEventDTO> events) {
+        for (BoardEventDTO event : events) {
+            event.setSeq(++board.lastSeq);
+            board.recent[(int) (board.lastSeq % board.recent.length)] = event;
+            apply(board.current, event);
+        }
+    }
+
+    // Đơn đang hoạt động, món của chúng và mọi bàn, theo chi nhánh (đơn trước món để món có đơn khi áp)
+    private Map<Integer, List<BoardEventDTO>> readDatabase() {
+        Map<Integer, List<BoardEventDTO>> eventsByBranch = new HashMap<>();
+        branchTaskRunner.readAllBranches(() -> {
+            Set<OrderStatus> active = EnumSet.complementOf(EnumSet.copyOf(CLOSED_STATUSES));
+            orderRepository.findBoardOrdersByStatusIn(active).forEach(order ->
+                    eventsByBranch.computeIfAbsent(order.getBranchId(), id -> new ArrayList<>()).add(orderEvent(order)));
+            orderItemRepository.findBoardItemsByOrderStatus(active).forEach(item ->
+                    eventsByBranch.computeIfAbsent(item.getBranchId(), id -> new ArrayList<>()).add(itemEvent(item)));
+            tableRepository.findAll().forEach(table ->
+                    eventsByBranch.computeIfAbsent(table.getBranchId(), id -> new ArrayList<>()).add(tableEvent(table)));
+            return null;
+        });
+        return eventsByBranch;
+    }
+
+    // So các trường hiển thị; updatedAt không được mọi nơi phát gửi kèm nên bỏ qua
+    private static boolean sameState(BoardEventDTO current, BoardEventDTO fresh) {
+        return current != null
+                && Objects.equals(current.getStatus(), fresh.getStatus())
+                && Objects.equals(current.getPaymentStatus(), fresh.getPaymentStatus())
+                && Objects.equals(current.getOrderId(), fresh.getOrderId())
+                && Objects.equals(current.getOrderNumber(), fresh.getOrderNumber())
+                && Objects.equals(current.getTableNumber(), fresh.getTableNumber())
+                && Objects.equals(current.getProductName(), fresh.getProductName())
+                && Objects.equals(current.getQuantity(), fresh.getQuantity());
+    }
+
+    private static void apply(Map<String, BoardEventDTO> current, BoardEventDTO event) {
+        boolean closedOrder = BoardEventDTO.ORDER.equals(event.getType())
+                && event.getStatus() != null && CLOSED_STATUSES.contains(OrderStatus.valueOf(event.getStatus()));
+        if (BoardEventDTO.REMOVE.equals(event.getOp()) || closedOrder) {
+            current.remove(event.key());
+            if (closedOrder) {
+                current.values().removeIf(e -> BoardEventDTO.ITEM.equals(e.getType()) && event.getId().equals(e.getOrderId()));
+            }
+        } else if (!BoardEventDTO.ITEM.equals(event.getType())
+                || current.containsKey(BoardEventDTO.ORDER + ":" + event.getOrderId())) {
+            // Món của đơn đã rời bảng thì không giữ trong snapshot
+            current.put(event.key(), event);
+        }
+    }
+
+    private static BoardEventDTO orderEvent(Order order) {
+        BoardEventDTO event = new BoardEventDTO(BoardEventDTO.ORDER, BoardEventDTO.UPSERT, order.getId());
+        event.setOrderNumber(order.getOrderNumber());
+        event.setTableNumber(order.getTable() != null ? order.getTable().getTableNumber() : null);
+        event.setStatus(order.getStatus() != null ? order.getStatus().name() : null);
+        event.setPaymentStatus(order.getPaymentStatus() != null ? order.getPaymentStatus().name() : null);
+        event.setUpdatedAt(order.getUpdatedAt());
+        return event;
+    }
+
+    private static BoardEventDTO itemEvent(OrderItem item) {
+        BoardEventDTO event = new BoardEventDTO(BoardEventDTO.ITEM, BoardEventDTO.UPSERT, item.getId());
+        event.setOrderId(item.getOrder().getId());
+        event.setProductName(item.getProduct().getName());
+        event.setQuantity(item.getQuantity());
+        event.setStatus(item.getStatus() != null ? item.getStatus().name() : null);
+        event.setUpdatedAt(item.getUpdatedAt());
+        return event;
+    }
+
+    private static BoardEventDTO tableEvent(TableEntity table) {
+        BoardEventDTO event = new BoardEventDTO(BoardEventDTO.TABLE, BoardEventDTO.UPSERT, table.getId());
+        event.setTableNumber(table.getTableNumber());
+        event.setStatus(table.getStatus() != null ? table.getStatus().name() : null);
+        event.setUpdatedAt(table.getUpdatedAt());
+        return event;
+    }
+}
@@ -0,0 +1,151 @@
+package com.coffeeshop.service;
+
+import com.coffeeshop.dto.admin.request.AdminBranchRequestDTO;
+import com.coffeeshop.dto.admin.response.AdminBranchResponseDTO;
+import com.coffeeshop.entity.Branch;
+import com.coffeeshop.repository.BranchRepository;
+import com.coffeeshop.tenant.BranchContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Quản lý chi nhánh. Danh sách id chi nhánh đang hoạt động được giữ trong bộ nhớ (làm mới sau mỗi
+ * branchCacheTtlMs hoặc khi sửa trên instance này) vì mọi request và mọi lượt chạy job đều cần tới.
+ */
+@Service
+public class BranchService {
+    private static final Logger logger = LoggerFactory.getLogger(BranchService.class);
+
+    @Autowired
+    private BranchRepository branchRepository;
+
+    @Value("${app.branchCacheTtlMs:30000}")
+    private long cacheTtlMs;
+
+    private volatile List<Integer> activeIds;
+    private volatile long loadedAt;
+
+    // Tạo chi nhánh mặc định cho DB mới để client không gửi X-Branch-Id vẫn dùng được
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @Transactional
+    public void ensureDefaultBranch() {
+        if (branchRepository.count() == 0) {
+            Branch branch = new Branch();
+            branch.setCode("MAIN");
+            branch.setName("Chi nhánh chính");
+            branch.setIsActive(true);
+            branch.setCreatedAt(LocalDateTime.now());
+            branch.setUpdatedAt(LocalDateTime.now());
+            branchRepository.save(branch);
+            logger.info("Tạo chi nhánh mặc định {}", branch.getId());
+            if (branch.getId() != BranchContext.DEFAULT_BRANCH_ID) {
+                logger.warn("Chi nhánh mặc định có id {} thay vì {}", branch.getId(), BranchContext.DEFAULT_BRANCH_ID);
+            }
+        }
+        activeIds = null;
+    }
+
+    public List<Integer> getActiveBranchIds() {
+        List<Integer> ids = activeIds;
+        if (ids == null || System.currentTimeMillis() - loadedAt > cacheTtlMs) {
+            ids = List.copyOf(branchRepository.findActiveIds());
+            activeIds = ids;
+            loadedAt = System.currentTimeMillis();
+        }
+        return ids;
+    }
+
+    public boolean isActive(int branchId) {
+        return getActiveBranchIds().contains(branchId);
+    }
+
+    @Transactional(readOnly = true)
+    public List<AdminBranchResponseDTO> getAllBranches() {
+        return branchRepository.findAll().stream().map(this::toResponseDTO).toList();
+    }
+
+    @Transactional(readOnly = true)
+    public List<AdminBranchResponseDTO> getActiveBranches() {
+        return branchRepository.findByIsActiveTrueOrderById().stream().map(this::toResponseDTO).toList();
+    }
+
+    @Transactional
+    public AdminBranchResponseDTO createBranch(AdminBranchRequestDTO request) {
+        if (request.getCode() == null || request.getCode().isBlank()) {
+            throw new IllegalArgumentException("Mã chi nhánh không được để trống!");
+        }
+        if (request.getName() == null || request.getName().isBlank()) {
+            throw new IllegalArgumentException("Tên chi nhánh không được để trống!");
+        }
+        String code = request.getCode().trim();
+        if (branchRepository.findByCode(code).isPresent()) {
+            throw new IllegalArgumentException("Mã chi nhánh đã tồn tại: " + code);
+        }
+        Branch branch = new Branch();
+        branch.setCode(code);
+        branch.setName(request.getName().trim());
+        branch.setAddress(request.getAddress());
+        branch.setIsActive(request.getIsActive() != null ? request.getIsActive() : true);
+        branch.setCreatedAt(LocalDateTime.now());
+        branch.setUpdatedAt(LocalDateTime.now());
+        branchRepository.save(branch);
+        invalidateAfterCommit();
+        return toResponseDTO(branch);
+    }
+
+    @Transactional
+    public AdminBranchResponseDTO updateBranch(Integer id, AdminBranchRequestDTO request) {
+        Branch branch = branchRepository.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Không tìm thấy chi nhánh: " + id));
+        if (request.getName() != null && !request.getName().isBlank()) {
+            branch.setName(request.getName().trim());
+        }
+        if (request.getAddress() != null) {
+            branch.setAddress(request.getAddress());
+        }
+        if (request.getIsActive() != null) {
+            if (!request.getIsActive() && id == BranchContext.DEFAULT_BRANCH_ID) {
+                throw new IllegalArgumentException("Không thể ngừng hoạt động chi nhánh mặc định!");
+            }
+            branch.setIsActive(request.getIsActive());
+        }
+        branch.setUpdatedAt(LocalDateTime.now());
+        invalidateAfterCommit();
+        return toResponseDTO(branch);
+    }
+
+    private void invalidateAfterCommit() {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                activeIds = null;
+            }
+        });
+    }
+
+    private AdminBranchResponseDTO toResponseDTO(Branch branch) {
+        AdminBranchResponseDTO dto = new AdminBranchResponseDTO();
+        dto.setId(branch.getId());
+        dto.setCode(branch.getCode());
+        dto.setName(branch.getName());
+        dto.setAddress(branch.getAddress());
+        dto.setIsActive(branch.getIsActive());
+        dto.setCreatedAt(branch.getCreatedAt());
+        dto.setUpdatedAt(branch.getUpdatedAt());
+        return dto;
+    }
+}
@@ -0,0 +1,595 @@
+package com.coffeeshop.service;
+
+import com.coffeeshop.dto.admin.response.BulkImportResponseDTO;
+import com.coffeeshop.entity.Category;
+import com.coffeeshop.enums.TableStatus;
+import com.coffeeshop.enums.UserRole;
+import com.coffeeshop.repository.CategoryRepository;
+import com.coffeeshop.repository.ProductRepository;
+import com.coffeeshop.repository.TableRepository;
+import com.coffeeshop.repository.UserRepository;
+import com.coffeeshop.security.PasswordHashingExecutor;
+import com.coffeeshop.tenant.BranchContext;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Nhập/xuất hàng loạt sản phẩm, danh mục, bàn và người dùng, dùng khi mở chi nhánh mới hoặc sao lưu.
+ * Định dạng: CSV có dòng header, hoặc JSON lines (mỗi dòng một object); tên cột giống tên field
+ * của DTO admin (name, categoryName, tableNumber, isActive...).
+ *
+ * Import đọc từng bản ghi từ stream, kiểm tra trong bộ nhớ với tập khóa nạp trước một lần
+ * (tên sản phẩm/danh mục, số bàn, username, email; không phân biệt hoa thường như collation MySQL)
+ * rồi INSERT theo lô JDBC, mỗi lô một transaction. Dòng lỗi không chặn các dòng khác và được liệt kê
+ * trong kết quả. Export đọc theo trang với id tăng dần nên bộ nhớ không phụ thuộc kích thước bảng.
+ *
+ * Sản phẩm, danh mục và bàn được nhập/xuất cho chi nhánh của request (X-Branch-Id); người dùng dùng chung.
+ *
+ * Ghi thẳng bằng JDBC, không qua Hibernate, nên sau import phải bỏ query cache (findAll đã cache) và
+ * tự ghi/lọc cột branch_id.
+ */
+@Service
+public class BulkDataService {
+    private static final Logger logger = LoggerFactory.getLogger(BulkDataService.class);
+
+    public static final String PRODUCTS = "products";
+    public static final String CATEGORIES = "categories";
+    public static final String TABLES = "tables";
+    public static final String USERS = "users";
+    public static final Set<String> ENTITIES = Set.of(PRODUCTS, CATEGORIES, TABLES, USERS);
+
+    private static final TypeReference<Map<String, Object>> JSON_ROW = new TypeReference<>() {};
+    private static final TypeReference<Map<String, String>> CSV_ROW = new TypeReference<>() {};
+
+    // Số mật khẩu gửi sang PasswordHashingExecutor mỗi lần, nhỏ hơn hàng đợi của executor
+    private static final int HASH_CHUNK = 32;
+
+    public enum Format {
+        CSV("text/csv", "csv"),
+        JSONL("application/x-ndjson", "jsonl");
+
+        private final String mediaType;
+        private final String extension;
+
+        Format(String mediaType, String extension) {
+            this.mediaType = mediaType;
+            this.extension = extension;
+        }
+
+        public String getMediaType() { return mediaType; }
+        public String getExtension() { return extension; }
+
+        public static Format fromName(String name) {
+            for (Format format : values()) {
+                if (format.extension.equalsIgnoreCase(name) || format.mediaType.equalsIgnoreCase(name)) {
+                    return format;
+                }
+            }
+            throw new IllegalArgumentException("Định dạng không hỗ trợ: " + name + " (csv hoặc jsonl)");
+        }
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private PasswordHashingExecutor passwordHashingExecutor;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private TableRepository tableRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Value("${app.importBatchSize:500}")
+    private int batchSize;
+
+    @Value("${app.importMaxErrors:1000}")
+    private int maxErrors;
+
+    @Value("${app.exportPageSize:1000}")
+    private int exportPageSize;
+
+    private final CsvMapper csvMapper = new CsvMapper();
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    // Chuyển một bản ghi đã đọc thành tham số của câu INSERT; IllegalArgumentException khi dòng không hợp lệ
+    private interface RowConverter {
+        Object[] convert(Map<String, String> row);
+    }
+
+    private record ImportSpec(String insertSql, String keyColumn, RowConverter converter, Consumer<List<Object[]>> beforeInsert) {}
+
+    private record ExportSpec(String selectSql, String[] columns, boolean branchScoped) {}
+
+    // ============ IMPORT ============
+
+    public BulkImportResponseDTO importData(String entity, Format format, InputStream input) throws IOException {
+        ImportSpec spec = switch (entity) {
+            case PRODUCTS -> productImport();
+            case CATEGORIES -> categoryImport();
+            case TABLES -> tableImport();
+            case USERS -> userImport();
+            default -> throw new IllegalArgumentException("Không hỗ trợ import: " + entity);
+        };
+        ImportRun run = new ImportRun(entity, spec);
+        if (format == Format.CSV) {
+            readCsv(input, run);
+        } else {
+            readJsonLines(input, run);
+        }
+        run.flush();
+
+        if (run.imported > 0 && !USERS.equals(entity)) {
+            // Kết quả findAll đã cache không biết có dòng mới do không đi qua Hibernate
+            entityManagerFactory.unwrap(SessionFactory.class).getCache().evictQueryRegions();
+        }
+        logger.info("Import {}: {} dòng, thêm {}, lỗi {}", entity, run.total, run.imported, run.failed);
+        return run.toResponseDTO();
+    }
+
+    private void readJsonLines(InputStream input, ImportRun run) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            Map<String, Object> values;
+            try {
+                values = objectMapper.readValue(line, JSON_ROW);
+            } catch (JsonProcessingException e) {
+                run.total++;
+                run.fail(run.total, null, "JSON không hợp lệ: " + e.getOriginalMessage());
+                continue;
+            }
+            Map<String, String> row = new HashMap<>();
+            values.forEach((key, value) -> row.put(key, value != null ? value.toString() : null));
+            run.accept(row);
+        }
+    }
+
+    private void readCsv(InputStream input, ImportRun run) throws IOException {
+        try (MappingIterator<Map<String, String>> iterator = csvMapper.readerFor(CSV_ROW)
+                .with(CsvSchema.emptySchema().withHeader())
+                .readValues(input)) {
+            while (iterator.hasNextValue()) {
+                run.accept(iterator.nextValue());
+            }
+        } catch (JsonProcessingException | RuntimeJsonMappingException e) {
+            // Dòng CSV sai cấu trúc (dấu nháy, số cột) làm lệch các dòng sau nên dừng đọc tại đây
+            run.fail(run.total + 1, null, "CSV không hợp lệ, dừng đọc: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Trạng thái của một lần import: lô đang gom và kết quả từng dòng.
+     */
+    private final class ImportRun {
+        final String entity;
+        final ImportSpec spec;
+        int total;
+        int imported;
+        int failed;
+        boolean errorsTruncated;
+        final List<BulkImportResponseDTO.RowError> errors = new ArrayList<>();
+
+        final List<Integer> batchRows = new ArrayList<>();
+        final List<String> batchKeys = new ArrayList<>();
+        final List<Object[]> batchArgs = new ArrayList<>();
+
+        ImportRun(String entity, ImportSpec spec) {
+            this.entity = entity;
+            this.spec = spec;
+        }
+
+        void accept(Map<String, String> row) {
+            total++;
+            String key = text(row, spec.keyColumn());
+            Object[] args;
+            try {
+                args = spec.converter().convert(row);
+            } catch (IllegalArgumentException e) {
+                fail(total, key, e.getMessage());
+                return;
+            }
+            batchRows.add(total);
+            batchKeys.add(key);
+            batchArgs.add(args);
+            if (batchArgs.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (batchArgs.isEmpty()) {
+                return;
+            }
+            try {
+                if (spec.beforeInsert() != null) {
+                    spec.beforeInsert().accept(batchArgs);
+                }
+                transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(spec.insertSql(), batchArgs));
+                imported += batchArgs.size();
+            } catch (DataAccessException e) {
+                // Thường do dòng trùng được thêm song song sau khi nạp khóa; cả lô đã rollback
+                logger.warn("Import {}: lô {} dòng lỗi khi ghi DB", entity, batchArgs.size(), e);
+                String message = "Lỗi ghi DB, cả lô không được thêm: " + e.getMostSpecificCause().getMessage();
+                for (int i = 0; i < batchRows.size(); i++) {
+                    fail(batchRows.get(i), batchKeys.get(i), message);
+                }
+            }
+            batchRows.clear();
+            batchKeys.clear();
+            batchArgs.clear();
+        }
+
+        void fail(int row, String key, String message) {
+            failed++;
+            if (errors.size() < maxErrors) {
+                errors.add(new BulkImportResponseDTO.RowError(row, key, message));
+            } else {
+                errorsTruncated = true;
+            }
+        }
+
+        BulkImportResponseDTO toResponseDTO() {
+            BulkImportResponseDTO dto = new BulkImportResponseDTO();
+            dto.setEntity(entity);
+            dto.setTotalRows(total);
+            dto.setImported(imported);
+            dto.setFailed(failed);
+            dto.setErrorsTruncated(errorsTruncated);
+            dto.setErrors(errors);
+            return dto;
+        }
+    }
+
+    private ImportSpec categoryImport() {
+        Set<String> names = lowerCaseSet(categoryRepository.findAllNames());
+        int branchId = BranchContext.current();
+        LocalDateTime now = LocalDateTime.now();
+        return new ImportSpec(
+                "INSERT INTO categories (branch_id, name, description, image_url, is_active, display_order, created_at, "
+                        + "updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?)",
+                "name",
+                row -> {
+                    String name = required(row, "name", 100);
+                    Object[] args = {branchId, name, text(row, "description"), optional(row, "imageUrl", 255),
+                            bool(row, "isActive", true), integer(row, "displayOrder", 0), now, now};
+                    reserve(names, name, "Tên danh mục đã tồn tại: ");
+                    return args;
+                },
+                null);
+    }
+
+    private ImportSpec productImport() {
+        Set<String> names = lowerCaseSet(productRepository.findAllNames());
+        Map<String, Integer> categoryIdsByName = new HashMap<>();
+        for (Category category : categoryRepository.findAll()) {
+            categoryIdsByName.put(category.getName().toLowerCase(Locale.ROOT), category.getId());
+        }
+        Set<Integer> categoryIds = new HashSet<>(categoryIdsByName.values());
+        int branchId = BranchContext.current();
+        LocalDateTime now = LocalDateTime.now();
+        return new ImportSpec(
+                "INSERT INTO products (branch_id, category_id, name, description, price, image_url, is_available, "
+                        + "preparation_time, display_order, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                "name",
+                row -> {
+                    String name = required(row, "name", 150);
+                    // categoryId của chi nhánh khác thường không khớp, nên ưu tiên categoryName nếu có
+                    Integer categoryId;
+                    String categoryName = text(row, "categoryName");
+                    if (categoryName != null) {
+                        categoryId = categoryIdsByName.get(categoryName.toLowerCase(Locale.ROOT));
+                        if (categoryId == null) {
+                            throw new IllegalArgumentException("Không tìm thấy danh mục: " + categoryName);
+                        }
+                    } else {
+                        categoryId = integer(row, "categoryId", null);
+                        if (categoryId == null || !categoryIds.contains(categoryId)) {
+                            throw new IllegalArgumentException("Thiếu categoryName hoặc categoryId không tồn tại");
+                        }
+                    }
+                    BigDecimal price = decimal(row, "price");
+                    if (price == null || price.signum() <= 0) {
+                        throw new IllegalArgumentException("Giá sản phẩm phải lớn hơn 0!");
+                    }
+                    Object[] args = {branchId, categoryId, name, text(row, "description"), price, optional(row, "imageUrl", 255),
+                            bool(row, "isAvailable", true), integer(row, "preparationTime", 10),
+                            integer(row, "displayOrder", 0), now, now};
+                    reserve(names, name, "Tên sản phẩm đã tồn tại: ");
+                    return args;
+                },
+                null);
+    }
+
+    private ImportSpec tableImport() {
+        Set<String> tableNumbers = lowerCaseSet(tableRepository.findAllTableNumbers());
+        int branchId = BranchContext.current();
+        LocalDateTime now = LocalDateTime.now();
+        return new ImportSpec(
+                "INSERT INTO tables (branch_id, table_number, capacity, location, status, is_active, created_at, updated_at) "
+                        + "VALUES (?, ?, ?, ?, ?, ?, ?, ?)",
+                "tableNumber",
+                row -> {
+                    String tableNumber = required(row, "tableNumber", 10);
+                    Integer capacity = integer(row, "capacity", null);
+                    if (capacity == null || capacity <= 0) {
+                        throw new IllegalArgumentException("Sức chứa phải lớn hơn 0!");
+                    }
+                    TableStatus status = enumValue(row, "status", TableStatus.class, TableStatus.AVAILABLE);
+                    Object[] args = {branchId, tableNumber, capacity, optional(row, "location", 100), status.name(),
+                            bool(row, "isActive", true), now, now};
+                    reserve(tableNumbers, tableNumber, "Số bàn đã tồn tại: ");
+                    return args;
+                },
+                null);
+    }
+
+    private ImportSpec userImport() {
+        Set<String> usernames = lowerCaseSet(userRepository.findAllUsernames());
+        Set<String> emails = lowerCaseSet(userRepository.findAllEmails());
+        LocalDateTime now = LocalDateTime.now();
+        return new ImportSpec(
+                "INSERT INTO users (username, email, password, full_name, phone, profile_image, role, is_active, "
+                        + "created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                "username",
+                row -> {
+                    String username = required(row, "username", 50);
+                    String email = required(row, "email", 100);
+                    if (!email.contains("@")) {
+                        throw new IllegalArgumentException("Email không hợp lệ: " + email);
+                    }
+                    String password = text(row, "password");
+                    if (password == null) {
+                        throw new IllegalArgumentException("Thiếu password");
+                    }
+                    UserRole role = enumValue(row, "role", UserRole.class, UserRole.ROLE_CUSTOMER);
+                    Object[] args = {username, email, password, required(row, "fullName", 100), optional(row, "phone", 15),
+                            optional(row, "profileImage", 255), role.name(), bool(row, "isActive", true), now, now};
+                    if (usernames.contains(username.toLowerCase(Locale.ROOT))) {
+                        throw new IllegalArgumentException("Username đã tồn tại: " + username);
+                    }
+                    reserve(emails, email, "Email đã được sử dụng: ");
+                    usernames.add(username.toLowerCase(Locale.ROOT));
+                    return args;
+                },
+                this::hashPasswords);
+    }
+
+    // BCrypt chạy trên pool riêng như login/register, theo từng nhóm nhỏ để không làm đầy hàng đợi
+    private void hashPasswords(List<Object[]> batch) {
+        for (int from = 0; from < batch.size(); from += HASH_CHUNK) {
+            List<Object[]> chunk = batch.subList(from, Math.min(from + HASH_CHUNK, batch.size()));
+            List<CompletableFuture<String>> hashes = new ArrayList<>(chunk.size());
+            for (Object[] args : chunk) {
+                String raw = (String) args[2];
+                hashes.add(passwordHashingExecutor.submit(() -> passwordEncoder.encode(raw)));
+            }
+            for (int i = 0; i < chunk.size(); i++) {
+                chunk.get(i)[2] = hashes.get(i).join();
+            }
+        }
+    }
+
+    // ============ EXPORT ============
+
+    /**
+     * Ghi toàn bộ bảng ra output theo thứ tự id. Bản xuất user không có mật khẩu (kể cả hash),
+     * khi nhập lại cần thêm cột password.
+     */
+    public void exportData(String entity, Format format, OutputStream output) throws IOException {
+        ExportSpec spec = switch (entity) {
+            case PRODUCTS -> new ExportSpec(
+                    "SELECT p.id, p.name, c.name, p.description, p.price, p.image_url, p.is_available, p.preparation_time, "
+                            + "p.display_order FROM products p LEFT JOIN categories c ON c.id = p.category_id "
+                            + "WHERE p.branch_id = ? AND p.id > ? ORDER BY p.id LIMIT ?",
+                    new String[] {"id", "name", "categoryName", "description", "price", "imageUrl", "isAvailable",
+                            "preparationTime", "displayOrder"}, true);
+            case CATEGORIES -> new ExportSpec(
+                    "SELECT id, name, description, image_url, is_active, display_order FROM categories "
+                            + "WHERE branch_id = ? AND id > ? ORDER BY id LIMIT ?",
+                    new String[] {"id", "name", "description", "imageUrl", "isActive", "displayOrder"}, true);
+            case TABLES -> new ExportSpec(
+                    "SELECT id, table_number, capacity, location, status, is_active FROM tables "
+                            + "WHERE branch_id = ? AND id > ? ORDER BY id LIMIT ?",
+                    new String[] {"id", "tableNumber", "capacity", "location", "status", "isActive"}, true);
+            case USERS -> new ExportSpec(
+                    "SELECT id, username, email, full_name, phone, profile_image, role, is_active FROM users "
+                            + "WHERE id > ? ORDER BY id LIMIT ?",
+                    new String[] {"id", "username", "email", "fullName", "phone", "profileImage", "role", "isActive"}, false);
+            default -> throw new IllegalArgumentException("Không hỗ trợ export: " + entity);
+        };
+
+        RowMapper<Map<String, Object>> rowMapper = (rs, rowNum) -> {
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (int i = 0; i < spec.columns().length; i++) {
+                row.put(spec.columns()[i], rs.getObject(i + 1));
+            }
+            return row;
+        };
+
+        SequenceWriter csvWriter = null;
+        if (format == Format.CSV) {
+            CsvSchema.Builder schema = CsvSchema.builder();
+            for (String column : spec.columns()) {
+                schema.addColumn(column);
+            }
+            csvWriter = csvMapper.writer(schema.build().withHeader()).writeValues(output);
+        }
+
+        int branchId = BranchContext.current();
+        int lastId = 0;
+        int count = 0;
+        while (true) {
+            List<Map<String, Object>> page = spec.branchScoped()
+                    ? jdbcTemplate.query(spec.selectSql(), rowMapper, branchId, lastId, exportPageSize)
+                    : jdbcTemplate.query(spec.selectSql(), rowMapper, lastId, exportPageSize);
+            for (Map<String, Object> row : page) {
+                if (csvWriter != null) {
+                    csvWriter.write(row);
+                } else {
+                    output.write(objectMapper.writeValueAsBytes(row));
+                    output.write('\n');
+                }
+            }
+            count += page.size();
+            if (csvWriter != null) {
+                csvWriter.flush();
+            } else {
+                output.flush();
+            }
+            if (page.size() < exportPageSize) {
+                break;
+            }
+            lastId = ((Number) page.get(page.size() - 1).get("id")).intValue();
+        }
+        if (csvWriter != null) {
+            csvWriter.close();
+        }
+        logger.info("Export {}: {} dòng", entity, count);
+    }
+
+    // ============ Đọc giá trị từng cột ============
+
+    private static Set<String> lowerCaseSet(List<String> values) {
+        Set<String> set = new HashSet<>(values.size() * 2);
+        for (String value : values) {
+            if (value != null) {
+                set.add(value.toLowerCase(Locale.ROOT));
+            }
+        }
+        return set;
+    }
+
+    // Gọi sau cùng, khi dòng đã hợp lệ, để dòng lỗi không giữ chỗ khóa
+    private static void reserve(Set<String> keys, String value, String duplicateMessage) {
+        if (!keys.add(value.toLowerCase(Locale.ROOT))) {
+            throw new IllegalArgumentException(duplicateMessage + value);
+        }
+    }
+
+    private static String text(Map<String, String> row, String column) {
+        String value = row.get(column);
+        if (value == null) {
+            return null;
+        }
+        value = value.trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static String optional(Map<String, String> row, String column, int maxLength) {
+        String value = text(row, column);
+        if (value != null && value.length() > maxLength) {
+            throw new IllegalArgumentException(column + " dài quá " + maxLength + " ký tự");
+        }
+        return value;
+    }
+
+    private static String required(Map<String, String> row, String column, int maxLength) {
+        String value = optional(row, column, maxLength);
+        if (value == null) {
+            throw new IllegalArgumentException("Thiếu " + column);
+        }
+        return value;
+    }
+
+    private static Integer integer(Map<String, String> row, String column, Integer defaultValue) {
+        return parse(row, column, Integer::valueOf, defaultValue, "số nguyên");
+    }
+
+    private static BigDecimal decimal(Map<String, String> row, String column) {
+        return parse(row, column, BigDecimal::new, null, "số");
+    }
+
+    private static Boolean bool(Map<String, String> row, String column, Boolean defaultValue) {
+        return parse(row, column, value -> switch (value.toLowerCase(Locale.ROOT)) {
+            case "true", "1", "yes" -> Boolean.TRUE;
+            case "false", "0", "no" -> Boolean.FALSE;
+            default -> throw new IllegalArgumentException(value);
+        }, defaultValue, "true/false");
+    }
+
+    private static <E extends Enum<E>> E enumValue(Map<String, String> row, String column, Class<E> type, E defaultValue) {
+        return parse(row, column, value -> Enum.valueOf(type, value.toUpperCase(Locale.ROOT)), defaultValue,
+                "một trong " + Arrays.toString(type.getEnumConstants()));
+    }
+
+    private static <T> T parse(Map<String, String> row, String column, Function<String, T> parser, T defaultValue, String expected) {
+        String value = text(row, column);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return parser.apply(value);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(column + " phải là " + expected + ": " + value);
+        }
+    }
+}
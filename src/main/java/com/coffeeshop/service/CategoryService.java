@@ -37,7 +37,7 @@ public interface CategoryService {
     void deleteCategory(Integer id);
 
     /**
-     * Reorder categories
+     * Reorder categories in one UPDATE; returns only the reordered categories, sorted by the new displayOrder
      */
     List<Category> reorderCategories(List<Map<String, Integer>> reorderList);
 
@@ -0,0 +1,287 @@
+package com.coffeeshop.service;
+
+import com.coffeeshop.entity.SchedulerLease;
+import com.coffeeshop.repository.SchedulerLeaseRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.PersistenceException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Phối hợp job nền giữa nhiều instance qua bảng scheduler_leases.
+ *
+ * Mỗi clusterHeartbeatMs, instance gia hạn lease "node:&lt;nodeId&gt;" của mình và thử giữ lease "leader";
+ * lease không được gia hạn sẽ hết hạn sau clusterLeaseTtlMs, nên instance chết được thay sau tối đa chừng đó.
+ * - Job chỉ được chạy ở một nơi (outbox relay, waitlist, dọn dẹp) kiểm tra isLeader().
+ * - Job chuyển trạng thái đơn/đặt bàn chia việc theo currentShard(): instance thứ i trong danh sách
+ *   instance còn sống (sắp theo nodeId) nhận các id có id mod n = i.
+ * - Giá trị phải khác nhau giữa các instance đang sống (nodeId của mã đơn) thuê qua acquireSlot().
+ *
+ * Vai trò chỉ có hiệu lực trong clusterLeaseTtlMs - clusterHeartbeatMs kể từ heartbeat thành công gần nhất:
+ * instance không gia hạn được (mất kết nối DB, dừng lâu) tự ngừng chạy job trước khi lease của nó bị
+ * instance khác nhận. Trong vài giây khi số instance thay đổi, hai instance có thể cùng xử lý một id; các
+ * câu UPDATE chuyển trạng thái đều có điều kiện nên một đơn không bị chuyển hai lần.
+ *
+ * Heartbeat chạy trên luồng riêng thay vì scheduler chung của @Scheduled (một luồng ở chế độ platform
+ * thread): một job chạy lâu không được làm lease của instance hết hạn.
+ *
+ * Hạn lease tính theo đồng hồ của từng instance: đồng hồ các instance cần được đồng bộ (NTP).
+ */
+@Service
+public class ClusterService {
+    private static final Logger logger = LoggerFactory.getLogger(ClusterService.class);
+
+    public static final String LEADER_LEASE = "leader";
+    private static final String NODE_LEASE_PREFIX = "node:";
+
+    /**
+     * Phần việc của một instance: các id có id mod count = index.
+     */
+    public record Shard(int index, int count) {
+        public static final Shard ALL = new Shard(0, 1);
+
+        public boolean owns(long id) {
+            return Math.floorMod(id, count) == index;
+        }
+    }
+
+    private record State(boolean leader, Shard shard, long validUntil) {}
+
+    // Slot đang thuê của một tiền tố; held được đổi trong synchronized (this Slot)
+    private static final class Slot {
+        final int count;
+        volatile int held = -1;
+
+        Slot(int count) {
+            this.count = count;
+        }
+    }
+
+    @Autowired
+    private SchedulerLeaseRepository leaseRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Phải khác nhau giữa các instance; để trống thì dùng host-pid kèm hậu tố ngẫu nhiên
+    @Value("${app.clusterNodeId:}")
+    private String configuredNodeId;
+
+    @Value("${app.clusterHeartbeatMs:5000}")
+    private long heartbeatMs;
+
+    @Value("${app.clusterLeaseTtlMs:15000}")
+    private long leaseTtlMs;
+
+    private String nodeId;
+    private TransactionTemplate transactionTemplate;
+    private volatile State state;
+    private ScheduledExecutorService heartbeatExecutor;
+    private final Map<String, Slot> slots = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void init() {
+        if (leaseTtlMs <= heartbeatMs) {
+            throw new IllegalArgumentException("app.clusterLeaseTtlMs phải lớn hơn app.clusterHeartbeatMs");
+        }
+        nodeId = configuredNodeId.isBlank() ? defaultNodeId() : configuredNodeId.trim();
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        // Nhận vai trò trước khi các job @Scheduled chạy lượt đầu
+        heartbeat();
+        heartbeatExecutor = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("cluster-heartbeat").daemon(true).factory());
+        heartbeatExecutor.scheduleWithFixedDelay(this::heartbeat, heartbeatMs, heartbeatMs, TimeUnit.MILLISECONDS);
+    }
+
+    // Trả lease khi tắt bình thường để instance khác nhận việc ngay ở heartbeat kế tiếp
+    @PreDestroy
+    void shutdown() {
+        heartbeatExecutor.shutdown();
+        try {
+            // Heartbeat đang chạy dở có thể gia hạn lại lease vừa trả
+            heartbeatExecutor.awaitTermination(heartbeatMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        state = null;
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                slots.forEach((prefix, slot) -> {
+                    if (slot.held >= 0) {
+                        leaseRepository.release(prefix + slot.held, nodeId);
+                    }
+                });
+                leaseRepository.release(LEADER_LEASE, nodeId);
+                leaseRepository.release(NODE_LEASE_PREFIX + nodeId, nodeId);
+            });
+        } catch (RuntimeException e) {
+            logger.warn("Không trả được lease của instance {}: {}", nodeId, e.toString());
+        }
+    }
+
+    void heartbeat() {
+        long startedAt = System.currentTimeMillis();
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiresAt = now.plusNanos(leaseTtlMs * 1_000_000);
+        try {
+            if (!acquire(NODE_LEASE_PREFIX + nodeId, now, expiresAt)) {
+                logger.warn("Không gia hạn được lease node:{}", nodeId);
+                state = null;
+                return;
+            }
+            slots.forEach((prefix, slot) -> renewSlot(prefix, slot, now, expiresAt));
+            boolean leader = acquire(LEADER_LEASE, now, expiresAt);
+            List<String> nodes = transactionTemplate.execute(status ->
+                    leaseRepository.findLiveOwners(NODE_LEASE_PREFIX + "%", now));
+            if (leader) {
+                // Dọn dòng của các instance đã dừng hẳn
+                transactionTemplate.execute(status -> leaseRepository.deleteExpiredBefore(NODE_LEASE_PREFIX + "%",
+                        now.minusNanos(leaseTtlMs * 1_000_000)));
+            }
+            Shard shard = new Shard(nodes.indexOf(nodeId), nodes.size());
+            State previous = state;
+            state = new State(leader, shard, startedAt + leaseTtlMs - heartbeatMs);
+            if (previous == null || previous.leader() != leader) {
+                logger.info("Instance {} {} leader", nodeId, leader ? "là" : "không là");
+            }
+            if (previous == null || !previous.shard().equals(shard)) {
+                logger.info("Instance {} nhận phần việc {}/{}", nodeId, shard.index() + 1, shard.count());
+            }
+        } catch (RuntimeException e) {
+            // Giữ vai trò cũ tới validUntil; heartbeat sau thử lại
+            logger.warn("Heartbeat của instance {} lỗi: {}", nodeId, e.toString());
+        }
+    }
+
+    /**
+     * Instance đang giữ lease leader (và lease còn hiệu lực).
+     */
+    public boolean isLeader() {
+        State current = state;
+        return current != null && current.leader() && System.currentTimeMillis() < current.validUntil();
+    }
+
+    /**
+     * Phần việc của instance, hoặc null nếu instance chưa (hoặc không còn) được xác nhận là đang sống;
+     * khi đó job chia việc nên bỏ qua lượt chạy.
+     */
+    public Shard currentShard() {
+        State current = state;
+        return current != null && System.currentTimeMillis() < current.validUntil() ? current.shard() : null;
+    }
+
+    public int getLiveNodeCount() {
+        Shard shard = currentShard();
+        return shard != null ? shard.count() : 0;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Thuê một trong count lease "&lt;prefix&gt;&lt;i&gt;" (i nhỏ nhất còn trống), dùng cho giá trị phải khác nhau giữa
+     * các instance đang sống. Lease được gia hạn cùng heartbeat; nếu bị mất, heartbeat thuê slot trống khác.
+     * @return slot đang thuê
+     * @throws IllegalStateException nếu mọi slot đều đang bị instance khác giữ
+     */
+    public int acquireSlot(String prefix, int count) {
+        Slot slot = slots.computeIfAbsent(prefix, key -> new Slot(count));
+        LocalDateTime now = LocalDateTime.now();
+        renewSlot(prefix, slot, now, now.plusNanos(leaseTtlMs * 1_000_000));
+        int held = slot.held;
+        if (held < 0) {
+            throw new IllegalStateException("Không còn slot " + prefix + " trống (" + count + " slot)");
+        }
+        return held;
+    }
+
+    /**
+     * Slot đang thuê, hoặc -1 nếu chưa thuê được hay vai trò của instance đã hết hiệu lực (lease có thể đã
+     * hết hạn và bị instance khác nhận).
+     */
+    public int heldSlot(String prefix) {
+        Slot slot = slots.get(prefix);
+        return slot != null && currentShard() != null ? slot.held : -1;
+    }
+
+    private void renewSlot(String prefix, Slot slot, LocalDateTime now, LocalDateTime expiresAt) {
+        synchronized (slot) {
+            int previous = slot.held;
+            if (previous >= 0 && acquire(prefix + previous, now, expiresAt)) {
+                return;
+            }
+            slot.held = -1;
+            for (int i = 0; i < slot.count; i++) {
+                if (acquire(prefix + i, now, expiresAt)) {
+                    slot.held = i;
+                    break;
+                }
+            }
+            if (previous >= 0) {
+                logger.warn("Instance {} mất lease {}{}, chuyển sang slot {}", nodeId, prefix, previous, slot.held);
+            }
+        }
+    }
+
+    private boolean acquire(String name, LocalDateTime now, LocalDateTime expiresAt) {
+        Integer updated = transactionTemplate.execute(status -> leaseRepository.tryAcquire(name, nodeId, now, expiresAt));
+        if (updated != null && updated > 0) {
+            return true;
+        }
+        // Chưa có dòng thì tạo; nếu instance khác tạo cùng lúc thì câu INSERT của một bên lỗi khóa chính
+        try {
+            return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+                if (leaseRepository.existsById(name)) {
+                    return false;
+                }
+                SchedulerLease lease = new SchedulerLease();
+                lease.setLeaseName(name);
+                lease.setOwner(nodeId);
+                lease.setAcquiredAt(now);
+                lease.setRenewedAt(now);
+                lease.setExpiresAt(expiresAt);
+                entityManager.persist(lease);
+                entityManager.flush();
+                return true;
+            }));
+        } catch (DataIntegrityViolationException | PersistenceException e) {
+            logger.debug("Lease {} vừa được instance khác tạo", name);
+            return false;
+        }
+    }
+
+    private static String defaultNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            host = "localhost";
+        }
+        return host + "-" + ProcessHandle.current().pid() + "-"
+                + Integer.toHexString(ThreadLocalRandom.current().nextInt(0x10000));
+    }
+}
@@ -2,7 +2,9 @@ package com.coffeeshop.service;
 
 import com.coffeeshop.entity.User;
 import com.coffeeshop.repository.UserRepository;
+import com.coffeeshop.security.BranchUserDetails;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.authority.AuthorityUtils;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -18,12 +20,10 @@ public class CustomUserDetailsService implements UserDetailsService {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException("Không tìm thấy người dùng: " + username));
         // Có thể custom authorities/roles ở đây nếu cần
-        return org.springframework.security.core.userdetails.User.builder()
-                .username(user.getUsername())
-                .password(user.getPassword()) // Đã mã hóa
-                .authorities(user.getRole().name()) // "ROLE_ADMIN" hoặc "ROLE_CUSTOMER"
-                .accountLocked(!user.getIsActive())
-                .disabled(!user.getIsActive())
-                .build();
+        return new BranchUserDetails(user.getUsername(),
+                user.getPassword(), // Đã mã hóa
+                user.getIsActive(), user.getIsActive(),
+                AuthorityUtils.createAuthorityList(user.getRole().name()), // "ROLE_ADMIN" hoặc "ROLE_CUSTOMER"
+                user.getBranchId());
     }
 } 
\ No newline at end of file
@@ -0,0 +1,71 @@
+package com.coffeeshop.service;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Sắp xếp lại displayOrder của sản phẩm/danh mục bằng một câu UPDATE ... CASE duy nhất thay vì
+ * save từng dòng. Câu UPDATE hàng loạt cũng làm Hibernate bỏ region cache của entity và các truy vấn
+ * cache liên quan, nên lần đọc sau thấy thứ tự mới.
+ */
+@Component
+public class DisplayOrderUpdater {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Kiểm tra danh sách reorder: id và displayOrder không được thiếu, mỗi id chỉ xuất hiện một lần.
+     * Trả về map id -> displayOrder giữ nguyên thứ tự gửi lên.
+     */
+    public static <T> Map<Integer, Integer> toIdToOrder(List<T> items, Function<T, Integer> idOf, Function<T, Integer> orderOf) {
+        Map<Integer, Integer> idToOrder = new LinkedHashMap<>();
+        for (T item : items) {
+            Integer id = idOf.apply(item);
+            Integer displayOrder = orderOf.apply(item);
+            if (id == null || displayOrder == null) {
+                throw new IllegalArgumentException("Thiếu id hoặc displayOrder trong danh sách reorder!");
+            }
+            if (idToOrder.put(id, displayOrder) != null) {
+                throw new IllegalArgumentException("ID bị trùng trong danh sách reorder: " + id);
+            }
+        }
+        return idToOrder;
+    }
+
+    /**
+     * Ghi displayOrder mới cho các entity đã nạp (và đã kiểm tra tồn tại) trong transaction hiện tại.
+     * Các entity được tách khỏi persistence context để người gọi gán giá trị mới và trả về
+     * mà Hibernate không sinh thêm UPDATE từng dòng khi flush.
+     */
+    public void apply(Class<?> entityClass, Collection<?> loaded, Map<Integer, Integer> idToOrder, LocalDateTime now) {
+        StringBuilder jpql = new StringBuilder("UPDATE ").append(entityClass.getSimpleName())
+                .append(" e SET e.displayOrder = CASE e.id");
+        for (int i = 0; i < idToOrder.size(); i++) {
+            jpql.append(" WHEN :id").append(i).append(" THEN :order").append(i);
+        }
+        jpql.append(" ELSE e.displayOrder END, e.updatedAt = :now WHERE e.id IN :ids");
+
+        Query query = entityManager.createQuery(jpql.toString());
+        int i = 0;
+        for (Map.Entry<Integer, Integer> entry : idToOrder.entrySet()) {
+            query.setParameter("id" + i, entry.getKey());
+            query.setParameter("order" + i, entry.getValue());
+            i++;
+        }
+        query.setParameter("now", now);
+        query.setParameter("ids", idToOrder.keySet());
+        query.executeUpdate();
+
+        loaded.forEach(entityManager::detach);
+    }
+}
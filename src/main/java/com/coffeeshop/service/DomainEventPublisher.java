@@ -0,0 +1,82 @@
+package com.coffeeshop.service;
+
+import com.coffeeshop.entity.OutboxEvent;
+import com.coffeeshop.event.DomainEvent;
+import com.coffeeshop.event.OrderCreatedEvent;
+import com.coffeeshop.event.OrderStatusChangedEvent;
+import com.coffeeshop.event.PaymentCompletedEvent;
+import com.coffeeshop.event.ReservationChangedEvent;
+import com.coffeeshop.event.WaitlistChangedEvent;
+import com.coffeeshop.repository.OutboxEventRepository;
+import com.coffeeshop.tenant.BranchContext;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Ghi DomainEvent vào bảng outbox_events trong transaction hiện tại: sự kiện chỉ tồn tại
+ * khi thay đổi dữ liệu đi kèm được commit, và không mất nếu ứng dụng dừng trước khi phát.
+ * Việc phát tới các @EventListener do OutboxRelay đảm nhận.
+ */
+@Service
+public class DomainEventPublisher {
+
+    // Tên lưu trong cột event_type -> lớp sự kiện
+    static final Map<String, Class<? extends DomainEvent>> EVENT_TYPES = List.of(
+            OrderCreatedEvent.class,
+            OrderStatusChangedEvent.class,
+            PaymentCompletedEvent.class,
+            ReservationChangedEvent.class,
+            WaitlistChangedEvent.class
+    ).stream().collect(Collectors.toMap(Class::getSimpleName, Function.identity()));
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publish(DomainEvent event) {
+        String eventType = event.getClass().getSimpleName();
+        if (!EVENT_TYPES.containsKey(eventType)) {
+            throw new IllegalArgumentException("Unknown domain event type: " + eventType);
+        }
+        LocalDateTime now = LocalDateTime.now();
+        OutboxEvent row = new OutboxEvent();
+        row.setAggregateType(event.aggregateType());
+        row.setAggregateId(event.aggregateId());
+        row.setBranchId(BranchContext.current());
+        row.setEventType(eventType);
+        try {
+            row.setPayload(objectMapper.writeValueAsString(event));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize domain event " + eventType, e);
+        }
+        row.setCreatedAt(now);
+        row.setNextAttemptAt(now);
+        outboxEventRepository.save(row);
+
+        // Phát ngay sau commit thay vì chờ lần quét tiếp theo của relay
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                outboxRelay.wakeUp();
+            }
+        });
+    }
+}
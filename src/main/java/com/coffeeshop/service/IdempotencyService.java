@@ -0,0 +1,242 @@
+package com.coffeeshop.service;
+
+import com.coffeeshop.entity.IdempotencyRecord;
+import com.coffeeshop.enums.IdempotencyStatus;
+import com.coffeeshop.exception.IdempotencyKeyConflictException;
+import com.coffeeshop.repository.IdempotencyRecordRepository;
+import com.coffeeshop.tenant.BranchContext;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Chống xử lý trùng cho các API tạo mới khi client gửi lại cùng Idempotency-Key.
+ *
+ * - Lần đầu: giữ key (bảng idempotency_keys), thực thi và lưu response trong idempotencyTtlMs.
+ * - Gửi lại sau khi đã xong: trả lại response đã lưu, không chạy lại transaction.
+ * - Gửi lại khi lần đầu còn đang chạy: chờ tối đa idempotencyWaitTimeoutMs rồi dùng kết quả của lần đầu.
+ * - Cùng key nhưng nội dung khác: từ chối (409).
+ * Lần thực thi lỗi không được lưu để client có thể thử lại với cùng key.
+ *
+ * Key được tách theo scope (API), username và chi nhánh. Vì key nằm trong DB nên request gửi lại tới
+ * instance khác vẫn được nhận ra, và key chỉ bị xóa khi đã hết hạn.
+ *
+ * Action chạy trong cùng transaction với việc ghi kết quả: nếu action commit thì key chắc chắn ở trạng thái
+ * COMPLETED. Key đang xử lý quá idempotencyWaitTimeoutMs được coi là bỏ dở và có thể được request khác nhận
+ * lại; khi đó lần xử lý cũ không ghi được kết quả và bị rollback, nên action không bị commit hai lần.
+ */
+@Service
+public class IdempotencyService {
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyService.class);
+
+    private static final int MAX_KEY_LENGTH = 100;
+    private static final long MAX_POLL_INTERVAL_MS = 500;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Autowired
+    private ClusterService clusterService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${app.idempotencyTtlMs:86400000}")
+    private long ttlMs;
+
+    // Thời gian tối đa một request trùng chờ request gốc đang chạy
+    @Value("${app.idempotencyWaitTimeoutMs:30000}")
+    private long waitTimeoutMs;
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Thực thi action một lần duy nhất cho mỗi (scope, username, chi nhánh, idempotencyKey).
+     * Không có key thì chạy action bình thường. responseType dùng để đọc lại response đã lưu.
+     */
+    public <T> T execute(String scope, String username, String idempotencyKey, Object request, Class<T> responseType,
+                         Supplier<T> action) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return action.get();
+        }
+        if (idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency-Key không được dài quá " + MAX_KEY_LENGTH + " ký tự");
+        }
+        int branchId = BranchContext.current();
+        String fingerprint = fingerprint(request);
+        long deadline = System.currentTimeMillis() + waitTimeoutMs;
+        long pollMs = 20;
+
+        while (true) {
+            LocalDateTime now = LocalDateTime.now();
+            Optional<IdempotencyRecord> existing = transactionTemplate.execute(status -> {
+                Optional<IdempotencyRecord> found = idempotencyRecordRepository
+                        .findByScopeAndUsernameAndBranchIdAndIdempotencyKey(scope, username, branchId, idempotencyKey);
+                // Tách khỏi persistence context (open-in-view giữ nó suốt request) để lượt sau đọc lại từ DB
+                found.ifPresent(entityManager::detach);
+                return found;
+            });
+            if (existing.isEmpty()) {
+                IdempotencyRecord claimed = tryInsert(scope, username, branchId, idempotencyKey, fingerprint, now);
+                if (claimed != null) {
+                    return runClaimed(claimed.getId(), claimed.getClaimToken(), responseType, action);
+                }
+                continue;   // request khác vừa giữ key
+            }
+            IdempotencyRecord record = existing.get();
+            if (record.getExpiresAt().isBefore(now)) {
+                transactionTemplate.execute(status -> idempotencyRecordRepository.deleteIfExpired(record.getId(), now));
+                continue;
+            }
+            if (!record.getFingerprint().equals(fingerprint)) {
+                throw new IdempotencyKeyConflictException(
+                        "Idempotency-Key đã được dùng cho một yêu cầu khác", idempotencyKey);
+            }
+            if (record.getStatus() == IdempotencyStatus.COMPLETED) {
+                return readResponse(record.getResponseBody(), responseType);
+            }
+            String token = UUID.randomUUID().toString();
+            LocalDateTime staleBefore = now.minusNanos(waitTimeoutMs * 1_000_000);
+            Integer takenOver = transactionTemplate.execute(status -> idempotencyRecordRepository.takeOver(
+                    record.getId(), token, now, staleBefore, IdempotencyStatus.IN_PROGRESS));
+            if (takenOver != null && takenOver > 0) {
+                logger.warn("Nhận lại Idempotency-Key {} của {} bị bỏ dở từ {}", idempotencyKey, username,
+                        record.getClaimedAt());
+                return runClaimed(record.getId(), token, responseType, action);
+            }
+            if (System.currentTimeMillis() >= deadline) {
+                throw new IdempotencyKeyConflictException(
+                        "Yêu cầu với Idempotency-Key này đang được xử lý, vui lòng thử lại sau", idempotencyKey);
+            }
+            sleep(pollMs);
+            pollMs = Math.min(pollMs * 2, MAX_POLL_INTERVAL_MS);
+        }
+    }
+
+    // Dọn các key đã hết hạn, kể cả key bị bỏ dở
+    @Scheduled(fixedDelayString = "${app.idempotencyCleanupIntervalMs:300000}")
+    public void cleanupExpiredEntries() {
+        if (!clusterService.isLeader()) {
+            return;
+        }
+        Integer removed = transactionTemplate.execute(status ->
+                idempotencyRecordRepository.deleteExpired(LocalDateTime.now()));
+        if (removed != null && removed > 0) {
+            logger.debug("Đã xóa {} idempotency key hết hạn", removed);
+        }
+    }
+
+    private IdempotencyRecord tryInsert(String scope, String username, int branchId, String idempotencyKey,
+                                        String fingerprint, LocalDateTime now) {
+        IdempotencyRecord record = new IdempotencyRecord();
+        record.setScope(scope);
+        record.setUsername(username);
+        record.setBranchId(branchId);
+        record.setIdempotencyKey(idempotencyKey);
+        record.setFingerprint(fingerprint);
+        record.setStatus(IdempotencyStatus.IN_PROGRESS);
+        record.setClaimToken(UUID.randomUUID().toString());
+        record.setClaimedAt(now);
+        record.setExpiresAt(now.plusNanos(ttlMs * 1_000_000));
+        try {
+            return transactionTemplate.execute(status -> {
+                IdempotencyRecord saved = idempotencyRecordRepository.saveAndFlush(record);
+                entityManager.detach(saved);
+                return saved;
+            });
+        } catch (DataIntegrityViolationException e) {
+            return null;
+        }
+    }
+
+    private <T> T runClaimed(Long id, String token, Class<T> responseType, Supplier<T> action) {
+        try {
+            return transactionTemplate.execute(status -> {
+                T result = action.get();
+                LocalDateTime expiresAt = LocalDateTime.now().plusNanos(ttlMs * 1_000_000);
+                int updated = idempotencyRecordRepository.complete(id, token, writeResponse(result, responseType),
+                        expiresAt, IdempotencyStatus.COMPLETED, IdempotencyStatus.IN_PROGRESS);
+                if (updated == 0) {
+                    // Rollback action: request khác đã nhận lại key và sẽ (hoặc đã) ghi kết quả của nó
+                    throw new IdempotencyKeyConflictException(
+                            "Yêu cầu với Idempotency-Key này đã được xử lý lại bởi yêu cầu khác, vui lòng thử lại");
+                }
+                return result;
+            });
+        } catch (RuntimeException e) {
+            try {
+                transactionTemplate.execute(status -> idempotencyRecordRepository.release(id, token));
+            } catch (RuntimeException releaseError) {
+                // Key bỏ dở sẽ được nhận lại sau idempotencyWaitTimeoutMs
+                logger.warn("Không trả được Idempotency-Key {}: {}", id, releaseError.toString());
+            }
+            throw e;
+        }
+    }
+
+    private <T> String writeResponse(T result, Class<T> responseType) {
+        try {
+            return objectMapper.writerFor(responseType).writeValueAsString(result);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Không lưu được response cho Idempotency-Key", e);
+        }
+    }
+
+    private <T> T readResponse(String body, Class<T> responseType) {
+        try {
+            return objectMapper.readValue(body, responseType);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Không đọc được response đã lưu cho Idempotency-Key", e);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Bị gián đoạn khi chờ yêu cầu trùng Idempotency-Key", e);
+        }
+    }
+
+    private String fingerprint(Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] body = objectMapper.writeValueAsString(request).getBytes(StandardCharsets.UTF_8);
+            return HexFormat.of().formatHex(digest.digest(body));
+        } catch (NoSuchAlgorithmException | JsonProcessingException e) {
+            throw new IllegalStateException("Không tính được fingerprint cho yêu cầu", e);
+        }
+    }
+}
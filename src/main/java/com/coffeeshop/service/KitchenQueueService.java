@@ -0,0 +1,390 @@
+package com.coffeeshop.service;
+
+import com.coffeeshop.entity.Order;
+import com.coffeeshop.entity.OrderItem;
+import com.coffeeshop.event.OrderStatusChangedEvent;
+import com.coffeeshop.enums.OrderItemStatus;
+import com.coffeeshop.enums.OrderStatus;
+import com.coffeeshop.enums.PaymentStatus;
+import com.coffeeshop.exception.BusinessLogicException;
+import com.coffeeshop.repository.OrderItemRepository;
+import com.coffeeshop.scheduler.BranchTaskRunner;
+import com.coffeeshop.tenant.BranchContext;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Hàng đợi bếp: món của đơn đã thanh toán được chia về các trạm theo danh mục sản phẩm,
+ * nhân viên nhận (claim) và báo xong (complete) từng món; thời gian dự kiến xong được
+ * tính từ độ dài hàng đợi của trạm.
+ *
+ * Trạng thái hàng đợi nằm trong bộ nhớ và được dựng lại từ DB khi khởi động
+ * (món ORDERED/PREPARING của các đơn đã thanh toán, chưa phục vụ). Trạng thái món trong DB được cập nhật
+ * khi nhận (PREPARING) và khi xong (READY).
+ *
+ * Mỗi chi nhánh có bộ trạm riêng (cùng cấu hình kitchenStations); màn hình bếp chỉ thấy trạm và món
+ * của chi nhánh trong request.
+ *
+ * Khi chạy nhiều instance, món chỉ được đưa vào bếp trên leader (sự kiện thanh toán) còn việc nhận/báo xong
+ * chạy ở instance nhận request, nên mỗi instance đối chiếu hàng đợi với DB mỗi clusterFollowerRefreshMs.
+ */
+@Service
+public class KitchenQueueService {
+    private static final Logger logger = LoggerFactory.getLogger(KitchenQueueService.class);
+
+    private static final List<OrderItemStatus> QUEUEABLE_ITEM_STATUSES =
+            List.of(OrderItemStatus.ORDERED, OrderItemStatus.PREPARING);
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private BranchTaskRunner branchTaskRunner;
+
+    @Autowired
+    private BoardService boardService;
+
+    @Autowired
+    private ClusterService clusterService;
+
+    // Gộp danh mục vào trạm: "Tên danh mục:trạm,...". Danh mục không khai báo có trạm riêng theo tên.
+    @Value("${app.kitchenStations:}")
+    private String stationMapping;
+
+    // Số nhân viên mỗi trạm: "trạm:số người,..."
+    @Value("${app.kitchenStationWorkers:}")
+    private String workerMapping;
+
+    @Value("${app.kitchenDefaultWorkers:1}")
+    private int defaultWorkers;
+
+    private final Map<String, String> stationByCategory = new HashMap<>();
+    private final Map<String, Integer> workersByStation = new HashMap<>();
+    private final Map<Integer, Map<String, KitchenStation>> stationsByBranch = new ConcurrentHashMap<>();
+    private final Map<Integer, KitchenTicket> ticketsByItem = new ConcurrentHashMap<>();
+    private final Map<Integer, Set<KitchenTicket>> ticketsByOrder = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    // Id các món thay đổi ở instance này kể từ lượt đối chiếu với DB gần nhất
+    private final AtomicReference<Set<Integer>> changedSinceSync = new AtomicReference<>(ConcurrentHashMap.newKeySet());
+
+    @PostConstruct
+    void parseConfiguration() {
+        parsePairs(stationMapping).forEach((category, station) ->
+                stationByCategory.put(category.toLowerCase(Locale.ROOT), station.toLowerCase(Locale.ROOT)));
+        parsePairs(workerMapping).forEach((station, workers) ->
+                workersByStation.put(station.toLowerCase(Locale.ROOT), Integer.parseInt(workers)));
+    }
+
+    // Dựng lại hàng đợi sau khi khởi động
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildFromDatabase() {
+        List<OrderItem> items = branchTaskRunner.readAllBranches(this::findQueueableItems);
+        LocalDateTime now = LocalDateTime.now();
+        items.forEach(item -> add(item, now));
+        if (!items.isEmpty()) {
+            logger.info("Khôi phục {} món vào hàng đợi bếp", items.size());
+        }
+    }
+
+    /**
+     * Đối chiếu hàng đợi với DB khi có nhiều hơn một instance: thêm món còn thiếu, chuyển sang đang làm món
+     * đã được nhận ở instance khác, bỏ món đã xong hoặc đơn đã hủy. Món thay đổi ở instance này từ lượt trước
+     * được giữ nguyên tới lượt sau: transaction thay đổi nó có thể chưa commit khi đọc DB.
+     */
+    @Scheduled(fixedDelayString = "${app.clusterFollowerRefreshMs:5000}")
+    public void syncWithDatabase() {
+        Set<Integer> changedBefore = changedSinceSync.getAndSet(ConcurrentHashMap.newKeySet());
+        if (clusterService.getLiveNodeCount() <= 1) {
+            return;
+        }
+        List<OrderItem> items = branchTaskRunner.readAllBranches(this::findQueueableItems);
+        Set<Integer> changedDuring = changedSinceSync.get();
+        LocalDateTime now = LocalDateTime.now();
+        Set<Integer> itemIds = new HashSet<>();
+        for (OrderItem item : items) {
+            itemIds.add(item.getId());
+            if (changedBefore.contains(item.getId()) || changedDuring.contains(item.getId())) {
+                continue;
+            }
+            KitchenTicket ticket = ticketsByItem.get(item.getId());
+            if (ticket == null) {
+                add(item, now);
+            } else if (item.getStatus() == OrderItemStatus.PREPARING && !ticket.isClaimed()
+                    && stationOf(ticket).remove(ticket)) {
+                stationOf(ticket).restoreInProgress(ticket, item.getUpdatedAt());
+            }
+        }
+        for (KitchenTicket ticket : ticketsByItem.values()) {
+            Integer itemId = ticket.getOrderItemId();
+            if (!itemIds.contains(itemId) && !changedBefore.contains(itemId) && !changedDuring.contains(itemId)) {
+                stationOf(ticket).remove(ticket);
+                forget(ticket);
+            }
+        }
+    }
+
+    /**
+     * Đưa các món chưa làm của đơn vào hàng đợi. Nếu đang trong transaction thì chờ commit
+     * để không đưa vào bếp món của một đơn bị rollback.
+     */
+    public void enqueueOrder(Integer orderId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    loadAndEnqueue(orderId);
+                }
+            });
+        } else {
+            loadAndEnqueue(orderId);
+        }
+    }
+
+    // Đơn bị admin hủy khi đã thanh toán hoặc đang làm: bỏ các món chưa xong khỏi hàng đợi
+    @EventListener
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        if (event.to() != OrderStatus.CANCELLED) {
+            return;
+        }
+        Set<KitchenTicket> tickets = ticketsByOrder.remove(event.orderId());
+        if (tickets == null) {
+            return;
+        }
+        for (KitchenTicket ticket : tickets) {
+            changed(ticket.getOrderItemId());
+            ticketsByItem.remove(ticket.getOrderItemId(), ticket);
+            stationOf(ticket).remove(ticket);
+        }
+    }
+
+    /**
+     * Nhân viên nhận món ưu tiên nhất của trạm.
+     */
+    @Transactional
+    public Optional<KitchenTicket> claimNext(String stationName, String username) {
+        KitchenStation station = getStation(stationName);
+        LocalDateTime now = LocalDateTime.now();
+        KitchenTicket ticket;
+        while ((ticket = station.claimNext(username, now)) != null) {
+            changed(ticket.getOrderItemId());
+            if (markItem(ticket, OrderItemStatus.ORDERED, OrderItemStatus.PREPARING, now)) {
+                return Optional.of(ticket);
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Nhân viên nhận một món cụ thể.
+     */
+    @Transactional
+    public KitchenTicket claim(Integer orderItemId, String username) {
+        KitchenTicket ticket = getTicket(orderItemId);
+        LocalDateTime now = LocalDateTime.now();
+        changed(orderItemId);
+        if (!stationOf(ticket).claim(ticket, username, now)) {
+            throw new BusinessLogicException("Món đã được nhận bởi người khác", "KITCHEN_ITEM_ALREADY_CLAIMED",
+                    orderItemId);
+        }
+        if (!markItem(ticket, OrderItemStatus.ORDERED, OrderItemStatus.PREPARING, now)) {
+            throw new BusinessLogicException("Món không còn ở trạng thái chờ làm", "KITCHEN_ITEM_STALE", orderItemId);
+        }
+        return ticket;
+    }
+
+    /**
+     * Báo món đã làm xong: món chuyển sang READY và rời hàng đợi.
+     */
+    @Transactional
+    public KitchenTicket complete(Integer orderItemId) {
+        KitchenTicket ticket = getTicket(orderItemId);
+        if (!stationOf(ticket).complete(ticket)) {
+            throw new BusinessLogicException("Món chưa được nhận hoặc đã hoàn thành", "KITCHEN_ITEM_NOT_CLAIMED",
+                    orderItemId);
+        }
+        forget(ticket);
+        if (orderItemRepository.updateStatusIfCurrent(orderItemId, OrderItemStatus.PREPARING, OrderItemStatus.READY,
+                LocalDateTime.now()) == 0) {
+            logger.warn("Món {} không ở trạng thái PREPARING khi hoàn thành", orderItemId);
+        } else {
+            boardService.publishItemStatus(ticket, OrderItemStatus.READY);
+        }
+        return ticket;
+    }
+
+    public Collection<KitchenStation> getStations() {
+        return branchStations().values().stream()
+                .sorted(Comparator.comparing(KitchenStation::getName))
+                .toList();
+    }
+
+    public KitchenStation getStation(String stationName) {
+        KitchenStation station = branchStations().get(stationName.toLowerCase(Locale.ROOT));
+        if (station == null) {
+            throw new IllegalArgumentException("Không tìm thấy trạm: " + stationName);
+        }
+        return station;
+    }
+
+    // Món đang làm trước, sau đó các món chờ theo thứ tự ưu tiên
+    public List<KitchenTicket> getTickets(KitchenStation station) {
+        List<KitchenTicket> tickets = station.inProgressTickets();
+        tickets.sort(Comparator.comparing(KitchenTicket::getClaimedAt));
+        tickets.addAll(station.queuedTickets());
+        return tickets;
+    }
+
+    public long getBacklogMinutes(KitchenStation station) {
+        return station.backlogMinutes(LocalDateTime.now());
+    }
+
+    public LocalDateTime estimateReadyAt(KitchenTicket ticket) {
+        return stationOf(ticket).estimateReadyAt(ticket, LocalDateTime.now());
+    }
+
+    public Optional<LocalDateTime> estimateItemReadyAt(Integer orderItemId) {
+        KitchenTicket ticket = ticketsByItem.get(orderItemId);
+        return ticket == null ? Optional.empty() : Optional.of(estimateReadyAt(ticket));
+    }
+
+    // Đơn xong khi món lâu nhất xong; empty nếu đơn không còn món trong bếp
+    public Optional<LocalDateTime> estimateOrderReadyAt(Integer orderId) {
+        Set<KitchenTicket> tickets = ticketsByOrder.get(orderId);
+        if (tickets == null) {
+            return Optional.empty();
+        }
+        LocalDateTime now = LocalDateTime.now();
+        return tickets.stream()
+                .map(ticket -> stationOf(ticket).estimateReadyAt(ticket, now))
+                .max(Comparator.naturalOrder());
+    }
+
+    private List<OrderItem> findQueueableItems() {
+        return orderItemRepository.findKitchenItemsByOrderStatus(PaymentStatus.PAID,
+                List.of(OrderStatus.PENDING, OrderStatus.PAID, OrderStatus.PREPARING), QUEUEABLE_ITEM_STATUSES);
+    }
+
+    private void loadAndEnqueue(Integer orderId) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            orderItemRepository.findKitchenItemsByOrderId(orderId, QUEUEABLE_ITEM_STATUSES)
+                    .forEach(item -> add(item, now));
+        });
+    }
+
+    private void add(OrderItem item, LocalDateTime now) {
+        Order order = item.getOrder();
+        String stationName = stationFor(item.getProduct().getCategory().getName());
+        int prepMinutes = item.getProduct().getPreparationTime() != null ? item.getProduct().getPreparationTime() : 0;
+        LocalDateTime dueAt = order.getReservation() != null ? order.getReservation().getReservationDatetime() : null;
+        LocalDateTime startBy = dueAt != null ? dueAt.minusMinutes(prepMinutes) : now;
+        KitchenTicket ticket = new KitchenTicket(item.getBranchId(), item.getId(), order.getId(), order.getOrderNumber(),
+                order.getTable().getTableNumber(), item.getProduct().getName(), item.getQuantity(), stationName,
+                prepMinutes, dueAt, startBy, sequence.incrementAndGet());
+        if (ticketsByItem.putIfAbsent(item.getId(), ticket) != null) {
+            return; // Món đã có trong hàng đợi
+        }
+        changed(item.getId());
+        ticketsByOrder.compute(order.getId(), (orderId, tickets) -> {
+            Set<KitchenTicket> result = tickets != null ? tickets : ConcurrentHashMap.newKeySet();
+            result.add(ticket);
+            return result;
+        });
+        KitchenStation station = stationsByBranch.computeIfAbsent(item.getBranchId(), branchId -> new ConcurrentHashMap<>())
+                .computeIfAbsent(stationName, name -> new KitchenStation(name, workersByStation.getOrDefault(name, defaultWorkers)));
+        if (item.getStatus() == OrderItemStatus.PREPARING) {
+            station.restoreInProgress(ticket, item.getUpdatedAt());
+        } else {
+            station.enqueue(ticket);
+        }
+    }
+
+    // Cập nhật trạng thái món trong DB; nếu món đã bị thay đổi ở nơi khác thì bỏ khỏi hàng đợi
+    private boolean markItem(KitchenTicket ticket, OrderItemStatus expected, OrderItemStatus target, LocalDateTime now) {
+        if (orderItemRepository.updateStatusIfCurrent(ticket.getOrderItemId(), expected, target, now) == 1) {
+            boardService.publishItemStatus(ticket, target);
+            return true;
+        }
+        stationOf(ticket).remove(ticket);
+        forget(ticket);
+        return false;
+    }
+
+    private void forget(KitchenTicket ticket) {
+        changed(ticket.getOrderItemId());
+        ticketsByItem.remove(ticket.getOrderItemId(), ticket);
+        ticketsByOrder.computeIfPresent(ticket.getOrderId(), (orderId, tickets) -> {
+            tickets.remove(ticket);
+            return tickets.isEmpty() ? null : tickets;
+        });
+    }
+
+    private void changed(Integer orderItemId) {
+        changedSinceSync.get().add(orderItemId);
+    }
+
+    private Map<String, KitchenStation> branchStations() {
+        return stationsByBranch.getOrDefault(BranchContext.current(), Map.of());
+    }
+
+    private KitchenStation stationOf(KitchenTicket ticket) {
+        return stationsByBranch.get(ticket.getBranchId()).get(ticket.getStation());
+    }
+
+    // Món của chi nhánh khác được coi như không có trong hàng đợi
+    private KitchenTicket getTicket(Integer orderItemId) {
+        KitchenTicket ticket = ticketsByItem.get(orderItemId);
+        if (ticket == null || ticket.getBranchId() != BranchContext.current()) {
+            throw new IllegalArgumentException("Món " + orderItemId + " không có trong hàng đợi bếp");
+        }
+        return ticket;
+    }
+
+    private String stationFor(String categoryName) {
+        String key = categoryName.toLowerCase(Locale.ROOT);
+        return stationByCategory.getOrDefault(key, key);
+    }
+
+    private static Map<String, String> parsePairs(String value) {
+        Map<String, String> pairs = new HashMap<>();
+        if (value == null || value.isBlank()) {
+            return pairs;
+        }
+        for (String pair : value.split(",")) {
+            String[] parts = pair.split(":", 2);
+            if (parts.length == 2 && !parts[0].isBlank() && !parts[1].isBlank()) {
+                pairs.put(parts[0].trim(), parts[1].trim());
+            }
+        }
+        return pairs;
+    }
+}
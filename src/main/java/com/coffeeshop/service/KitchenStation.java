@@ -0,0 +1,121 @@
+package com.coffeeshop.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Một trạm chế biến (quầy pha chế, bếp bánh...).
+ * Hàng đợi là ConcurrentSkipListSet sắp theo KitchenTicket.PRIORITY nên thêm/lấy món
+ * không cần khóa; mỗi món chỉ được một nhân viên nhận nhờ remove/pollFirst nguyên tử.
+ */
+public class KitchenStation {
+
+    private final String name;
+    private final int workers;
+    private final ConcurrentSkipListSet<KitchenTicket> queued = new ConcurrentSkipListSet<>(KitchenTicket.PRIORITY);
+    private final Map<Integer, KitchenTicket> inProgress = new ConcurrentHashMap<>();
+
+    KitchenStation(String name, int workers) {
+        this.name = name;
+        this.workers = Math.max(1, workers);
+    }
+
+    void enqueue(KitchenTicket ticket) {
+        queued.add(ticket);
+    }
+
+    // Nhận món ưu tiên nhất đang chờ, null nếu trạm trống
+    KitchenTicket claimNext(String username, LocalDateTime now) {
+        KitchenTicket ticket = queued.pollFirst();
+        if (ticket != null) {
+            startWork(ticket, username, now);
+        }
+        return ticket;
+    }
+
+    // Nhận một món cụ thể; false nếu món đã được người khác nhận
+    boolean claim(KitchenTicket ticket, String username, LocalDateTime now) {
+        if (!queued.remove(ticket)) {
+            return false;
+        }
+        startWork(ticket, username, now);
+        return true;
+    }
+
+    // Khôi phục món đang làm dở (sau khi khởi động lại)
+    void restoreInProgress(KitchenTicket ticket, LocalDateTime claimedAt) {
+        ticket.claim(null, claimedAt);
+        inProgress.put(ticket.getOrderItemId(), ticket);
+    }
+
+    boolean complete(KitchenTicket ticket) {
+        return inProgress.remove(ticket.getOrderItemId(), ticket);
+    }
+
+    boolean remove(KitchenTicket ticket) {
+        return queued.remove(ticket) | inProgress.remove(ticket.getOrderItemId(), ticket);
+    }
+
+    /**
+     * Ước tính thời điểm món xong: khối lượng việc còn lại của các món đang làm và các món
+     * xếp trước nó được chia đều cho số nhân viên của trạm, cộng thời gian làm chính món đó.
+     * Món đặt trước không xong sớm hơn giờ hẹn.
+     */
+    LocalDateTime estimateReadyAt(KitchenTicket ticket, LocalDateTime now) {
+        LocalDateTime readyAt;
+        if (ticket.isClaimed()) {
+            readyAt = ticket.getClaimedAt().plusMinutes(ticket.getPrepMinutes());
+            return readyAt.isBefore(now) ? now : readyAt;
+        }
+        long secondsAhead = remainingInProgressSeconds(now);
+        for (KitchenTicket ahead : queued.headSet(ticket)) {
+            secondsAhead += ahead.getPrepMinutes() * 60L;
+        }
+        readyAt = now.plusSeconds(secondsAhead / workers + ticket.getPrepMinutes() * 60L);
+        if (ticket.getDueAt() != null && readyAt.isBefore(ticket.getDueAt())) {
+            return ticket.getDueAt();
+        }
+        return readyAt;
+    }
+
+    // Tổng số phút việc đang chờ và đang làm dở, chia cho số nhân viên
+    long backlogMinutes(LocalDateTime now) {
+        long seconds = remainingInProgressSeconds(now);
+        for (KitchenTicket ticket : queued) {
+            seconds += ticket.getPrepMinutes() * 60L;
+        }
+        return seconds / workers / 60;
+    }
+
+    private long remainingInProgressSeconds(LocalDateTime now) {
+        long seconds = 0;
+        for (KitchenTicket ticket : inProgress.values()) {
+            long elapsed = Duration.between(ticket.getClaimedAt(), now).getSeconds();
+            seconds += Math.max(0, ticket.getPrepMinutes() * 60L - elapsed);
+        }
+        return seconds;
+    }
+
+    private void startWork(KitchenTicket ticket, String username, LocalDateTime now) {
+        ticket.claim(username, now);
+        inProgress.put(ticket.getOrderItemId(), ticket);
+    }
+
+    List<KitchenTicket> queuedTickets() {
+        return new ArrayList<>(queued);
+    }
+
+    List<KitchenTicket> inProgressTickets() {
+        return new ArrayList<>(inProgress.values());
+    }
+
+    public String getName() { return name; }
+    public int getWorkers() { return workers; }
+    public int getQueueDepth() { return queued.size(); }
+    public int getInProgressCount() { return inProgress.size(); }
+}
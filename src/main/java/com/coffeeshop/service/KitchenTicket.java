@@ -0,0 +1,73 @@
+package com.coffeeshop.service;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+
+/**
+ * Một món (OrderItem) đang nằm trong hàng đợi bếp.
+ * startBy = thời điểm nên bắt đầu làm: giờ đặt bàn - thời gian chế biến với đơn đặt trước,
+ * thời điểm vào hàng đợi với đơn tại chỗ.
+ */
+public class KitchenTicket {
+
+    // Thứ tự ưu tiên trong trạm: startBy sớm trước, cùng startBy thì vào trước làm trước
+    static final Comparator<KitchenTicket> PRIORITY = Comparator
+            .comparing(KitchenTicket::getStartBy)
+            .thenComparingLong(KitchenTicket::getSequence);
+
+    private final Integer branchId;
+    private final Integer orderItemId;
+    private final Integer orderId;
+    private final String orderNumber;
+    private final String tableNumber;
+    private final String productName;
+    private final int quantity;
+    private final String station;
+    private final int prepMinutes;
+    private final LocalDateTime dueAt;
+    private final LocalDateTime startBy;
+    private final long sequence;
+    private volatile String claimedBy;
+    private volatile LocalDateTime claimedAt;
+
+    KitchenTicket(Integer branchId, Integer orderItemId, Integer orderId, String orderNumber, String tableNumber, String productName,
+                  int quantity, String station, int prepMinutes, LocalDateTime dueAt, LocalDateTime startBy,
+                  long sequence) {
+        this.branchId = branchId;
+        this.orderItemId = orderItemId;
+        this.orderId = orderId;
+        this.orderNumber = orderNumber;
+        this.tableNumber = tableNumber;
+        this.productName = productName;
+        this.quantity = quantity;
+        this.station = station;
+        this.prepMinutes = prepMinutes;
+        this.dueAt = dueAt;
+        this.startBy = startBy;
+        this.sequence = sequence;
+    }
+
+    void claim(String username, LocalDateTime now) {
+        this.claimedBy = username;
+        this.claimedAt = now;
+    }
+
+    public boolean isClaimed() {
+        return claimedAt != null;
+    }
+
+    public Integer getBranchId() { return branchId; }
+    public Integer getOrderItemId() { return orderItemId; }
+    public Integer getOrderId() { return orderId; }
+    public String getOrderNumber() { return orderNumber; }
+    public String getTableNumber() { return tableNumber; }
+    public String getProductName() { return productName; }
+    public int getQuantity() { return quantity; }
+    public String getStation() { return station; }
+    public int getPrepMinutes() { return prepMinutes; }
+    public LocalDateTime getDueAt() { return dueAt; }
+    public LocalDateTime getStartBy() { return startBy; }
+    public long getSequence() { return sequence; }
+    public String getClaimedBy() { return claimedBy; }
+    public LocalDateTime getClaimedAt() { return claimedAt; }
+}
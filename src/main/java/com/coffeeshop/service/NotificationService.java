@@ -54,6 +54,11 @@ public interface NotificationService {
      */
     void createReservationNotification(User user, Reservation reservation, NotificationType type, String title, String message);
 
+    /**
+     * Helper method to create notifications not tied to an order, payment or reservation
+     */
+    void createUserNotification(User user, NotificationType type, String title, String message);
+
     /**
      * Check if the authenticated user can access notifications for the given user ID
      */
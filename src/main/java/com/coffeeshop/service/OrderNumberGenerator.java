@@ -0,0 +1,105 @@
+package com.coffeeshop.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sinh mã đơn hàng và mã QR thanh toán duy nhất, không dùng khóa (kiểu Snowflake).
+ *
+ * Một id 63 bit gồm: 41 bit thời gian (ms kể từ EPOCH_MS) | 10 bit nodeId | 12 bit sequence.
+ * Mỗi instance dùng một nodeId khác nhau nên id không trùng giữa các instance: gán cố định qua
+ * app.orderNumberNodeId, hoặc (mặc định, -1) thuê một slot "order-node:&lt;n&gt;" trong scheduler_leases qua
+ * ClusterService. Slot được gia hạn cùng heartbeat; khi vai trò của instance hết hiệu lực thì không cấp id
+ * nữa, vì instance khác có thể đã nhận slot đó. Trong một instance, thời gian và sequence được cập nhật bằng CAS trên một
+ * AtomicLong. Hết 4096 sequence trong một ms thì mượn ms kế tiếp thay vì chờ, đồng hồ lùi
+ * thì tiếp tục từ mốc cũ, nên id luôn tăng.
+ *
+ * Id được mã hóa base36 độ dài cố định: "ORD-" + 13 ký tự (vừa cột order_number 20 ký tự),
+ * sắp xếp theo chuỗi cũng là theo thời gian tạo.
+ */
+@Component
+public class OrderNumberGenerator {
+    private static final Logger logger = LoggerFactory.getLogger(OrderNumberGenerator.class);
+
+    private static final long EPOCH_MS = 1704067200000L; // 2024-01-01T00:00:00Z
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    private static final int MAX_NODE_ID = (1 << NODE_BITS) - 1;
+    private static final int CODE_LENGTH = 13; // Long.MAX_VALUE ở base36 có 13 ký tự
+
+    public static final String ORDER_NUMBER_PREFIX = "ORD-";
+    public static final String QR_CODE_PREFIX = "ORDER-QR-";
+
+    private static final String NODE_SLOT_PREFIX = "order-node:";
+
+    private final long configuredNodeId;   // -1: dùng slot thuê qua ClusterService
+    private final ClusterService clusterService;
+
+    // (timestamp << SEQUENCE_BITS) | sequence của id được cấp gần nhất
+    private final AtomicLong lastState = new AtomicLong();
+
+    @Autowired
+    public OrderNumberGenerator(@Value("${app.orderNumberNodeId:-1}") int configuredNodeId, ClusterService clusterService) {
+        if (configuredNodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("app.orderNumberNodeId phải nằm trong khoảng 0.." + MAX_NODE_ID);
+        }
+        this.configuredNodeId = configuredNodeId;
+        this.clusterService = clusterService;
+        if (configuredNodeId < 0) {
+            int slot = clusterService.acquireSlot(NODE_SLOT_PREFIX, MAX_NODE_ID + 1);
+            logger.info("Mã đơn: instance {} dùng nodeId={} (slot thuê)", clusterService.getNodeId(), slot);
+        }
+    }
+
+    // nodeId cố định, không cần ClusterService (công cụ đo, kiểm tra)
+    public OrderNumberGenerator(int nodeId) {
+        this(requireFixed(nodeId), null);
+    }
+
+    /**
+     * @throws IllegalStateException nếu nodeId là slot thuê và instance không còn giữ được slot
+     */
+    public long nextId() {
+        long nodeId = getNodeId();
+        if (nodeId < 0) {
+            throw new IllegalStateException("Instance không còn giữ slot nodeId của mã đơn");
+        }
+        long now = System.currentTimeMillis() - EPOCH_MS;
+        long state = lastState.updateAndGet(prev ->
+                now > (prev >>> SEQUENCE_BITS) ? now << SEQUENCE_BITS : prev + 1);
+        long timestamp = state >>> SEQUENCE_BITS;
+        long sequence = state & ((1L << SEQUENCE_BITS) - 1);
+        return (timestamp << (NODE_BITS + SEQUENCE_BITS)) | (nodeId << SEQUENCE_BITS) | sequence;
+    }
+
+    public String orderNumber(long id) {
+        return ORDER_NUMBER_PREFIX + encode(id);
+    }
+
+    public String qrCode(long id) {
+        return QR_CODE_PREFIX + encode(id);
+    }
+
+    // -1 nếu slot thuê không còn hiệu lực
+    public long getNodeId() {
+        return configuredNodeId >= 0 ? configuredNodeId : clusterService.heldSlot(NODE_SLOT_PREFIX);
+    }
+
+    private static String encode(long id) {
+        String code = Long.toString(id, 36).toUpperCase(Locale.ROOT);
+        return "0".repeat(CODE_LENGTH - code.length()) + code;
+    }
+
+    private static int requireFixed(int nodeId) {
+        if (nodeId < 0) {
+            throw new IllegalArgumentException("nodeId phải nằm trong khoảng 0.." + MAX_NODE_ID);
+        }
+        return nodeId;
+    }
+}
@@ -3,6 +3,9 @@ package com.coffeeshop.service;
 import com.coffeeshop.entity.Order;
 import com.coffeeshop.entity.OrderItem;
 import com.coffeeshop.enums.OrderStatus;
+import com.coffeeshop.enums.PaymentStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
@@ -12,11 +15,13 @@ import java.time.LocalDateTime;
 import java.util.List;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
-import com.coffeeshop.enums.OrderItemStatus;
 import com.coffeeshop.repository.OrderItemRepository;
+import com.coffeeshop.repository.OrderRepository;
+import com.coffeeshop.tenant.BranchContext;
 
 @Service
 public class OrderSchedulingService {
+    private static final Logger logger = LoggerFactory.getLogger(OrderSchedulingService.class);
 
     @Autowired
     private OrderService orderService;
@@ -27,6 +32,12 @@ public class OrderSchedulingService {
     @Autowired
     private OrderItemRepository orderItemRepository;
 
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private KitchenQueueService kitchenQueueService;
+
     /**
      * Lên lịch để tự động cập nhật trạng thái đơn hàng.
      * Hỗ trợ cả đơn hàng đặt tại chỗ và đơn hàng đặt trước qua reservation.
@@ -63,51 +74,55 @@ public class OrderSchedulingService {
         long delayToStartCooking = Duration.between(now, startTime).toMillis();
         if (delayToStartCooking < 0) delayToStartCooking = 0; // Nếu sát giờ quá, nấu ngay
 
-        taskScheduler.schedule(() -> {
-            Order currentOrder = orderService.getOrderById(order.getId());
-            if (currentOrder.getStatus() == OrderStatus.PENDING) { // Chỉ chuyển nếu vẫn là pending
-                orderService.updateOrderStatus(order.getId(), OrderStatus.PREPARING);
-                System.out.println("Order " + order.getId() + " (Pre-order) is now preparing.");
-            }
-        }, delayToStartCooking, TimeUnit.MILLISECONDS);
-
-        // Lên lịch để chuyển sang "ready"
-        long delayToReady = Duration.between(now, reservationTime).toMillis();
-        if (delayToReady < 0) delayToReady = prepTimeMinutes * 60 * 1000L; // Nếu đã quá giờ hẹn, tính từ bây giờ
-
-        taskScheduler.schedule(() -> {
-            Order currentOrder = orderService.getOrderById(order.getId());
-            if (currentOrder.getStatus() == OrderStatus.PREPARING) {
-                // Nếu logic là chuyển trạng thái của từng OrderItem sang READY:
-                for (OrderItem item : orderItems) {
-                    item.setStatus(OrderItemStatus.READY);
-                }
-                orderItemRepository.saveAll(orderItems);
-                System.out.println("Order " + order.getId() + " (Pre-order) items are now ready for pickup.");
+        // Timer chạy ở luồng khác: giữ chi nhánh của đơn
+        taskScheduler.schedule(BranchContext.wrap(() -> {
+            // Chỉ chuyển nếu vẫn là pending (kiểm tra ngay trong câu UPDATE)
+            if (orderService.updateOrderStatusIfCurrent(order.getId(), OrderStatus.PENDING, OrderStatus.PREPARING).isPresent()) {
+                logger.info("Order {} (pre-order) is now preparing", order.getId());
             }
-        }, delayToReady, TimeUnit.MILLISECONDS);
+        }), delayToStartCooking, TimeUnit.MILLISECONDS);
 
-        System.out.println("Scheduled pre-order " + order.getId() + ". Preparing starts in " + delayToStartCooking/1000/60 + " mins. Ready in " + delayToReady/1000/60 + " mins.");
+        // Món vào hàng đợi bếp ngay, xếp theo giờ hẹn - thời gian chế biến
+        kitchenQueueService.enqueueOrder(order.getId());
+
+        logger.info("Scheduled pre-order {}, preparing starts in {} mins", order.getId(), delayToStartCooking / 1000 / 60);
+    }
+
+    /**
+     * Chuyển sang PREPARING các đơn đặt trước đã thanh toán và đã tới giờ bắt đầu chế biến nhưng timer chưa
+     * chuyển: timer chỉ nằm trong bộ nhớ của instance đã xử lý thanh toán và mất khi instance đó dừng.
+     * Chỉ xét các đơn thuộc phần việc shard; timer và lượt quét cùng chạy thì chỉ một bên chuyển được.
+     *
+     * @return số đơn đã chuyển.
+     */
+    public int startDuePreOrders(ClusterService.Shard shard) {
+        LocalDateTime now = LocalDateTime.now();
+        int started = 0;
+        for (Object[] row : orderRepository.findPreOrderStartsInShard(OrderStatus.PENDING, PaymentStatus.PAID,
+                shard.count(), shard.index())) {
+            LocalDateTime reservationTime = (LocalDateTime) row[1];
+            int prepTimeMinutes = row[2] != null ? ((Number) row[2]).intValue() : 0;
+            if (now.isBefore(reservationTime.minusMinutes(prepTimeMinutes))) {
+                continue;
+            }
+            if (orderService.updateOrderStatusIfCurrent((Integer) row[0], OrderStatus.PENDING, OrderStatus.PREPARING).isPresent()) {
+                logger.info("Order {} (pre-order) is now preparing (sweep)", row[0]);
+                started++;
+            }
+        }
+        return started;
     }
 
     private void handleImmediateOrderScheduling(Order order, int prepTimeMinutes, List<OrderItem> orderItems) {
         // Chuyển sang "preparing" ngay lập tức
-        orderService.updateOrderStatus(order.getId(), OrderStatus.PREPARING);
-        System.out.println("Order " + order.getId() + " (Immediate) is now preparing.");
-
-        // Lên lịch để chuyển trạng thái từng OrderItem sang READY
-        taskScheduler.schedule(() -> {
-            Order currentOrder = orderService.getOrderById(order.getId());
-            if (currentOrder.getStatus() == OrderStatus.PREPARING) {
-                for (OrderItem item : orderItems) {
-                    item.setStatus(OrderItemStatus.READY);
-                }
-                orderItemRepository.saveAll(orderItems);
-                System.out.println("Order " + order.getId() + " (Immediate) items are now ready.");
-            }
-        }, prepTimeMinutes, TimeUnit.MINUTES);
+        if (orderService.updateOrderStatusIfAllowed(order.getId(), OrderStatus.PREPARING).isEmpty()) {
+            return; // Đơn đã bị hủy hoặc đã được chuyển bởi luồng khác
+        }
+        logger.info("Order {} (immediate) is now preparing", order.getId());
 
-        System.out.println("Scheduled immediate order " + order.getId() + ". Will be ready in " + prepTimeMinutes + " minutes.");
+        // Món vào hàng đợi bếp; nhân viên báo xong từng món qua màn hình bếp
+        kitchenQueueService.enqueueOrder(order.getId());
+        logger.debug("Queued immediate order {} for the kitchen", order.getId());
     }
 
     public void saveOrderItems(List<OrderItem> items) {
@@ -8,8 +8,11 @@ import com.coffeeshop.enums.NotificationType;
 import com.coffeeshop.enums.OrderItemStatus;
 import com.coffeeshop.enums.OrderStatus;
 import com.coffeeshop.enums.PaymentStatus;
+import com.coffeeshop.event.OrderCreatedEvent;
+import com.coffeeshop.event.OrderStatusChangedEvent;
 import com.coffeeshop.repository.*;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -17,6 +20,7 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 /**
@@ -32,6 +36,12 @@ public class OrderService {
     @Autowired private ReservationRepository reservationRepository; // Thêm ReservationRepository
     @Autowired private SettingService settingService;
     @Autowired private NotificationService notificationService;
+    @Autowired private OrderNumberGenerator orderNumberGenerator;
+    @Autowired private OrderStateMachine orderStateMachine;
+    @Autowired private KitchenQueueService kitchenQueueService;
+    @Autowired private BoardService boardService;
+    @Autowired private DomainEventPublisher domainEventPublisher;
+    @Autowired private OutboxDeliveryService outboxDeliveryService;
 
 	public List<Order> getAllOrders() {
 		return orderRepository.findAll();
@@ -78,11 +88,12 @@ public class OrderService {
         if (reservation != null) {
             order.setReservation(reservation);
         }
-        order.setOrderNumber("ORD-" + System.currentTimeMillis());
+        long codeId = orderNumberGenerator.nextId();
+        order.setOrderNumber(orderNumberGenerator.orderNumber(codeId));
         order.setStatus(OrderStatus.PENDING);
         order.setPaymentStatus(PaymentStatus.UNPAID);
         order.setNotes(orderRequestDTO.getNote());
-        order.setQrCodePayment("ORDER-QR-" + System.currentTimeMillis());
+        order.setQrCodePayment(orderNumberGenerator.qrCode(codeId));
         order.setCreatedAt(LocalDateTime.now());
         order.setUpdatedAt(LocalDateTime.now());
 
@@ -118,41 +129,72 @@ public class OrderService {
             item.setOrder(savedOrder);
         }
         orderItemRepository.saveAll(orderItems);
+        boardService.publishOrderWithItems(savedOrder, orderItems);
+        domainEventPublisher.publish(new OrderCreatedEvent(savedOrder.getId(), user.getId(), table.getId(),
+                reservation != null ? reservation.getId() : null));
 
+        return savedOrder;
+    }
+
+    @EventListener
+    @Transactional
+    public void onOrderCreated(OrderCreatedEvent event) {
+        if (!outboxDeliveryService.markDelivered("OrderService.onOrderCreated")) {
+            return;
+        }
+        Order order = getOrderById(event.orderId());
         // Create notification for order creation
         notificationService.createOrderNotification(
-            user, 
-            savedOrder, 
+            order.getCustomer(),
+            order,
             NotificationType.ORDER_CREATED,
             "Đơn hàng mới được tạo",
-            "Đơn hàng " + savedOrder.getOrderNumber() + " đã được tạo thành công với tổng tiền " + 
-            savedOrder.getTotalAmount() + "đ tại bàn " + savedOrder.getTable().getTableNumber()
+            "Đơn hàng " + order.getOrderNumber() + " đã được tạo thành công với tổng tiền " +
+            order.getTotalAmount() + "đ tại bàn " + order.getTable().getTableNumber()
         );
-
-        return savedOrder;
     }
 
+    /**
+     * Chuyển trạng thái đơn qua OrderStateMachine (cập nhật có điều kiện theo version, tự thử lại khi xung đột).
+     */
     public Order updateOrderStatus(Integer orderId, OrderStatus status) {
-        Order order = getOrderById(orderId);
-        OrderStatus oldStatus = order.getStatus();
-        order.setStatus(status);
-        order.setUpdatedAt(LocalDateTime.now());
-        Order savedOrder = orderRepository.save(order);
+        return orderStateMachine.transition(orderId, status);
+    }
+
+    /**
+     * Chỉ chuyển trạng thái khi đơn vẫn đang ở expected (dùng cho các tác vụ hẹn giờ).
+     */
+    public Optional<Order> updateOrderStatusIfCurrent(Integer orderId, OrderStatus expected, OrderStatus status) {
+        return orderStateMachine.transitionIfCurrent(orderId, expected, status);
+    }
+
+    /**
+     * Chuyển trạng thái nếu trạng thái hiện tại của đơn cho phép, ngược lại bỏ qua.
+     */
+    public Optional<Order> updateOrderStatusIfAllowed(Integer orderId, OrderStatus status) {
+        return orderStateMachine.transitionIfAllowed(orderId, status);
+    }
 
+    // Thông báo cho khách mỗi khi đơn đổi trạng thái (kể cả do scheduler hay thanh toán)
+    @EventListener
+    @Transactional
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        if (!outboxDeliveryService.markDelivered("OrderService.onOrderStatusChanged")) {
+            return;
+        }
+        Order order = getOrderById(event.orderId());
         // Create notification for status change
-        String statusMessage = getStatusChangeMessage(oldStatus, status);
+        String statusMessage = getStatusChangeMessage(event.to());
         if (statusMessage != null) {
-            NotificationType notificationType = getNotificationTypeForStatus(status);
+            NotificationType notificationType = getNotificationTypeForStatus(event.to());
             notificationService.createOrderNotification(
                 order.getCustomer(),
-                savedOrder,
+                order,
                 notificationType,
                 "Trạng thái đơn hàng thay đổi",
-                "Đơn hàng " + savedOrder.getOrderNumber() + " " + statusMessage
+                "Đơn hàng " + order.getOrderNumber() + " " + statusMessage
             );
         }
-
-        return savedOrder;
     }
 
     public Order updatePaymentMethod(Integer orderId, com.coffeeshop.enums.PaymentMethod paymentMethod) {
@@ -207,6 +249,7 @@ public class OrderService {
     }
 
     // --- DTO methods for controller ---
+    @Transactional
     public CustomerOrderResponseDTO createOrderWithItems(CustomerOrderRequestDTO dto, String username) {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("User not found"));
@@ -214,6 +257,15 @@ public class OrderService {
         return toCustomerOrderResponseDTO(order);
     }
 
+    /**
+     * Admin hủy đơn chưa phục vụ (kể cả đơn đã thanh toán); tiền của đơn đã thanh toán được hoàn ngoài hệ thống.
+     */
+    @Transactional
+    public CustomerOrderResponseDTO cancelOrderByAdmin(Integer orderId) {
+        return toCustomerOrderResponseDTO(orderStateMachine.cancelByAdmin(orderId));
+    }
+
+    @Transactional(readOnly = true)
     public List<CustomerOrderResponseDTO> getCustomerOrdersByUsername(String username) {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("User not found with username: " + username));
@@ -241,6 +293,8 @@ public class OrderService {
         dto.setNotes(order.getNotes());
         dto.setCreatedAt(order.getCreatedAt());
         dto.setUpdatedAt(order.getUpdatedAt());
+        // Thời gian dự kiến xong theo hàng đợi bếp (null nếu không còn món đang chờ/đang làm)
+        dto.setEstimatedReadyAt(kitchenQueueService.estimateOrderReadyAt(order.getId()).orElse(null));
         // Items
         List<CustomerOrderResponseDTO.OrderItemInfo> items = getOrderItemsByOrderId(order.getId()).stream().map(item -> {
             CustomerOrderResponseDTO.OrderItemInfo oi = new CustomerOrderResponseDTO.OrderItemInfo();
@@ -249,6 +303,7 @@ public class OrderService {
             oi.setQuantity(item.getQuantity());
             oi.setUnitPrice(item.getUnitPrice() != null ? item.getUnitPrice().doubleValue() : null);
             oi.setTotalPrice(item.getTotalPrice() != null ? item.getTotalPrice().doubleValue() : null);
+            oi.setEstimatedReadyAt(kitchenQueueService.estimateItemReadyAt(item.getId()).orElse(null));
             return oi;
         }).collect(Collectors.toList());
         dto.setItems(items);
@@ -256,7 +311,7 @@ public class OrderService {
     }
 
     // Helper methods for notification
-    private String getStatusChangeMessage(OrderStatus oldStatus, OrderStatus newStatus) {
+    private String getStatusChangeMessage(OrderStatus newStatus) {
         switch (newStatus) {
             case PREPARING:
                 return "đang được chuẩn bị";
@@ -0,0 +1,254 @@
+package com.coffeeshop.service;
+
+import com.coffeeshop.entity.Order;
+import com.coffeeshop.enums.OrderStatus;
+import com.coffeeshop.enums.PaymentStatus;
+import com.coffeeshop.event.OrderStatusChangedEvent;
+import com.coffeeshop.exception.BusinessLogicException;
+import com.coffeeshop.exception.OrderNotFoundException;
+import com.coffeeshop.repository.OrderRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.BiPredicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * Nơi duy nhất thay đổi trạng thái Order (theo OrderStatus.canTransitionTo).
+ *
+ * Mỗi lần chuyển là một câu UPDATE có điều kiện WHERE id = ? AND status = ? AND version = ?,
+ * không khóa dòng. Nếu đơn vừa bị luồng khác thay đổi (0 dòng được cập nhật) thì đọc lại và
+ * thử lại với backoff, tối đa orderUpdateMaxAttempts lần. Khi được gọi bên trong transaction
+ * của caller thì chỉ thử một lần (không đọc được bản mới trong cùng snapshot) và ném
+ * OptimisticLockingFailureException để caller rollback.
+ *
+ * Chuyển hàng loạt (scheduler) khóa và lấy id các đơn thỏa điều kiện trước, rồi UPDATE theo danh sách id đó.
+ *
+ * Mỗi lần đổi trạng thái ghi OrderStatusChangedEvent vào outbox trong cùng transaction.
+ */
+@Service
+public class OrderStateMachine {
+    private static final Logger logger = LoggerFactory.getLogger(OrderStateMachine.class);
+
+    private static final int BULK_CHUNK_SIZE = 500;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private BoardService boardService;
+
+    @Autowired
+    private DomainEventPublisher domainEventPublisher;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${app.orderUpdateMaxAttempts:5}")
+    private int maxAttempts;
+
+    @Value("${app.orderUpdateBackoffMs:20}")
+    private long backoffMs;
+
+    private record Attempt(Order order, boolean conflict) {}
+
+    /**
+     * Chuyển đơn sang trạng thái target.
+     * @throws BusinessLogicException nếu trạng thái hiện tại không cho phép chuyển.
+     */
+    public Order transition(Integer orderId, OrderStatus target) {
+        return update(orderId, current -> target, null, OrderStatus::canTransitionTo, true).orElseThrow();
+    }
+
+    /**
+     * Admin hủy đơn chưa phục vụ, kể cả đơn đã thanh toán hoặc đang làm (xem OrderStatus.canBeCancelledByAdmin).
+     * Món còn trong hàng đợi bếp được bỏ khi sự kiện chuyển trạng thái được phát.
+     * @throws BusinessLogicException nếu đơn đã phục vụ, hoàn thành hoặc đã bị hủy.
+     */
+    public Order cancelByAdmin(Integer orderId) {
+        return update(orderId, current -> OrderStatus.CANCELLED, null,
+                (current, target) -> current.canBeCancelledByAdmin(), true).orElseThrow();
+    }
+
+    /**
+     * Chỉ chuyển khi đơn đang ở trạng thái expected.
+     * @return đơn sau khi chuyển, hoặc empty nếu đơn đã ở trạng thái khác.
+     */
+    public Optional<Order> transitionIfCurrent(Integer orderId, OrderStatus expected, OrderStatus target) {
+        return update(orderId, current -> current == expected ? target : null, null, OrderStatus::canTransitionTo,
+                false);
+    }
+
+    /**
+     * Chuyển nếu trạng thái hiện tại cho phép, ngược lại bỏ qua.
+     */
+    public Optional<Order> transitionIfAllowed(Integer orderId, OrderStatus target) {
+        return update(orderId, current -> target, null, OrderStatus::canTransitionTo, false);
+    }
+
+    /**
+     * Đánh dấu đơn đã thanh toán. advanceStatus = true thì đồng thời chuyển trạng thái
+     * theo OrderStatus.nextAfterPayment().
+     */
+    public Order markPaid(Integer orderId, boolean advanceStatus) {
+        return update(orderId, current -> advanceStatus ? current.nextAfterPayment() : current,
+                PaymentStatus.PAID, OrderStatus::canTransitionTo, true).orElseThrow();
+    }
+
+    /**
+     * Chuyển trạng thái một đơn đã được nạp trong transaction hiện tại (dùng cho scheduler xử lý theo lô).
+     * @return false nếu không được phép chuyển hoặc đơn đã bị thay đổi bởi luồng khác.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public boolean tryTransition(Order order, OrderStatus target, LocalDateTime now) {
+        if (!order.getStatus().canTransitionTo(target)) {
+            return false;
+        }
+        return tryUpdate(order, target, order.getPaymentStatus(), now);
+    }
+
+    /**
+     * Hủy hàng loạt đơn PENDING chưa thanh toán được tạo trước cutoff, trong phần việc shard.
+     */
+    @Transactional
+    public int cancelUnpaidPendingCreatedBefore(LocalDateTime cutoff, LocalDateTime now, ClusterService.Shard shard) {
+        List<Integer> ids = orderRepository.lockIdsCreatedBefore(OrderStatus.PENDING, PaymentStatus.PAID, cutoff,
+                shard.count(), shard.index());
+        return transitionAll(ids, OrderStatus.PENDING, OrderStatus.CANCELLED, now);
+    }
+
+    /**
+     * Chuyển hàng loạt các đơn đang ở from (và paymentStatus nếu khác null) có updatedAt trước cutoff,
+     * trong phần việc shard.
+     */
+    @Transactional
+    public int transitionAllUpdatedBefore(OrderStatus from, OrderStatus to, PaymentStatus paymentStatus,
+                                          LocalDateTime cutoff, LocalDateTime now, ClusterService.Shard shard) {
+        if (!from.canTransitionTo(to)) {
+            throw new IllegalArgumentException("Không thể chuyển đơn hàng từ " + from + " sang " + to);
+        }
+        List<Integer> ids = paymentStatus == null
+                ? orderRepository.lockIdsUpdatedBefore(from, cutoff, shard.count(), shard.index())
+                : orderRepository.lockIdsWithPaymentUpdatedBefore(from, paymentStatus, cutoff, shard.count(),
+                        shard.index());
+        return transitionAll(ids, from, to, now);
+    }
+
+    private Optional<Order> update(Integer orderId, UnaryOperator<OrderStatus> targetFor, PaymentStatus paymentStatus,
+                                   BiPredicate<OrderStatus, OrderStatus> allowed, boolean strict) {
+        boolean joined = TransactionSynchronizationManager.isActualTransactionActive();
+        int attempts = joined ? 1 : Math.max(1, maxAttempts);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        for (int attempt = 1; ; attempt++) {
+            Attempt result = transactionTemplate.execute(
+                    status -> attemptUpdate(orderId, targetFor, paymentStatus, allowed, strict));
+            if (!result.conflict()) {
+                return Optional.ofNullable(result.order());
+            }
+            if (attempt >= attempts) {
+                throw new OptimisticLockingFailureException(
+                        "Order " + orderId + " was modified concurrently (" + attempt + " attempts)");
+            }
+            logger.debug("Order {} bị cập nhật đồng thời, thử lại lần {}", orderId, attempt + 1);
+            backoff(attempt);
+        }
+    }
+
+    private Attempt attemptUpdate(Integer orderId, UnaryOperator<OrderStatus> targetFor, PaymentStatus paymentStatus,
+                                  BiPredicate<OrderStatus, OrderStatus> allowed, boolean strict) {
+        Order order = orderRepository.findById(orderId)
+                .orElseThrow(() -> new OrderNotFoundException("Order not found with id: " + orderId, orderId));
+        OrderStatus current = order.getStatus();
+        OrderStatus target = targetFor.apply(current);
+        if (target == null) {
+            return new Attempt(null, false);
+        }
+        if (target != current && !allowed.test(current, target)) {
+            if (strict) {
+                throw new BusinessLogicException("Không thể chuyển đơn hàng từ " + current + " sang " + target,
+                        "INVALID_ORDER_TRANSITION", target);
+            }
+            return new Attempt(null, false);
+        }
+        PaymentStatus newPaymentStatus = paymentStatus != null ? paymentStatus : order.getPaymentStatus();
+        if (target == current && newPaymentStatus == order.getPaymentStatus()) {
+            return new Attempt(order, false);
+        }
+        if (!tryUpdate(order, target, newPaymentStatus, LocalDateTime.now())) {
+            // Entity có thể nằm trong persistence context dùng chung của request (open-in-view),
+            // nạp lại để lần thử sau đọc được trạng thái/version mới
+            entityManager.refresh(order);
+            return new Attempt(null, true);
+        }
+        return new Attempt(order, false);
+    }
+
+    // UPDATE có điều kiện rồi nạp lại entity để persistence context khớp với DB
+    private boolean tryUpdate(Order order, OrderStatus target, PaymentStatus paymentStatus, LocalDateTime now) {
+        OrderStatus from = order.getStatus();
+        int updated = orderRepository.updateStatusIfCurrent(order.getId(), from, order.getVersion(),
+                target, paymentStatus, now);
+        if (updated == 0) {
+            return false;
+        }
+        entityManager.refresh(order);
+        boardService.publishOrder(order);
+        if (from != target) {
+            publishStatusChanged(order, from);
+        }
+        return true;
+    }
+
+    // Các đơn đã bị khóa khi lấy id nên câu UPDATE chuyển đúng các đơn đó; phát sự kiện theo chính danh sách id,
+    // mỗi lô BULK_CHUNK_SIZE id để câu IN không quá dài
+    private int transitionAll(List<Integer> ids, OrderStatus from, OrderStatus target, LocalDateTime now) {
+        int updated = 0;
+        for (int start = 0; start < ids.size(); start += BULK_CHUNK_SIZE) {
+            List<Integer> chunk = ids.subList(start, Math.min(ids.size(), start + BULK_CHUNK_SIZE));
+            int rows = orderRepository.transitionAllByIds(chunk, from, target, now);
+            if (rows != chunk.size()) {
+                throw new OptimisticLockingFailureException("Chuyển hàng loạt " + from + " -> " + target + ": "
+                        + rows + "/" + chunk.size() + " đơn đã khóa được cập nhật");
+            }
+            for (Order order : orderRepository.findWithTableByIdIn(chunk)) {
+                boardService.publishOrder(order);
+                publishStatusChanged(order, from);
+            }
+            updated += rows;
+        }
+        return updated;
+    }
+
+    private void publishStatusChanged(Order order, OrderStatus from) {
+        domainEventPublisher.publish(new OrderStatusChangedEvent(order.getId(), order.getTable().getId(), from,
+                order.getStatus(), order.getPaymentStatus()));
+    }
+
+    private void backoff(int attempt) {
+        long delay = backoffMs * (1L << Math.min(attempt - 1, 6));
+        try {
+            Thread.sleep(delay + ThreadLocalRandom.current().nextLong(backoffMs + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new OptimisticLockingFailureException("Interrupted while retrying order update", e);
+        }
+    }
+}
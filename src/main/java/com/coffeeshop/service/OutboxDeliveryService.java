@@ -0,0 +1,67 @@
+package com.coffeeshop.service;
+
+import com.coffeeshop.entity.OutboxDelivery;
+import com.coffeeshop.repository.OutboxDeliveryRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * Ghi nhận từng listener đã xử lý sự kiện outbox nào (bảng outbox_deliveries).
+ *
+ * OutboxRelay phát lại cả sự kiện khi một listener lỗi, nên listener có tác dụng phụ không lặp lại được
+ * (tạo thông báo, lên lịch chuyển trạng thái) gọi markDelivered() đầu transaction của mình và bỏ qua khi
+ * nhận false. Nếu listener rollback thì dòng ghi nhận cũng rollback, lần phát sau xử lý lại bình thường.
+ */
+@Service
+public class OutboxDeliveryService {
+    private static final Logger logger = LoggerFactory.getLogger(OutboxDeliveryService.class);
+
+    // Id của sự kiện outbox mà luồng hiện tại đang phát (do OutboxRelay đặt)
+    private static final ThreadLocal<Long> CURRENT_EVENT = new ThreadLocal<>();
+
+    @Autowired
+    private OutboxDeliveryRepository outboxDeliveryRepository;
+
+    static void runFor(Long eventId, Runnable task) {
+        Long previous = CURRENT_EVENT.get();
+        CURRENT_EVENT.set(eventId);
+        try {
+            task.run();
+        } finally {
+            if (previous == null) {
+                CURRENT_EVENT.remove();
+            } else {
+                CURRENT_EVENT.set(previous);
+            }
+        }
+    }
+
+    /**
+     * Ghi nhận listener đã xử lý sự kiện đang được phát; false nếu đã xử lý ở lần phát trước.
+     * Sự kiện không đến từ OutboxRelay luôn trả về true.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public boolean markDelivered(String listener) {
+        Long eventId = CURRENT_EVENT.get();
+        if (eventId == null) {
+            return true;
+        }
+        if (outboxDeliveryRepository.existsByEventIdAndListener(eventId, listener)) {
+            logger.debug("Bỏ qua sự kiện outbox {} đã được {} xử lý", eventId, listener);
+            return false;
+        }
+        // Hai lần phát trùng nhau (đổi leader) thì một bên lỗi khóa duy nhất khi commit và được phát lại
+        OutboxDelivery delivery = new OutboxDelivery();
+        delivery.setEventId(eventId);
+        delivery.setListener(listener);
+        delivery.setDeliveredAt(LocalDateTime.now());
+        outboxDeliveryRepository.save(delivery);
+        return true;
+    }
+}
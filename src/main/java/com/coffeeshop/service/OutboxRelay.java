@@ -0,0 +1,255 @@
+package com.coffeeshop.service;
+
+import com.coffeeshop.config.ThreadingExecutors;
+import com.coffeeshop.entity.OutboxEvent;
+import com.coffeeshop.enums.OutboxStatus;
+import com.coffeeshop.event.DomainEvent;
+import com.coffeeshop.repository.OutboxDeliveryRepository;
+import com.coffeeshop.repository.OutboxEventRepository;
+import com.coffeeshop.tenant.BranchContext;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.env.Environment;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Phát các sự kiện trong outbox_events tới @EventListener của ứng dụng.
+ *
+ * Mỗi lượt lấy tối đa outboxBatchSize sự kiện đến hạn theo thứ tự id, chia theo aggregate:
+ * các aggregate khác nhau được phát song song (luồng theo ThreadingExecutors), sự kiện của cùng một aggregate
+ * được phát tuần tự. Một sự kiện lỗi được thử lại với backoff tăng dần và chặn các sự kiện sau nó
+ * của cùng aggregate cho tới khi thành công hoặc hết outboxMaxAttempts lần (chuyển FAILED).
+ *
+ * Mỗi sự kiện được phát với chi nhánh (BranchContext) của giao dịch đã tạo ra nó, nên listener đọc/ghi
+ * đúng dữ liệu của chi nhánh đó.
+ *
+ * Đảm bảo phát ít nhất một lần: khi một listener lỗi, cả sự kiện được phát lại cho mọi listener. Listener
+ * có tác dụng phụ không lặp lại được dùng OutboxDeliveryService để bỏ qua sự kiện đã xử lý; các listener
+ * còn lại phải chịu được việc nhận lại cùng một sự kiện.
+ * Khi chạy nhiều instance, chỉ leader (ClusterService) phát và dọn outbox; instance khác ghi sự kiện
+ * rồi để leader phát ở lượt quét kế tiếp (outboxPollIntervalMs).
+ */
+@Service
+public class OutboxRelay {
+    private static final Logger logger = LoggerFactory.getLogger(OutboxRelay.class);
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private OutboxDeliveryRepository outboxDeliveryRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ClusterService clusterService;
+
+    @Autowired
+    private Environment environment;
+
+    @Value("${app.outboxBatchSize:100}")
+    private int batchSize;
+
+    @Value("${app.outboxMaxAttempts:10}")
+    private int maxAttempts;
+
+    @Value("${app.outboxRetryBackoffMs:1000}")
+    private long retryBackoffMs;
+
+    @Value("${app.outboxMaxBackoffMs:300000}")
+    private long maxBackoffMs;
+
+    @Value("${app.outboxRetentionHours:24}")
+    private long retentionHours;
+
+    private TransactionTemplate transactionTemplate;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicBoolean rerun = new AtomicBoolean();
+
+    private ExecutorService dispatcher;
+
+    @PostConstruct
+    void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        dispatcher = ThreadingExecutors.newPerTaskExecutor(environment, "outbox-relay-");
+    }
+
+    @PreDestroy
+    void shutdown() {
+        dispatcher.shutdown();
+    }
+
+    // Quét định kỳ để thử lại sự kiện lỗi và phát các sự kiện chưa được đánh thức sau commit
+    @Scheduled(fixedDelayString = "${app.outboxPollIntervalMs:1000}")
+    public void poll() {
+        wakeUp();
+    }
+
+    /**
+     * Yêu cầu một lượt phát. Không chặn luồng gọi; nếu đang có lượt chạy thì lượt đó sẽ quét lại.
+     */
+    public void wakeUp() {
+        try {
+            dispatcher.execute(this::relay);
+        } catch (RejectedExecutionException e) {
+            logger.debug("Outbox relay đã dừng");
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.outboxCleanupIntervalMs:3600000}")
+    public void deleteProcessed() {
+        if (!clusterService.isLeader()) {
+            return;
+        }
+        LocalDateTime cutoff = LocalDateTime.now().minusHours(retentionHours);
+        Integer deleted = transactionTemplate.execute(status -> {
+            outboxDeliveryRepository.deleteDeliveredBefore(cutoff);
+            return outboxEventRepository.deleteProcessedBefore(OutboxStatus.PROCESSED, cutoff);
+        });
+        if (deleted != null && deleted > 0) {
+            logger.info("Đã xóa {} sự kiện outbox đã phát", deleted);
+        }
+    }
+
+    private void relay() {
+        if (!clusterService.isLeader()) {
+            return;
+        }
+        if (!running.compareAndSet(false, true)) {
+            rerun.set(true);
+            return;
+        }
+        try {
+            int dispatched;
+            do {
+                rerun.set(false);
+                dispatched = relayBatch();
+            } while ((dispatched >= batchSize || rerun.get()) && clusterService.isLeader());
+        } catch (RejectedExecutionException e) {
+            // Ứng dụng đang tắt; sự kiện chưa phát vẫn PENDING và được phát ở lần chạy sau
+            logger.debug("Outbox relay đã dừng");
+        } catch (RuntimeException e) {
+            logger.error("Outbox relay lỗi", e);
+        } finally {
+            running.set(false);
+        }
+        // Yêu cầu đến sau lần kiểm tra cuối của vòng lặp
+        if (rerun.get()) {
+            wakeUp();
+        }
+    }
+
+    // Trả về số sự kiện đã phát thành công
+    private int relayBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxEvent> batch = transactionTemplate.execute(status ->
+                outboxEventRepository.findDue(OutboxStatus.PENDING, now, PageRequest.of(0, batchSize)));
+        if (batch == null || batch.isEmpty()) {
+            return 0;
+        }
+
+        Map<String, List<OutboxEvent>> byAggregate = new LinkedHashMap<>();
+        for (OutboxEvent event : batch) {
+            byAggregate.computeIfAbsent(event.aggregateKey(), key -> new ArrayList<>()).add(event);
+        }
+        Queue<Long> processed = new ConcurrentLinkedQueue<>();
+        Queue<OutboxEvent> failed = new ConcurrentLinkedQueue<>();
+        List<Callable<Void>> tasks = new ArrayList<>(byAggregate.size());
+        for (List<OutboxEvent> events : byAggregate.values()) {
+            tasks.add(() -> {
+                dispatchInOrder(events, processed, failed);
+                return null;
+            });
+        }
+        try {
+            dispatcher.invokeAll(tasks);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!processed.isEmpty()) {
+                outboxEventRepository.markProcessed(processed, OutboxStatus.PROCESSED, LocalDateTime.now());
+            }
+            failed.forEach(this::scheduleRetry);
+        });
+        return processed.size();
+    }
+
+    // Dừng ở sự kiện lỗi đầu tiên để các sự kiện sau của aggregate không bị phát trước nó
+    private void dispatchInOrder(List<OutboxEvent> events, Queue<Long> processed, Queue<OutboxEvent> failed) {
+        for (OutboxEvent event : events) {
+            try {
+                DomainEvent domainEvent = deserialize(event);
+                BranchContext.runAs(event.getBranchId(), () ->
+                        OutboxDeliveryService.runFor(event.getId(), () -> eventPublisher.publishEvent(domainEvent)));
+                processed.add(event.getId());
+            } catch (RuntimeException e) {
+                logger.warn("Phát sự kiện outbox {} ({} {}) lỗi: {}", event.getId(), event.getEventType(),
+                        event.aggregateKey(), e.toString());
+                event.setLastError(truncate(e.toString()));
+                failed.add(event);
+                return;
+            }
+        }
+    }
+
+    private DomainEvent deserialize(OutboxEvent event) {
+        Class<? extends DomainEvent> type = DomainEventPublisher.EVENT_TYPES.get(event.getEventType());
+        if (type == null) {
+            throw new IllegalStateException("Unknown domain event type: " + event.getEventType());
+        }
+        try {
+            return objectMapper.readValue(event.getPayload(), type);
+        } catch (Exception e) {
+            throw new IllegalStateException("Cannot deserialize domain event " + event.getId(), e);
+        }
+    }
+
+    private void scheduleRetry(OutboxEvent event) {
+        int attempts = event.getAttempts() + 1;
+        event.setAttempts(attempts);
+        if (attempts >= maxAttempts) {
+            event.setStatus(OutboxStatus.FAILED);
+            logger.error("Sự kiện outbox {} ({} {}) lỗi sau {} lần thử, chuyển FAILED: {}", event.getId(),
+                    event.getEventType(), event.aggregateKey(), attempts, event.getLastError());
+        } else {
+            long delay = Math.min(maxBackoffMs, retryBackoffMs * (1L << Math.min(attempts - 1, 20)));
+            event.setNextAttemptAt(LocalDateTime.now().plusNanos(delay * 1_000_000));
+        }
+        outboxEventRepository.save(event);
+    }
+
+    private static String truncate(String message) {
+        return message.length() <= 500 ? message : message.substring(0, 500);
+    }
+}
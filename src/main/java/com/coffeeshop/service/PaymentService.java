@@ -1,5 +1,6 @@
 package com.coffeeshop.service;
 
+import com.coffeeshop.config.ReadReplica;
 import com.coffeeshop.dto.admin.request.AdminPaymentRequestDTO;
 import com.coffeeshop.dto.customer.request.CustomerPaymentRequestDTO;
 import com.coffeeshop.dto.admin.request.AdminPaymentStatusUpdateDTO;
@@ -14,16 +15,26 @@ import com.coffeeshop.enums.PaymentProcessStatus;
 import com.coffeeshop.enums.PaymentStatus;
 import com.coffeeshop.enums.PaymentMethod;
 import com.coffeeshop.enums.UserRole;
+import com.coffeeshop.event.PaymentCompletedEvent;
+import com.coffeeshop.exception.BusinessLogicException;
 import com.coffeeshop.repository.OrderRepository;
 import com.coffeeshop.repository.PaymentRepository;
 import com.coffeeshop.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import java.time.LocalDateTime;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -47,6 +58,39 @@ public class PaymentService {
     @Autowired
     private NotificationService notificationService;
 
+    @Autowired
+    private OrderStateMachine orderStateMachine;
+
+    @Autowired
+    private KitchenQueueService kitchenQueueService;
+
+    @Autowired
+    private DomainEventPublisher domainEventPublisher;
+
+    @Autowired
+    private OutboxDeliveryService outboxDeliveryService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Kết quả thanh toán theo phương thức: mỗi cặp (phương thức, trạng thái) một counter
+    private final Map<PaymentMethod, Map<PaymentProcessStatus, Counter>> paymentCounters = new EnumMap<>(PaymentMethod.class);
+
+    @PostConstruct
+    void initMetrics() {
+        for (PaymentMethod method : PaymentMethod.values()) {
+            Map<PaymentProcessStatus, Counter> byStatus = new EnumMap<>(PaymentProcessStatus.class);
+            for (PaymentProcessStatus status : PaymentProcessStatus.values()) {
+                byStatus.put(status, Counter.builder("coffeeshop.payments")
+                        .description("Số thanh toán theo phương thức và kết quả")
+                        .tag("method", method.name())
+                        .tag("status", status.name())
+                        .register(meterRegistry));
+            }
+            paymentCounters.put(method, byStatus);
+        }
+    }
+
 	public List<Payment> getAllPayments() {
 		return paymentRepository.findAll();
 	}
@@ -91,26 +135,13 @@ public class PaymentService {
         // Step 5: Tạo đối tượng Payment và lưu vào database.
         Payment payment = buildPayment(paymentRequestDTO, order, processedByUser);
         Payment savedPayment = paymentRepository.save(payment);
+        countPaymentAfterCommit(savedPayment);
 
         // Step 6: Nếu thanh toán thành công, cập nhật trạng thái của Order và LÊN LỊCH.
         if (savedPayment.getStatus() == PaymentProcessStatus.COMPLETED) {
-            // Cập nhật trạng thái thanh toán của Order
-            order.setPaymentStatus(PaymentStatus.PAID);
-            order.setUpdatedAt(LocalDateTime.now());
-            orderRepository.save(order);
-
-            // Create notification for successful payment
-            notificationService.createPaymentNotification(
-                order.getCustomer(),
-                savedPayment,
-                NotificationType.PAYMENT_RECEIVED,
-                "Thanh toán thành công",
-                "Thanh toán cho đơn hàng " + order.getOrderNumber() + 
-                " đã được xử lý thành công với số tiền " + savedPayment.getAmount() + "đ"
-            );
-
-            // Kích hoạt tác vụ bất đồng bộ để theo dõi và cập nhật trạng thái chuẩn bị/sẵn sàng
-            orderSchedulingService.scheduleOrderStatusUpdate(order.getId());
+            // Cập nhật trạng thái thanh toán của Order; thông báo và lên lịch chạy trong onPaymentCompleted
+            order = orderStateMachine.markPaid(order.getId(), false);
+            publishPaymentCompleted(savedPayment);
         } else if (savedPayment.getStatus() == PaymentProcessStatus.FAILED) {
             // Create notification for failed payment
             notificationService.createPaymentNotification(
@@ -127,6 +158,7 @@ public class PaymentService {
 
     // Đã chuyển thành createPaymentForCustomerEntity phía dưới
 
+    @Transactional
     public Payment updatePaymentStatusByAdmin(Integer id, AdminPaymentStatusUpdateDTO request) {
         // Lấy user hiện tại
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
@@ -153,15 +185,18 @@ public class PaymentService {
         if (status != PaymentProcessStatus.COMPLETED && status != PaymentProcessStatus.FAILED) {
             throw new RuntimeException("Chỉ cho phép xác nhận COMPLETED hoặc FAILED!");
         }
+        // Không xác nhận thêm tiền mặt cho đơn đã được thanh toán (tránh thu tiền hai lần)
+        if (status == PaymentProcessStatus.COMPLETED && payment.getOrder().getPaymentStatus() == PaymentStatus.PAID) {
+            throw new BusinessLogicException("Đơn hàng đã được thanh toán!", "ORDER_ALREADY_PAID");
+        }
         payment.setStatus(status);
         payment.setUpdatedAt(LocalDateTime.now());
         paymentRepository.save(payment);
+        countPaymentAfterCommit(payment);
         // Nếu COMPLETED thì cập nhật trạng thái order
         if (status == PaymentProcessStatus.COMPLETED) {
-            Order order = payment.getOrder();
-            order.setStatus(order.getStatus().nextAfterPayment());
-            order.setPaymentStatus(PaymentStatus.PAID);
-            orderRepository.save(order);
+            orderStateMachine.markPaid(payment.getOrder().getId(), true);
+            publishPaymentCompleted(payment);
         }
         return payment;
     }
@@ -185,19 +220,24 @@ public class PaymentService {
     }
 
     // --- DTO Service Methods ---
+    @ReadReplica
+    @Transactional(readOnly = true)
     public List<AdminPaymentResponseDTO> getAllAdminPaymentDTOs() {
         return getAllPayments().stream().map(this::toAdminPaymentResponseDTO).toList();
     }
 
+    @Transactional(readOnly = true)
     public AdminPaymentResponseDTO getAdminPaymentDTOById(Integer id) {
         Payment payment = getPaymentById(id).orElseThrow(() -> new RuntimeException("Không tìm thấy payment!"));
         return toAdminPaymentResponseDTO(payment);
     }
 
+    @Transactional(readOnly = true)
     public List<CustomerPaymentResponseDTO> getCustomerPaymentDTOsByCustomerId(Integer customerId) {
         return getPaymentsByCustomerId(customerId).stream().map(this::toCustomerPaymentResponseDTO).toList();
     }
 
+    @Transactional(readOnly = true)
     public List<CustomerPaymentResponseDTO> getCustomerPaymentDTOsByOrderId(Integer orderId) {
         List<Payment> payments = getPaymentsByOrderId(orderId);
         return payments.stream()
@@ -205,6 +245,7 @@ public class PaymentService {
                 .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
     public List<CustomerPaymentResponseDTO> getCustomerPaymentDTOsByUsername(String username) {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("User not found with username: " + username));
@@ -220,11 +261,13 @@ public class PaymentService {
                 .collect(Collectors.toList());
     }
 
+    @Transactional
     public AdminPaymentResponseDTO updatePaymentStatusByAdminAndReturnDTO(Integer id, AdminPaymentStatusUpdateDTO request) {
         Payment payment = updatePaymentStatusByAdmin(id, request);
         return toAdminPaymentResponseDTO(payment);
     }
 
+    @Transactional
     public CustomerPaymentResponseDTO createPaymentForCustomer(CustomerPaymentRequestDTO request, String username) {
         Payment payment = createPaymentForCustomerEntity(request, username);
         return toCustomerPaymentResponseDTO(payment);
@@ -263,13 +306,15 @@ public class PaymentService {
     }
 
     // --- Helper: giữ lại logic cũ cho entity ---
+    @Transactional
     public Payment createPaymentForCustomerEntity(CustomerPaymentRequestDTO request, String username) {
         // Validate user exists and get user info
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("User không tồn tại"));
         
-        // Kiểm tra order tồn tại và thuộc về user
-        Order order = orderRepository.findById(request.getOrderId())
+        // Kiểm tra order tồn tại và thuộc về user.
+        // Khóa order để hai request thanh toán đồng thời không cùng vượt qua bước kiểm tra bên dưới.
+        Order order = orderRepository.findByIdForUpdate(request.getOrderId())
                 .orElseThrow(() -> new RuntimeException("Order không tồn tại"));
         
         // Security validation: ensure user can only create payments for their own orders
@@ -281,6 +326,13 @@ public class PaymentService {
         if (!order.getStatus().isAllowPayment()) {
             throw new RuntimeException("Đơn hàng không ở trạng thái cho phép thanh toán!");
         }
+        // Chống thanh toán trùng: đơn đã trả tiền hoặc đã có thanh toán hoàn tất
+        boolean hasCompletedPayment = order.getPaymentStatus() == PaymentStatus.PAID
+                || paymentRepository.findByOrder_Id(order.getId()).stream()
+                        .anyMatch(p -> p.getStatus() == PaymentProcessStatus.COMPLETED);
+        if (hasCompletedPayment) {
+            throw new BusinessLogicException("Đơn hàng đã được thanh toán!", "ORDER_ALREADY_PAID");
+        }
         // Kiểm tra số tiền hợp lệ
         if (request.getAmount() == null || request.getAmount() <= 0) {
             throw new RuntimeException("Số tiền không hợp lệ!");
@@ -302,17 +354,70 @@ public class PaymentService {
         payment.setUpdatedAt(LocalDateTime.now());
         payment.setProcessedBy(user);
         paymentRepository.save(payment);
+        countPaymentAfterCommit(payment);
         // Nếu là CARD/QR_CODE thì cập nhật order đã thanh toán
         if (method != PaymentMethod.CASH) {
-            order.setStatus(order.getStatus().nextAfterPayment());
-            order.setPaymentStatus(PaymentStatus.PAID);
-            orderRepository.save(order);
+            orderStateMachine.markPaid(order.getId(), true);
+            publishPaymentCompleted(payment);
         }
         return payment;
     }
 
+    /**
+     * Xử lý sau khi thanh toán hoàn tất (được OutboxRelay gọi sau commit): thông báo cho khách,
+     * đưa món vào bếp và lên lịch chuyển trạng thái cho đơn còn PENDING.
+     */
+    @EventListener
+    @Transactional
+    public void onPaymentCompleted(PaymentCompletedEvent event) {
+        // Không tạo lại thông báo hay lên lịch lại đơn khi sự kiện được phát lại
+        if (!outboxDeliveryService.markDelivered("PaymentService.onPaymentCompleted")) {
+            return;
+        }
+        Payment payment = paymentRepository.findById(event.paymentId())
+                .orElseThrow(() -> new RuntimeException("Payment not found with id: " + event.paymentId()));
+        Order order = payment.getOrder();
+
+        // Create notification for successful payment
+        notificationService.createPaymentNotification(
+            order.getCustomer(),
+            payment,
+            NotificationType.PAYMENT_RECEIVED,
+            "Thanh toán thành công",
+            "Thanh toán cho đơn hàng " + order.getOrderNumber() +
+            " đã được xử lý thành công với số tiền " + payment.getAmount() + "đ"
+        );
+
+        if (order.getStatus() == OrderStatus.PENDING) {
+            // Kích hoạt tác vụ bất đồng bộ để theo dõi và cập nhật trạng thái chuẩn bị/sẵn sàng
+            orderSchedulingService.scheduleOrderStatusUpdate(order.getId());
+        } else {
+            kitchenQueueService.enqueueOrder(order.getId());
+        }
+    }
+
     // --- Helper Methods ---
 
+    // Chỉ đếm khi giao dịch commit, thanh toán bị rollback không được tính
+    private void countPaymentAfterCommit(Payment payment) {
+        Counter counter = paymentCounters.get(payment.getPaymentMethod()).get(payment.getStatus());
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            counter.increment();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                counter.increment();
+            }
+        });
+    }
+
+    private void publishPaymentCompleted(Payment payment) {
+        domainEventPublisher.publish(new PaymentCompletedEvent(payment.getId(), payment.getOrder().getId(),
+                payment.getPaymentMethod(), payment.getAmount()));
+    }
+
     private void validatePaymentPermissions(AdminPaymentRequestDTO dto, User user, Order order) {
         PaymentMethod method = dto.getPaymentMethod();
         UserRole allowedRole = method.getAllowedRole();
@@ -41,7 +41,7 @@ public interface ProductService {
     void deleteProduct(Integer id);
 
     /**
-     * Reorder products
+     * Reorder products in one UPDATE; returns only the reordered products, sorted by the new displayOrder
      */
     List<Product> reorderProducts(Map<Integer, Integer> idToOrder);
 
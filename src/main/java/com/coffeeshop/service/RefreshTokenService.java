@@ -3,46 +3,180 @@ package com.coffeeshop.service;
 import com.coffeeshop.entity.RefreshToken;
 import com.coffeeshop.entity.User;
 import com.coffeeshop.repository.RefreshTokenRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Base64;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 public class RefreshTokenService {
+    private static final Logger logger = LoggerFactory.getLogger(RefreshTokenService.class);
+
     private static final int REFRESH_TOKEN_LENGTH = 64;
     private static final int REFRESH_TOKEN_EXPIRE_DAYS = 7;
+    private static final SecureRandom SECURE_RANDOM = new SecureRandom();
 
     @Autowired
     private RefreshTokenRepository refreshTokenRepository;
 
+    @Autowired
+    private ClusterService clusterService;
+
+    // Số refresh token tối đa mỗi user (mỗi thiết bị giữ một token)
+    @Value("${app.refreshTokenMaxPerUser:5}")
+    private int maxTokensPerUser;
+
+    // Thời gian cache kết quả kiểm tra token hợp lệ
+    @Value("${app.refreshTokenCacheTtlMs:60000}")
+    private long cacheTtlMs;
+
+    // Dùng thay cacheTtlMs khi có nhiều instance: token bị thu hồi ở instance khác vẫn được chấp nhận ở đây
+    // tối đa chừng này thời gian
+    @Value("${app.refreshTokenClusterCacheTtlMs:5000}")
+    private long clusterCacheTtlMs;
+
+    @Value("${app.refreshTokenCacheMaxSize:10000}")
+    private int cacheMaxSize;
+
+    @Value("${app.refreshTokenCleanupBatchSize:500}")
+    private int cleanupBatchSize;
+
+    // Cache các token vừa được kiểm tra: tokenHash -> username + hạn dùng.
+    // Chỉ cache token hợp lệ; revoke/xóa token xóa entry tương ứng sau khi commit (xóa trước đó thì một request
+    // đồng thời có thể đọc lại token còn hợp lệ từ DB và đưa nó trở lại cache). Cache nằm riêng trong từng
+    // instance nên khi chạy nhiều instance chỉ giữ trong clusterCacheTtlMs.
+    private final Map<String, CachedToken> validatedTokens = new ConcurrentHashMap<>();
+
+    private record CachedToken(String username, LocalDateTime expiryDate, long cachedUntil) {}
+
+    @PostConstruct
+    void init() {
+        // Token vừa tạo luôn được giữ, nên giới hạn nhỏ hơn 1 không có nghĩa
+        if (maxTokensPerUser < 1) {
+            throw new IllegalArgumentException("app.refreshTokenMaxPerUser phải lớn hơn hoặc bằng 1");
+        }
+    }
+
     // Sinh refresh token ngẫu nhiên
     public String generateRandomToken() {
         byte[] randomBytes = new byte[REFRESH_TOKEN_LENGTH];
-        new SecureRandom().nextBytes(randomBytes);
+        SECURE_RANDOM.nextBytes(randomBytes);
         return Base64.getUrlEncoder().withoutPadding().encodeToString(randomBytes);
     }
 
-    // Tạo và lưu refresh token mới cho user
+    // Băm SHA-256 token gốc, DB chỉ lưu giá trị này
+    public String hashToken(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 không khả dụng", e);
+        }
+    }
+
+    // Tạo và lưu refresh token mới cho user.
+    // Mỗi user giữ tối đa maxTokensPerUser token, token cũ nhất bị xóa khi vượt giới hạn.
     @Transactional
     public RefreshToken createRefreshToken(User user) {
-        // Xóa token cũ nếu có (1 user chỉ giữ 1 refresh token)
-        refreshTokenRepository.deleteByUser(user);
+        List<RefreshToken> existing = refreshTokenRepository.findByUserOrderByExpiryDateAsc(user);
+        LocalDateTime now = LocalDateTime.now();
+        List<RefreshToken> toDelete = new ArrayList<>();
+        List<RefreshToken> active = new ArrayList<>();
+        for (RefreshToken t : existing) {
+            if (isValid(t, now)) {
+                active.add(t);
+            } else {
+                toDelete.add(t);
+            }
+        }
+        int overflow = active.size() - (maxTokensPerUser - 1);
+        for (int i = 0; i < overflow; i++) {
+            toDelete.add(active.get(i));
+        }
+        if (!toDelete.isEmpty()) {
+            refreshTokenRepository.deleteAllInBatch(toDelete);
+            List<String> deletedHashes = toDelete.stream().map(RefreshToken::getTokenHash).toList();
+            evictAfterCommit(() -> deletedHashes.forEach(validatedTokens::remove));
+        }
+
+        String rawToken = generateRandomToken();
         RefreshToken refreshToken = new RefreshToken();
         refreshToken.setUser(user);
-        refreshToken.setToken(generateRandomToken());
-        refreshToken.setExpiryDate(LocalDateTime.now().plusDays(REFRESH_TOKEN_EXPIRE_DAYS));
+        refreshToken.setTokenHash(hashToken(rawToken));
+        refreshToken.setExpiryDate(now.plusDays(REFRESH_TOKEN_EXPIRE_DAYS));
         refreshToken.setIsRevoked(false);
-        return refreshTokenRepository.save(refreshToken);
+        RefreshToken saved = refreshTokenRepository.save(refreshToken);
+        saved.setToken(rawToken);
+        return saved;
     }
 
     // Kiểm tra token hợp lệ
     public boolean isValid(RefreshToken token) {
-        return token != null && !token.getIsRevoked() && token.getExpiryDate().isAfter(LocalDateTime.now());
+        return isValid(token, LocalDateTime.now());
+    }
+
+    private boolean isValid(RefreshToken token, LocalDateTime now) {
+        return token != null && !token.getIsRevoked() && token.getExpiryDate().isAfter(now);
+    }
+
+    /**
+     * Kiểm tra refresh token và trả về username của chủ token.
+     * Kết quả hợp lệ được cache trong thời gian ngắn để các đợt refresh dồn dập
+     * (ví dụ app mobile cùng thức dậy) không truy vấn DB mỗi lần.
+     * Không đánh dấu readOnly để luôn đọc từ primary: token vừa tạo hoặc vừa
+     * bị thu hồi có thể chưa kịp đồng bộ sang replica.
+     */
+    @Transactional
+    public Optional<String> findValidUsername(String token) {
+        if (token == null || token.isEmpty()) {
+            return Optional.empty();
+        }
+        String tokenHash = hashToken(token);
+        LocalDateTime now = LocalDateTime.now();
+        long nowMs = System.currentTimeMillis();
+
+        CachedToken cached = validatedTokens.get(tokenHash);
+        if (cached != null) {
+            if (cached.cachedUntil() > nowMs && cached.expiryDate().isAfter(now)) {
+                return Optional.of(cached.username());
+            }
+            validatedTokens.remove(tokenHash, cached);
+        }
+
+        Optional<RefreshToken> tokenOpt = refreshTokenRepository.findByTokenHash(tokenHash);
+        if (tokenOpt.isEmpty() || !isValid(tokenOpt.get(), now)) {
+            return Optional.empty();
+        }
+        RefreshToken refreshToken = tokenOpt.get();
+        String username = refreshToken.getUser().getUsername();
+        if (validatedTokens.size() >= cacheMaxSize) {
+            evictExpiredCacheEntries(nowMs);
+        }
+        if (validatedTokens.size() < cacheMaxSize) {
+            long ttlMs = clusterService.getLiveNodeCount() > 1 ? Math.min(cacheTtlMs, clusterCacheTtlMs) : cacheTtlMs;
+            validatedTokens.put(tokenHash, new CachedToken(username, refreshToken.getExpiryDate(), nowMs + ttlMs));
+        }
+        return Optional.of(username);
     }
 
     // Thu hồi token
@@ -50,16 +184,59 @@ public class RefreshTokenService {
     public void revokeToken(RefreshToken token) {
         token.setIsRevoked(true);
         refreshTokenRepository.save(token);
+        String tokenHash = token.getTokenHash();
+        evictAfterCommit(() -> validatedTokens.remove(tokenHash));
     }
 
-    // Lấy token theo chuỗi token
+    // Lấy token theo chuỗi token gốc (tra cứu qua hash)
     public Optional<RefreshToken> findByToken(String token) {
-        return refreshTokenRepository.findByToken(token);
+        return refreshTokenRepository.findByTokenHash(hashToken(token));
     }
 
     // Xóa tất cả token của user (logout all)
     @Transactional
     public void deleteByUser(User user) {
         refreshTokenRepository.deleteByUser(user);
+        String username = user.getUsername();
+        evictAfterCommit(() -> validatedTokens.values().removeIf(cached -> cached.username().equals(username)));
+    }
+
+    // Dọn token hết hạn/đã thu hồi theo từng lô để không khóa bảng lâu; bảng chỉ do leader dọn,
+    // cache trong bộ nhớ thì instance nào cũng dọn
+    @Scheduled(fixedDelayString = "${app.refreshTokenCleanupIntervalMs:3600000}")
+    public void cleanupExpiredTokens() {
+        LocalDateTime now = LocalDateTime.now();
+        int total = 0;
+        if (clusterService.isLeader()) {
+            List<Long> ids;
+            do {
+                ids = refreshTokenRepository.findExpiredOrRevokedIds(now, PageRequest.of(0, cleanupBatchSize));
+                if (!ids.isEmpty()) {
+                    refreshTokenRepository.deleteAllByIdInBatch(ids);
+                    total += ids.size();
+                }
+            } while (ids.size() == cleanupBatchSize);
+        }
+        evictExpiredCacheEntries(System.currentTimeMillis());
+        if (total > 0) {
+            logger.info("Đã xóa {} refresh token hết hạn hoặc đã thu hồi", total);
+        }
+    }
+
+    private void evictAfterCommit(Runnable eviction) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            eviction.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                eviction.run();
+            }
+        });
+    }
+
+    private void evictExpiredCacheEntries(long nowMs) {
+        validatedTokens.values().removeIf(cached -> cached.cachedUntil() <= nowMs);
     }
-} 
\ No newline at end of file
+}
@@ -7,9 +7,15 @@ import java.time.LocalTime;
 import java.time.DayOfWeek;
 import java.util.Set;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.coffeeshop.config.ReadReplica;
 import com.coffeeshop.entity.Reservation;
 import com.coffeeshop.entity.User;
 import com.coffeeshop.entity.TableEntity;
@@ -17,6 +23,7 @@ import com.coffeeshop.entity.Order;
 import com.coffeeshop.repository.ReservationRepository;
 import com.coffeeshop.enums.NotificationType;
 import com.coffeeshop.enums.ReservationStatus;
+import com.coffeeshop.event.ReservationChangedEvent;
 import com.coffeeshop.dto.admin.response.AdminReservationResponseDTO;
 import com.coffeeshop.dto.customer.response.CustomerReservationResponseDTO;
 import com.coffeeshop.dto.customer.response.ReservationDetailDTO;
@@ -24,6 +31,7 @@ import com.coffeeshop.dto.customer.response.TableReservationStatusDTO;
 import com.coffeeshop.dto.customer.request.ReservationRequestDTO;
 import com.coffeeshop.scheduler.SchedulerConfig;
 import com.coffeeshop.enums.TableStatus;
+import com.coffeeshop.exception.BusinessLogicException;
 
 @Service
 public class ReservationService {
@@ -45,6 +53,28 @@ public class ReservationService {
 	@Autowired
 	private NotificationService notificationService;
 
+	@Autowired
+	private DomainEventPublisher domainEventPublisher;
+
+	@Autowired
+	private OutboxDeliveryService outboxDeliveryService;
+
+	@Autowired
+	private TableAssignmentService tableAssignmentService;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	// Đặt bàn bị từ chối vì trùng lịch: bàn khách chọn đã có người đặt, hoặc không xếp được bàn nào
+	private Counter tableTakenRejections;
+	private Counter noTableRejections;
+
+	@PostConstruct
+	void initMetrics() {
+		tableTakenRejections = rejectionCounter("table_taken");
+		noTableRejections = rejectionCounter("no_table");
+	}
+
 	// Danh sách ngày nghỉ (có thể lấy từ config hoặc DB)
 	private static final Set<DayOfWeek> HOLIDAYS = Set.of(DayOfWeek.SUNDAY);
 
@@ -57,6 +87,7 @@ public class ReservationService {
 		return reservationRepository.findById(id);
 	}
 
+	@Transactional
 	public Reservation saveReservation(Reservation reservation) {
 		boolean isNew = reservation.getId() == null;
 		
@@ -65,19 +96,7 @@ public class ReservationService {
 		}
 		reservation.setUpdatedAt(java.time.LocalDateTime.now());
 		Reservation savedReservation = reservationRepository.save(reservation);
-
-		// Create notification for new reservation
-		if (isNew) {
-			notificationService.createReservationNotification(
-				reservation.getCustomer(),
-				savedReservation,
-				NotificationType.RESERVATION_CONFIRMED,
-				"Đặt bàn mới được tạo",
-				"Đặt bàn của bạn tại bàn " + reservation.getTable().getTableNumber() + 
-				" vào lúc " + reservation.getReservationDatetime() + " đã được tạo thành công"
-			);
-		}
-
+		publishChanged(savedReservation, isNew ? null : savedReservation.getStatus());
 		return savedReservation;
 	}
 
@@ -89,6 +108,7 @@ public class ReservationService {
 		return reservationRepository.findByCustomer_Id(userId);
 	}
 
+	@Transactional
 	public Reservation cancelReservation(Integer reservationId, Integer userId) {
 		Reservation reservation = reservationRepository.findById(reservationId)
 				.orElseThrow(() -> new RuntimeException("Reservation not found"));
@@ -100,23 +120,15 @@ public class ReservationService {
 		if (now.isAfter(reservation.getReservationDatetime().minusMinutes(30))) {
 			throw new IllegalArgumentException("Cannot cancel reservation within 30 minutes before reservation time.");
 		}
+		ReservationStatus oldStatus = reservation.getStatus();
 		reservation.setStatus(ReservationStatus.CANCELLED);
 		reservation.setUpdatedAt(java.time.LocalDateTime.now());
 		Reservation savedReservation = reservationRepository.save(reservation);
-
-		// Create notification for reservation cancellation
-		notificationService.createReservationNotification(
-			reservation.getCustomer(),
-			savedReservation,
-			NotificationType.RESERVATION_CANCELLED,
-			"Đặt bàn đã bị hủy",
-			"Đặt bàn của bạn tại bàn " + reservation.getTable().getTableNumber() + 
-			" vào lúc " + reservation.getReservationDatetime() + " đã được hủy thành công"
-		);
-
+		publishChanged(savedReservation, oldStatus);
 		return savedReservation;
 	}
 
+	@Transactional
 	public Reservation updateReservationStatus(Integer reservationId, ReservationStatus status) {
 		Reservation reservation = reservationRepository.findById(reservationId)
 				.orElseThrow(() -> new RuntimeException("Reservation not found"));
@@ -124,24 +136,46 @@ public class ReservationService {
 		reservation.setStatus(status);
 		reservation.setUpdatedAt(java.time.LocalDateTime.now());
 		Reservation savedReservation = reservationRepository.save(reservation);
+		publishChanged(savedReservation, oldStatus);
+		return savedReservation;
+	}
 
-		// Create notification for status change
-		if (status == ReservationStatus.CONFIRMED && oldStatus != ReservationStatus.CONFIRMED) {
-			notificationService.createReservationNotification(
-				reservation.getCustomer(),
-				savedReservation,
-				NotificationType.RESERVATION_CONFIRMED,
-				"Đặt bàn đã được xác nhận",
-				"Đặt bàn của bạn tại bàn " + reservation.getTable().getTableNumber() + 
-				" vào lúc " + reservation.getReservationDatetime() + " đã được xác nhận"
-			);
+	/**
+	 * Thông báo cho khách khi đặt bàn được tạo, xác nhận hoặc bị hủy (kể cả hủy tự động do không đến).
+	 */
+	@EventListener
+	@Transactional
+	public void onReservationChanged(ReservationChangedEvent event) {
+		if (event.from() == event.to() || !outboxDeliveryService.markDelivered("ReservationService.onReservationChanged")) {
+			return;
+		}
+		Reservation reservation = reservationRepository.findById(event.reservationId()).orElse(null);
+		if (reservation == null) {
+			return;
+		}
+		String where = "Đặt bàn của bạn tại bàn " + reservation.getTable().getTableNumber() +
+			" vào lúc " + event.reservationDatetime();
+		if (event.from() == null) {
+			notificationService.createReservationNotification(reservation.getCustomer(), reservation,
+				NotificationType.RESERVATION_CONFIRMED, "Đặt bàn mới được tạo", where + " đã được tạo thành công");
+		} else if (event.to() == ReservationStatus.CONFIRMED) {
+			notificationService.createReservationNotification(reservation.getCustomer(), reservation,
+				NotificationType.RESERVATION_CONFIRMED, "Đặt bàn đã được xác nhận", where + " đã được xác nhận");
+		} else if (event.to() == ReservationStatus.CANCELLED) {
+			notificationService.createReservationNotification(reservation.getCustomer(), reservation,
+				NotificationType.RESERVATION_CANCELLED, "Đặt bàn đã bị hủy", where + " đã bị hủy");
 		}
+	}
 
-		return savedReservation;
+	private void publishChanged(Reservation reservation, ReservationStatus oldStatus) {
+		domainEventPublisher.publish(new ReservationChangedEvent(reservation.getId(), reservation.getTable().getId(),
+			oldStatus, reservation.getStatus(), reservation.getReservationDatetime(),
+			reservation.getJoinedTables().stream().map(TableEntity::getId).toList()));
 	}
 
 	// ===== Các method mới cho DTO mapping =====
 	
+	@Transactional(readOnly = true)
 	public List<TableReservationStatusDTO> getBookedTableStatusDTOs() {
 		LocalDateTime now = LocalDateTime.now();
 		return getAllReservations().stream()
@@ -166,18 +200,22 @@ public class ReservationService {
 			.toList();
 	}
 
+	@ReadReplica
+	@Transactional(readOnly = true)
 	public List<AdminReservationResponseDTO> getAllAdminReservationDTOs() {
 		return getAllReservations().stream()
 			.map(this::toAdminReservationResponseDTO)
 			.toList();
 	}
 
+	@Transactional(readOnly = true)
 	public AdminReservationResponseDTO getAdminReservationDTOById(Integer id) {
 		Reservation reservation = getReservationById(id)
 			.orElseThrow(() -> new RuntimeException("Reservation not found"));
 		return toAdminReservationResponseDTO(reservation);
 	}
 
+	@Transactional
 	public CustomerReservationResponseDTO createReservation(ReservationRequestDTO request, String username) {
 		// Validate ngày nghỉ
 		DayOfWeek day = request.getReservationDatetime().getDayOfWeek();
@@ -208,37 +246,39 @@ public class ReservationService {
 		User user = userService.findByUsername(username)
 				.orElseThrow(() -> new IllegalArgumentException("Không tìm thấy người dùng!"));
 		
-		// Lấy table
-		TableEntity table = tableService.getTableById(request.getTableId())
-				.orElseThrow(() -> new IllegalArgumentException("Không tìm thấy bàn với ID: " + request.getTableId()));
-		
-		// Kiểm tra số lượng người không vượt quá sức chứa của bàn
-		if (request.getPartySize() > table.getCapacity()) {
-			throw new IllegalArgumentException(
-				"Số lượng người (" + request.getPartySize() + ") vượt quá sức chứa của bàn này (" + table.getCapacity() + " người)!"
-			);
-		}
-		
 		// Kiểm tra không cho đặt bàn nếu thời gian đặt < min-advance-minutes so với hiện tại
 		if (request.getReservationDatetime().isBefore(LocalDateTime.now().plusMinutes(schedulerConfig.reservationMinAdvanceMinutes))) {
 			throw new IllegalArgumentException("Bạn phải đặt bàn trước ít nhất " + schedulerConfig.reservationMinAdvanceMinutes + " phút!");
 		}
 		
-		// Kiểm tra trùng lịch đặt bàn nâng cao với thời gian nghỉ giữa ca
-		LocalDateTime newStart = request.getReservationDatetime();
-		LocalDateTime newEnd = newStart.plusMinutes(schedulerConfig.reservationDurationMinutes); // 90 phút phục vụ
+		// Bàn do khách chọn, hoặc để trống tableId để hệ thống xếp bàn (có thể ghép bàn cho nhóm đông)
+		TableEntity table;
+		List<TableEntity> joinedTables = List.of();
+		if (request.getTableId() != null) {
+			table = tableService.getTableById(request.getTableId())
+					.orElseThrow(() -> new IllegalArgumentException("Không tìm thấy bàn với ID: " + request.getTableId()));
+			
+			// Kiểm tra số lượng người không vượt quá sức chứa của bàn
+			if (request.getPartySize() > table.getCapacity()) {
+				throw new IllegalArgumentException(
+					"Số lượng người (" + request.getPartySize() + ") vượt quá sức chứa của bàn này (" + table.getCapacity() + " người)!"
+				);
+			}
+		} else {
+			TableAssignment assignment = tableAssignmentService.suggest(request.getReservationDatetime(), request.getPartySize());
+			if (!assignment.isAssigned()) {
+				noTableRejections.increment();
+				throw new BusinessLogicException(
+					"Không còn bàn phù hợp cho " + request.getPartySize() + " người vào thời gian này!",
+					"NO_TABLE_AVAILABLE", request.getPartySize());
+			}
+			table = assignment.getTables().get(0);
+			joinedTables = assignment.getTables().subList(1, assignment.getTables().size());
+		}
 		
-		List<Reservation> existing = getAllReservations().stream()
-			.filter(r -> r.getTable().getId().equals(table.getId()))
-			.filter(r -> r.getStatus() == ReservationStatus.PENDING || r.getStatus() == ReservationStatus.CONFIRMED)
-			.filter(r -> {
-				LocalDateTime oldStart = r.getReservationDatetime();
-				LocalDateTime oldEnd = oldStart.plusMinutes(schedulerConfig.reservationDurationMinutes + schedulerConfig.reservationBufferAfterMinutes);
-				// Kiểm tra xung đột: ca mới bắt đầu trước khi ca cũ kết thúc hoàn toàn
-				return newStart.isBefore(oldEnd) && newEnd.isAfter(oldStart);
-			})
-			.toList();
-		if (!existing.isEmpty()) {
+		// Kiểm tra trùng lịch đặt bàn (thời gian phục vụ + thời gian nghỉ giữa ca), kể cả bàn đang được ghép
+		if (!tableAssignmentService.isAvailable(List.of(table), request.getReservationDatetime(), null)) {
+			tableTakenRejections.increment();
 			throw new IllegalArgumentException(
 				"Bàn này đã có người đặt trong khung giờ này! " +
 				"Thời gian phục vụ: " + schedulerConfig.reservationDurationMinutes + " phút, " +
@@ -250,6 +290,7 @@ public class ReservationService {
 		Reservation reservation = new Reservation();
 		reservation.setCustomer(user);
 		reservation.setTable(table);
+		reservation.getJoinedTables().addAll(joinedTables);
 		reservation.setReservationDatetime(request.getReservationDatetime());
 		reservation.setPartySize(request.getPartySize());
 		reservation.setNotes(request.getNotes());
@@ -261,6 +302,7 @@ public class ReservationService {
 		return toCustomerReservationResponseDTO(saved);
 	}
 
+	@Transactional(readOnly = true)
 	public List<CustomerReservationResponseDTO> getReservationsByUser(String username) {
 		User user = userService.findByUsername(username)
 			.orElseThrow(() -> new IllegalArgumentException("Không tìm thấy user!"));
@@ -269,6 +311,7 @@ public class ReservationService {
 			.toList();
 	}
 
+	@Transactional
 	public CustomerReservationResponseDTO cancelReservation(Integer id, String username) {
 		User user = userService.findByUsername(username)
 			.orElseThrow(() -> new IllegalArgumentException("Không tìm thấy user!"));
@@ -276,11 +319,13 @@ public class ReservationService {
 		return toCustomerReservationResponseDTO(reservation);
 	}
 
+	@Transactional
 	public ReservationDetailDTO updateReservationStatusAndReturnDTO(Integer id, ReservationStatus status) {
 		Reservation updated = updateReservationStatus(id, status);
 		return toReservationDetailDTO(updated);
 	}
 
+	@Transactional
 	public ReservationDetailDTO updateReservation(Integer id, ReservationRequestDTO request) {
 		Reservation existing = getReservationById(id)
 			.orElseThrow(() -> new RuntimeException("Reservation not found"));
@@ -295,6 +340,13 @@ public class ReservationService {
 		return toReservationDetailDTO(saved);
 	}
 
+	private Counter rejectionCounter(String reason) {
+		return Counter.builder("coffeeshop.reservations.rejected")
+			.description("Số đặt bàn bị từ chối do trùng lịch")
+			.tag("reason", reason)
+			.register(meterRegistry);
+	}
+
 	// ===== Helper methods cho DTO mapping =====
 	
 	private TableReservationStatusDTO toTableReservationStatusDTO(Reservation reservation) {
@@ -324,6 +376,13 @@ public class ReservationService {
 		table.setTableNumber(reservation.getTable().getTableNumber());
 		table.setLocation(reservation.getTable().getLocation());
 		dto.setTable(table);
+		dto.setJoinedTables(reservation.getJoinedTables().stream().map(joined -> {
+			AdminReservationResponseDTO.TableInfo info = new AdminReservationResponseDTO.TableInfo();
+			info.setId(joined.getId());
+			info.setTableNumber(joined.getTableNumber());
+			info.setLocation(joined.getLocation());
+			return info;
+		}).toList());
 		
 		dto.setReservationDatetime(reservation.getReservationDatetime());
 		dto.setPartySize(reservation.getPartySize());
@@ -344,6 +403,13 @@ public class ReservationService {
 		table.setTableNumber(reservation.getTable().getTableNumber());
 		table.setLocation(reservation.getTable().getLocation());
 		dto.setTable(table);
+		dto.setJoinedTables(reservation.getJoinedTables().stream().map(joined -> {
+			CustomerReservationResponseDTO.TableInfo info = new CustomerReservationResponseDTO.TableInfo();
+			info.setId(joined.getId());
+			info.setTableNumber(joined.getTableNumber());
+			info.setLocation(joined.getLocation());
+			return info;
+		}).toList());
 		
 		dto.setReservationDatetime(reservation.getReservationDatetime());
 		dto.setPartySize(reservation.getPartySize());
@@ -0,0 +1,53 @@
+package com.coffeeshop.service;
+
+import com.coffeeshop.entity.TableEntity;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Kết quả xếp bàn cho một yêu cầu: một bàn, hoặc nhiều bàn liền kề cùng khu vực được ghép lại.
+ * tables rỗng nếu không còn chỗ phù hợp.
+ */
+public class TableAssignment {
+    private final String reference;
+    private final LocalDateTime reservationDatetime;
+    private final int partySize;
+    private final List<TableEntity> tables;
+
+    TableAssignment(String reference, LocalDateTime reservationDatetime, int partySize, List<TableEntity> tables) {
+        this.reference = reference;
+        this.reservationDatetime = reservationDatetime;
+        this.partySize = partySize;
+        this.tables = tables;
+    }
+
+    public String getReference() {
+        return reference;
+    }
+
+    public LocalDateTime getReservationDatetime() {
+        return reservationDatetime;
+    }
+
+    public int getPartySize() {
+        return partySize;
+    }
+
+    public List<TableEntity> getTables() {
+        return tables;
+    }
+
+    public boolean isAssigned() {
+        return !tables.isEmpty();
+    }
+
+    public int getTotalCapacity() {
+        return tables.stream().mapToInt(TableEntity::getCapacity).sum();
+    }
+
+    // Số ghế bỏ trống; càng nhỏ càng tận dụng tốt
+    public int getUnusedSeats() {
+        return isAssigned() ? getTotalCapacity() - partySize : 0;
+    }
+}
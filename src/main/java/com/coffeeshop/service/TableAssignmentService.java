@@ -0,0 +1,268 @@
+package com.coffeeshop.service;
+
+import com.coffeeshop.dto.admin.request.TableAssignmentRequestDTO;
+import com.coffeeshop.dto.customer.response.TableAssignmentResponseDTO;
+import com.coffeeshop.entity.Reservation;
+import com.coffeeshop.entity.TableEntity;
+import com.coffeeshop.enums.ReservationStatus;
+import com.coffeeshop.repository.ReservationRepository;
+import com.coffeeshop.repository.TableRepository;
+import com.coffeeshop.scheduler.SchedulerConfig;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Xếp bàn theo giờ đến và số khách.
+ *
+ * Ưu tiên một bàn đủ chỗ có ít ghế thừa nhất; nếu không bàn nào đủ thì ghép tối đa
+ * tableAssignmentMaxJoined bàn liền kề trong cùng khu vực (location), coi hai bàn là liền kề khi
+ * số bàn đứng cạnh nhau trong khu vực. Một bàn bận khi có đặt bàn chồng giờ (thời gian phục vụ +
+ * thời gian dọn bàn) hoặc, với giờ đến gần hiện tại, đang có đơn chưa đóng.
+ *
+ * Dữ liệu được nạp một lần cho mỗi lần xếp, việc xếp chạy hoàn toàn trong bộ nhớ.
+ */
+@Service
+public class TableAssignmentService {
+
+    private static final Set<ReservationStatus> OPEN_RESERVATION_STATUSES =
+            EnumSet.of(ReservationStatus.PENDING, ReservationStatus.CONFIRMED, ReservationStatus.SEATED);
+
+    private static final Pattern TABLE_NUMBER = Pattern.compile("^(.*?)(\\d+)$");
+
+    // Thứ tự bàn trong khu vực: T2 đứng trước T10
+    private static final Comparator<TableEntity> FLOOR_ORDER = Comparator
+            .comparing((TableEntity table) -> numberPrefix(table.getTableNumber()))
+            .thenComparingLong(table -> numberSuffix(table.getTableNumber()))
+            .thenComparing(TableEntity::getTableNumber);
+
+    @Autowired
+    private TableRepository tableRepository;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private TableOccupancyService tableOccupancyService;
+
+    @Autowired
+    private SchedulerConfig schedulerConfig;
+
+    @Value("${app.tableAssignmentMaxJoined:3}")
+    private int maxJoined;
+
+    /**
+     * Chọn bàn cho một yêu cầu.
+     */
+    @Transactional(readOnly = true)
+    public TableAssignment suggest(LocalDateTime reservationDatetime, int partySize) {
+        return loadFloor(reservationDatetime, reservationDatetime).assign(null, reservationDatetime, partySize);
+    }
+
+    /**
+     * Xếp cả danh sách yêu cầu (ví dụ mọi đặt bàn của một buổi tối) trên cùng một sơ đồ bàn:
+     * nhóm đông được xếp trước để bàn lớn không bị nhóm nhỏ chiếm. Kết quả theo thứ tự đầu vào.
+     */
+    @Transactional(readOnly = true)
+    public List<TableAssignment> assignBatch(List<TableAssignmentRequestDTO> requests) {
+        if (requests.isEmpty()) {
+            return List.of();
+        }
+        LocalDateTime from = requests.stream().map(TableAssignmentRequestDTO::getReservationDatetime)
+                .min(Comparator.naturalOrder()).orElseThrow();
+        LocalDateTime to = requests.stream().map(TableAssignmentRequestDTO::getReservationDatetime)
+                .max(Comparator.naturalOrder()).orElseThrow();
+        Floor floor = loadFloor(from, to);
+
+        List<Integer> order = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            order.add(i);
+        }
+        order.sort(Comparator.comparing((Integer i) -> requests.get(i).getPartySize(), Comparator.reverseOrder())
+                .thenComparing(i -> requests.get(i).getReservationDatetime()));
+
+        TableAssignment[] results = new TableAssignment[requests.size()];
+        for (int i : order) {
+            TableAssignmentRequestDTO request = requests.get(i);
+            TableAssignment assignment = floor.assign(request.getReference(), request.getReservationDatetime(),
+                    request.getPartySize());
+            floor.book(assignment);
+            results[i] = assignment;
+        }
+        return List.of(results);
+    }
+
+    /**
+     * Các bàn trống được vào giờ đến cho trước (loại trừ chính đặt bàn excludeReservationId khi sửa).
+     */
+    @Transactional(readOnly = true)
+    public boolean isAvailable(Collection<TableEntity> tables, LocalDateTime reservationDatetime,
+                               Integer excludeReservationId) {
+        Floor floor = loadFloor(reservationDatetime, reservationDatetime, excludeReservationId);
+        return tables.stream().allMatch(table -> floor.isFree(table, reservationDatetime));
+    }
+
+    public TableAssignmentResponseDTO toResponseDTO(TableAssignment assignment) {
+        TableAssignmentResponseDTO dto = new TableAssignmentResponseDTO();
+        dto.setReference(assignment.getReference());
+        dto.setReservationDatetime(assignment.getReservationDatetime());
+        dto.setPartySize(assignment.getPartySize());
+        dto.setAssigned(assignment.isAssigned());
+        if (assignment.isAssigned()) {
+            dto.setLocation(assignment.getTables().get(0).getLocation());
+            dto.setTotalCapacity(assignment.getTotalCapacity());
+            dto.setUnusedSeats(assignment.getUnusedSeats());
+        }
+        dto.setTables(assignment.getTables().stream().map(table -> {
+            TableAssignmentResponseDTO.TableInfo info = new TableAssignmentResponseDTO.TableInfo();
+            info.setId(table.getId());
+            info.setTableNumber(table.getTableNumber());
+            info.setCapacity(table.getCapacity());
+            return info;
+        }).toList());
+        return dto;
+    }
+
+    private Floor loadFloor(LocalDateTime from, LocalDateTime to) {
+        return loadFloor(from, to, null);
+    }
+
+    private Floor loadFloor(LocalDateTime from, LocalDateTime to, Integer excludeReservationId) {
+        long spanMinutes = spanMinutes();
+        Floor floor = new Floor(LocalDateTime.now().plusMinutes(schedulerConfig.reservationDurationMinutes));
+        for (TableEntity table : tableRepository.findAll()) {
+            if (Boolean.TRUE.equals(table.getIsActive())) {
+                floor.addTable(table, tableOccupancyService.hasActiveOrder(table.getId()));
+            }
+        }
+        for (Reservation reservation : reservationRepository.findWithTablesByStatusInAndDatetimeBetween(
+                OPEN_RESERVATION_STATUSES, from.minusMinutes(spanMinutes), to.plusMinutes(spanMinutes))) {
+            if (Objects.equals(reservation.getId(), excludeReservationId)) {
+                continue;
+            }
+            floor.book(reservation.getTable().getId(), reservation.getReservationDatetime());
+            reservation.getJoinedTables().forEach(table -> floor.book(table.getId(), reservation.getReservationDatetime()));
+        }
+        floor.sortZones();
+        return floor;
+    }
+
+    // Một đặt bàn chiếm bàn trong thời gian phục vụ cộng thời gian dọn bàn
+    private long spanMinutes() {
+        return schedulerConfig.reservationDurationMinutes + schedulerConfig.reservationBufferAfterMinutes;
+    }
+
+    private final class Floor {
+        final Map<String, List<TableEntity>> zones = new LinkedHashMap<>();
+        final Map<Integer, List<LocalDateTime>> booked = new HashMap<>();
+        final Set<Integer> occupied = new HashSet<>();
+        final LocalDateTime occupiedUntil;   // giờ đến trước mốc này thì bàn đang có khách không nhận được
+        final long span = spanMinutes();
+
+        Floor(LocalDateTime occupiedUntil) {
+            this.occupiedUntil = occupiedUntil;
+        }
+
+        void addTable(TableEntity table, boolean hasActiveOrder) {
+            zones.computeIfAbsent(table.getLocation() != null ? table.getLocation() : "", key -> new ArrayList<>())
+                    .add(table);
+            if (hasActiveOrder) {
+                occupied.add(table.getId());
+            }
+        }
+
+        void sortZones() {
+            zones.values().forEach(tables -> tables.sort(FLOOR_ORDER));
+        }
+
+        void book(Integer tableId, LocalDateTime start) {
+            booked.computeIfAbsent(tableId, id -> new ArrayList<>()).add(start);
+        }
+
+        void book(TableAssignment assignment) {
+            assignment.getTables().forEach(table -> book(table.getId(), assignment.getReservationDatetime()));
+        }
+
+        boolean isFree(TableEntity table, LocalDateTime start) {
+            if (start.isBefore(occupiedUntil) && occupied.contains(table.getId())) {
+                return false;
+            }
+            LocalDateTime end = start.plusMinutes(span);
+            for (LocalDateTime other : booked.getOrDefault(table.getId(), List.of())) {
+                if (start.isBefore(other.plusMinutes(span)) && other.isBefore(end)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        TableAssignment assign(String reference, LocalDateTime start, int partySize) {
+            List<TableEntity> best = null;
+            int bestCapacity = Integer.MAX_VALUE;
+
+            // Một bàn: ít ghế thừa nhất
+            for (List<TableEntity> tables : zones.values()) {
+                for (TableEntity table : tables) {
+                    if (table.getCapacity() >= partySize && table.getCapacity() < bestCapacity && isFree(table, start)) {
+                        best = List.of(table);
+                        bestCapacity = table.getCapacity();
+                    }
+                }
+            }
+
+            // Ghép bàn liền kề trong cùng khu vực: ít ghế thừa nhất, rồi ít bàn nhất
+            if (best == null) {
+                for (List<TableEntity> tables : zones.values()) {
+                    boolean[] free = new boolean[tables.size()];
+                    for (int i = 0; i < free.length; i++) {
+                        free[i] = isFree(tables.get(i), start);
+                    }
+                    for (int first = 0; first < free.length; first++) {
+                        int capacity = 0;
+                        for (int last = first; last < free.length && last - first < maxJoined && free[last]; last++) {
+                            capacity += tables.get(last).getCapacity();
+                            if (capacity >= partySize) {
+                                int count = last - first + 1;
+                                if (capacity < bestCapacity || (capacity == bestCapacity && count < best.size())) {
+                                    best = List.copyOf(tables.subList(first, last + 1));
+                                    bestCapacity = capacity;
+                                }
+                                break;
+                            }
+                        }
+                    }
+                }
+            }
+            return new TableAssignment(reference, start, partySize, best != null ? best : List.of());
+        }
+    }
+
+    private static String numberPrefix(String tableNumber) {
+        Matcher matcher = TABLE_NUMBER.matcher(tableNumber);
+        return matcher.matches() ? matcher.group(1) : tableNumber;
+    }
+
+    private static long numberSuffix(String tableNumber) {
+        Matcher matcher = TABLE_NUMBER.matcher(tableNumber);
+        if (!matcher.matches() || matcher.group(2).length() > 18) {
+            return 0;
+        }
+        return Long.parseLong(matcher.group(2));
+    }
+}
@@ -0,0 +1,54 @@
+package com.coffeeshop.service;
+
+import com.coffeeshop.enums.TableStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Ảnh chụp tình trạng sử dụng của một bàn theo TableOccupancyService.
+ * status là trạng thái suy ra từ đơn và đặt bàn, có thể khác TableEntity.status cho tới khi
+ * scheduler cập nhật bàn.
+ */
+public class TableOccupancy {
+    private final Integer tableId;
+    private final Integer activeOrderId;
+    private final int activeOrderCount;
+    private final Integer upcomingReservationId;
+    private final LocalDateTime upcomingReservationAt;
+    private final TableStatus status;
+
+    TableOccupancy(Integer tableId, Integer activeOrderId, int activeOrderCount, Integer upcomingReservationId,
+                   LocalDateTime upcomingReservationAt, TableStatus status) {
+        this.tableId = tableId;
+        this.activeOrderId = activeOrderId;
+        this.activeOrderCount = activeOrderCount;
+        this.upcomingReservationId = upcomingReservationId;
+        this.upcomingReservationAt = upcomingReservationAt;
+        this.status = status;
+    }
+
+    public Integer getTableId() {
+        return tableId;
+    }
+
+    // Đơn đang hoạt động mở sớm nhất, null nếu bàn không có đơn
+    public Integer getActiveOrderId() {
+        return activeOrderId;
+    }
+
+    public int getActiveOrderCount() {
+        return activeOrderCount;
+    }
+
+    public Integer getUpcomingReservationId() {
+        return upcomingReservationId;
+    }
+
+    public LocalDateTime getUpcomingReservationAt() {
+        return upcomingReservationAt;
+    }
+
+    public TableStatus getStatus() {
+        return status;
+    }
+}
@@ -0,0 +1,316 @@
+package com.coffeeshop.service;
+
+import com.coffeeshop.entity.Reservation;
+import com.coffeeshop.enums.OrderStatus;
+import com.coffeeshop.enums.ReservationStatus;
+import com.coffeeshop.enums.TableStatus;
+import com.coffeeshop.event.OrderCreatedEvent;
+import com.coffeeshop.event.OrderStatusChangedEvent;
+import com.coffeeshop.event.ReservationChangedEvent;
+import com.coffeeshop.repository.OrderRepository;
+import com.coffeeshop.repository.ReservationRepository;
+import com.coffeeshop.scheduler.BranchTaskRunner;
+import com.coffeeshop.scheduler.SchedulerConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+
+/**
+ * Tình trạng sử dụng của từng bàn giữ trong bộ nhớ: các đơn đang hoạt động, đặt bàn sắp tới
+ * và trạng thái suy ra, để việc trả bàn, gợi ý bàn và ước lượng hàng chờ không phải nạp toàn bộ
+ * lịch sử đơn của bàn.
+ *
+ * Được cập nhật từ các sự kiện miền (chạy trước các listener khác của cùng sự kiện) và đối soát
+ * định kỳ với DB mỗi tableOccupancyReconcileMs để sửa sai lệch, ví dụ thay đổi ghi thẳng vào DB.
+ * Sự kiện miền chỉ được relay trên leader: instance khác nạp lại từ DB mỗi clusterFollowerRefreshMs,
+ * và leader mới nạp lại một lần ở lượt kế tiếp sau khi nhận vai trò. Việc nạp lại chạy trong scheduler,
+ * luồng đọc chỉ nạp lần đầu.
+ */
+@Service
+public class TableOccupancyService {
+    private static final Logger logger = LoggerFactory.getLogger(TableOccupancyService.class);
+
+    private static final Set<OrderStatus> CLOSED_ORDER_STATUSES = EnumSet.of(OrderStatus.COMPLETED, OrderStatus.CANCELLED);
+    private static final Set<ReservationStatus> OPEN_RESERVATION_STATUSES =
+            EnumSet.of(ReservationStatus.PENDING, ReservationStatus.CONFIRMED, ReservationStatus.SEATED);
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private SchedulerConfig schedulerConfig;
+
+    @Autowired
+    private BranchTaskRunner branchTaskRunner;
+
+    @Autowired
+    private ClusterService clusterService;
+
+    private record Slot(Integer reservationId, Integer tableId, LocalDateTime at, ReservationStatus status) {
+        static final Comparator<Slot> BY_TIME = Comparator.comparing(Slot::at).thenComparing(Slot::reservationId);
+    }
+
+    private static final class Occupancy {
+        final Set<Integer> orders = new LinkedHashSet<>();
+        final TreeSet<Slot> reservations = new TreeSet<>(Slot.BY_TIME);
+
+        boolean isEmpty() {
+            return orders.isEmpty() && reservations.isEmpty();
+        }
+    }
+
+    private static final class State {
+        final Map<Integer, Occupancy> tables = new HashMap<>();
+        final Map<Integer, Integer> activeOrders = new HashMap<>();   // id đơn -> id bàn
+        final Map<Integer, List<Slot>> reservations = new HashMap<>();   // một slot cho mỗi bàn (kể cả bàn ghép)
+
+        void openOrder(Integer orderId, Integer tableId) {
+            if (activeOrders.putIfAbsent(orderId, tableId) == null) {
+                tables.computeIfAbsent(tableId, id -> new Occupancy()).orders.add(orderId);
+            }
+        }
+
+        void closeOrder(Integer orderId) {
+            Integer tableId = activeOrders.remove(orderId);
+            if (tableId == null) {
+                return;
+            }
+            Occupancy occupancy = tables.get(tableId);
+            if (occupancy != null) {
+                occupancy.orders.remove(orderId);
+                if (occupancy.isEmpty()) {
+                    tables.remove(tableId);
+                }
+            }
+        }
+
+        void putReservation(List<Slot> slots) {
+            removeReservation(slots.get(0).reservationId());
+            reservations.put(slots.get(0).reservationId(), slots);
+            for (Slot slot : slots) {
+                tables.computeIfAbsent(slot.tableId(), id -> new Occupancy()).reservations.add(slot);
+            }
+        }
+
+        void removeReservation(Integer reservationId) {
+            List<Slot> slots = reservations.remove(reservationId);
+            if (slots != null) {
+                for (Slot slot : slots) {
+                    Occupancy occupancy = tables.get(slot.tableId());
+                    if (occupancy != null) {
+                        occupancy.reservations.remove(slot);
+                        if (occupancy.isEmpty()) {
+                            tables.remove(slot.tableId());
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    // Các trường dưới đây được bảo vệ bởi this
+    private State state = new State();
+    private List<Consumer<State>> journal;   // khác null trong lúc đối soát: thay đổi cần áp lại lên bản mới
+    private volatile boolean loaded;
+    private boolean loadedAsLeader;   // đã nạp kể từ khi nhận vai trò leader (nhận sự kiện từ đó)
+
+    private final Object reconcileLock = new Object();
+
+    public boolean hasActiveOrder(Integer tableId) {
+        ensureLoaded();
+        synchronized (this) {
+            Occupancy occupancy = state.tables.get(tableId);
+            return occupancy != null && !occupancy.orders.isEmpty();
+        }
+    }
+
+    public TableOccupancy getOccupancy(Integer tableId) {
+        ensureLoaded();
+        LocalDateTime now = LocalDateTime.now();
+        synchronized (this) {
+            Occupancy occupancy = state.tables.get(tableId);
+            if (occupancy == null) {
+                return new TableOccupancy(tableId, null, 0, null, null, TableStatus.AVAILABLE);
+            }
+            Integer activeOrderId = occupancy.orders.isEmpty() ? null : occupancy.orders.iterator().next();
+            Slot upcoming = upcoming(occupancy, now);
+            return new TableOccupancy(tableId, activeOrderId, occupancy.orders.size(),
+                    upcoming != null ? upcoming.reservationId() : null, upcoming != null ? upcoming.at() : null,
+                    derivedStatus(occupancy, upcoming, now));
+        }
+    }
+
+    @EventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onOrderCreated(OrderCreatedEvent event) {
+        apply(s -> s.openOrder(event.orderId(), event.tableId()));
+    }
+
+    @EventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        if (CLOSED_ORDER_STATUSES.contains(event.to())) {
+            apply(s -> s.closeOrder(event.orderId()));
+        } else if (event.tableId() != null) {
+            // Bổ sung nếu sự kiện tạo đơn bị lỡ
+            apply(s -> s.openOrder(event.orderId(), event.tableId()));
+        }
+    }
+
+    @EventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onReservationChanged(ReservationChangedEvent event) {
+        if (OPEN_RESERVATION_STATUSES.contains(event.to())) {
+            List<Integer> tableIds = new ArrayList<>();
+            tableIds.add(event.tableId());
+            if (event.joinedTableIds() != null) {
+                tableIds.addAll(event.joinedTableIds());
+            }
+            List<Slot> slots = slots(event.reservationId(), tableIds, event.reservationDatetime(), event.to());
+            apply(s -> s.putReservation(slots));
+        } else {
+            apply(s -> s.removeReservation(event.reservationId()));
+        }
+    }
+
+    /**
+     * Dựng lại trạng thái từ DB. Thay đổi đến trong lúc đọc DB được áp lại lên bản mới trước khi thay thế.
+     */
+    @Scheduled(fixedDelayString = "${app.tableOccupancyReconcileMs:300000}")
+    public void reconcile() {
+        synchronized (reconcileLock) {
+            boolean leader = clusterService.isLeader();
+            synchronized (this) {
+                journal = new ArrayList<>();
+            }
+            State fresh;
+            try {
+                fresh = load();
+            } catch (RuntimeException e) {
+                synchronized (this) {
+                    journal = null;
+                }
+                throw e;
+            }
+            synchronized (this) {
+                journal.forEach(change -> change.accept(fresh));
+                journal = null;
+                // Chỉ trạng thái dựng từ sự kiện mới đáng so; ở instance khác leader thì lệch là bình thường
+                if (loaded && leader && loadedAsLeader && !fresh.activeOrders.keySet().equals(state.activeOrders.keySet())) {
+                    logger.warn("Tình trạng bàn lệch với DB: {} đơn đang hoạt động trong bộ nhớ, {} trong DB",
+                            state.activeOrders.size(), fresh.activeOrders.size());
+                }
+                state = fresh;
+                loadedAsLeader = leader;
+                loaded = true;
+            }
+        }
+    }
+
+    /**
+     * Nạp lại từ DB khi sự kiện miền không đến được instance này: mỗi lượt trên instance khác leader,
+     * và một lần trên leader chưa nạp kể từ khi nhận vai trò.
+     */
+    @Scheduled(fixedDelayString = "${app.clusterFollowerRefreshMs:5000}")
+    public void refreshFromDatabase() {
+        if (!loaded) {
+            // Lần nạp đầu do luồng đọc đầu tiên thực hiện
+            return;
+        }
+        boolean leader = clusterService.isLeader();
+        synchronized (this) {
+            if (leader && loadedAsLeader) {
+                return;
+            }
+            if (!leader) {
+                loadedAsLeader = false;
+            }
+        }
+        reconcile();
+    }
+
+    private void ensureLoaded() {
+        if (!loaded) {
+            synchronized (reconcileLock) {
+                // Luồng khác có thể vừa nạp xong trong lúc chờ khóa
+                if (!loaded) {
+                    reconcile();
+                }
+            }
+        }
+    }
+
+    private synchronized void apply(Consumer<State> change) {
+        change.accept(state);
+        if (journal != null) {
+            journal.add(change);
+        }
+    }
+
+    // Một lượt đọc cho mọi chi nhánh: trạng thái được khóa theo id bàn/đơn/đặt bàn, vốn duy nhất toàn hệ thống
+    private State load() {
+        State fresh = new State();
+        branchTaskRunner.readAllBranches(() -> {
+            Set<OrderStatus> active = EnumSet.complementOf(EnumSet.copyOf(CLOSED_ORDER_STATUSES));
+            for (com.coffeeshop.entity.Order order : orderRepository.findBoardOrdersByStatusIn(active)) {
+                fresh.openOrder(order.getId(), order.getTable().getId());
+            }
+            for (Reservation reservation : reservationRepository.findWithTablesByStatusIn(OPEN_RESERVATION_STATUSES)) {
+                List<Integer> tableIds = new ArrayList<>();
+                tableIds.add(reservation.getTable().getId());
+                reservation.getJoinedTables().forEach(table -> tableIds.add(table.getId()));
+                fresh.putReservation(slots(reservation.getId(), tableIds, reservation.getReservationDatetime(),
+                        reservation.getStatus()));
+            }
+            return null;
+        });
+        return fresh;
+    }
+
+    private static List<Slot> slots(Integer reservationId, List<Integer> tableIds, LocalDateTime at,
+                                    ReservationStatus status) {
+        return tableIds.stream().map(tableId -> new Slot(reservationId, tableId, at, status)).toList();
+    }
+
+    // Đặt bàn sớm nhất chưa quá thời gian chờ khách
+    private Slot upcoming(Occupancy occupancy, LocalDateTime now) {
+        LocalDateTime graceStart = now.minusMinutes(schedulerConfig.reservationGracePeriodMinutes);
+        for (Slot slot : occupancy.reservations) {
+            if (slot.status() == ReservationStatus.SEATED || !slot.at().isBefore(graceStart)) {
+                return slot;
+            }
+        }
+        return null;
+    }
+
+    private TableStatus derivedStatus(Occupancy occupancy, Slot upcoming, LocalDateTime now) {
+        if (!occupancy.orders.isEmpty() || (upcoming != null && upcoming.status() == ReservationStatus.SEATED)) {
+            return TableStatus.OCCUPIED;
+        }
+        if (upcoming != null && upcoming.status() == ReservationStatus.CONFIRMED
+                && !now.isBefore(upcoming.at().minusMinutes(schedulerConfig.reservationAutoReserveBeforeMinutes))) {
+            return TableStatus.RESERVED;
+        }
+        return TableStatus.AVAILABLE;
+    }
+}
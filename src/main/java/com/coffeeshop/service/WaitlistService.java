@@ -0,0 +1,669 @@
+package com.coffeeshop.service;
+
+import com.coffeeshop.dto.customer.request.WaitlistRequestDTO;
+import com.coffeeshop.dto.customer.response.WaitlistEntryResponseDTO;
+import com.coffeeshop.entity.TableEntity;
+import com.coffeeshop.entity.User;
+import com.coffeeshop.entity.WaitlistEntry;
+import com.coffeeshop.enums.NotificationType;
+import com.coffeeshop.enums.OrderStatus;
+import com.coffeeshop.enums.TableStatus;
+import com.coffeeshop.enums.UserRole;
+import com.coffeeshop.enums.WaitlistStatus;
+import com.coffeeshop.event.OrderCreatedEvent;
+import com.coffeeshop.event.OrderStatusChangedEvent;
+import com.coffeeshop.event.WaitlistChangedEvent;
+import com.coffeeshop.exception.BusinessLogicException;
+import com.coffeeshop.exception.UnauthorizedAccessException;
+import com.coffeeshop.exception.UserNotFoundException;
+import com.coffeeshop.repository.OrderRepository;
+import com.coffeeshop.repository.TableRepository;
+import com.coffeeshop.repository.UserRepository;
+import com.coffeeshop.repository.WaitlistEntryRepository;
+import com.coffeeshop.scheduler.BranchTaskRunner;
+import com.coffeeshop.scheduler.SchedulerConfig;
+import com.coffeeshop.tenant.BranchContext;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Hàng chờ cho khách vãng lai và ước lượng thời gian chờ.
+ *
+ * Thời điểm mỗi bàn trống được suy ra từ các đơn đang mở trên bàn: trung bình giữa ước lượng theo
+ * tiến độ (thời gian còn lại trung bình kể từ trạng thái hiện tại của đơn) và ước lượng theo thời gian
+ * ngồi bàn trung bình của chính bàn đó. Các trung bình là trung bình trượt (EMA, hệ số waitlistDwellAlpha),
+ * nạp từ các đơn COMPLETED trong waitlistHistoryDays ngày khi khởi động và cập nhật dần từ sự kiện đơn,
+ * nên việc ước lượng không phải quét lại bảng orders. Bàn có đặt bàn sắp tới chỉ nhận khách vãng lai nếu
+ * khách kịp rời bàn trước giờ đặt.
+ *
+ * Khi một bàn trống, nhóm đầu tiên vừa bàn trong hàng chờ được báo (NOTIFIED) và giữ bàn trong
+ * waitlistOfferMinutes phút; quá hạn thì chuyển EXPIRED và bàn được mời cho nhóm kế tiếp.
+ * Chỉ leader (ClusterService) mời bàn: khách vào hoặc rời hàng chờ ở instance khác ghi WaitlistChangedEvent
+ * vào outbox để leader mời bàn khi relay sự kiện đó.
+ */
+@Service
+public class WaitlistService {
+    private static final Logger logger = LoggerFactory.getLogger(WaitlistService.class);
+
+    private static final Set<WaitlistStatus> ACTIVE_STATUSES = EnumSet.of(WaitlistStatus.WAITING, WaitlistStatus.NOTIFIED);
+    private static final Set<OrderStatus> CLOSED_ORDER_STATUSES = EnumSet.of(OrderStatus.COMPLETED, OrderStatus.CANCELLED);
+
+    @Autowired
+    private WaitlistEntryRepository waitlistEntryRepository;
+
+    @Autowired
+    private TableRepository tableRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private TableOccupancyService tableOccupancyService;
+
+    @Autowired
+    private SchedulerConfig schedulerConfig;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private BranchTaskRunner branchTaskRunner;
+
+    @Autowired
+    private ClusterService clusterService;
+
+    @Autowired
+    private DomainEventPublisher domainEventPublisher;
+
+    @Value("${app.waitlistHistoryDays:14}")
+    private int historyDays;
+
+    @Value("${app.waitlistDwellAlpha:0.2}")
+    private double dwellAlpha;
+
+    @Value("${app.waitlistOfferMinutes:10}")
+    private int offerMinutes;
+
+    @Value("${app.clusterFollowerRefreshMs:5000}")
+    private long followerRefreshMs;
+
+    // Tiến độ của một đơn đang mở: thời điểm đơn bước vào từng trạng thái
+    private static final class Progress {
+        final Integer tableId;
+        final LocalDateTime createdAt;
+        final boolean fromStart;   // false nếu đơn được biết tới giữa chừng, createdAt chỉ là ước lượng
+        final Map<OrderStatus, LocalDateTime> entered = new EnumMap<>(OrderStatus.class);
+        OrderStatus status;
+
+        Progress(Integer tableId, LocalDateTime createdAt, boolean fromStart, OrderStatus status, LocalDateTime enteredAt) {
+            this.tableId = tableId;
+            this.createdAt = createdAt;
+            this.fromStart = fromStart;
+            enter(status, enteredAt);
+        }
+
+        void enter(OrderStatus next, LocalDateTime at) {
+            status = next;
+            entered.putIfAbsent(next, at);
+        }
+    }
+
+    // Một bàn trong lần mô phỏng hàng chờ
+    private static final class Seat {
+        final TableEntity table;
+        LocalDateTime freeAt;
+        LocalDateTime reservationAt;
+
+        Seat(TableEntity table, LocalDateTime freeAt, LocalDateTime reservationAt) {
+            this.table = table;
+            this.freeAt = freeAt;
+            this.reservationAt = reservationAt;
+        }
+    }
+
+    // Các trường dưới đây được bảo vệ bởi this
+    private final Map<Integer, Progress> openOrders = new HashMap<>();
+    private final Map<Integer, Double> dwellByTable = new HashMap<>();
+    private final Map<OrderStatus, Double> remainingByStatus = new EnumMap<>(OrderStatus.class);
+    private Double dwellOverall;
+    // Sự kiện đơn chỉ được relay trên leader: instance khác đồng bộ openOrders với DB theo chu kỳ
+    private long openOrdersLoadedAt;
+    private boolean openOrdersLoadedAsLeader;
+
+    // Tránh mời cùng một bàn cho hai nhóm; bàn thuộc về một chi nhánh nên mỗi chi nhánh một khóa
+    private final Map<Integer, Object> offerLocks = new ConcurrentHashMap<>();
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        // Lượt mời bàn được commit riêng, không phụ thuộc giao dịch (nếu có) của listener hay job gọi nó
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadHistory() {
+        LocalDateTime since = LocalDateTime.now().minusDays(historyDays);
+        // Thời gian ngồi được học theo từng bàn (id duy nhất toàn hệ thống) nên nạp một lượt cho mọi chi nhánh
+        List<Object[]> history = branchTaskRunner.readAllBranches(
+                () -> orderRepository.findTableDwellSince(OrderStatus.COMPLETED, since));
+        synchronized (this) {
+            for (Object[] row : history) {
+                learnDwell((Integer) row[0], minutesBetween((LocalDateTime) row[1], (LocalDateTime) row[2]));
+            }
+        }
+        int open = loadOpenOrders();
+        logger.info("Hàng chờ: nạp {} đơn đã hoàn thành, {} đơn đang mở", history.size(), open);
+    }
+
+    // Đồng bộ openOrders với các đơn đang mở trong DB, giữ tiến độ đã biết của đơn còn mở
+    private int loadOpenOrders() {
+        boolean leader = clusterService.isLeader();
+        long startedAt = System.currentTimeMillis();
+        Set<OrderStatus> active = EnumSet.complementOf(EnumSet.copyOf(CLOSED_ORDER_STATUSES));
+        List<com.coffeeshop.entity.Order> open = branchTaskRunner.readAllBranches(
+                () -> orderRepository.findBoardOrdersByStatusIn(active));
+        synchronized (this) {
+            Set<Integer> openIds = new HashSet<>();
+            for (com.coffeeshop.entity.Order order : open) {
+                openIds.add(order.getId());
+                Progress progress = openOrders.get(order.getId());
+                if (progress == null) {
+                    // updatedAt là thời điểm gần nhất có thể biết đơn bước vào trạng thái hiện tại
+                    openOrders.put(order.getId(), new Progress(order.getTable().getId(), order.getCreatedAt(),
+                            true, order.getStatus(), order.getUpdatedAt()));
+                } else if (progress.status != order.getStatus()) {
+                    progress.enter(order.getStatus(), order.getUpdatedAt());
+                }
+            }
+            openOrders.keySet().retainAll(openIds);
+            openOrdersLoadedAt = startedAt;
+            openOrdersLoadedAsLeader = leader;
+        }
+        return open.size();
+    }
+
+    // Instance khác leader nạp lại khi openOrders cũ hơn clusterFollowerRefreshMs; leader nạp lại một lần
+    // khi vừa nhận vai trò vì các sự kiện trước đó đã được relay ở leader cũ
+    private void refreshOpenOrdersIfStale() {
+        boolean leader = clusterService.isLeader();
+        boolean stale;
+        synchronized (this) {
+            if (!leader) {
+                openOrdersLoadedAsLeader = false;
+            }
+            stale = leader ? !openOrdersLoadedAsLeader
+                    : System.currentTimeMillis() - openOrdersLoadedAt > followerRefreshMs;
+        }
+        if (stale) {
+            loadOpenOrders();
+        }
+    }
+
+    @EventListener
+    public void onOrderCreated(OrderCreatedEvent event) {
+        LocalDateTime now = LocalDateTime.now();
+        synchronized (this) {
+            openOrders.putIfAbsent(event.orderId(), new Progress(event.tableId(), now, true, OrderStatus.PENDING, now));
+        }
+    }
+
+    @EventListener
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        LocalDateTime now = LocalDateTime.now();
+        boolean closed = CLOSED_ORDER_STATUSES.contains(event.to());
+        synchronized (this) {
+            Progress progress = openOrders.get(event.orderId());
+            if (closed) {
+                openOrders.remove(event.orderId());
+                if (progress != null && event.to() == OrderStatus.COMPLETED) {
+                    learn(progress, now);
+                }
+            } else if (progress != null) {
+                progress.enter(event.to(), now);
+            } else if (event.tableId() != null) {
+                openOrders.put(event.orderId(), new Progress(event.tableId(), now, false, event.to(), now));
+            }
+        }
+        if (closed && event.tableId() != null) {
+            offerFreeTables();
+        }
+    }
+
+    // Nhóm mới vào hàng chờ, hoặc bàn đang giữ cho nhóm vừa hủy được trả lại
+    @EventListener
+    public void onWaitlistChanged(WaitlistChangedEvent event) {
+        if (event.to() == WaitlistStatus.WAITING || event.from() == WaitlistStatus.NOTIFIED) {
+            offerFreeTables();
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public WaitlistEntryResponseDTO estimate(int partySize) {
+        LocalDateTime now = LocalDateTime.now();
+        List<WaitlistEntry> queue = waitlistEntryRepository.findQueue(ACTIVE_STATUSES);
+        List<LocalDateTime> seatTimes = simulate(queue, partySize, now);
+        WaitlistEntryResponseDTO dto = new WaitlistEntryResponseDTO();
+        dto.setPartySize(partySize);
+        dto.setPosition(queue.size() + 1);
+        setEstimate(dto, seatTimes.get(queue.size()), now);
+        return dto;
+    }
+
+    @Transactional
+    public WaitlistEntryResponseDTO join(WaitlistRequestDTO request, String username) {
+        User customer = userRepository.findByUsername(username)
+                .orElseThrow(() -> new UserNotFoundException("Không tìm thấy người dùng", username));
+        waitlistEntryRepository.findFirstByCustomer_IdAndStatusInOrderByCreatedAtDesc(customer.getId(), ACTIVE_STATUSES)
+                .ifPresent(existing -> {
+                    throw new BusinessLogicException("Bạn đã ở trong hàng chờ", "WAITLIST_ALREADY_JOINED", existing.getId());
+                });
+        boolean fits = tableRepository.findAll().stream()
+                .anyMatch(table -> Boolean.TRUE.equals(table.getIsActive()) && table.getCapacity() >= request.getPartySize());
+        if (!fits) {
+            throw new BusinessLogicException("Không có bàn đủ chỗ cho nhóm " + request.getPartySize() + " người",
+                    "NO_TABLE_AVAILABLE", request.getPartySize());
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        WaitlistEntry entry = new WaitlistEntry();
+        entry.setCustomer(customer);
+        entry.setPartySize(request.getPartySize());
+        entry.setNotes(request.getNotes());
+        entry.setStatus(WaitlistStatus.WAITING);
+        entry.setCreatedAt(now);
+        entry.setUpdatedAt(now);
+        entry = waitlistEntryRepository.save(entry);
+        domainEventPublisher.publish(new WaitlistChangedEvent(entry.getId(), null, WaitlistStatus.WAITING));
+        return describe(entry);
+    }
+
+    @Transactional(readOnly = true)
+    public WaitlistEntryResponseDTO getMyEntry(String username) {
+        User customer = userRepository.findByUsername(username)
+                .orElseThrow(() -> new UserNotFoundException("Không tìm thấy người dùng", username));
+        WaitlistEntry entry = waitlistEntryRepository
+                .findFirstByCustomer_IdAndStatusInOrderByCreatedAtDesc(customer.getId(), ACTIVE_STATUSES)
+                .orElseThrow(() -> new BusinessLogicException("Bạn không ở trong hàng chờ", "WAITLIST_NOT_FOUND"));
+        return describe(entry);
+    }
+
+    @Transactional(readOnly = true)
+    public List<WaitlistEntryResponseDTO> getQueue() {
+        LocalDateTime now = LocalDateTime.now();
+        List<WaitlistEntry> queue = waitlistEntryRepository.findQueue(ACTIVE_STATUSES);
+        List<LocalDateTime> seatTimes = simulate(queue, null, now);
+        List<WaitlistEntryResponseDTO> result = new ArrayList<>(queue.size());
+        for (int i = 0; i < queue.size(); i++) {
+            result.add(toResponseDTO(queue.get(i), i + 1, seatTimes.get(i), now));
+        }
+        return result;
+    }
+
+    @Transactional
+    public WaitlistEntryResponseDTO cancel(Integer id, String username) {
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new UserNotFoundException("Không tìm thấy người dùng", username));
+        WaitlistEntry entry = findActive(id);
+        if (user.getRole() != UserRole.ROLE_ADMIN && !entry.getCustomer().getId().equals(user.getId())) {
+            throw new UnauthorizedAccessException("Bạn không có quyền hủy lượt chờ này", id);
+        }
+        WaitlistStatus from = entry.getStatus();
+        entry.setStatus(WaitlistStatus.CANCELLED);
+        entry.setUpdatedAt(LocalDateTime.now());
+        waitlistEntryRepository.save(entry);
+        domainEventPublisher.publish(new WaitlistChangedEvent(entry.getId(), from, WaitlistStatus.CANCELLED));
+        return toResponseDTO(entry, null, null, LocalDateTime.now());
+    }
+
+    // Khách đã nhận bàn; đơn gọi món sau đó sẽ đánh dấu bàn có khách
+    @Transactional
+    public WaitlistEntryResponseDTO seat(Integer id) {
+        WaitlistEntry entry = findActive(id);
+        entry.setStatus(WaitlistStatus.SEATED);
+        entry.setUpdatedAt(LocalDateTime.now());
+        waitlistEntryRepository.save(entry);
+        return toResponseDTO(entry, null, null, LocalDateTime.now());
+    }
+
+    /**
+     * Hết hạn các lượt giữ bàn quá waitlistOfferMinutes rồi mời bàn trống cho hàng chờ. Cũng bỏ tiến độ của
+     * các đơn mà bàn không còn đơn đang hoạt động (sự kiện đóng đơn bị lỡ).
+     * Khi chạy nhiều instance, chỉ leader mời bàn để một bàn không bị mời cho hai khách.
+     */
+    @Scheduled(fixedDelayString = "${app.waitlistCheckIntervalMs:60000}")
+    public void checkWaitlist() {
+        pruneClosedOrders();
+        if (!clusterService.isLeader()) {
+            return;
+        }
+        branchTaskRunner.runPerBranch("WaitlistService.checkWaitlist", this::checkBranchWaitlist);
+    }
+
+    private void checkBranchWaitlist() {
+        synchronized (offerLock()) {
+            transactionTemplate.executeWithoutResult(status -> {
+                LocalDateTime cutoff = LocalDateTime.now().minusMinutes(offerMinutes);
+                for (WaitlistEntry entry : waitlistEntryRepository.findQueue(EnumSet.of(WaitlistStatus.NOTIFIED))) {
+                    if (entry.getNotifiedAt() != null && entry.getNotifiedAt().isBefore(cutoff)) {
+                        entry.setStatus(WaitlistStatus.EXPIRED);
+                        entry.setUpdatedAt(LocalDateTime.now());
+                        waitlistEntryRepository.save(entry);
+                        notificationService.createUserNotification(entry.getCustomer(), NotificationType.SYSTEM_ANNOUNCEMENT,
+                                "Hết thời gian giữ bàn", "Bàn " + entry.getOfferedTable().getTableNumber()
+                                        + " đã được nhường cho khách tiếp theo do bạn không tới nhận sau " + offerMinutes + " phút");
+                    }
+                }
+            });
+        }
+        offerFreeTables();
+    }
+
+    /**
+     * Mời các bàn đang trống cho những nhóm chờ sớm nhất vừa bàn (bàn nhỏ nhất đủ chỗ). Không làm gì nếu
+     * instance không phải leader; khóa offerLocks chỉ ngăn mời trùng bàn giữa các luồng của leader.
+     */
+    public void offerFreeTables() {
+        if (!clusterService.isLeader()) {
+            return;
+        }
+        synchronized (offerLock()) {
+            transactionTemplate.executeWithoutResult(status -> {
+                LocalDateTime now = LocalDateTime.now();
+                List<WaitlistEntry> queue = waitlistEntryRepository.findQueue(ACTIVE_STATUSES);
+                if (queue.stream().noneMatch(entry -> entry.getStatus() == WaitlistStatus.WAITING)) {
+                    return;
+                }
+                Set<Integer> held = heldTableIds(queue);
+                List<TableEntity> free = new ArrayList<>();
+                for (Seat seat : seats(now)) {
+                    if (!held.contains(seat.table.getId()) && seatAt(seat, now).equals(now)
+                            && tableOccupancyService.getOccupancy(seat.table.getId()).getStatus() == TableStatus.AVAILABLE) {
+                        free.add(seat.table);
+                    }
+                }
+                free.sort(Comparator.comparing(TableEntity::getCapacity));
+                for (WaitlistEntry entry : queue) {
+                    if (free.isEmpty()) {
+                        break;
+                    }
+                    if (entry.getStatus() != WaitlistStatus.WAITING) {
+                        continue;
+                    }
+                    free.stream().filter(table -> table.getCapacity() >= entry.getPartySize()).findFirst()
+                            .ifPresent(table -> {
+                                offer(entry, table, now);
+                                free.remove(table);
+                            });
+                }
+            });
+        }
+    }
+
+    private Object offerLock() {
+        return offerLocks.computeIfAbsent(BranchContext.current(), branchId -> new Object());
+    }
+
+    private void offer(WaitlistEntry entry, TableEntity table, LocalDateTime now) {
+        entry.setStatus(WaitlistStatus.NOTIFIED);
+        entry.setOfferedTable(table);
+        entry.setNotifiedAt(now);
+        entry.setUpdatedAt(now);
+        waitlistEntryRepository.save(entry);
+        notificationService.createUserNotification(entry.getCustomer(), NotificationType.TABLE_AVAILABLE,
+                "Đã có bàn cho bạn", "Bàn " + table.getTableNumber() + " đã sẵn sàng cho nhóm " + entry.getPartySize()
+                        + " người. Vui lòng tới nhận bàn trong " + offerMinutes + " phút");
+        logger.info("Hàng chờ: mời bàn {} cho lượt chờ {}", table.getTableNumber(), entry.getId());
+    }
+
+    private WaitlistEntry findActive(Integer id) {
+        WaitlistEntry entry = waitlistEntryRepository.findById(id)
+                .orElseThrow(() -> new BusinessLogicException("Không tìm thấy lượt chờ", "WAITLIST_NOT_FOUND", id));
+        if (!ACTIVE_STATUSES.contains(entry.getStatus())) {
+            throw new BusinessLogicException("Lượt chờ đã kết thúc (" + entry.getStatus() + ")", "WAITLIST_NOT_ACTIVE", id);
+        }
+        return entry;
+    }
+
+    private WaitlistEntryResponseDTO describe(WaitlistEntry entry) {
+        LocalDateTime now = LocalDateTime.now();
+        List<WaitlistEntry> queue = waitlistEntryRepository.findQueue(ACTIVE_STATUSES);
+        List<LocalDateTime> seatTimes = simulate(queue, null, now);
+        for (int i = 0; i < queue.size(); i++) {
+            if (queue.get(i).getId().equals(entry.getId())) {
+                return toResponseDTO(entry, i + 1, seatTimes.get(i), now);
+            }
+        }
+        return toResponseDTO(entry, null, null, now);
+    }
+
+    /**
+     * Mô phỏng hàng chờ theo thứ tự đến: nhóm đang được giữ bàn ngồi ngay, mỗi nhóm chờ nhận bàn đủ chỗ
+     * trống sớm nhất (ít ghế nhất nếu bằng nhau). Trả về giờ nhận bàn dự kiến theo thứ tự queue, thêm một
+     * phần tử cho nhóm extraPartySize nếu khác null; null nếu không bàn nào đủ chỗ.
+     */
+    private List<LocalDateTime> simulate(List<WaitlistEntry> queue, Integer extraPartySize, LocalDateTime now) {
+        List<Seat> seats = seats(now);
+        Map<Integer, Seat> byTable = new HashMap<>();
+        seats.forEach(seat -> byTable.put(seat.table.getId(), seat));
+
+        List<LocalDateTime> result = new ArrayList<>(queue.size() + 1);
+        for (WaitlistEntry entry : queue) {
+            if (entry.getStatus() == WaitlistStatus.NOTIFIED && entry.getOfferedTable() != null) {
+                Seat seat = byTable.get(entry.getOfferedTable().getId());
+                if (seat != null) {
+                    seat.freeAt = later(seat.freeAt, now).plus(dwell(seat.table.getId()));
+                }
+                result.add(now);
+            } else {
+                result.add(take(seats, entry.getPartySize(), now));
+            }
+        }
+        if (extraPartySize != null) {
+            result.add(take(seats, extraPartySize, now));
+        }
+        return result;
+    }
+
+    private LocalDateTime take(List<Seat> seats, int partySize, LocalDateTime now) {
+        Seat best = null;
+        LocalDateTime bestAt = null;
+        for (Seat seat : seats) {
+            if (seat.table.getCapacity() < partySize) {
+                continue;
+            }
+            LocalDateTime at = seatAt(seat, now);
+            if (best == null || at.isBefore(bestAt)
+                    || (at.equals(bestAt) && seat.table.getCapacity() < best.table.getCapacity())) {
+                best = seat;
+                bestAt = at;
+            }
+        }
+        if (best == null) {
+            return null;
+        }
+        if (best.reservationAt != null && bestAt.isAfter(best.reservationAt)) {
+            best.reservationAt = null;
+        }
+        best.freeAt = bestAt.plus(dwell(best.table.getId()));
+        return bestAt;
+    }
+
+    // Giờ sớm nhất một nhóm vãng lai ngồi được vào bàn mà không chồng lên đặt bàn sắp tới
+    private LocalDateTime seatAt(Seat seat, LocalDateTime now) {
+        LocalDateTime start = later(seat.freeAt, now);
+        if (seat.reservationAt != null && start.plus(dwell(seat.table.getId())).isAfter(seat.reservationAt)
+                && start.isBefore(seat.reservationAt.plusMinutes(reservationSpanMinutes()))) {
+            return seat.reservationAt.plusMinutes(reservationSpanMinutes());
+        }
+        return start;
+    }
+
+    private List<Seat> seats(LocalDateTime now) {
+        refreshOpenOrdersIfStale();
+        Map<Integer, LocalDateTime> ordersFreeAt = new HashMap<>();
+        synchronized (this) {
+            for (Progress progress : openOrders.values()) {
+                ordersFreeAt.merge(progress.tableId, estimatedEnd(progress, now), WaitlistService::later);
+            }
+        }
+        List<Seat> seats = new ArrayList<>();
+        for (TableEntity table : tableRepository.findAll()) {
+            if (!Boolean.TRUE.equals(table.getIsActive())) {
+                continue;
+            }
+            TableOccupancy occupancy = tableOccupancyService.getOccupancy(table.getId());
+            LocalDateTime freeAt = ordersFreeAt.get(table.getId());
+            if (freeAt == null && (occupancy.getActiveOrderCount() > 0 || occupancy.getStatus() == TableStatus.OCCUPIED)) {
+                // Có khách nhưng chưa biết tiến độ (đơn chưa kịp tới, hoặc khách đặt bàn đã ngồi nhưng chưa gọi món)
+                freeAt = now.plus(dwell(table.getId()));
+            }
+            seats.add(new Seat(table, freeAt != null ? freeAt : now, occupancy.getUpcomingReservationAt()));
+        }
+        return seats;
+    }
+
+    private Set<Integer> heldTableIds(List<WaitlistEntry> queue) {
+        Set<Integer> held = new HashSet<>();
+        for (WaitlistEntry entry : queue) {
+            if (entry.getStatus() == WaitlistStatus.NOTIFIED && entry.getOfferedTable() != null) {
+                held.add(entry.getOfferedTable().getId());
+            }
+        }
+        return held;
+    }
+
+    private void pruneClosedOrders() {
+        Set<Integer> tableIds;
+        synchronized (this) {
+            tableIds = new HashSet<>();
+            openOrders.values().forEach(progress -> tableIds.add(progress.tableId));
+        }
+        Set<Integer> idle = new HashSet<>();
+        for (Integer tableId : tableIds) {
+            if (!tableOccupancyService.hasActiveOrder(tableId)) {
+                idle.add(tableId);
+            }
+        }
+        if (!idle.isEmpty()) {
+            synchronized (this) {
+                openOrders.values().removeIf(progress -> idle.contains(progress.tableId));
+            }
+        }
+    }
+
+    // Gọi trong synchronized (this)
+    private LocalDateTime estimatedEnd(Progress progress, LocalDateTime now) {
+        LocalDateTime end = progress.createdAt.plus(dwell(progress.tableId));
+        Double remaining = remainingByStatus.get(progress.status);
+        if (remaining != null) {
+            LocalDateTime byStage = progress.entered.get(progress.status).plus(minutes(remaining));
+            end = end.plus(Duration.between(end, byStage).dividedBy(2));
+        }
+        LocalDateTime earliest = now.plusMinutes(1);
+        return end.isBefore(earliest) ? earliest : end;
+    }
+
+    // Gọi trong synchronized (this)
+    private void learn(Progress progress, LocalDateTime completedAt) {
+        if (progress.fromStart) {
+            learnDwell(progress.tableId, minutesBetween(progress.createdAt, completedAt));
+        }
+        progress.entered.forEach((status, at) ->
+                remainingByStatus.merge(status, minutesBetween(at, completedAt), this::ema));
+    }
+
+    // Gọi trong synchronized (this)
+    private void learnDwell(Integer tableId, double minutes) {
+        if (tableId == null || minutes <= 0) {
+            return;
+        }
+        dwellByTable.merge(tableId, minutes, this::ema);
+        dwellOverall = dwellOverall == null ? minutes : ema(dwellOverall, minutes);
+    }
+
+    private synchronized Duration dwell(Integer tableId) {
+        Double minutes = dwellByTable.get(tableId);
+        if (minutes == null) {
+            minutes = dwellOverall != null ? dwellOverall : schedulerConfig.reservationDurationMinutes;
+        }
+        return minutes(minutes);
+    }
+
+    private double ema(double current, double sample) {
+        return current + dwellAlpha * (sample - current);
+    }
+
+    private long reservationSpanMinutes() {
+        return schedulerConfig.reservationDurationMinutes + schedulerConfig.reservationBufferAfterMinutes;
+    }
+
+    private WaitlistEntryResponseDTO toResponseDTO(WaitlistEntry entry, Integer position, LocalDateTime seatAt,
+                                                   LocalDateTime now) {
+        WaitlistEntryResponseDTO dto = new WaitlistEntryResponseDTO();
+        dto.setId(entry.getId());
+        dto.setCustomerUsername(entry.getCustomer().getUsername());
+        dto.setPartySize(entry.getPartySize());
+        dto.setStatus(entry.getStatus());
+        dto.setPosition(position);
+        if (ACTIVE_STATUSES.contains(entry.getStatus())) {
+            setEstimate(dto, seatAt, now);
+        }
+        if (entry.getOfferedTable() != null) {
+            dto.setOfferedTableNumber(entry.getOfferedTable().getTableNumber());
+        }
+        dto.setNotes(entry.getNotes());
+        dto.setNotifiedAt(entry.getNotifiedAt());
+        dto.setCreatedAt(entry.getCreatedAt());
+        return dto;
+    }
+
+    private static void setEstimate(WaitlistEntryResponseDTO dto, LocalDateTime seatAt, LocalDateTime now) {
+        if (seatAt != null) {
+            dto.setEstimatedSeatAt(seatAt);
+            dto.setEstimatedWaitMinutes(Math.max(0, Duration.between(now, seatAt).toMinutes()));
+        }
+    }
+
+    private static Duration minutes(double minutes) {
+        return Duration.ofSeconds(Math.round(minutes * 60));
+    }
+
+    private static double minutesBetween(LocalDateTime from, LocalDateTime to) {
+        return Duration.between(from, to).toSeconds() / 60.0;
+    }
+
+    private static LocalDateTime later(LocalDateTime a, LocalDateTime b) {
+        return a.isAfter(b) ? a : b;
+    }
+}
@@ -46,6 +46,14 @@ public class AuthServiceImpl implements AuthService {
             throw new InvalidCredentialsException("Sai tên đăng nhập hoặc mật khẩu!", request.getUsername());
         }
         
+        // Mã hóa lại nếu hash đang dùng cost cũ (tăng hoặc giảm theo app.bcryptStrength)
+        if (passwordEncoder.upgradeEncoding(user.getPassword())) {
+            user.setPassword(passwordEncoder.encode(request.getPassword()));
+            user.setUpdatedAt(LocalDateTime.now());
+            userRepository.save(user);
+            logger.info("Re-encoded password hash for user {}", user.getUsername());
+        }
+        
         String accessToken = jwtUtils.generateJwtToken(user.getUsername());
         String refreshToken = refreshTokenService.createRefreshToken(user).getToken();
         
@@ -62,10 +70,10 @@ public class AuthServiceImpl implements AuthService {
 
     @Override
     public RefreshTokenResponseDTO refreshToken(RefreshTokenRequestDTO request) {
-        var tokenOpt = refreshTokenService.findByToken(request.getRefreshToken());
+        var usernameOpt = refreshTokenService.findValidUsername(request.getRefreshToken());
         
-        if (tokenOpt.isPresent() && refreshTokenService.isValid(tokenOpt.get())) {
-            String accessToken = jwtUtils.generateJwtToken(tokenOpt.get().getUser().getUsername());
+        if (usernameOpt.isPresent()) {
+            String accessToken = jwtUtils.generateJwtToken(usernameOpt.get());
             RefreshTokenResponseDTO response = new RefreshTokenResponseDTO();
             response.setAccessToken(accessToken);
             return response;
@@ -1,13 +1,17 @@
 package com.coffeeshop.service.impl;
 
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
 import java.util.Map;
+import java.util.stream.Collectors;
 import java.time.LocalDateTime;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.coffeeshop.config.ReadReplica;
 import com.coffeeshop.entity.Category;
 import com.coffeeshop.repository.CategoryRepository;
 import com.coffeeshop.dto.admin.request.AdminCategoryRequestDTO;
@@ -16,6 +20,7 @@ import com.coffeeshop.dto.admin.response.AdminCategoryStatisticsDTO;
 import com.coffeeshop.dto.admin.response.AdminProductResponseDTO;
 import com.coffeeshop.dto.customer.response.CustomerCategoryResponseDTO;
 import com.coffeeshop.service.CategoryService;
+import com.coffeeshop.service.DisplayOrderUpdater;
 import com.coffeeshop.service.ProductService;
 
 @Service
@@ -27,6 +32,9 @@ public class CategoryServiceImpl implements CategoryService {
 	@Autowired
 	private ProductService productService;
 
+	@Autowired
+	private DisplayOrderUpdater displayOrderUpdater;
+
 	@Override
 	public List<Category> getAllCategories() {
 		return categoryRepository.findAll();
@@ -55,16 +63,27 @@ public class CategoryServiceImpl implements CategoryService {
 	}
 
 	@Override
+	@Transactional
 	public List<Category> reorderCategories(List<Map<String, Integer>> reorderList) {
-		for (Map<String, Integer> item : reorderList) {
-			Integer id = item.get("id");
-			Integer displayOrder = item.get("displayOrder");
-			Category category = getCategoryById(id).orElseThrow(() -> new IllegalArgumentException("ID không hợp lệ trong danh sách reorder!"));
-			category.setDisplayOrder(displayOrder);
-			category.setUpdatedAt(LocalDateTime.now());
-			categoryRepository.save(category);
+		Map<Integer, Integer> idToOrder = DisplayOrderUpdater.toIdToOrder(reorderList,
+			item -> item.get("id"), item -> item.get("displayOrder"));
+		if (idToOrder.isEmpty()) {
+			return List.of();
+		}
+		List<Category> categories = categoryRepository.findAllById(idToOrder.keySet());
+		if (categories.size() != idToOrder.size()) {
+			throw new IllegalArgumentException("ID không hợp lệ trong danh sách reorder!");
+		}
+		LocalDateTime now = LocalDateTime.now();
+		displayOrderUpdater.apply(Category.class, categories, idToOrder, now);
+		// Gán lại trên bản đã tách khỏi persistence context, không cần đọc lại từ DB
+		for (Category category : categories) {
+			category.setDisplayOrder(idToOrder.get(category.getId()));
+			category.setUpdatedAt(now);
 		}
-		return getAllCategories();
+		return categories.stream()
+			.sorted(Comparator.comparing(Category::getDisplayOrder).thenComparing(Category::getId))
+			.toList();
 	}
 
 	@Override
@@ -76,6 +95,7 @@ public class CategoryServiceImpl implements CategoryService {
 	}
 
 	@Override
+	@Transactional(readOnly = true)
 	public AdminCategoryStatisticsDTO getStatistics() {
 		var categories = getAllCategories();
 		var products = productService.getAllProducts();
@@ -86,6 +106,7 @@ public class CategoryServiceImpl implements CategoryService {
 	}
 
 	@Override
+	@Transactional(readOnly = true)
 	public List<AdminCategoryResponseDTO> getAllAdminCategoryDTOs() {
 		return getAllCategories().stream()
 			.map(c -> {
@@ -99,6 +120,8 @@ public class CategoryServiceImpl implements CategoryService {
 	}
 
 	@Override
+	@ReadReplica
+	@Transactional(readOnly = true)
 	public List<CustomerCategoryResponseDTO> getAllActiveCustomerCategoryDTOs() {
 		return getAllCategories().stream()
 			.filter(c -> Boolean.TRUE.equals(c.getIsActive()))
@@ -109,6 +132,7 @@ public class CategoryServiceImpl implements CategoryService {
 	}
 
 	@Override
+	@Transactional(readOnly = true)
 	public AdminCategoryResponseDTO getAdminCategoryDTOById(Integer id) {
 		Category category = getCategoryById(id)
 			.orElseThrow(() -> new IllegalArgumentException("Không tìm thấy danh mục!"));
@@ -122,6 +146,7 @@ public class CategoryServiceImpl implements CategoryService {
 	}
 
 	@Override
+	@Transactional(readOnly = true)
 	public List<AdminProductResponseDTO> getAdminProductsByCategory(Integer id) {
 		// Validate category exists
 		if (!getCategoryById(id).isPresent()) {
@@ -142,6 +167,7 @@ public class CategoryServiceImpl implements CategoryService {
 	}
 
 	@Override
+	@Transactional
 	public AdminCategoryResponseDTO updateCategory(Integer id, AdminCategoryRequestDTO dto) {
 		dto.setId(id);
 		Category category = saveCategory(dto);
@@ -155,6 +181,7 @@ public class CategoryServiceImpl implements CategoryService {
 	}
 
 	@Override
+	@Transactional
 	public AdminCategoryResponseDTO toggleActiveAndReturnDTO(Integer id) {
 		Category category = toggleActive(id);
 		
@@ -167,17 +194,18 @@ public class CategoryServiceImpl implements CategoryService {
 	}
 
 	@Override
+	@Transactional
 	public List<AdminCategoryResponseDTO> reorderCategoriesAndReturnDTOs(List<Map<String, Integer>> reorderList) {
 		List<Category> categories = reorderCategories(reorderList);
-		
+
+		// Gom sản phẩm theo danh mục một lần thay vì duyệt toàn bộ sản phẩm cho từng danh mục
+		Map<Integer, List<AdminProductResponseDTO>> productsByCategory = productService.getAllProducts().stream()
+			.filter(p -> p.getCategory() != null)
+			.collect(Collectors.groupingBy(p -> p.getCategory().getId(),
+				Collectors.mapping(AdminProductResponseDTO::fromEntity, Collectors.toList())));
+
 		return categories.stream()
-			.map(c -> {
-				List<AdminProductResponseDTO> products = productService.getAllProducts().stream()
-					.filter(p -> p.getCategory() != null && p.getCategory().getId().equals(c.getId()))
-					.map(AdminProductResponseDTO::fromEntity)
-					.toList();
-				return AdminCategoryResponseDTO.fromEntity(c, products);
-			})
+			.map(c -> AdminCategoryResponseDTO.fromEntity(c, productsByCategory.getOrDefault(c.getId(), List.of())))
 			.toList();
 	}
 }
\ No newline at end of file
@@ -179,6 +179,18 @@ public class NotificationServiceImpl implements NotificationService {
         notificationRepository.save(notification);
     }
 
+    @Override
+    public void createUserNotification(User user, NotificationType type, String title, String message) {
+        Notification notification = new Notification();
+        notification.setUser(user);
+        notification.setType(type);
+        notification.setTitle(title);
+        notification.setMessage(message);
+        notification.setIsRead(false);
+        notification.setCreatedAt(LocalDateTime.now());
+        notificationRepository.save(notification);
+    }
+
     private NotificationResponseDTO convertToResponseDTO(Notification notification) {
         NotificationResponseDTO dto = new NotificationResponseDTO();
         dto.setId(notification.getId());
@@ -1,13 +1,15 @@
 package com.coffeeshop.service.impl;
 
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.coffeeshop.config.ReadReplica;
 import com.coffeeshop.entity.Product;
 import com.coffeeshop.entity.Category;
 import com.coffeeshop.repository.ProductRepository;
@@ -16,6 +18,7 @@ import com.coffeeshop.dto.admin.request.AdminProductRequestDTO;
 import com.coffeeshop.dto.admin.response.AdminProductResponseDTO;
 import com.coffeeshop.dto.customer.response.CustomerProductResponseDTO;
 import com.coffeeshop.controller.ProductController.ReorderRequest;
+import com.coffeeshop.service.DisplayOrderUpdater;
 import com.coffeeshop.service.ProductService;
 import java.time.LocalDateTime;
 
@@ -27,6 +30,9 @@ public class ProductServiceImpl implements ProductService {
 	@Autowired
 	private CategoryRepository categoryRepository;
 
+	@Autowired
+	private DisplayOrderUpdater displayOrderUpdater;
+
 	@Override
 	public List<Product> getAllProducts() {
 		return productRepository.findAll();
@@ -87,18 +93,29 @@ public class ProductServiceImpl implements ProductService {
 	}
 
 	@Override
+	@Transactional
 	public List<Product> reorderProducts(Map<Integer, Integer> idToOrder) {
-		List<Product> all = productRepository.findAll();
-		for (Product p : all) {
-			if (idToOrder.containsKey(p.getId())) {
-				p.setDisplayOrder(idToOrder.get(p.getId()));
-				productRepository.save(p);
-			}
+		if (idToOrder.isEmpty()) {
+			return List.of();
 		}
-		return productRepository.findAll();
+		List<Product> products = productRepository.findAllWithCategoryByIdIn(idToOrder.keySet());
+		if (products.size() != idToOrder.size()) {
+			throw new IllegalArgumentException("ID không hợp lệ trong danh sách reorder!");
+		}
+		LocalDateTime now = LocalDateTime.now();
+		displayOrderUpdater.apply(Product.class, products, idToOrder, now);
+		// Gán lại trên bản đã tách khỏi persistence context, không cần đọc lại từ DB
+		for (Product p : products) {
+			p.setDisplayOrder(idToOrder.get(p.getId()));
+			p.setUpdatedAt(now);
+		}
+		return products.stream()
+			.sorted(Comparator.comparing(Product::getDisplayOrder).thenComparing(Product::getId))
+			.toList();
 	}
 
 	@Override
+	@Transactional(readOnly = true)
 	public List<AdminProductResponseDTO> getFilteredAdminProducts(Integer categoryId, Boolean isAvailable, String search, String sort) {
 		List<Product> products = getAllProducts();
 		
@@ -141,6 +158,8 @@ public class ProductServiceImpl implements ProductService {
 	}
 
 	@Override
+	@ReadReplica
+	@Transactional(readOnly = true)
 	public List<CustomerProductResponseDTO> getFilteredCustomerProducts(Integer categoryId, String search, String sort) {
 		List<Product> products = getAllProducts().stream()
 			.filter(p -> Boolean.TRUE.equals(p.getIsAvailable()))
@@ -175,6 +194,8 @@ public class ProductServiceImpl implements ProductService {
 	}
 
 	@Override
+	@ReadReplica
+	@Transactional(readOnly = true)
 	public List<CustomerProductResponseDTO> getCustomerProductsByCategory(Integer categoryId) {
 		return getAllProducts().stream()
 			.filter(p -> p.getCategory() != null && p.getCategory().getId().equals(categoryId))
@@ -184,6 +205,7 @@ public class ProductServiceImpl implements ProductService {
 	}
 
 	@Override
+	@Transactional(readOnly = true)
 	public AdminProductResponseDTO getAdminProductById(Integer id) {
 		return getProductById(id)
 			.map(AdminProductResponseDTO::fromEntity)
@@ -191,18 +213,21 @@ public class ProductServiceImpl implements ProductService {
 	}
 
 	@Override
+	@Transactional
 	public AdminProductResponseDTO createProduct(AdminProductRequestDTO request) {
 		Product product = saveProductFromDTO(request, null);
 		return AdminProductResponseDTO.fromEntity(product);
 	}
 
 	@Override
+	@Transactional
 	public AdminProductResponseDTO updateProduct(Integer id, AdminProductRequestDTO request) {
 		Product product = saveProductFromDTO(request, id);
 		return AdminProductResponseDTO.fromEntity(product);
 	}
 
 	@Override
+	@Transactional
 	public AdminProductResponseDTO toggleProductAvailable(Integer id) {
 		Product product = getProductById(id)
 			.orElseThrow(() -> new IllegalArgumentException("Không tìm thấy sản phẩm!"));
@@ -211,17 +236,10 @@ public class ProductServiceImpl implements ProductService {
 	}
 
 	@Override
+	@Transactional
 	public List<AdminProductResponseDTO> reorderProducts(List<ReorderRequest> reorderList) {
-		Map<Integer, Integer> idToOrder = reorderList.stream()
-			.collect(Collectors.toMap(ReorderRequest::getId, ReorderRequest::getDisplayOrder));
-		
-		List<Integer> allIds = getAllProducts().stream().map(Product::getId).toList();
-		for (Integer id : idToOrder.keySet()) {
-			if (!allIds.contains(id)) {
-				throw new IllegalArgumentException("ID không hợp lệ trong danh sách reorder!");
-			}
-		}
-		
+		Map<Integer, Integer> idToOrder = DisplayOrderUpdater.toIdToOrder(reorderList,
+			ReorderRequest::getId, ReorderRequest::getDisplayOrder);
 		return reorderProducts(idToOrder).stream()
 			.map(AdminProductResponseDTO::fromEntity)
 			.toList();
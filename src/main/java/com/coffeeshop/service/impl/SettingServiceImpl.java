@@ -39,7 +39,7 @@ public class SettingServiceImpl implements SettingService {
 
 	@Override
 	public void deleteSetting(String key) {
-		settingRepository.deleteById(key);
+		settingRepository.findBySettingKey(key).ifPresent(settingRepository::delete);
 	}
 
 	@Override
@@ -73,7 +73,8 @@ public class SettingServiceImpl implements SettingService {
 
 	@Override
 	public AdminSettingResponseDTO createSetting(AdminSettingRequestDTO request) {
-		Setting setting = new Setting();
+		// Key đã có ở chi nhánh hiện tại thì ghi đè như trước khi đổi sang khóa thay thế
+		Setting setting = getSettingByKey(request.getKey()).orElseGet(Setting::new);
 		setting.setSettingKey(request.getKey());
 		setting.setSettingValue(request.getValue());
 		setting.setDescription(request.getDescription());
@@ -1,5 +1,6 @@
 package com.coffeeshop.service.impl;
 
+import com.coffeeshop.config.ReadReplica;
 import com.coffeeshop.service.StatisticsService;
 import com.coffeeshop.dto.admin.response.statistics.OverviewStatisticsResponseDTO;
 import com.coffeeshop.dto.admin.response.statistics.RevenueStatisticsResponseDTO;
@@ -13,10 +14,13 @@ import com.coffeeshop.repository.CategoryRepository;
 import com.coffeeshop.repository.OrderItemRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDate;
 import java.util.stream.Collectors;
 
 @Service
+@ReadReplica
+@Transactional(readOnly = true)
 public class StatisticsServiceImpl implements StatisticsService {
     @Autowired
     private OrderRepository orderRepository;
@@ -13,6 +13,7 @@ import com.coffeeshop.repository.TableRepository;
 import com.coffeeshop.dto.admin.response.AdminTableResponseDTO;
 import com.coffeeshop.dto.admin.request.AdminTableRequestDTO;
 import com.coffeeshop.dto.customer.response.CustomerTableResponseDTO;
+import com.coffeeshop.service.BoardService;
 import com.coffeeshop.service.TableService;
 
 @Service
@@ -21,6 +22,9 @@ public class TableServiceImpl implements TableService {
 	@Autowired
 	private TableRepository tableRepository;
 
+	@Autowired
+	private BoardService boardService;
+
 	@Override
 	public List<TableEntity> getAllTables() {
 		return tableRepository.findAll();
@@ -41,12 +45,15 @@ public class TableServiceImpl implements TableService {
 				.orElse(LocalDateTime.now()));
 		}
 		table.setUpdatedAt(LocalDateTime.now());
-		return tableRepository.save(table);
+		TableEntity saved = tableRepository.save(table);
+		boardService.publishTable(saved);
+		return saved;
 	}
 
 	@Override
 	public void deleteTable(Integer id) {
 		tableRepository.deleteById(id);
+		boardService.publishTableRemoved(id);
 	}
 
 	@Override
@@ -1,10 +1,12 @@
 package com.coffeeshop.service.impl;
 
+import com.coffeeshop.config.ReadReplica;
 import com.coffeeshop.entity.User;
 import com.coffeeshop.exception.UserNotFoundException;
 import com.coffeeshop.exception.UserAlreadyExistsException;
 import com.coffeeshop.exception.InvalidCredentialsException;
 import com.coffeeshop.exception.ValidationException;
+import com.coffeeshop.repository.BranchRepository;
 import com.coffeeshop.repository.UserRepository;
 import com.coffeeshop.dto.shared.request.UserProfileUpdateRequestDTO;
 import com.coffeeshop.dto.shared.response.UserProfileResponseDTO;
@@ -15,6 +17,7 @@ import com.coffeeshop.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -28,6 +31,9 @@ public class UserServiceImpl implements UserService {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private BranchRepository branchRepository;
+
     @Override
     public List<User> getAllUsers() {
         return userRepository.findAll();
@@ -125,6 +131,8 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
+    @ReadReplica
+    @Transactional(readOnly = true)
     public List<AdminUserResponseDTO> getAllAdminUsers() {
         return getAllUsers().stream()
             .map(AdminUserResponseDTO::fromEntity)
@@ -157,6 +165,7 @@ public class UserServiceImpl implements UserService {
         user.setProfileImage(request.getProfileImage());
         user.setRole(request.getRole() != null ? request.getRole() : UserRole.ROLE_CUSTOMER);
         user.setIsActive(request.getIsActive() != null ? request.getIsActive() : true);
+        if (request.getBranchId() != null) user.setBranchId(validBranchId(request.getBranchId()));
         user.setCreatedAt(LocalDateTime.now());
         user.setUpdatedAt(LocalDateTime.now());
         
@@ -189,6 +198,7 @@ public class UserServiceImpl implements UserService {
         if (request.getProfileImage() != null) user.setProfileImage(request.getProfileImage());
         if (request.getRole() != null) user.setRole(request.getRole());
         if (request.getIsActive() != null) user.setIsActive(request.getIsActive());
+        if (request.getBranchId() != null) user.setBranchId(validBranchId(request.getBranchId()));
         if (request.getPassword() != null && !request.getPassword().trim().isEmpty()) {
             user.setPassword(encodePassword(request.getPassword()));
         }
@@ -206,4 +216,15 @@ public class UserServiceImpl implements UserService {
         User savedUser = saveUser(user);
         return AdminUserResponseDTO.fromEntity(savedUser);
     }
-}
\ No newline at end of file
+
+    // 0 = bỏ gán chi nhánh
+    private Integer validBranchId(Integer branchId) {
+        if (branchId == 0) {
+            return null;
+        }
+        if (!branchRepository.existsById(branchId)) {
+            throw new IllegalArgumentException("Không tìm thấy chi nhánh: " + branchId);
+        }
+        return branchId;
+    }
+}
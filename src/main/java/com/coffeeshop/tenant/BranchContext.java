@@ -0,0 +1,80 @@
+package com.coffeeshop.tenant;
+
+import org.slf4j.MDC;
+
+import java.util.function.Supplier;
+
+/**
+ * Chi nhánh (quán) mà luồng hiện tại đang phục vụ. Hibernate đọc giá trị này (BranchTenantResolver) để gán
+ * branch_id khi thêm mới và tự thêm điều kiện branch_id vào mọi truy vấn trên các entity có @TenantId.
+ *
+ * Request HTTP lấy chi nhánh từ header X-Branch-Id (BranchFilter); job định kỳ chạy lần lượt cho từng chi nhánh
+ * (BranchTaskRunner); sự kiện outbox được phát với chi nhánh đã ghi lúc tạo. Luồng chưa đặt chi nhánh dùng
+ * chi nhánh mặc định để các client cũ (một quán) không phải đổi gì.
+ *
+ * Lưu ý: session Hibernate cố định chi nhánh lúc mở, nên phải đặt chi nhánh trước khi bắt đầu transaction.
+ */
+public final class BranchContext {
+
+    public static final int DEFAULT_BRANCH_ID = 1;
+
+    // Chi nhánh "gốc": đọc được dữ liệu của mọi chi nhánh (nạp trạng thái lúc khởi động, đối soát, outbox)
+    public static final int ALL = 0;
+
+    public static final String MDC_BRANCH = "branch";
+
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    private BranchContext() {}
+
+    public static int current() {
+        Integer branchId = CURRENT.get();
+        return branchId != null ? branchId : DEFAULT_BRANCH_ID;
+    }
+
+    /**
+     * Đặt chi nhánh cho luồng hiện tại, trả về giá trị cũ để khôi phục bằng restore().
+     */
+    public static Integer set(Integer branchId) {
+        Integer previous = CURRENT.get();
+        CURRENT.set(branchId);
+        MDC.put(MDC_BRANCH, String.valueOf(branchId));
+        return previous;
+    }
+
+    public static void restore(Integer previous) {
+        if (previous == null) {
+            CURRENT.remove();
+            MDC.remove(MDC_BRANCH);
+        } else {
+            CURRENT.set(previous);
+            MDC.put(MDC_BRANCH, String.valueOf(previous));
+        }
+    }
+
+    public static void runAs(Integer branchId, Runnable task) {
+        Integer previous = set(branchId);
+        try {
+            task.run();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    public static <T> T callAs(Integer branchId, Supplier<T> task) {
+        Integer previous = set(branchId);
+        try {
+            return task.get();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    /**
+     * Gói task để chạy ở luồng khác (executor, timer) với chi nhánh của luồng đang gọi.
+     */
+    public static Runnable wrap(Runnable task) {
+        int branchId = current();
+        return () -> runAs(branchId, task);
+    }
+}
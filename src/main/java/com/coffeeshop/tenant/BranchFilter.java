@@ -0,0 +1,88 @@
+package com.coffeeshop.tenant;
+
+import com.coffeeshop.dto.common.ErrorResponseDTO;
+import com.coffeeshop.service.BranchService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Đặt chi nhánh của request từ header X-Branch-Id (handshake WebSocket dùng tham số branchId vì trình duyệt
+ * không gửi được header). Không có header thì dùng chi nhánh mặc định; chi nhánh không tồn tại hoặc đã
+ * ngừng hoạt động trả về 400.
+ *
+ * Chạy trước Spring Security và trước khi mở EntityManager của request (open-in-view), vì session Hibernate
+ * lấy chi nhánh lúc được mở.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 3)
+public class BranchFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "X-Branch-Id";
+    public static final String WS_PARAMETER = "branchId";
+
+    private static final DateTimeFormatter TIMESTAMP_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSSSSSS");
+
+    @Autowired
+    private BranchService branchService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain) throws ServletException, IOException {
+        String value = request.getHeader(HEADER);
+        if (value == null && request.getRequestURI().startsWith("/ws/")) {
+            value = request.getParameter(WS_PARAMETER);
+        }
+        int branchId = BranchContext.DEFAULT_BRANCH_ID;
+        if (value != null && !value.isBlank()) {
+            try {
+                branchId = Integer.parseInt(value.trim());
+            } catch (NumberFormatException e) {
+                reject(request, response, "X-Branch-Id không hợp lệ: " + value);
+                return;
+            }
+            if (!branchService.isActive(branchId)) {
+                reject(request, response, "Chi nhánh không tồn tại hoặc đã ngừng hoạt động: " + branchId);
+                return;
+            }
+        }
+
+        Integer previous = BranchContext.set(branchId);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            BranchContext.restore(previous);
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response, String message) throws IOException {
+        ErrorResponseDTO error = new ErrorResponseDTO(message, "Bad Request", request.getRequestURI(),
+                LocalDateTime.now().format(TIMESTAMP_FORMATTER), HttpStatus.BAD_REQUEST.value());
+        response.setStatus(HttpStatus.BAD_REQUEST.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        objectMapper.writeValue(response.getOutputStream(), error);
+    }
+}
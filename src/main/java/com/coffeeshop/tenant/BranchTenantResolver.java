@@ -0,0 +1,44 @@
+package com.coffeeshop.tenant;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.context.spi.CurrentTenantIdentifierResolver;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Khai báo BranchContext làm tenant cho Hibernate (phân vùng theo cột branch_id, @TenantId).
+ * Cũng là TaskDecorator của executor @Async để tác vụ bất đồng bộ giữ chi nhánh của luồng gọi.
+ */
+@Component
+public class BranchTenantResolver implements CurrentTenantIdentifierResolver<Integer>, HibernatePropertiesCustomizer,
+        TaskDecorator {
+
+    @Override
+    public Integer resolveCurrentTenantIdentifier() {
+        return BranchContext.current();
+    }
+
+    // Session được mở theo transaction/request, không dùng getCurrentSession()
+    @Override
+    public boolean validateExistingCurrentSessions() {
+        return false;
+    }
+
+    @Override
+    public boolean isRoot(Integer tenantId) {
+        return tenantId != null && tenantId == BranchContext.ALL;
+    }
+
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        hibernateProperties.put(AvailableSettings.MULTI_TENANT_IDENTIFIER_RESOLVER, this);
+    }
+
+    @Override
+    public Runnable decorate(Runnable runnable) {
+        return BranchContext.wrap(runnable);
+    }
+}
@@ -0,0 +1,14 @@
+package com.coffeeshop.tracing;
+
+/**
+ * Ném ra khi bật app.failOnNPlusOne và một câu SELECT lặp lại quá ngưỡng trong cùng request,
+ * để test tích hợp của endpoint đó thất bại ngay tại chỗ sinh ra N+1 (stack trace chỉ đúng nơi gọi).
+ */
+public class NPlusOneQueryException extends IllegalStateException {
+
+    private static final long serialVersionUID = 1L;
+
+    public NPlusOneQueryException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,80 @@
+package com.coffeeshop.tracing;
+
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.lang.NonNull;
+import org.springframework.security.web.util.OnCommittedResponseWrapper;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Locale;
+
+/**
+ * Gắn tổng số câu lệnh SQL và thời gian DB của cả request vào span HTTP server, và chuyển số lần
+ * chạy từng câu SELECT của request cho QueryInspector để phát hiện N+1.
+ *
+ * Khi bật app.queryCountHeader (chỉ dùng khi phát triển), trả thêm header X-Query-Count và
+ * X-Query-Time-Ms để thấy ngay endpoint nào sinh N+1. Header được ghi ngay trước khi response
+ * commit, nên câu lệnh chạy sau thời điểm đó (khi đang ghi body dạng stream) không được tính vào header.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)   // Sau ServerHttpObservationFilter để span HTTP đã mở
+public class QueryCountFilter extends OncePerRequestFilter {
+
+    public static final String COUNT_HEADER = "X-Query-Count";
+    public static final String TIME_HEADER = "X-Query-Time-Ms";
+
+    @Autowired
+    private Tracer tracer;
+
+    @Autowired
+    private QueryInspector queryInspector;
+
+    @Value("${app.queryCountHeader:false}")
+    private boolean queryCountHeader;
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain) throws ServletException, IOException {
+        QueryStats stats = QueryStats.current();
+        long fromCount = stats.getCount();
+        long fromNanos = stats.getNanos();
+        stats.openRequest();
+
+        HttpServletResponse target = response;
+        if (queryCountHeader) {
+            target = new OnCommittedResponseWrapper(response) {
+                @Override
+                protected void onResponseCommitted() {
+                    writeHeaders(response, stats, fromCount, fromNanos);
+                }
+            };
+        }
+        try {
+            filterChain.doFilter(request, target);
+        } finally {
+            if (queryCountHeader && !response.isCommitted()) {
+                writeHeaders(response, stats, fromCount, fromNanos);
+            }
+            Span span = tracer.currentSpan();
+            if (span != null) {
+                stats.tagSince(span, fromCount, fromNanos);
+            }
+            queryInspector.requestCompleted(request, stats.closeRequest());
+        }
+    }
+
+    private static void writeHeaders(HttpServletResponse response, QueryStats stats, long fromCount, long fromNanos) {
+        response.setHeader(COUNT_HEADER, Long.toString(stats.getCount() - fromCount));
+        response.setHeader(TIME_HEADER, String.format(Locale.ROOT, "%.1f", (stats.getNanos() - fromNanos) / 1_000_000.0));
+    }
+}
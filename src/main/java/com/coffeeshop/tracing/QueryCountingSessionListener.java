@@ -0,0 +1,34 @@
+package com.coffeeshop.tracing;
+
+import org.hibernate.SessionEventListener;
+
+/**
+ * Ghi số câu lệnh và thời gian thực thi JDBC của mỗi Session vào QueryStats.
+ * Hibernate tạo một instance cho mỗi Session (hibernate.session.events.auto), nên field không cần đồng bộ.
+ */
+public class QueryCountingSessionListener implements SessionEventListener {
+
+    private long statementStart;
+    private long batchStart;
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        statementStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        QueryStats.record(System.nanoTime() - statementStart);
+    }
+
+    // Một batch JDBC tính là một lượt gọi DB
+    @Override
+    public void jdbcExecuteBatchStart() {
+        batchStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        QueryStats.record(System.nanoTime() - batchStart);
+    }
+}
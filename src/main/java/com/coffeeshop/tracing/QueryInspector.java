@@ -0,0 +1,191 @@
+package com.coffeeshop.tracing;
+
+import com.coffeeshop.dto.admin.response.QueryFindingResponseDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletRequest;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Phát hiện N+1 và câu lệnh chậm trên mọi câu SQL đi qua Hibernate.
+ *
+ * - N+1: một câu SELECT giống hệt nhau (chỉ khác tham số) chạy từ nPlusOneThreshold lần trở lên
+ *   trong cùng một request, thường do duyệt danh sách rồi đọc quan hệ lazy của từng phần tử.
+ * - Câu lệnh chậm: một lần thực thi JDBC lâu hơn slowQueryThresholdMs, trong request hoặc job nền.
+ *
+ * Kết quả gộp theo (loại, endpoint, câu SQL), xem qua /api/admin/query-findings và metric
+ * coffeeshop.query.findings. Khi bật app.failOnNPlusOne (dùng cho test tích hợp), câu SELECT vượt
+ * ngưỡng bị chặn bằng NPlusOneQueryException thay vì chỉ ghi nhận.
+ *
+ * Đăng ký vào Hibernate làm StatementInspector qua HibernatePropertiesCustomizer, nên không được
+ * phụ thuộc vào bean JPA.
+ */
+@Component
+public class QueryInspector implements StatementInspector, HibernatePropertiesCustomizer {
+    private static final Logger logger = LoggerFactory.getLogger(QueryInspector.class);
+
+    public static final String N_PLUS_ONE = "N_PLUS_ONE";
+    public static final String SLOW_QUERY = "SLOW_QUERY";
+
+    private static final String BACKGROUND = "background";
+
+    @Value("${app.nPlusOneThreshold:5}")
+    private int nPlusOneThreshold;
+
+    @Value("${app.slowQueryThresholdMs:200}")
+    private long slowQueryThresholdMs;
+
+    @Value("${app.failOnNPlusOne:false}")
+    private boolean failOnNPlusOne;
+
+    @Value("${app.queryFindingsMax:500}")
+    private int maxFindings;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private Tracer tracer;
+
+    private record FindingKey(String type, String endpoint, String sql) {}
+
+    // Được bảo vệ bởi chính instance
+    private static final class Finding {
+        long occurrences;
+        int maxRepeats;
+        long maxNanos;
+        LocalDateTime lastSeenAt;
+        String lastTraceId;
+    }
+
+    private final Map<FindingKey, Finding> findings = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void init() {
+        QueryStats.configureSlowQuery(slowQueryThresholdMs * 1_000_000, this::onSlowQuery);
+    }
+
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR, this);
+    }
+
+    @Override
+    public String inspect(String sql) {
+        int repeats = QueryStats.prepared(sql);
+        if (failOnNPlusOne && repeats == nPlusOneThreshold) {
+            throw new NPlusOneQueryException("Câu SELECT chạy " + repeats + " lần trong " + currentEndpoint() + ": " + sql);
+        }
+        return sql;
+    }
+
+    /**
+     * Gọi khi request kết thúc với số lần chạy từng câu SELECT của request đó.
+     */
+    void requestCompleted(HttpServletRequest request, Map<String, Integer> selects) {
+        for (Map.Entry<String, Integer> entry : selects.entrySet()) {
+            if (entry.getValue() >= nPlusOneThreshold) {
+                String endpoint = endpoint(request);
+                logger.warn("N+1: câu SELECT chạy {} lần trong {}: {}", entry.getValue(), endpoint, entry.getKey());
+                report(N_PLUS_ONE, endpoint, entry.getKey(), entry.getValue(), 0);
+            }
+        }
+    }
+
+    private void onSlowQuery(String sql, long nanos) {
+        String endpoint = currentEndpoint();
+        logger.warn("Câu lệnh chậm {} ms trong {}: {}", nanos / 1_000_000, endpoint, sql);
+        report(SLOW_QUERY, endpoint, sql != null ? sql : "?", 0, nanos);
+    }
+
+    private void report(String type, String endpoint, String sql, int repeats, long nanos) {
+        FindingKey key = new FindingKey(type, endpoint, sql);
+        Finding finding = findings.get(key);
+        if (finding == null) {
+            // Giới hạn số mục để SQL sinh động (IN với số tham số khác nhau) không làm đầy bộ nhớ
+            if (findings.size() >= maxFindings) {
+                return;
+            }
+            finding = findings.computeIfAbsent(key, k -> new Finding());
+        }
+        Span span = tracer.currentSpan();
+        synchronized (finding) {
+            finding.occurrences++;
+            finding.maxRepeats = Math.max(finding.maxRepeats, repeats);
+            finding.maxNanos = Math.max(finding.maxNanos, nanos);
+            finding.lastSeenAt = LocalDateTime.now();
+            if (span != null) {
+                finding.lastTraceId = span.context().traceId();
+            }
+        }
+        Counter.builder("coffeeshop.query.findings")
+                .description("Số lần phát hiện N+1 hoặc câu lệnh chậm")
+                .tag("type", type)
+                .tag("endpoint", endpoint)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    public List<QueryFindingResponseDTO> getFindings() {
+        return findings.entrySet().stream()
+                .map(entry -> toResponseDTO(entry.getKey(), entry.getValue()))
+                .sorted(Comparator.comparing(QueryFindingResponseDTO::getLastSeenAt).reversed())
+                .toList();
+    }
+
+    public void clearFindings() {
+        findings.clear();
+    }
+
+    private QueryFindingResponseDTO toResponseDTO(FindingKey key, Finding finding) {
+        QueryFindingResponseDTO dto = new QueryFindingResponseDTO();
+        dto.setType(key.type());
+        dto.setEndpoint(key.endpoint());
+        dto.setSql(key.sql());
+        synchronized (finding) {
+            dto.setOccurrences(finding.occurrences);
+            if (N_PLUS_ONE.equals(key.type())) {
+                dto.setMaxRepeats(finding.maxRepeats);
+            } else {
+                dto.setMaxDurationMs(finding.maxNanos / 1_000_000.0);
+            }
+            dto.setLastSeenAt(finding.lastSeenAt);
+            dto.setLastTraceId(finding.lastTraceId);
+        }
+        return dto;
+    }
+
+    private static String currentEndpoint() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes instanceof ServletRequestAttributes servletAttributes) {
+            return endpoint(servletAttributes.getRequest());
+        }
+        return BACKGROUND;
+    }
+
+    // Dùng mẫu URL của handler (giống tag uri của http.server.requests) để số endpoint có giới hạn
+    private static String endpoint(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return request.getMethod() + " " + (pattern != null ? pattern : "UNMATCHED");
+    }
+}
@@ -0,0 +1,77 @@
+package com.coffeeshop.tracing;
+
+import com.coffeeshop.dto.admin.response.QueryReportResponseDTO;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Báo cáo truy vấn cho admin: số liệu Hibernate Statistics (cả hit/miss của second-level cache)
+ * kèm các phát hiện N+1/câu lệnh chậm của QueryInspector.
+ */
+@Service
+public class QueryReportService {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private QueryInspector queryInspector;
+
+    public QueryReportResponseDTO getReport() {
+        Statistics statistics = statistics();
+        QueryReportResponseDTO dto = new QueryReportResponseDTO();
+        dto.setStatisticsEnabled(statistics.isStatisticsEnabled());
+        dto.setStatisticsSince(LocalDateTime.ofInstant(statistics.getStart(), ZoneId.systemDefault()));
+        dto.setQueryExecutionCount(statistics.getQueryExecutionCount());
+        dto.setQueryExecutionMaxTimeMs(statistics.getQueryExecutionMaxTime());
+        dto.setSlowestQuery(statistics.getQueryExecutionMaxTimeQueryString());
+        dto.setPrepareStatementCount(statistics.getPrepareStatementCount());
+        dto.setEntityFetchCount(statistics.getEntityFetchCount());
+        dto.setCollectionFetchCount(statistics.getCollectionFetchCount());
+        dto.setSlowQueries(statistics.getSlowQueries());
+        dto.setQueryCacheHitCount(statistics.getQueryCacheHitCount());
+        dto.setQueryCacheMissCount(statistics.getQueryCacheMissCount());
+        dto.setCacheRegions(cacheRegions(statistics));
+        dto.setFindings(queryInspector.getFindings());
+        return dto;
+    }
+
+    // Bắt đầu một đợt đo mới, ví dụ trước khi chạy lại một kịch bản tải
+    public void reset() {
+        statistics().clear();
+        queryInspector.clearFindings();
+    }
+
+    private List<QueryReportResponseDTO.CacheRegionInfo> cacheRegions(Statistics statistics) {
+        List<QueryReportResponseDTO.CacheRegionInfo> regions = new ArrayList<>();
+        for (String name : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics region = statistics.getCacheRegionStatistics(name);
+            if (region == null) {
+                continue;
+            }
+            QueryReportResponseDTO.CacheRegionInfo info = new QueryReportResponseDTO.CacheRegionInfo();
+            info.setRegion(name);
+            info.setHitCount(region.getHitCount());
+            info.setMissCount(region.getMissCount());
+            info.setPutCount(region.getPutCount());
+            // JCache không cho biết số mục (NO_EXTENDED_STAT_SUPPORT_RETURN), để trống thay vì số âm
+            long elementCount = region.getElementCountInMemory();
+            info.setElementCount(elementCount >= 0 ? elementCount : null);
+            regions.add(info);
+        }
+        return regions;
+    }
+
+    private Statistics statistics() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+}
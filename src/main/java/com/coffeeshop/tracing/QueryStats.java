@@ -0,0 +1,93 @@
+package com.coffeeshop.tracing;
+
+import io.micrometer.tracing.Span;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * Bộ đếm câu lệnh SQL theo luồng: số câu lệnh và tổng thời gian thực thi JDBC, cộng dồn từ lúc luồng
+ * bắt đầu. Không bao giờ reset; span và request lấy hiệu giữa hai lần đọc để biết phần của mình.
+ *
+ * Trong một request (QueryCountFilter mở/đóng) còn đếm số lần chạy từng câu SELECT để
+ * QueryInspector phát hiện N+1.
+ *
+ * Chỉ tính câu lệnh chạy qua Hibernate (QueryInspector, QueryCountingSessionListener) trên chính luồng đó.
+ */
+public final class QueryStats {
+
+    // Tên attribute trên span
+    public static final String COUNT_TAG = "db.query.count";
+    public static final String TIME_TAG = "db.query.time_us";
+
+    private static final ThreadLocal<QueryStats> CURRENT = ThreadLocal.withInitial(QueryStats::new);
+
+    // Do QueryInspector đặt lúc khởi động
+    private static volatile long slowThresholdNanos = Long.MAX_VALUE;
+    private static volatile ObjLongConsumer<String> slowQueryHandler;
+
+    private long count;
+    private long nanos;
+    private String lastSql;                  // Câu lệnh vừa được prepare, chính là câu lệnh sắp thực thi
+    private Map<String, Integer> selects;    // Số lần chạy mỗi câu SELECT trong request; null ngoài request
+
+    private QueryStats() {}
+
+    public static QueryStats current() {
+        return CURRENT.get();
+    }
+
+    static void configureSlowQuery(long thresholdNanos, ObjLongConsumer<String> handler) {
+        slowThresholdNanos = thresholdNanos;
+        slowQueryHandler = handler;
+    }
+
+    // Trả về số lần câu SELECT này đã chạy trong request hiện tại (0 nếu không theo dõi)
+    static int prepared(String sql) {
+        QueryStats stats = CURRENT.get();
+        stats.lastSql = sql;
+        if (stats.selects == null || !isSelect(sql)) {
+            return 0;
+        }
+        return stats.selects.merge(sql, 1, Integer::sum);
+    }
+
+    static void record(long elapsedNanos) {
+        QueryStats stats = CURRENT.get();
+        stats.count++;
+        stats.nanos += elapsedNanos;
+        if (elapsedNanos >= slowThresholdNanos && slowQueryHandler != null) {
+            slowQueryHandler.accept(stats.lastSql, elapsedNanos);
+        }
+    }
+
+    void openRequest() {
+        selects = new HashMap<>();
+    }
+
+    Map<String, Integer> closeRequest() {
+        Map<String, Integer> result = selects != null ? selects : Map.of();
+        selects = null;
+        return result;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getNanos() {
+        return nanos;
+    }
+
+    // Gắn vào span phần câu lệnh phát sinh kể từ mốc (fromCount, fromNanos)
+    public void tagSince(Span span, long fromCount, long fromNanos) {
+        span.tag(COUNT_TAG, count - fromCount);
+        span.tag(TIME_TAG, (nanos - fromNanos) / 1_000);
+    }
+
+    private static boolean isSelect(String sql) {
+        String head = sql.stripLeading();
+        return head.regionMatches(true, 0, "select", 0, 6) || head.regionMatches(true, 0, "with", 0, 4);
+    }
+}
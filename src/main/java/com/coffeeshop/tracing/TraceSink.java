@@ -0,0 +1,232 @@
+package com.coffeeshop.tracing;
+
+import com.coffeeshop.dto.admin.response.TraceResponseDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Nơi nhận span đã kết thúc, thay cho collector: giữ các trace gần nhất trong bộ nhớ (xem qua
+ * /api/admin/traces) và, nếu đặt app.traceFile, ghi thêm mỗi span một dòng JSON vào file.
+ *
+ * Được gọi từ luồng export của OpenTelemetry (BatchSpanProcessor), không nằm trên luồng request;
+ * span xuất hiện ở đây sau tối đa management.tracing.opentelemetry.export.schedule-delay.
+ */
+@Component
+public class TraceSink implements SpanExporter {
+    private static final Logger logger = LoggerFactory.getLogger(TraceSink.class);
+
+    private static final AttributeKey<Long> QUERY_COUNT = AttributeKey.longKey(QueryStats.COUNT_TAG);
+    private static final AttributeKey<Long> QUERY_TIME = AttributeKey.longKey(QueryStats.TIME_TAG);
+    private static final AttributeKey<String> LAYER = AttributeKey.stringKey("layer");
+
+    // Số trace còn dở (chưa nhận span gốc) tối đa, để span mồ côi không làm đầy bộ nhớ
+    private static final int MAX_PENDING_TRACES = 1000;
+
+    @Value("${app.traceBufferSize:200}")
+    private int bufferSize;
+
+    @Value("${app.traceFile:}")
+    private String traceFile;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    // Các trường dưới đây được bảo vệ bởi this
+    private final Map<String, List<SpanData>> pending = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, List<SpanData>> eldest) {
+            return size() > MAX_PENDING_TRACES;
+        }
+    };
+    private final Deque<List<SpanData>> recent = new ArrayDeque<>();   // Mỗi phần tử là một trace, span gốc đứng đầu
+    private BufferedWriter writer;
+
+    @PostConstruct
+    void openFile() throws IOException {
+        if (!traceFile.isBlank()) {
+            writer = Files.newBufferedWriter(Path.of(traceFile), StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            logger.info("Ghi trace vào {}", traceFile);
+        }
+    }
+
+    @Override
+    public synchronized CompletableResultCode export(Collection<SpanData> spans) {
+        for (SpanData span : spans) {
+            if (isRoot(span)) {
+                List<SpanData> trace = new ArrayList<>();
+                trace.add(span);
+                List<SpanData> children = pending.remove(span.getTraceId());
+                if (children != null) {
+                    trace.addAll(children);
+                }
+                // Lượt chạy job không đụng DB (phần lớn các lượt poll) không giữ lại, để không đẩy trace request ra khỏi bộ đệm
+                if (span.getKind() != SpanKind.SERVER && total(trace, QUERY_COUNT) == 0) {
+                    continue;
+                }
+                recent.addFirst(trace);
+                while (recent.size() > bufferSize) {
+                    recent.removeLast();
+                }
+            } else {
+                pending.computeIfAbsent(span.getTraceId(), id -> new ArrayList<>()).add(span);
+            }
+        }
+        if (writer != null) {
+            try {
+                for (SpanData span : spans) {
+                    writer.write(objectMapper.writeValueAsString(toJson(span)));
+                    writer.newLine();
+                }
+                writer.flush();
+            } catch (IOException e) {
+                logger.warn("Không ghi được trace vào {}: {}", traceFile, e.getMessage());
+                return CompletableResultCode.ofFailure();
+            }
+        }
+        return CompletableResultCode.ofSuccess();
+    }
+
+    @Override
+    public CompletableResultCode flush() {
+        return CompletableResultCode.ofSuccess();
+    }
+
+    // Được gọi cả khi SDK đóng lẫn khi Spring hủy bean
+    @Override
+    public synchronized CompletableResultCode shutdown() {
+        if (writer != null) {
+            try {
+                writer.close();
+            } catch (IOException e) {
+                logger.warn("Không đóng được file trace: {}", e.getMessage());
+            }
+            writer = null;
+        }
+        return CompletableResultCode.ofSuccess();
+    }
+
+    /**
+     * Các trace gần nhất, mới nhất trước; chỉ lấy trace có ít nhất minQueries câu lệnh SQL.
+     */
+    public List<TraceResponseDTO> getRecent(int limit, long minQueries) {
+        List<TraceResponseDTO> result = new ArrayList<>();
+        synchronized (this) {
+            Iterator<List<SpanData>> iterator = recent.iterator();
+            while (iterator.hasNext() && result.size() < limit) {
+                List<SpanData> trace = iterator.next();
+                if (total(trace, QUERY_COUNT) >= minQueries) {
+                    result.add(toResponseDTO(trace));
+                }
+            }
+        }
+        return result;
+    }
+
+    public synchronized Optional<TraceResponseDTO> getTrace(String traceId) {
+        return recent.stream()
+                .filter(trace -> trace.get(0).getTraceId().equals(traceId))
+                .findFirst()
+                .map(this::toResponseDTO);
+    }
+
+    // Span gốc của request/job; span có cha ở tiến trình khác (header traceparent) cũng là gốc ở đây
+    private static boolean isRoot(SpanData span) {
+        return !span.getParentSpanContext().isValid() || span.getParentSpanContext().isRemote();
+    }
+
+    private TraceResponseDTO toResponseDTO(List<SpanData> trace) {
+        SpanData root = trace.get(0);
+        TraceResponseDTO dto = new TraceResponseDTO();
+        dto.setTraceId(root.getTraceId());
+        dto.setName(root.getName());
+        dto.setStartedAt(LocalDateTime.ofInstant(Instant.ofEpochSecond(0, root.getStartEpochNanos()), ZoneId.systemDefault()));
+        dto.setDurationMs(millis(root.getEndEpochNanos() - root.getStartEpochNanos()));
+        dto.setQueryCount(total(trace, QUERY_COUNT));
+        dto.setQueryTimeMs(total(trace, QUERY_TIME) / 1_000.0);
+        dto.setSpans(trace.stream()
+                .sorted(Comparator.comparingLong(SpanData::getStartEpochNanos))
+                .map(span -> {
+                    TraceResponseDTO.SpanInfo info = new TraceResponseDTO.SpanInfo();
+                    info.setSpanId(span.getSpanId());
+                    info.setParentSpanId(span == root ? null : span.getParentSpanId());
+                    info.setName(span.getName());
+                    info.setLayer(span.getAttributes().get(LAYER));
+                    info.setOffsetMs(millis(span.getStartEpochNanos() - root.getStartEpochNanos()));
+                    info.setDurationMs(millis(span.getEndEpochNanos() - span.getStartEpochNanos()));
+                    info.setQueryCount(longAttribute(span, QUERY_COUNT));
+                    info.setQueryTimeMs(longAttribute(span, QUERY_TIME) / 1_000.0);
+                    info.setError(span.getStatus().getStatusCode() == StatusCode.ERROR);
+                    return info;
+                })
+                .toList());
+        return dto;
+    }
+
+    private static Map<String, Object> toJson(SpanData span) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("traceId", span.getTraceId());
+        json.put("spanId", span.getSpanId());
+        json.put("parentSpanId", span.getParentSpanContext().isValid() ? span.getParentSpanId() : null);
+        json.put("name", span.getName());
+        json.put("kind", span.getKind().name());
+        json.put("startEpochNanos", span.getStartEpochNanos());
+        json.put("durationMicros", (span.getEndEpochNanos() - span.getStartEpochNanos()) / 1_000);
+        json.put("status", span.getStatus().getStatusCode().name());
+        Map<String, Object> attributes = new LinkedHashMap<>();
+        span.getAttributes().forEach((key, value) -> attributes.put(key.getKey(), value));
+        json.put("attributes", attributes);
+        return json;
+    }
+
+    // Span HTTP được QueryCountFilter gắn tổng của cả request; span job thì cộng từ các span con trực tiếp
+    private static long total(List<SpanData> trace, AttributeKey<Long> key) {
+        SpanData root = trace.get(0);
+        Long value = root.getAttributes().get(key);
+        if (value != null) {
+            return value;
+        }
+        return trace.stream()
+                .filter(span -> span != root && span.getParentSpanId().equals(root.getSpanId()))
+                .mapToLong(span -> longAttribute(span, key))
+                .sum();
+    }
+
+    private static long longAttribute(SpanData span, AttributeKey<Long> key) {
+        Long value = span.getAttributes().get(key);
+        return value != null ? value : 0L;
+    }
+
+    private static double millis(long nanos) {
+        return Math.round(nanos / 10_000.0) / 100.0;
+    }
+}
@@ -0,0 +1,85 @@
+package com.coffeeshop.tracing;
+
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tạo span con cho mỗi lời gọi controller, service và repository trong một request (hoặc một lượt
+ * chạy job @Scheduled), kèm số câu lệnh SQL và thời gian DB phát sinh bên trong lời gọi đó.
+ *
+ * Chỉ tạo span khi đã có span cha (span HTTP server hoặc span của job), để lời gọi lúc khởi động
+ * hay từ luồng nền không sinh ra các trace lẻ. Chạy ngoài cùng (trước @Transactional) để thời gian
+ * span tính cả commit.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class TracingAspect {
+
+    @Autowired
+    private Tracer tracer;
+
+    // Tên lớp hiển thị theo lớp thực (service, controller) hoặc interface repository của proxy
+    private final Map<Class<?>, String> names = new ConcurrentHashMap<>();
+
+    @Around("@within(org.springframework.web.bind.annotation.RestController) && within(com.coffeeshop.controller..*)")
+    public Object traceController(ProceedingJoinPoint joinPoint) throws Throwable {
+        return trace(joinPoint, "controller");
+    }
+
+    @Around("@within(org.springframework.stereotype.Service) && within(com.coffeeshop.service..*)")
+    public Object traceService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return trace(joinPoint, "service");
+    }
+
+    @Around("execution(* org.springframework.data.repository.Repository+.*(..))")
+    public Object traceRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        return trace(joinPoint, "repository");
+    }
+
+    private Object trace(ProceedingJoinPoint joinPoint, String layer) throws Throwable {
+        if (tracer.currentSpan() == null) {
+            return joinPoint.proceed();
+        }
+        Span span = tracer.nextSpan()
+                .name(className(joinPoint.getThis(), layer) + "." + joinPoint.getSignature().getName())
+                .tag("layer", layer)
+                .start();
+        QueryStats stats = QueryStats.current();
+        long fromCount = stats.getCount();
+        long fromNanos = stats.getNanos();
+        try (Tracer.SpanInScope ignored = tracer.withSpan(span)) {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            span.error(e);
+            throw e;
+        } finally {
+            stats.tagSince(span, fromCount, fromNanos);
+            span.end();
+        }
+    }
+
+    private String className(Object proxy, String layer) {
+        return names.computeIfAbsent(proxy.getClass(), type -> {
+            if ("repository".equals(layer)) {
+                Class<?>[] interfaces = AopProxyUtils.proxiedUserInterfaces(proxy);
+                if (interfaces.length > 0) {
+                    return interfaces[0].getSimpleName();
+                }
+            }
+            return AopUtils.getTargetClass(proxy).getSimpleName();
+        });
+    }
+}
@@ -0,0 +1,62 @@
+-- Chuyển DB MySQL một cửa hàng sang nhiều chi nhánh: mọi dữ liệu hiện có thuộc chi nhánh 1 (MAIN).
+-- Chạy một lần, khi ứng dụng đã dừng, trước khi khởi động bản có cột branch_id.
+
+CREATE TABLE IF NOT EXISTS branches (
+    id INT NOT NULL AUTO_INCREMENT PRIMARY KEY,
+    code VARCHAR(30) NOT NULL UNIQUE,
+    name VARCHAR(100) NOT NULL,
+    address VARCHAR(255),
+    is_active BIT NOT NULL,
+    created_at DATETIME(6) NOT NULL,
+    updated_at DATETIME(6) NOT NULL
+);
+INSERT INTO branches (id, code, name, is_active, created_at, updated_at)
+SELECT 1, 'MAIN', 'Chi nhánh chính', 1, NOW(), NOW() FROM DUAL
+WHERE NOT EXISTS (SELECT 1 FROM branches WHERE id = 1);
+
+ALTER TABLE categories ADD COLUMN branch_id INT NOT NULL DEFAULT 1;
+ALTER TABLE products ADD COLUMN branch_id INT NOT NULL DEFAULT 1;
+ALTER TABLE tables ADD COLUMN branch_id INT NOT NULL DEFAULT 1;
+ALTER TABLE orders ADD COLUMN branch_id INT NOT NULL DEFAULT 1;
+ALTER TABLE order_items ADD COLUMN branch_id INT NOT NULL DEFAULT 1;
+ALTER TABLE payments ADD COLUMN branch_id INT NOT NULL DEFAULT 1;
+ALTER TABLE reservations ADD COLUMN branch_id INT NOT NULL DEFAULT 1;
+ALTER TABLE waitlist_entries ADD COLUMN branch_id INT NOT NULL DEFAULT 1;
+ALTER TABLE outbox_events ADD COLUMN branch_id INT NOT NULL DEFAULT 1;
+-- Nhân viên chưa gán chi nhánh (NULL) làm việc được ở mọi chi nhánh
+ALTER TABLE users ADD COLUMN branch_id INT NULL;
+
+-- settings: khoá chính setting_key thay bằng id, mỗi chi nhánh một bộ cài đặt
+ALTER TABLE settings DROP PRIMARY KEY,
+    ADD COLUMN id INT NOT NULL AUTO_INCREMENT PRIMARY KEY FIRST,
+    ADD COLUMN branch_id INT NOT NULL DEFAULT 1,
+    ADD CONSTRAINT uk_settings_branch_key UNIQUE (branch_id, setting_key);
+
+-- Số bàn chỉ cần duy nhất trong một chi nhánh. Tên unique cũ trên riêng table_number do Hibernate sinh
+-- (UK_...) nên được tra trong information_schema; không có thì bỏ qua
+SET @old_table_number_index = (
+    SELECT INDEX_NAME FROM information_schema.STATISTICS
+    WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'tables' AND NON_UNIQUE = 0 AND INDEX_NAME <> 'PRIMARY'
+    GROUP BY INDEX_NAME
+    HAVING COUNT(*) = 1 AND MAX(COLUMN_NAME) = 'table_number'
+    LIMIT 1);
+SET @drop_old_table_number_index = IF(@old_table_number_index IS NULL, 'DO 0',
+    CONCAT('ALTER TABLE tables DROP INDEX `', @old_table_number_index, '`'));
+PREPARE drop_old_table_number_index FROM @drop_old_table_number_index;
+EXECUTE drop_old_table_number_index;
+DEALLOCATE PREPARE drop_old_table_number_index;
+ALTER TABLE tables ADD CONSTRAINT uk_tables_branch_number UNIQUE (branch_id, table_number);
+
+-- Index mới bắt đầu bằng branch_id; index cũ không còn được dùng
+CREATE INDEX idx_orders_branch_status_created ON orders (branch_id, status, created_at);
+CREATE INDEX idx_orders_branch_status_updated ON orders (branch_id, status, updated_at);
+CREATE INDEX idx_reservations_branch_status_datetime ON reservations (branch_id, status, reservation_datetime);
+CREATE INDEX idx_waitlist_branch_status_created ON waitlist_entries (branch_id, status, created_at);
+CREATE INDEX idx_waitlist_branch_customer_status ON waitlist_entries (branch_id, customer_id, status);
+CREATE INDEX idx_products_branch_category ON products (branch_id, category_id);
+CREATE INDEX idx_categories_branch_order ON categories (branch_id, display_order);
+DROP INDEX idx_orders_status_created ON orders;
+DROP INDEX idx_orders_status_updated ON orders;
+DROP INDEX idx_reservations_status_datetime ON reservations;
+DROP INDEX idx_waitlist_status_created ON waitlist_entries;
+DROP INDEX idx_waitlist_customer_status ON waitlist_entries;